@@ -0,0 +1,17 @@
+package net.javaguides.banking.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * 反應式帳戶 API：與 banking-app 使用同一個資料庫與 DTO，以 WebFlux + R2DBC 處理請求，
+ * 等待資料庫或慢速客戶端時不佔用執行緒。
+ */
+@SpringBootApplication
+public class BankingReactiveApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(BankingReactiveApplication.class, args);
+	}
+
+}
@@ -0,0 +1,59 @@
+package net.javaguides.banking.reactive.cache;
+
+import net.javaguides.banking.reactive.entity.Account;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 帳戶異動時寫入 cache_invalidations，讓以 database 匯流排部署的 banking-app 節點清除二級快取與餘額鏡像。
+ * 在呼叫端的交易內寫入，與帳戶異動一起提交或回滾。banking-app 使用 memory 匯流排時不寫入。
+ */
+@Component
+public class CacheInvalidationPublisher {
+
+    private static final String INSERT = """
+            INSERT INTO cache_invalidations (event_type, entity_id, version, owner_id, origin_node, created_at)
+            VALUES (:eventType, :entityId, :version, :ownerId, :originNode, :createdAt)""";
+
+    private final DatabaseClient databaseClient;
+
+    private final boolean enabled;
+
+    private final String nodeId;
+
+    public CacheInvalidationPublisher(DatabaseClient databaseClient,
+                                      @Value("${spring.app.cacheInvalidationBus:memory}") String bus,
+                                      @Value("${spring.app.nodeId:}") String nodeId) {
+        this.databaseClient = databaseClient;
+        this.enabled = "database".equalsIgnoreCase(bus);
+        this.nodeId = StringUtils.hasText(nodeId) ? nodeId : UUID.randomUUID().toString();
+    }
+
+    public Mono<Void> accountUpdated(Account account) {
+        return insert("ACCOUNT_UPDATED", account.getId(), account.getVersion(), account.getUserId());
+    }
+
+    public Mono<Void> accountDeleted(Long accountId) {
+        return insert("ACCOUNT_DELETED", accountId, 0L, 0L);
+    }
+
+    private Mono<Void> insert(String eventType, long entityId, long version, long ownerId) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        return databaseClient.sql(INSERT)
+                .bind("eventType", eventType)
+                .bind("entityId", entityId)
+                .bind("version", version)
+                .bind("ownerId", ownerId)
+                .bind("originNode", nodeId)
+                .bind("createdAt", LocalDateTime.now())
+                .then();
+    }
+}
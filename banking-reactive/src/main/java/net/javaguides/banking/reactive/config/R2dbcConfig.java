@@ -0,0 +1,46 @@
+package net.javaguides.banking.reactive.config;
+
+import io.r2dbc.spi.ConnectionFactory;
+import net.javaguides.banking.money.Money;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+
+import java.util.List;
+
+/**
+ * 與 banking-app 的 MoneyConverter 相同：Money 以分為單位存成 BIGINT (accounts.balance_minor)。
+ */
+@Configuration
+public class R2dbcConfig {
+
+    @Bean
+    public R2dbcCustomConversions r2dbcCustomConversions(ConnectionFactory connectionFactory) {
+        return R2dbcCustomConversions.of(DialectResolver.getDialect(connectionFactory),
+                List.of(MoneyWritingConverter.INSTANCE, MoneyReadingConverter.INSTANCE));
+    }
+
+    @WritingConverter
+    enum MoneyWritingConverter implements Converter<Money, Long> {
+        INSTANCE;
+
+        @Override
+        public Long convert(Money source) {
+            return source.minorUnits();
+        }
+    }
+
+    @ReadingConverter
+    enum MoneyReadingConverter implements Converter<Long, Money> {
+        INSTANCE;
+
+        @Override
+        public Money convert(Long source) {
+            return Money.ofMinor(source);
+        }
+    }
+}
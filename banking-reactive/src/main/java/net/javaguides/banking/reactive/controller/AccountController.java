@@ -0,0 +1,145 @@
+package net.javaguides.banking.reactive.controller;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import net.javaguides.banking.dto.AccountDto;
+import net.javaguides.banking.dto.AmountRequestDto;
+import net.javaguides.banking.dto.BalanceDto;
+import net.javaguides.banking.dto.PageResponseDTO;
+import net.javaguides.banking.dto.TransactionDTO;
+import net.javaguides.banking.dto.TransferFundDTO;
+import net.javaguides.banking.reactive.security.AuthenticatedUser;
+import net.javaguides.banking.reactive.service.AccountService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * 與 banking-app 的 AccountController 相同的路徑、參數、回應格式與 ETag 規則。
+ */
+@Validated
+@RestController
+@RequestMapping("/api/accounts")
+public class AccountController {
+
+    private final AccountService accountService;
+
+    public AccountController(AccountService accountService) {
+        this.accountService = accountService;
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('USER')")
+    public Mono<ResponseEntity<AccountDto>> addAccount(@Valid @RequestBody AccountDto accountDto,
+                                                       @AuthenticationPrincipal AuthenticatedUser caller) {
+        return accountService.createAccount(accountDto, caller)
+                .map(account -> ResponseEntity.status(HttpStatus.CREATED).body(account));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<AccountDto>> getAccountById(@PathVariable Long id,
+                                                           @AuthenticationPrincipal AuthenticatedUser caller,
+                                                           ServerWebExchange exchange) {
+        // 先取得版本號再載入帳戶，與 banking-app 相同：兩者之間若有更新，ETag 只會比內容舊
+        return accountService.getAccountVersion(id, caller)
+                .map(AccountController::accountETag)
+                .map(eTag -> exchange.checkNotModified(eTag)
+                        ? Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).<AccountDto>build())
+                        : accountService.getAccountById(id, caller).map(account -> ResponseEntity.ok().eTag(eTag).body(account)))
+                .defaultIfEmpty(Mono.defer(() -> accountService.getAccountById(id, caller).map(ResponseEntity::ok)))
+                .flatMap(response -> response);
+    }
+
+    @GetMapping("/{id}/balance")
+    public Mono<ResponseEntity<BalanceDto>> getAccountBalance(@PathVariable Long id,
+                                                              @AuthenticationPrincipal AuthenticatedUser caller) {
+        return accountService.getAccountBalance(id, caller).map(ResponseEntity::ok);
+    }
+
+    @PutMapping("/{id}/deposit")
+    public Mono<ResponseEntity<AccountDto>> deposit(@PathVariable Long id,
+                                                    @Valid @RequestBody AmountRequestDto amountRequestDto,
+                                                    @AuthenticationPrincipal AuthenticatedUser caller) {
+        return accountService.deposit(id, amountRequestDto.amount(), caller).map(ResponseEntity::ok);
+    }
+
+    @PutMapping("/{id}/withdraw")
+    public Mono<ResponseEntity<AccountDto>> withdraw(@PathVariable Long id,
+                                                     @Valid @RequestBody AmountRequestDto amountRequestDto,
+                                                     @AuthenticationPrincipal AuthenticatedUser caller) {
+        return accountService.withdraw(id, amountRequestDto.amount(), caller).map(ResponseEntity::ok);
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<PageResponseDTO<AccountDto>>> getAllAccounts(@RequestParam(defaultValue = "0") @Min(0) int pageNo,
+                                                                            @RequestParam(defaultValue = "3") @Min(1) @Max(100) int pageSize,
+                                                                            @RequestParam(defaultValue = "id") String sortBy,
+                                                                            @RequestParam(defaultValue = "asc") String sortDir) {
+        Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
+        Pageable pageable = PageRequest.of(pageNo, pageSize, sort);
+        return accountService.getAllAccounts(pageable).map(page -> ResponseEntity.ok(toPageResponse(page)));
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<String>> deleteById(@PathVariable Long id) {
+        return accountService.deleteAccount(id).thenReturn(ResponseEntity.ok("Account deleted successfully"));
+    }
+
+    @PostMapping("/transfer")
+    public Mono<ResponseEntity<String>> transferFund(@Valid @RequestBody TransferFundDTO transferFundDTO,
+                                                     @AuthenticationPrincipal AuthenticatedUser caller) {
+        return accountService.transferFunds(transferFundDTO, caller).thenReturn(ResponseEntity.ok("transfer successful"));
+    }
+
+    @GetMapping("/{id}/transactions")
+    public Mono<ResponseEntity<PageResponseDTO<TransactionDTO>>> fetchAccountTransactions(@PathVariable Long id,
+                                                                                          @RequestParam(defaultValue = "0") @Min(0) int pageNo,
+                                                                                          @RequestParam(defaultValue = "3") @Min(1) @Max(100) int pageSize,
+                                                                                          @AuthenticationPrincipal AuthenticatedUser caller,
+                                                                                          ServerWebExchange exchange) {
+        Pageable pageable = PageRequest.of(pageNo, pageSize);
+        Mono<ResponseEntity<PageResponseDTO<TransactionDTO>>> full = accountService.getAccountTransactions(id, pageable, caller)
+                .map(page -> ResponseEntity.ok(toPageResponse(page)));
+        if (pageNo != 0) {
+            return full;
+        }
+        // 只有第一頁會因新交易而變動，以最新交易 ID 與頁面大小作為 ETag
+        return accountService.getLatestTransactionId(id, caller)
+                .map(latestId -> transactionsETag(latestId, pageSize))
+                .map(eTag -> exchange.checkNotModified(eTag)
+                        ? Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).<PageResponseDTO<TransactionDTO>>build())
+                        : full.map(response -> ResponseEntity.ok().eTag(eTag).body(response.getBody())))
+                .defaultIfEmpty(full)
+                .flatMap(response -> response);
+    }
+
+    private static <T> PageResponseDTO<T> toPageResponse(Page<T> page) {
+        return new PageResponseDTO<>(
+                page.getContent(),
+                page.getNumber(),
+                page.getSize(),
+                page.getTotalElements(),
+                page.getTotalPages(),
+                page.isLast());
+    }
+
+    private static String accountETag(Long version) {
+        return "W/\"" + version + "\"";
+    }
+
+    private static String transactionsETag(Long latestTransactionId, int pageSize) {
+        return "W/\"tx-" + latestTransactionId + "-" + pageSize + "\"";
+    }
+}
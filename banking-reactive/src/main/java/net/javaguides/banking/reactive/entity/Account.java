@@ -0,0 +1,37 @@
+package net.javaguides.banking.reactive.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import net.javaguides.banking.money.Money;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * 對應 banking-app 的 accounts 資料表 (由 Flyway 遷移建立)，擁有者只保留 user_id 欄位。
+ */
+@Table("accounts")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class Account {
+
+    @Id
+    private Long id;
+
+    private String accountHolderName;
+
+    // 以分為單位存成 BIGINT，轉換見 R2dbcConfig
+    @Column("balance_minor")
+    private Money balance;
+
+    private Long userId;
+
+    // 與 JPA 端共用同一個版本欄位，兩邊的樂觀鎖互相有效
+    @Version
+    private Long version;
+}
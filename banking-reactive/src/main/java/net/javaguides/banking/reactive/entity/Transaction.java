@@ -0,0 +1,31 @@
+package net.javaguides.banking.reactive.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import net.javaguides.banking.enums.TransactionType;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Table("transactions")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class Transaction {
+
+    @Id
+    private Long id;
+
+    private Long accountId;
+
+    private BigDecimal amount;
+
+    private TransactionType transactionType;
+
+    private LocalDateTime timestamp;
+}
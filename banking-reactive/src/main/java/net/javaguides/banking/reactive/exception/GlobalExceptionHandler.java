@@ -0,0 +1,103 @@
+package net.javaguides.banking.reactive.exception;
+
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import jakarta.validation.ConstraintViolationException;
+import net.javaguides.banking.exception.AccountException;
+import net.javaguides.banking.exception.AccountNotFoundException;
+import net.javaguides.banking.exception.ErrorDetails;
+import net.javaguides.banking.exception.InsufficientAmountException;
+import net.javaguides.banking.money.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 與 banking-app 的 GlobalExceptionHandler 相同的狀態碼、errorCode 與回應格式。
+ */
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Map<String, String>> handleBindException(WebExchangeBindException ex) {
+        Map<String, String> errors = new HashMap<>();
+        ex.getBindingResult().getAllErrors().forEach(error -> {
+            String fieldName = error instanceof FieldError fieldError ? fieldError.getField() : error.getObjectName();
+            errors.put(fieldName, error.getDefaultMessage());
+        });
+        logger.warn("Validation error occurred: {}", errors);
+        return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<ErrorDetails> handleConstraintViolationException(ConstraintViolationException exception, ServerWebExchange exchange) {
+        return error(exception, exchange, "VALIDATION_FAILED", HttpStatus.BAD_REQUEST);
+    }
+
+    // 金額小數超過 2 位或超出範圍 (MoneyJsonDeserializer)；其餘無法解析的請求維持 WebFlux 預設的 400 回應
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<?> handleServerWebInputException(ServerWebInputException exception, ServerWebExchange exchange) {
+        for (Throwable cause = exception.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof InvalidFormatException formatException && formatException.getTargetType() == Money.class) {
+                String details = "uri=" + exchange.getRequest().getPath().value();
+                logger.warn("Invalid amount: {}", formatException.getValue());
+                return new ResponseEntity<>(new ErrorDetails(LocalDateTime.now(), formatException.getOriginalMessage(), details, "INVALID_AMOUNT"), HttpStatus.BAD_REQUEST);
+            }
+        }
+        return ResponseEntity.status(exception.getStatusCode()).body(exception.getBody());
+    }
+
+    // 餘額加減溢位 (Money 使用 Math.addExact / subtractExact)
+    @ExceptionHandler(ArithmeticException.class)
+    public ResponseEntity<ErrorDetails> handleArithmeticException(ArithmeticException exception, ServerWebExchange exchange) {
+        return error(new IllegalArgumentException("Amount exceeds the supported range", exception), exchange, "INVALID_AMOUNT", HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<ErrorDetails> handleAccessDeniedException(AccessDeniedException exception, ServerWebExchange exchange) {
+        return error(exception, exchange, "ACCESS_DENIED", HttpStatus.FORBIDDEN);
+    }
+
+    @ExceptionHandler(AccountNotFoundException.class)
+    public ResponseEntity<ErrorDetails> handleAccountNotFoundException(AccountNotFoundException exception, ServerWebExchange exchange) {
+        return error(exception, exchange, "ACCOUNT_NOT_FOUND", HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(InsufficientAmountException.class)
+    public ResponseEntity<ErrorDetails> handleInsufficientAmountException(InsufficientAmountException exception, ServerWebExchange exchange) {
+        return error(exception, exchange, "INSUFFICIENT_AMOUNT", HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(AccountException.class)
+    public ResponseEntity<ErrorDetails> handleAccountException(AccountException exception, ServerWebExchange exchange) {
+        return error(exception, exchange, "INVALID_ACCOUNT_OPERATION", HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ErrorDetails> handleGenericException(Exception exception, ServerWebExchange exchange) {
+        logger.error("unexprted error occur:{}", exception.getMessage(), exception);
+        return error(exception, exchange, "INTERNAL_SERVER_ERROR", HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    private static ResponseEntity<ErrorDetails> error(Exception exception, ServerWebExchange exchange, String errorCode, HttpStatus status) {
+        if (status.is4xxClientError()) {
+            logger.warn("Handling {}: {}", exception.getClass().getSimpleName(), exception.getMessage());
+        }
+        // 與 WebRequest.getDescription(false) 相同的格式
+        String details = "uri=" + exchange.getRequest().getPath().value();
+        return new ResponseEntity<>(new ErrorDetails(LocalDateTime.now(), exception.getMessage(), details, errorCode), status);
+    }
+}
@@ -0,0 +1,24 @@
+package net.javaguides.banking.reactive.mapper;
+
+import net.javaguides.banking.dto.AccountDto;
+import net.javaguides.banking.dto.TransactionDTO;
+import net.javaguides.banking.reactive.entity.Account;
+import net.javaguides.banking.reactive.entity.Transaction;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AccountMapper {
+
+    public AccountDto mapTOAccountDto(Account account) {
+        return new AccountDto(account.getId(), account.getAccountHolderName(), account.getBalance());
+    }
+
+    public TransactionDTO mapTOTransactionDto(Transaction transaction) {
+        return new TransactionDTO(
+                transaction.getId(),
+                transaction.getAccountId(),
+                transaction.getAmount(),
+                transaction.getTransactionType(),
+                transaction.getTimestamp());
+    }
+}
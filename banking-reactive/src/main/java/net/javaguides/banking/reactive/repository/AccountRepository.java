@@ -0,0 +1,38 @@
+package net.javaguides.banking.reactive.repository;
+
+import net.javaguides.banking.reactive.entity.Account;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface AccountRepository extends R2dbcRepository<Account, Long> {
+
+    Flux<Account> findAllBy(Pageable pageable);
+
+    @Query("SELECT * FROM accounts WHERE id = :id AND user_id = :userId")
+    Mono<Account> findByIdAndOwner(Long id, Long userId);
+
+    @Query("SELECT * FROM accounts WHERE id = :id FOR UPDATE")
+    Mono<Account> findByIdForUpdate(Long id);
+
+    @Query("SELECT version FROM accounts WHERE id = :id")
+    Mono<Long> findVersionById(Long id);
+
+    @Query("SELECT version FROM accounts WHERE id = :id AND user_id = :userId")
+    Mono<Long> findVersionByIdAndOwner(Long id, Long userId);
+
+    Mono<Boolean> existsByIdAndUserId(Long id, Long userId);
+
+    // 單一 UPDATE 完成存款並遞增版本：不需先讀取再寫回，也就沒有樂觀鎖衝突要重試；金額以分為單位
+    @Modifying
+    @Query("UPDATE accounts SET balance_minor = balance_minor + :amountMinor, version = version + 1 WHERE id = :id AND user_id = :userId")
+    Mono<Integer> depositAsOwner(Long id, Long userId, long amountMinor);
+
+    // 餘額不足時不更新 (影響 0 筆)，由呼叫端判斷原因
+    @Modifying
+    @Query("UPDATE accounts SET balance_minor = balance_minor - :amountMinor, version = version + 1 WHERE id = :id AND user_id = :userId AND balance_minor >= :amountMinor")
+    Mono<Integer> withdrawAsOwner(Long id, Long userId, long amountMinor);
+}
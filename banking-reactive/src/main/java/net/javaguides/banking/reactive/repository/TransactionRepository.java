@@ -0,0 +1,19 @@
+package net.javaguides.banking.reactive.repository;
+
+import net.javaguides.banking.reactive.entity.Transaction;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface TransactionRepository extends R2dbcRepository<Transaction, Long> {
+
+    Flux<Transaction> findByAccountIdOrderByTimestampDesc(Long accountId, Pageable pageable);
+
+    Mono<Long> countByAccountId(Long accountId);
+
+    // 與 banking-app 相同，以最新一筆交易 ID 作為交易列表第一頁的 ETag
+    @Query("SELECT id FROM transactions WHERE account_id = :accountId ORDER BY id DESC LIMIT 1")
+    Mono<Long> findLatestIdByAccountId(Long accountId);
+}
@@ -0,0 +1,37 @@
+package net.javaguides.banking.reactive.repository;
+
+import net.javaguides.banking.reactive.security.AuthenticatedUser;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * 只讀取驗證與建立帳戶所需的使用者欄位；使用者的註冊與維護仍由 banking-app 負責。
+ */
+@Repository
+public class UserRepository {
+
+    private static final String FIND_BY_USERNAME = """
+            SELECT u.user_id, u.username, u.real_name, r.role_name, u.enabled, u.account_non_locked
+            FROM users u JOIN roles r ON r.role_id = u.role_id
+            WHERE u.username = :username""";
+
+    private final DatabaseClient databaseClient;
+
+    public UserRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<AuthenticatedUser> findAuthenticatedUser(String username) {
+        return databaseClient.sql(FIND_BY_USERNAME)
+                .bind("username", username)
+                .map((row, metadata) -> new AuthenticatedUser(
+                        row.get("user_id", Long.class),
+                        row.get("username", String.class),
+                        row.get("real_name", String.class),
+                        row.get("role_name", String.class),
+                        Boolean.TRUE.equals(row.get("enabled", Boolean.class)),
+                        Boolean.TRUE.equals(row.get("account_non_locked", Boolean.class))))
+                .one();
+    }
+}
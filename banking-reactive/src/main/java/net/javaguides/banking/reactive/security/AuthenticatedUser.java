@@ -0,0 +1,27 @@
+package net.javaguides.banking.reactive.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+/**
+ * 已驗證的使用者 (SecurityContext 的 principal)。role 為 banking-app 的 AppRole 名稱，例如 ROLE_USER。
+ */
+public record AuthenticatedUser(Long id,
+                                String username,
+                                String realName,
+                                String role,
+                                boolean enabled,
+                                boolean accountNonLocked) {
+
+    private static final String ROLE_ADMIN = "ROLE_ADMIN";
+
+    public List<GrantedAuthority> authorities() {
+        return List.of(new SimpleGrantedAuthority(role));
+    }
+
+    public boolean isAdmin() {
+        return ROLE_ADMIN.equals(role);
+    }
+}
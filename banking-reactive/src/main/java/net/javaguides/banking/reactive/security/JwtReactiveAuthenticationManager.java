@@ -0,0 +1,50 @@
+package net.javaguides.banking.reactive.security;
+
+import io.jsonwebtoken.Claims;
+import net.javaguides.banking.reactive.repository.UserRepository;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * 以 JWT 驗證請求。簽名驗證後一律以非阻塞查詢讀取使用者目前的角色與狀態：
+ * banking-app 的 Token 撤銷紀元只存在各節點記憶體內，這裡無法判斷 Token 內的授權 claims 是否仍有效，
+ * 因此不採用 claims，角色變更、停用與鎖定都會立即生效。
+ */
+@Component
+public class JwtReactiveAuthenticationManager implements ReactiveAuthenticationManager {
+
+    private final JwtUtils jwtUtils;
+
+    private final UserRepository userRepository;
+
+    public JwtReactiveAuthenticationManager(JwtUtils jwtUtils, UserRepository userRepository) {
+        this.jwtUtils = jwtUtils;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        String token = (String) authentication.getCredentials();
+        Claims claims = jwtUtils.parseValidClaims(token);
+        if (claims == null || claims.getSubject() == null) {
+            return Mono.error(new BadCredentialsException("Invalid JWT token"));
+        }
+        return userRepository.findAuthenticatedUser(claims.getSubject())
+                .switchIfEmpty(Mono.error(() -> new BadCredentialsException("User not found")))
+                .flatMap(user -> {
+                    if (!user.enabled()) {
+                        return Mono.error(new DisabledException("User is disabled"));
+                    }
+                    if (!user.accountNonLocked()) {
+                        return Mono.error(new LockedException("User account is locked"));
+                    }
+                    return Mono.just(UsernamePasswordAuthenticationToken.authenticated(user, token, user.authorities()));
+                });
+    }
+}
@@ -0,0 +1,46 @@
+package net.javaguides.banking.reactive.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+
+/**
+ * 驗證 banking-app 簽發的 JWT (相同的 spring.app.jwtSecret)。本模組不簽發 Token。
+ */
+@Component
+public class JwtUtils {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
+
+    private final SecretKey key;
+
+    public JwtUtils(@Value("${spring.app.jwtSecret}") String jwtSecret) {
+        this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    }
+
+    /**
+     * 驗證簽名與有效期限。
+     *
+     * @return Token 有效時回傳其 claims，否則返回 null。
+     */
+    public Claims parseValidClaims(String authToken) {
+        try {
+            return Jwts.parser()
+                    .verifyWith(key)
+                    .build()
+                    .parseSignedClaims(authToken)
+                    .getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.warn("無效的 JWT token: {}", e.getMessage());
+            return null;
+        }
+    }
+}
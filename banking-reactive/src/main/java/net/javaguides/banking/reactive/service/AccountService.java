@@ -0,0 +1,39 @@
+package net.javaguides.banking.reactive.service;
+
+import net.javaguides.banking.dto.AccountDto;
+import net.javaguides.banking.dto.BalanceDto;
+import net.javaguides.banking.dto.TransactionDTO;
+import net.javaguides.banking.dto.TransferFundDTO;
+import net.javaguides.banking.money.Money;
+import net.javaguides.banking.reactive.security.AuthenticatedUser;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Mono;
+
+/**
+ * 與 banking-app 的 AccountService 相同的操作與授權規則；呼叫者由 Controller 明確傳入。
+ */
+public interface AccountService {
+
+    Mono<AccountDto> createAccount(AccountDto accountDto, AuthenticatedUser caller);
+
+    Mono<AccountDto> getAccountById(Long id, AuthenticatedUser caller);
+
+    Mono<BalanceDto> getAccountBalance(Long id, AuthenticatedUser caller);
+
+    Mono<Long> getAccountVersion(Long id, AuthenticatedUser caller);
+
+    Mono<Long> getLatestTransactionId(Long accountId, AuthenticatedUser caller);
+
+    Mono<AccountDto> deposit(Long id, Money amount, AuthenticatedUser caller);
+
+    Mono<AccountDto> withdraw(Long id, Money amount, AuthenticatedUser caller);
+
+    Mono<Page<AccountDto>> getAllAccounts(Pageable pageable);
+
+    Mono<Void> deleteAccount(Long id);
+
+    Mono<Void> transferFunds(TransferFundDTO transferFundDTO, AuthenticatedUser caller);
+
+    Mono<Page<TransactionDTO>> getAccountTransactions(Long accountId, Pageable pageable, AuthenticatedUser caller);
+}
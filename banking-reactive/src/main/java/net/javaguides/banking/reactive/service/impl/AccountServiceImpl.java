@@ -0,0 +1,254 @@
+package net.javaguides.banking.reactive.service.impl;
+
+import net.javaguides.banking.dto.AccountDto;
+import net.javaguides.banking.dto.BalanceDto;
+import net.javaguides.banking.dto.TransactionDTO;
+import net.javaguides.banking.dto.TransferFundDTO;
+import net.javaguides.banking.enums.TransactionType;
+import net.javaguides.banking.exception.AccountException;
+import net.javaguides.banking.exception.AccountNotFoundException;
+import net.javaguides.banking.exception.InsufficientAmountException;
+import net.javaguides.banking.money.Money;
+import net.javaguides.banking.reactive.cache.CacheInvalidationPublisher;
+import net.javaguides.banking.reactive.entity.Account;
+import net.javaguides.banking.reactive.entity.Transaction;
+import net.javaguides.banking.reactive.mapper.AccountMapper;
+import net.javaguides.banking.reactive.repository.AccountRepository;
+import net.javaguides.banking.reactive.repository.TransactionRepository;
+import net.javaguides.banking.reactive.security.AuthenticatedUser;
+import net.javaguides.banking.reactive.service.AccountService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@Transactional
+@Service
+public class AccountServiceImpl implements AccountService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountServiceImpl.class);
+
+    private final AccountRepository accountRepository;
+
+    private final TransactionRepository transactionRepository;
+
+    private final AccountMapper accountMapper;
+
+    private final CacheInvalidationPublisher invalidationPublisher;
+
+    public AccountServiceImpl(AccountRepository accountRepository, TransactionRepository transactionRepository, AccountMapper accountMapper, CacheInvalidationPublisher invalidationPublisher) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.accountMapper = accountMapper;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    @Override
+    public Mono<AccountDto> createAccount(AccountDto accountDto, AuthenticatedUser caller) {
+        logger.info("已登入使用者ID:{} 嘗試創進新帳戶", caller.id());
+        Account account = new Account(null, caller.realName(), accountDto.balance(), caller.id(), null);
+        return accountRepository.save(account)
+                .doOnNext(saved -> logger.info("成功啟用新帳戶,id為{}", saved.getId()))
+                .map(accountMapper::mapTOAccountDto);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Mono<AccountDto> getAccountById(Long id, AuthenticatedUser caller) {
+        Long ownerId = ownerScope(caller, true);
+        return findAccount(id, ownerId)
+                .switchIfEmpty(Mono.defer(() -> accountUnavailable(id, ownerId)))
+                .map(accountMapper::mapTOAccountDto);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Mono<BalanceDto> getAccountBalance(Long id, AuthenticatedUser caller) {
+        Long ownerId = ownerScope(caller, true);
+        return findAccount(id, ownerId)
+                .switchIfEmpty(Mono.defer(() -> accountUnavailable(id, ownerId)))
+                .map(account -> new BalanceDto(account.getId(), account.getBalance(), account.getVersion()));
+    }
+
+    /**
+     * 取得帳戶目前的版本號，供 ETag 使用。查無帳戶或無權存取時為空，由一般查詢流程回應 404 / 403。
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public Mono<Long> getAccountVersion(Long id, AuthenticatedUser caller) {
+        Long ownerId = ownerScope(caller, true);
+        return ownerId == null ? accountRepository.findVersionById(id) : accountRepository.findVersionByIdAndOwner(id, ownerId);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Mono<Long> getLatestTransactionId(Long accountId, AuthenticatedUser caller) {
+        Long ownerId = ownerScope(caller, true);
+        if (ownerId == null) {
+            return transactionRepository.findLatestIdByAccountId(accountId);
+        }
+        return accountRepository.existsByIdAndUserId(accountId, ownerId)
+                .flatMap(owned -> owned ? transactionRepository.findLatestIdByAccountId(accountId) : Mono.empty());
+    }
+
+    /**
+     * 以單一條件式 UPDATE 完成存款，帳戶列在交易內只被鎖定一次，不需要樂觀鎖重試。
+     */
+    @Override
+    public Mono<AccountDto> deposit(Long id, Money amount, AuthenticatedUser caller) {
+        Long ownerId = caller.id();
+        logger.info("嘗試儲蓄{}進入帳號:{}", amount, id);
+        return accountRepository.depositAsOwner(id, ownerId, amount.minorUnits())
+                .flatMap(updated -> updated == 0 ? this.<Account>accountUnavailable(id, ownerId) : accountRepository.findById(id))
+                .flatMap(account -> recordTransaction(id, amount, TransactionType.DEPOSIT)
+                        .then(invalidationPublisher.accountUpdated(account))
+                        .thenReturn(accountMapper.mapTOAccountDto(account)))
+                .doOnNext(account -> logger.info("儲蓄成功,帳號:{},新餘額:{}", id, account.balance()));
+    }
+
+    /**
+     * 餘額檢查併入 UPDATE 條件；沒有更新任何資料列時再查詢一次，區分帳戶不存在、無權存取與餘額不足。
+     */
+    @Override
+    public Mono<AccountDto> withdraw(Long id, Money amount, AuthenticatedUser caller) {
+        Long ownerId = caller.id();
+        logger.info("嘗試取款:{},扣款帳號:{}", amount, id);
+        return accountRepository.withdrawAsOwner(id, ownerId, amount.minorUnits())
+                .flatMap(updated -> updated == 0 ? withdrawRejected(id, ownerId) : accountRepository.findById(id))
+                .flatMap(account -> recordTransaction(id, amount, TransactionType.WITHDRAW)
+                        .then(invalidationPublisher.accountUpdated(account))
+                        .thenReturn(accountMapper.mapTOAccountDto(account)))
+                .doOnNext(account -> logger.info("帳號{}取款成功，新餘額{}", id, account.balance()));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Mono<Page<AccountDto>> getAllAccounts(Pageable pageable) {
+        return accountRepository.findAllBy(pageable)
+                .map(accountMapper::mapTOAccountDto)
+                .collectList()
+                .zipWith(accountRepository.count())
+                .map(page -> new PageImpl<>(page.getT1(), pageable, page.getT2()));
+    }
+
+    @Override
+    public Mono<Void> deleteAccount(Long id) {
+        logger.info("嘗試刪除帳戶,帳號:{}", id);
+        return accountRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new AccountNotFoundException("Account does not exist")))
+                .flatMap(account -> accountRepository.deleteById(id))
+                .then(Mono.defer(() -> invalidationPublisher.accountDeleted(id)))
+                .doOnSuccess(ignored -> logger.info("刪除成功,帳號{}", id));
+    }
+
+    /**
+     * 依帳戶 ID 由小到大鎖定 (SELECT ... FOR UPDATE)，與 banking-app 相同的順序，兩邊同時轉帳也不會死鎖。
+     */
+    @Override
+    public Mono<Void> transferFunds(TransferFundDTO transferFundDTO, AuthenticatedUser caller) {
+        Long fromAccountId = transferFundDTO.fromAccountId();
+        Long toAccountId = transferFundDTO.toAccountId();
+        Money amount = transferFundDTO.amount();
+        logger.info("從帳號{}向帳號{},發起金額為{}的轉帳", fromAccountId, toAccountId, amount);
+
+        if (fromAccountId.equals(toAccountId)) {
+            logger.error("轉帳失敗,不能轉帳給相同的帳號{}", fromAccountId);
+            return Mono.error(new AccountException("不能轉帳到相同帳戶"));
+        }
+
+        Long firstId = Math.min(fromAccountId, toAccountId);
+        Long secondId = Math.max(fromAccountId, toAccountId);
+        return lockForTransfer(firstId, fromAccountId, caller.id())
+                .zipWhen(first -> lockForTransfer(secondId, fromAccountId, caller.id()))
+                .flatMap(locked -> {
+                    Account fromAccount = locked.getT1().getId().equals(fromAccountId) ? locked.getT1() : locked.getT2();
+                    Account toAccount = locked.getT1().getId().equals(toAccountId) ? locked.getT1() : locked.getT2();
+
+                    if (fromAccount.getBalance().isLessThan(amount)) {
+                        logger.error("轉帳失敗,帳戶{}餘額{}小於欲轉金額{}", fromAccountId, fromAccount.getBalance(), amount);
+                        return Mono.error(new InsufficientAmountException("Insufficient amount"));
+                    }
+                    fromAccount.setBalance(fromAccount.getBalance().minus(amount));
+                    toAccount.setBalance(toAccount.getBalance().plus(amount));
+
+                    return accountRepository.save(fromAccount)
+                            .flatMap(invalidationPublisher::accountUpdated)
+                            .then(Mono.defer(() -> accountRepository.save(toAccount)))
+                            .flatMap(invalidationPublisher::accountUpdated)
+                            .then(Mono.defer(() -> recordTransaction(fromAccountId, amount, TransactionType.TRANSFER_OUT)))
+                            .then(Mono.defer(() -> recordTransaction(toAccountId, amount, TransactionType.TRANSFER_IN)));
+                })
+                .doOnSuccess(ignored -> logger.info("資金從帳戶 {} 轉至帳戶 {} 已成功完成", fromAccountId, toAccountId));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Mono<Page<TransactionDTO>> getAccountTransactions(Long accountId, Pageable pageable, AuthenticatedUser caller) {
+        Long ownerId = ownerScope(caller, true);
+        Mono<Page<TransactionDTO>> page = transactionRepository.findByAccountIdOrderByTimestampDesc(accountId, pageable)
+                .map(accountMapper::mapTOTransactionDto)
+                .collectList()
+                .zipWith(transactionRepository.countByAccountId(accountId))
+                .map(result -> new PageImpl<>(result.getT1(), pageable, result.getT2()));
+        if (ownerId == null) {
+            return page;
+        }
+        return accountRepository.existsByIdAndUserId(accountId, ownerId)
+                .flatMap(owned -> owned ? page : accountUnavailable(accountId, ownerId));
+    }
+
+    /**
+     * 管理員可讀取任何帳戶時回傳 null (不限定擁有者)，否則回傳呼叫者 ID。
+     */
+    private static Long ownerScope(AuthenticatedUser caller, boolean adminAllowed) {
+        return adminAllowed && caller.isAdmin() ? null : caller.id();
+    }
+
+    private Mono<Account> findAccount(Long id, Long ownerId) {
+        return ownerId == null ? accountRepository.findById(id) : accountRepository.findByIdAndOwner(id, ownerId);
+    }
+
+    /**
+     * 轉出帳戶必須屬於呼叫者；轉入帳戶不限擁有者。
+     */
+    private Mono<Account> lockForTransfer(Long id, Long fromAccountId, Long ownerId) {
+        return accountRepository.findByIdForUpdate(id)
+                .switchIfEmpty(Mono.error(() -> new AccountNotFoundException("Account does not exist")))
+                .flatMap(account -> id.equals(fromAccountId) && !ownerId.equals(account.getUserId())
+                        ? Mono.error(new AccessDeniedException("Access denied to account " + id))
+                        : Mono.just(account));
+    }
+
+    private Mono<Account> withdrawRejected(Long id, Long ownerId) {
+        return accountRepository.findByIdAndOwner(id, ownerId)
+                .flatMap(account -> {
+                    logger.error("帳號{}餘額不足,取款失敗,帳戶餘額:{}", id, account.getBalance());
+                    return Mono.<Account>error(new InsufficientAmountException("Insufficient amount"));
+                })
+                .switchIfEmpty(Mono.defer(() -> accountUnavailable(id, ownerId)));
+    }
+
+    /**
+     * 帶擁有者條件的查詢沒有結果時，區分帳戶不存在 (404) 與無權存取 (403)。
+     */
+    private <T> Mono<T> accountUnavailable(Long id, Long ownerId) {
+        if (ownerId == null) {
+            return Mono.error(new AccountNotFoundException("Account does not exist"));
+        }
+        return accountRepository.existsById(id)
+                .flatMap(exists -> Mono.error(exists
+                        ? new AccessDeniedException("Access denied to account " + id)
+                        : new AccountNotFoundException("Account does not exist")));
+    }
+
+    private Mono<Void> recordTransaction(Long accountId, Money amount, TransactionType type) {
+        return transactionRepository.save(new Transaction(null, accountId, amount.toBigDecimal(), type, LocalDateTime.now())).then();
+    }
+}
@@ -0,0 +1,226 @@
+package net.javaguides.banking.reactive.controller;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import net.javaguides.banking.dto.AmountRequestDto;
+import net.javaguides.banking.dto.TransferFundDTO;
+import net.javaguides.banking.money.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+class AccountControllerIntegrationTest {
+
+    private static final long ALICE_ACCOUNT = 101L;
+    private static final long BOB_ACCOUNT = 201L;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Value("${spring.app.jwtSecret}")
+    private String jwtSecret;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient.sql("DELETE FROM transactions").then()
+                .then(databaseClient.sql("DELETE FROM cache_invalidations").then())
+                .then(databaseClient.sql("DELETE FROM accounts").then())
+                .then(databaseClient.sql("""
+                        INSERT INTO accounts (id, account_holder_name, balance_minor, user_id, version) VALUES
+                            (101, 'Alice', 10000, 1, 0),
+                            (201, 'Bob', 5000, 2, 0)""").then())
+                .block();
+    }
+
+    @Test
+    @DisplayName("沒有 Token 時應回傳 401")
+    void getAccount_WithoutToken_ReturnsUnauthorized() {
+        webTestClient.get().uri("/api/accounts/{id}", ALICE_ACCOUNT)
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    @DisplayName("帳戶被鎖定的使用者即使 Token 有效也應回傳 401")
+    void getAccount_WhenUserLocked_ReturnsUnauthorized() {
+        webTestClient.get().uri("/api/accounts/{id}", ALICE_ACCOUNT)
+                .header(HttpHeaders.AUTHORIZATION, bearer("locked"))
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    @DisplayName("擁有者查詢帳戶應回傳帳戶與 ETag，帶相同 ETag 再次查詢應回傳 304")
+    void getAccount_AsOwner_ReturnsAccountAndHonoursETag() {
+        //Arrange & Act
+        String eTag = webTestClient.get().uri("/api/accounts/{id}", ALICE_ACCOUNT)
+                .header(HttpHeaders.AUTHORIZATION, bearer("alice"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "W/\"0\"")
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(ALICE_ACCOUNT)
+                .jsonPath("$.accountHolderName").isEqualTo("Alice")
+                .returnResult().getResponseHeaders().getETag();
+
+        //Assert
+        webTestClient.get().uri("/api/accounts/{id}", ALICE_ACCOUNT)
+                .header(HttpHeaders.AUTHORIZATION, bearer("alice"))
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    @DisplayName("查詢他人帳戶應回傳 403，查詢不存在的帳戶應回傳 404")
+    void getAccount_NotOwnedOrMissing_ReturnsForbiddenOrNotFound() {
+        webTestClient.get().uri("/api/accounts/{id}", BOB_ACCOUNT)
+                .header(HttpHeaders.AUTHORIZATION, bearer("alice"))
+                .exchange()
+                .expectStatus().isForbidden()
+                .expectBody().jsonPath("$.errorCode").isEqualTo("ACCESS_DENIED");
+
+        webTestClient.get().uri("/api/accounts/{id}", 999)
+                .header(HttpHeaders.AUTHORIZATION, bearer("alice"))
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.errorCode").isEqualTo("ACCOUNT_NOT_FOUND")
+                .jsonPath("$.details").isEqualTo("uri=/api/accounts/999");
+    }
+
+    @Test
+    @DisplayName("存款應更新餘額、遞增版本並寫入交易紀錄與快取失效事件")
+    void deposit_AsOwner_UpdatesBalanceAndRecordsTransaction() {
+        //Act
+        webTestClient.put().uri("/api/accounts/{id}/deposit", ALICE_ACCOUNT)
+                .header(HttpHeaders.AUTHORIZATION, bearer("alice"))
+                .bodyValue(new AmountRequestDto(Money.parse("25.50")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.balance").isEqualTo(125.5);
+
+        //Assert
+        webTestClient.get().uri("/api/accounts/{id}/balance", ALICE_ACCOUNT)
+                .header(HttpHeaders.AUTHORIZATION, bearer("alice"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.version").isEqualTo(1);
+        assertThat(count("SELECT COUNT(*) FROM transactions WHERE account_id = 101 AND transaction_type = 'DEPOSIT'")).isEqualTo(1);
+        assertThat(count("SELECT COUNT(*) FROM cache_invalidations WHERE entity_id = 101 AND event_type = 'ACCOUNT_UPDATED'")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("餘額不足時取款應回傳 400 且不寫入交易紀錄")
+    void withdraw_InsufficientAmount_ReturnsBadRequest() {
+        webTestClient.put().uri("/api/accounts/{id}/withdraw", ALICE_ACCOUNT)
+                .header(HttpHeaders.AUTHORIZATION, bearer("alice"))
+                .bodyValue(new AmountRequestDto(Money.parse("100.01")))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.errorCode").isEqualTo("INSUFFICIENT_AMOUNT");
+
+        assertThat(count("SELECT COUNT(*) FROM transactions")).isZero();
+    }
+
+    @Test
+    @DisplayName("金額超過兩位小數時應回傳 400 INVALID_AMOUNT 且不更新餘額")
+    void deposit_AmountWithThreeDecimals_ReturnsInvalidAmount() {
+        webTestClient.put().uri("/api/accounts/{id}/deposit", ALICE_ACCOUNT)
+                .header(HttpHeaders.AUTHORIZATION, bearer("alice"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"amount\": 10.005}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.errorCode").isEqualTo("INVALID_AMOUNT");
+
+        assertThat(count("SELECT COUNT(*) FROM transactions")).isZero();
+    }
+
+    @Test
+    @DisplayName("轉帳應同時更新兩個帳戶並寫入轉出與轉入紀錄")
+    void transfer_AsOwner_MovesFundsAndRecordsBothSides() {
+        //Act
+        webTestClient.post().uri("/api/accounts/transfer")
+                .header(HttpHeaders.AUTHORIZATION, bearer("alice"))
+                .bodyValue(new TransferFundDTO(ALICE_ACCOUNT, BOB_ACCOUNT, Money.parse("40.00")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("transfer successful");
+
+        //Assert
+        webTestClient.get().uri("/api/accounts/{id}/balance", BOB_ACCOUNT)
+                .header(HttpHeaders.AUTHORIZATION, bearer("bob"))
+                .exchange()
+                .expectBody().jsonPath("$.balance").isEqualTo(90.0);
+        webTestClient.get().uri("/api/accounts/{id}/transactions", ALICE_ACCOUNT)
+                .header(HttpHeaders.AUTHORIZATION, bearer("alice"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .expectBody()
+                .jsonPath("$.content[0].transactionType").isEqualTo("TRANSFER_OUT")
+                .jsonPath("$.totalElements").isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("從他人帳戶轉出應回傳 403")
+    void transfer_FromAccountNotOwned_ReturnsForbidden() {
+        webTestClient.post().uri("/api/accounts/transfer")
+                .header(HttpHeaders.AUTHORIZATION, bearer("alice"))
+                .bodyValue(new TransferFundDTO(BOB_ACCOUNT, ALICE_ACCOUNT, Money.parse("10.00")))
+                .exchange()
+                .expectStatus().isForbidden();
+
+        assertThat(count("SELECT COUNT(*) FROM transactions")).isZero();
+    }
+
+    @Test
+    @DisplayName("只有管理員可以列出所有帳戶")
+    void getAllAccounts_RequiresAdmin() {
+        webTestClient.get().uri("/api/accounts")
+                .header(HttpHeaders.AUTHORIZATION, bearer("alice"))
+                .exchange()
+                .expectStatus().isForbidden();
+
+        webTestClient.get().uri("/api/accounts?pageSize=10")
+                .header(HttpHeaders.AUTHORIZATION, bearer("admin"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.totalElements").isEqualTo(2)
+                .jsonPath("$.content[0].id").isEqualTo(ALICE_ACCOUNT);
+    }
+
+    private String bearer(String username) {
+        String token = Jwts.builder()
+                .subject(username)
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret)))
+                .compact();
+        return "Bearer " + token;
+    }
+
+    private long count(String sql) {
+        return databaseClient.sql(sql).map(row -> row.get(0, Long.class)).one().block();
+    }
+}
@@ -0,0 +1,7 @@
+INSERT INTO roles (role_id, role_name) VALUES (1, 'ROLE_USER'), (2, 'ROLE_ADMIN');
+
+INSERT INTO users (user_id, username, real_name, enabled, account_non_locked, role_id) VALUES
+    (1, 'alice', 'Alice', TRUE, TRUE, 1),
+    (2, 'bob', 'Bob', TRUE, TRUE, 1),
+    (3, 'admin', 'Admin', TRUE, TRUE, 2),
+    (4, 'locked', 'Locked', TRUE, FALSE, 1);
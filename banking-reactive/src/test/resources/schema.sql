@@ -0,0 +1,40 @@
+-- 與 banking-app 的 Flyway 遷移建立的資料表相同的欄位 (僅測試用到的部分)
+CREATE TABLE roles (
+    role_id INT AUTO_INCREMENT PRIMARY KEY,
+    role_name VARCHAR(20)
+);
+
+CREATE TABLE users (
+    user_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(20) NOT NULL UNIQUE,
+    real_name VARCHAR(50),
+    enabled BOOLEAN NOT NULL DEFAULT TRUE,
+    account_non_locked BOOLEAN NOT NULL DEFAULT TRUE,
+    role_id INT REFERENCES roles (role_id)
+);
+
+CREATE TABLE accounts (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    account_holder_name VARCHAR(255),
+    balance_minor BIGINT NOT NULL,
+    user_id BIGINT NOT NULL REFERENCES users (user_id),
+    version BIGINT
+);
+
+CREATE TABLE transactions (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    account_id BIGINT,
+    amount DECIMAL(38, 2),
+    transaction_type VARCHAR(255),
+    timestamp TIMESTAMP
+);
+
+CREATE TABLE cache_invalidations (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_type VARCHAR(20) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    version BIGINT NOT NULL,
+    owner_id BIGINT NOT NULL,
+    origin_node VARCHAR(36) NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,158 @@
+package net.javaguides.banking.benchmarks;
+
+import net.javaguides.banking.dto.AccountDto;
+import net.javaguides.banking.dto.TransactionDTO;
+import net.javaguides.banking.dto.TransferFundDTO;
+import net.javaguides.banking.entity.Transaction;
+import net.javaguides.banking.enums.TransactionType;
+import net.javaguides.banking.exception.AccountException;
+import net.javaguides.banking.money.Money;
+import net.javaguides.banking.repository.TransactionRepository;
+import net.javaguides.banking.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AccountService 熱路徑的單執行緒基準 (多執行緒版本見 {@link AccountServiceMultiThreadBenchmark})。
+ *
+ * contention=uniform：每次操作隨機選擇 1000 個帳戶之一，幾乎沒有衝突。
+ * contention=hot：所有操作集中在同一個帳戶 (轉帳在兩個帳戶之間)，多執行緒時量測樂觀鎖重試與列鎖等待。
+ * 重試用盡或取得鎖失敗的次數以 conflicts 輔助計數器回報。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class AccountServiceBenchmark {
+
+    private static final int ACCOUNTS = 1000;
+
+    private static final int TRANSACTIONS_PER_ACCOUNT = 20;
+
+    private static final Money AMOUNT = Money.parse("1.00");
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 10);
+
+    @State(Scope.Benchmark)
+    public static class Bank {
+
+        @Param({"uniform", "hot"})
+        public String contention;
+
+        BankingContext context;
+
+        AccountService accountService;
+
+        long[] accountIds;
+
+        boolean hot;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = BankingContext.start();
+            accountService = context.bean(AccountService.class);
+            accountIds = context.createAccounts(ACCOUNTS).stream().mapToLong(Long::longValue).toArray();
+            hot = "hot".equals(contention);
+            seedTransactions(context.bean(TransactionRepository.class));
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+
+        long pick() {
+            return accountIds[hot ? 0 : ThreadLocalRandom.current().nextInt(accountIds.length)];
+        }
+
+        long[] pickPair() {
+            if (hot) {
+                return ThreadLocalRandom.current().nextBoolean()
+                        ? new long[]{accountIds[0], accountIds[1]}
+                        : new long[]{accountIds[1], accountIds[0]};
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int from = random.nextInt(accountIds.length);
+            int to = (from + 1 + random.nextInt(accountIds.length - 1)) % accountIds.length;
+            return new long[]{accountIds[from], accountIds[to]};
+        }
+
+        private void seedTransactions(TransactionRepository transactionRepository) {
+            List<Transaction> transactions = new ArrayList<>(ACCOUNTS * TRANSACTIONS_PER_ACCOUNT);
+            LocalDateTime now = LocalDateTime.now();
+            for (long accountId : accountIds) {
+                for (int i = 0; i < TRANSACTIONS_PER_ACCOUNT; i++) {
+                    transactions.add(new Transaction(null, accountId, AMOUNT.toBigDecimal(), TransactionType.DEPOSIT, now.minusMinutes(i)));
+                }
+            }
+            transactionRepository.saveAll(transactions);
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+
+        public long conflicts;
+
+        @Setup(Level.Iteration)
+        public void authenticate(Bank bank) {
+            conflicts = 0;
+            bank.context.authenticateCurrentThread();
+        }
+
+        @TearDown(Level.Iteration)
+        public void clear() {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Benchmark
+    public AccountDto deposit(Bank bank, Outcomes outcomes) {
+        try {
+            return bank.accountService.deposit(bank.pick(), AMOUNT);
+        } catch (AccountException | ConcurrencyFailureException e) {
+            outcomes.conflicts++;
+            return null;
+        }
+    }
+
+    @Benchmark
+    public AccountDto withdraw(Bank bank, Outcomes outcomes) {
+        try {
+            return bank.accountService.withdraw(bank.pick(), AMOUNT);
+        } catch (AccountException | ConcurrencyFailureException e) {
+            outcomes.conflicts++;
+            return null;
+        }
+    }
+
+    @Benchmark
+    public TransferFundDTO transferFunds(Bank bank, Outcomes outcomes) {
+        long[] pair = bank.pickPair();
+        TransferFundDTO transfer = new TransferFundDTO(pair[0], pair[1], AMOUNT);
+        try {
+            bank.accountService.transferFunds(transfer);
+        } catch (ConcurrencyFailureException e) {
+            outcomes.conflicts++;
+        }
+        return transfer;
+    }
+
+    @Benchmark
+    public Page<TransactionDTO> getAccountTransactions(Bank bank) {
+        return bank.accountService.getAccountTransactions(bank.pick(), FIRST_PAGE);
+    }
+}
@@ -0,0 +1,11 @@
+package net.javaguides.banking.benchmarks;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * 與 {@link AccountServiceBenchmark} 相同的操作，4 個執行緒同時執行。
+ * contention=hot 時即為熱門帳戶競爭情境。
+ */
+@Threads(4)
+public class AccountServiceMultiThreadBenchmark extends AccountServiceBenchmark {
+}
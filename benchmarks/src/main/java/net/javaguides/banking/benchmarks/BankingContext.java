@@ -0,0 +1,109 @@
+package net.javaguides.banking.benchmarks;
+
+import net.javaguides.banking.BankingAppApplication;
+import net.javaguides.banking.entity.Account;
+import net.javaguides.banking.entity.User;
+import net.javaguides.banking.money.Money;
+import net.javaguides.banking.repository.AccountRepository;
+import net.javaguides.banking.repository.UserRepository;
+import net.javaguides.banking.security.services.UserDetailsImpl;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 以記憶體資料庫 (H2 MySQL 相容模式) 啟動完整的 banking-app，供各基準測試共用。
+ *
+ * 與正式環境相同的 Bean、交易、二級快取與安全設定；只替換資料庫並關閉與網路請求相關的限流，
+ * 結果反映 Service / Hibernate / JDBC 的 CPU 成本，不含 MySQL 的網路往返。
+ */
+final class BankingContext implements AutoCloseable {
+
+    static final String USERNAME = "user1";
+
+    private static final String[] PROPERTIES = {
+            "server.port=0",
+            "spring.datasource.url=jdbc:h2:mem:jmh;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+            "spring.datasource.username=sa",
+            "spring.datasource.password=",
+            "spring.datasource.driver-class-name=org.h2.Driver",
+            "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "spring.jpa.show-sql=false",
+            "spring.jpa.properties.hibernate.format_sql=false",
+            "spring.jpa.properties.hibernate.generate_statistics=false",
+            "spring.app.rateLimit.enabled=false",
+            "spring.app.concurrencyLimit.enabled=false",
+            "spring.app.bcryptStrength=4",
+            "spring.main.banner-mode=off",
+            "logging.level.root=warn",
+            "logging.level.net.javaguides=error"
+    };
+
+    private final ConfigurableApplicationContext context;
+
+    private final UserDetailsImpl user;
+
+    private BankingContext(ConfigurableApplicationContext context) {
+        this.context = context;
+        User entity = context.getBean(UserRepository.class).findByUsername(USERNAME).orElseThrow();
+        this.user = UserDetailsImpl.build(entity);
+    }
+
+    /**
+     * 啟動應用程式。設定以命令列參數傳入，優先於 application.properties；extraProperties 會覆蓋預設的基準測試設定。
+     */
+    static BankingContext start(String... extraProperties) {
+        String[] args = Stream.concat(Stream.of(PROPERTIES), Stream.of(extraProperties))
+                .map(property -> "--" + property)
+                .toArray(String[]::new);
+        return new BankingContext(new SpringApplicationBuilder(BankingAppApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .run(args));
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    <T> T bean(String name, Class<T> type) {
+        return context.getBean(name, type);
+    }
+
+    UserDetailsImpl user() {
+        return user;
+    }
+
+    /**
+     * 建立 count 個屬於 user1 的帳戶，餘額足夠整個測試期間的取款與轉帳。
+     */
+    List<Long> createAccounts(int count) {
+        AccountRepository accountRepository = context.getBean(AccountRepository.class);
+        User owner = context.getBean(UserRepository.class).findByUsername(USERNAME).orElseThrow();
+        List<Account> accounts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            accounts.add(new Account(null, owner.getRealName(), Money.parse("1000000000.00"), owner, null));
+        }
+        return accountRepository.saveAll(accounts).stream().map(Account::getId).toList();
+    }
+
+    /**
+     * 在目前執行緒設定 user1 的登入資訊，Service 的擁有權判斷與 Controller 經過 JWT 驗證後相同。
+     */
+    void authenticateCurrentThread() {
+        SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+        securityContext.setAuthentication(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        SecurityContextHolder.setContext(securityContext);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,64 @@
+package net.javaguides.banking.benchmarks;
+
+import jakarta.servlet.FilterChain;
+import net.javaguides.banking.security.jwt.AuthTokenFilter;
+import net.javaguides.banking.security.jwt.JwtUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每個已登入請求都會經過的 JWT 驗證篩選器：解析並驗證簽名，再由 Token claims 或資料庫還原使用者。
+ * statelessClaims=false 時每次都查詢使用者 (經過二級快取)，true 時只驗證 Token。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class JwtFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+    };
+
+    @State(Scope.Benchmark)
+    public static class Filter {
+
+        @Param({"false", "true"})
+        public String statelessClaims;
+
+        BankingContext context;
+
+        AuthTokenFilter filter;
+
+        String authorization;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = BankingContext.start("spring.app.jwtStatelessClaims=" + statelessClaims);
+            filter = context.bean("authenticationJwtTokenFilter", AuthTokenFilter.class);
+            authorization = "Bearer " + context.bean(JwtUtils.class).generateTokenFromUsername(context.user());
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Authentication authenticate(Filter state) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/accounts/1/balance");
+        request.addHeader(HttpHeaders.AUTHORIZATION, state.authorization);
+        state.filter.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
@@ -0,0 +1,10 @@
+package net.javaguides.banking.benchmarks;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * 與 {@link JwtFilterBenchmark} 相同，4 個執行緒同時驗證。
+ */
+@Threads(4)
+public class JwtFilterMultiThreadBenchmark extends JwtFilterBenchmark {
+}
@@ -0,0 +1,170 @@
+package net.javaguides.banking.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * 以 JDK HttpClient 呼叫 banking-app 的 API。
+ *
+ * 請求在虛擬執行緒上以同步方式送出，連線由 HttpClient 共用；
+ * 建立請求的方法不送出請求，由 {@link OpenLoopDriver} 在預定時間送出並計時。
+ */
+final class BankingClient implements AutoCloseable {
+
+    private static final String JSON = "application/json";
+
+    private static final int SETUP_ATTEMPTS = 30;
+
+    private final HttpClient http;
+
+    private final URI baseUrl;
+
+    private final URI authUrl;
+
+    private final Duration timeout;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    BankingClient(LoadTestConfig config) {
+        this.baseUrl = config.baseUrl();
+        this.authUrl = config.authUrl();
+        this.timeout = config.timeout();
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(config.timeout())
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    /**
+     * 註冊使用者。回傳 HTTP 狀態碼，使用者已存在時為 400。
+     */
+    int signup(String username, String password) throws IOException, InterruptedException {
+        Map<String, Object> body = Map.of(
+                "username", username,
+                "email", username + "@loadtest.local",
+                "password", password,
+                "realName", "Load Test " + username,
+                "role", List.of("user"));
+        return send(post(authUrl, "/api/auth/public/signup", null, body)).statusCode();
+    }
+
+    /**
+     * 登入並回傳 JWT，失敗時拋出 {@link LoadTestException}。
+     */
+    String signin(String username, String password) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(post(authUrl, "/api/auth/public/signin", null,
+                Map.of("username", username, "password", password)));
+        expect(response, 200, "signin " + username);
+        return mapper.readTree(response.body()).get("jwtToken").asText();
+    }
+
+    /**
+     * 建立帳戶並回傳帳戶 ID，失敗時拋出 {@link LoadTestException}。
+     */
+    long createAccount(String token, BigDecimal balance) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(createAccountRequest(token, balance));
+        expect(response, 201, "create account");
+        JsonNode account = mapper.readTree(response.body());
+        return account.get("id").asLong();
+    }
+
+    HttpRequest createAccountRequest(String token, BigDecimal balance) {
+        return post(baseUrl, "/api/accounts", token, Map.of("balance", balance));
+    }
+
+    HttpRequest depositRequest(String token, long accountId, BigDecimal amount) {
+        return put("/api/accounts/" + accountId + "/deposit", token, Map.of("amount", amount));
+    }
+
+    HttpRequest withdrawRequest(String token, long accountId, BigDecimal amount) {
+        return put("/api/accounts/" + accountId + "/withdraw", token, Map.of("amount", amount));
+    }
+
+    HttpRequest transferRequest(String token, long fromAccountId, long toAccountId, BigDecimal amount) {
+        return post(baseUrl, "/api/accounts/transfer", token,
+                Map.of("fromAccountId", fromAccountId, "toAccountId", toAccountId, "amount", amount));
+    }
+
+    HttpRequest historyRequest(String token, long accountId) {
+        return request(baseUrl, "/api/accounts/" + accountId + "/transactions?pageNo=0&pageSize=10", token)
+                .GET()
+                .build();
+    }
+
+    /**
+     * 送出請求並捨棄回應內容，只回傳狀態碼。
+     */
+    int execute(HttpRequest request) throws IOException, InterruptedException {
+        return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Override
+    public void close() {
+        http.close();
+    }
+
+    /**
+     * 準備階段的請求：被限流 (429) 或伺服器忙碌 (503) 時依 Retry-After 等待後重試。
+     */
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            if ((response.statusCode() != 429 && response.statusCode() != 503) || attempt == SETUP_ATTEMPTS) {
+                return response;
+            }
+            long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(1);
+            Thread.sleep(Duration.ofSeconds(Math.max(1, retryAfter)));
+        }
+    }
+
+    private HttpRequest post(URI target, String path, String token, Object body) {
+        return request(target, path, token)
+                .header("Content-Type", JSON)
+                .POST(HttpRequest.BodyPublishers.ofString(toJson(body)))
+                .build();
+    }
+
+    private HttpRequest put(String path, String token, Object body) {
+        return request(baseUrl, path, token)
+                .header("Content-Type", JSON)
+                .PUT(HttpRequest.BodyPublishers.ofString(toJson(body)))
+                .build();
+    }
+
+    private HttpRequest.Builder request(URI target, String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(target + path))
+                .timeout(timeout)
+                .header("Accept", JSON);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private String toJson(Object body) {
+        try {
+            return mapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void expect(HttpResponse<String> response, int status, String action) {
+        if (response.statusCode() != status) {
+            throw new LoadTestException(action + " failed with HTTP " + response.statusCode() + ": " + response.body());
+        }
+    }
+}
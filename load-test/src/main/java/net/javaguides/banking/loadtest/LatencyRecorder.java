@@ -0,0 +1,77 @@
+package net.javaguides.banking.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 依請求種類記錄延遲分布與結果。
+ *
+ * 回應時間 (response time) 從「預定送出時間」開始計算：伺服器變慢導致請求晚送出時，
+ * 排隊的時間也計入，避免協調遺漏 (coordinated omission) 讓尾端延遲看起來比實際好。
+ * 服務時間 (service time) 從實際送出開始計算，兩者差距即為用戶端排隊的時間。
+ * 所有完成的請求 (包含 4xx/5xx 與逾時) 都計入延遲分布，結果另以狀態碼分類統計。
+ */
+final class LatencyRecorder {
+
+    static final String DROPPED = "dropped";
+
+    static final String TIMEOUT = "timeout";
+
+    // 可記錄的最大延遲 (超過時以最大值記錄)
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final Map<Operation, Histogram> responseTimes = new EnumMap<>(Operation.class);
+
+    private final Map<Operation, Histogram> serviceTimes = new EnumMap<>(Operation.class);
+
+    private final Map<Operation, Map<String, LongAdder>> outcomes = new EnumMap<>(Operation.class);
+
+    LatencyRecorder() {
+        for (Operation operation : Operation.values()) {
+            responseTimes.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3));
+            serviceTimes.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3));
+            outcomes.put(operation, new ConcurrentHashMap<>());
+        }
+    }
+
+    void record(Operation operation, String outcome, long responseNanos, long serviceNanos) {
+        responseTimes.get(operation).recordValue(Math.min(responseNanos, HIGHEST_TRACKABLE_NANOS));
+        serviceTimes.get(operation).recordValue(Math.min(serviceNanos, HIGHEST_TRACKABLE_NANOS));
+        count(operation, outcome);
+    }
+
+    /**
+     * 同時進行中的請求達到上限，請求未送出。不計入延遲分布。
+     */
+    void recordDropped(Operation operation) {
+        count(operation, DROPPED);
+    }
+
+    Histogram responseTimes(Operation operation) {
+        return responseTimes.get(operation);
+    }
+
+    Histogram serviceTimes(Operation operation) {
+        return serviceTimes.get(operation);
+    }
+
+    /**
+     * 各結果 (HTTP 狀態碼、timeout、dropped、io 例外名稱) 的次數，依名稱排序。
+     */
+    Map<String, Long> outcomes(Operation operation) {
+        Map<String, Long> counts = new TreeMap<>();
+        outcomes.get(operation).forEach((outcome, count) -> counts.put(outcome, count.sum()));
+        return counts;
+    }
+
+    private void count(Operation operation, String outcome) {
+        outcomes.get(operation).computeIfAbsent(outcome, key -> new LongAdder()).increment();
+    }
+}
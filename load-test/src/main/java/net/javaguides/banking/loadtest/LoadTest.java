@@ -0,0 +1,36 @@
+package net.javaguides.banking.loadtest;
+
+import net.javaguides.banking.loadtest.LoadTestSetup.AccountRef;
+
+import java.util.List;
+
+/**
+ * 端對端 HTTP 壓力測試：準備使用者與帳戶後，以開放迴路的固定速率送出混合的帳戶操作，
+ * 輸出各操作的延遲百分位數 (HdrHistogram) 與狀態碼分類。
+ *
+ * 以 mvn compile exec:java -Dexec.args="--rate=200 --duration=60" 執行，參數見 {@link LoadTestConfig}。
+ * 測試對象需關閉限流 (RATE_LIMIT_ENABLED=false)，否則大部分請求會得到 429。
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        try (BankingClient client = new BankingClient(config)) {
+            System.out.printf("準備 %d 位使用者 (%s_*)，每人 %d 個帳戶...%n",
+                    config.users(), config.userPrefix(), config.accountsPerUser());
+            List<AccountRef> accounts = LoadTestSetup.prepare(client, config);
+
+            System.out.printf("暖機 %d 秒，量測 %d 秒，%.0f req/s...%n",
+                    config.warmup().toSeconds(), config.duration().toSeconds(), config.rate());
+            LatencyRecorder recorder = new OpenLoopDriver(config, client, accounts).run();
+
+            LoadTestReport.Summary summary = LoadTestReport.summarize(config, accounts.size(), recorder);
+            LoadTestReport.print(summary, System.out);
+            LoadTestReport.write(summary, config.report());
+            System.out.println("結果已寫入 " + config.report().toAbsolutePath());
+        }
+    }
+}
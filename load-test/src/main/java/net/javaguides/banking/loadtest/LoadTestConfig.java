@@ -0,0 +1,104 @@
+package net.javaguides.banking.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 壓力測試參數，以 --名稱=值 的形式傳入，未指定的使用預設值。
+ *
+ * <pre>
+ * --baseUrl=http://localhost:8080   帳戶 API 位址 (可指向 banking-reactive)
+ * --authUrl=                        註冊與登入的位址，預設同 baseUrl
+ * --users=50                        虛擬使用者數
+ * --accountsPerUser=2               每位使用者預先建立的帳戶數
+ * --rate=200                        每秒送出的請求數 (開放迴路，不等待回應)
+ * --warmup=10                       暖機秒數，不計入結果
+ * --duration=60                     量測秒數
+ * --zipf=1.1                        帳戶熱門程度的 Zipf 指數，0 為均勻分布
+ * --mix=create=2,deposit=30,withdraw=20,transfer=18,history=30
+ * --maxInflight=2000                同時進行中的請求上限，超過的請求記為 dropped
+ * --timeoutMs=5000                  單一請求逾時
+ * --userPrefix=                     使用者名稱前綴，預設每次隨機產生
+ * --report=target/load-test-report.json
+ * </pre>
+ */
+public record LoadTestConfig(URI baseUrl,
+                             URI authUrl,
+                             int users,
+                             int accountsPerUser,
+                             double rate,
+                             Duration warmup,
+                             Duration duration,
+                             double zipfExponent,
+                             OperationMix mix,
+                             int maxInflight,
+                             Duration timeout,
+                             String userPrefix,
+                             Path report) {
+
+    static final String DEFAULT_MIX = "create=2,deposit=30,withdraw=20,transfer=18,history=30";
+
+    private static final Set<String> KNOWN_KEYS = Set.of(
+            "baseUrl", "authUrl", "users", "accountsPerUser", "rate", "warmup", "duration", "zipf",
+            "mix", "maxInflight", "timeoutMs", "userPrefix", "report");
+
+    public static LoadTestConfig parse(String... args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Invalid argument '" + arg + "', expected --name=value");
+            }
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        URI baseUrl = URI.create(stripTrailingSlash(values.getOrDefault("baseUrl", "http://localhost:8080")));
+        String authUrl = values.get("authUrl");
+        LoadTestConfig config = new LoadTestConfig(
+                baseUrl,
+                authUrl == null || authUrl.isBlank() ? baseUrl : URI.create(stripTrailingSlash(authUrl)),
+                Integer.parseInt(values.getOrDefault("users", "50")),
+                Integer.parseInt(values.getOrDefault("accountsPerUser", "2")),
+                Double.parseDouble(values.getOrDefault("rate", "200")),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup", "10"))),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration", "60"))),
+                Double.parseDouble(values.getOrDefault("zipf", "1.1")),
+                OperationMix.parse(values.getOrDefault("mix", DEFAULT_MIX)),
+                Integer.parseInt(values.getOrDefault("maxInflight", "2000")),
+                Duration.ofMillis(Long.parseLong(values.getOrDefault("timeoutMs", "5000"))),
+                values.getOrDefault("userPrefix", "lt" + UUID.randomUUID().toString().substring(0, 6)),
+                Path.of(values.getOrDefault("report", "target/load-test-report.json")));
+
+        values.keySet().removeAll(KNOWN_KEYS);
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown arguments: " + values.keySet());
+        }
+        config.validate();
+        return config;
+    }
+
+    private void validate() {
+        if (users < 1 || accountsPerUser < 1 || users * accountsPerUser < 2) {
+            throw new IllegalArgumentException("At least two accounts are required for transfers");
+        }
+        if (rate <= 0 || maxInflight < 1) {
+            throw new IllegalArgumentException("rate and maxInflight must be positive");
+        }
+        if (zipfExponent < 0) {
+            throw new IllegalArgumentException("zipf must not be negative");
+        }
+        // 使用者名稱長度限制 3~20
+        if (userPrefix.length() + String.valueOf(users - 1).length() + 1 > 20) {
+            throw new IllegalArgumentException("userPrefix is too long");
+        }
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
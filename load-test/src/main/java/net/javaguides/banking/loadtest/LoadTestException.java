@@ -0,0 +1,11 @@
+package net.javaguides.banking.loadtest;
+
+/**
+ * 準備階段 (註冊、登入、建立帳戶) 失敗，無法開始壓力測試。
+ */
+public class LoadTestException extends RuntimeException {
+
+    public LoadTestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,103 @@
+package net.javaguides.banking.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 將量測結果輸出為表格 (標準輸出) 與 JSON 檔案。延遲單位為毫秒。
+ */
+final class LoadTestReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    record LatencySummary(long count, double p50, double p90, double p99, double p999, double max) {
+
+        static LatencySummary of(Histogram histogram) {
+            double[] values = new double[PERCENTILES.length];
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                values[i] = histogram.getValueAtPercentile(PERCENTILES[i]) / NANOS_PER_MILLI;
+            }
+            return new LatencySummary(histogram.getTotalCount(), values[0], values[1], values[2], values[3],
+                    histogram.getMaxValue() / NANOS_PER_MILLI);
+        }
+    }
+
+    record OperationSummary(String operation,
+                            double throughputPerSecond,
+                            LatencySummary responseTimeMs,
+                            LatencySummary serviceTimeMs,
+                            Map<String, Long> outcomes) {
+    }
+
+    record Summary(String baseUrl,
+                   double targetRate,
+                   long durationSeconds,
+                   int accounts,
+                   double zipfExponent,
+                   String mix,
+                   List<OperationSummary> operations) {
+    }
+
+    private LoadTestReport() {
+    }
+
+    static Summary summarize(LoadTestConfig config, int accounts, LatencyRecorder recorder) {
+        double seconds = config.duration().toNanos() / 1_000_000_000.0;
+        List<OperationSummary> operations = new ArrayList<>();
+        Histogram allResponse = new Histogram(3);
+        Histogram allService = new Histogram(3);
+        Map<String, Long> allOutcomes = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            Histogram response = recorder.responseTimes(operation);
+            Histogram service = recorder.serviceTimes(operation);
+            Map<String, Long> outcomes = recorder.outcomes(operation);
+            if (outcomes.isEmpty()) {
+                continue;
+            }
+            allResponse.add(response);
+            allService.add(service);
+            outcomes.forEach((outcome, count) -> allOutcomes.merge(outcome, count, Long::sum));
+            operations.add(new OperationSummary(operation.name().toLowerCase(Locale.ROOT), response.getTotalCount() / seconds,
+                    LatencySummary.of(response), LatencySummary.of(service), outcomes));
+        }
+        operations.add(new OperationSummary("all", allResponse.getTotalCount() / seconds,
+                LatencySummary.of(allResponse), LatencySummary.of(allService), allOutcomes));
+        return new Summary(config.baseUrl().toString(), config.rate(), config.duration().toSeconds(), accounts,
+                config.zipfExponent(), config.mix().toString(), operations);
+    }
+
+    static void print(Summary summary, PrintStream out) {
+        out.printf("%n目標速率 %.0f req/s，量測 %d 秒，帳戶 %d 個，Zipf %.2f，比例 %s%n",
+                summary.targetRate(), summary.durationSeconds(), summary.accounts(), summary.zipfExponent(), summary.mix());
+        out.println("回應時間 (自預定送出時間起算，ms)；括號內為服務時間 p99");
+        out.printf("%-10s %9s %9s %9s %9s %9s %9s %10s  %s%n",
+                "operation", "req/s", "p50", "p90", "p99", "p99.9", "max", "(svc p99)", "outcomes");
+        for (OperationSummary operation : summary.operations()) {
+            LatencySummary latency = operation.responseTimeMs();
+            out.printf("%-10s %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %10.2f  %s%n",
+                    operation.operation(), operation.throughputPerSecond(),
+                    latency.p50(), latency.p90(), latency.p99(), latency.p999(), latency.max(),
+                    operation.serviceTimeMs().p99(), operation.outcomes());
+        }
+    }
+
+    static void write(Summary summary, Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), summary);
+    }
+}
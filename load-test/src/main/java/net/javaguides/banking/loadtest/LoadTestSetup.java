@@ -0,0 +1,74 @@
+package net.javaguides.banking.loadtest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 準備階段：註冊並登入虛擬使用者，替每位使用者建立帳戶。
+ *
+ * 使用者已存在 (以相同 --userPrefix 重跑) 時直接登入。回傳的帳戶清單以固定種子打亂，
+ * 排名在前的熱門帳戶分散在不同使用者之間。
+ */
+final class LoadTestSetup {
+
+    static final String PASSWORD = "loadtest-pass";
+
+    static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000.00");
+
+    // 同時進行的準備請求數，避免註冊時的密碼雜湊佔滿伺服器
+    private static final int PARALLELISM = 8;
+
+    record UserSession(String username, String token) {
+    }
+
+    record AccountRef(long id, UserSession owner) {
+    }
+
+    private LoadTestSetup() {
+    }
+
+    static List<AccountRef> prepare(BankingClient client, LoadTestConfig config) throws Exception {
+        Semaphore permits = new Semaphore(PARALLELISM);
+        List<Future<List<AccountRef>>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < config.users(); i++) {
+                String username = config.userPrefix() + "_" + i;
+                results.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return prepareUser(client, username, config.accountsPerUser());
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        }
+
+        List<AccountRef> accounts = new ArrayList<>();
+        for (Future<List<AccountRef>> result : results) {
+            accounts.addAll(result.get());
+        }
+        Collections.shuffle(accounts, new Random(42));
+        return accounts;
+    }
+
+    private static List<AccountRef> prepareUser(BankingClient client, String username, int accountCount) throws Exception {
+        int status = client.signup(username, PASSWORD);
+        if (status != 200 && status != 201 && status != 400 && status != 409) {
+            throw new LoadTestException("signup " + username + " failed with HTTP " + status);
+        }
+        UserSession session = new UserSession(username, client.signin(username, PASSWORD));
+        List<AccountRef> accounts = new ArrayList<>(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            accounts.add(new AccountRef(client.createAccount(session.token(), INITIAL_BALANCE), session));
+        }
+        return accounts;
+    }
+}
@@ -0,0 +1,133 @@
+package net.javaguides.banking.loadtest;
+
+import net.javaguides.banking.loadtest.LoadTestSetup.AccountRef;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.http.HttpRequest;
+import java.net.http.HttpTimeoutException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 開放迴路 (open-loop) 負載：依固定速率在預定時間送出請求，不等待前一個請求完成。
+ *
+ * 封閉迴路的測試工具在伺服器變慢時會自動少送請求，延遲被低估；這裡的到達速率與伺服器的回應速度無關，
+ * 每個請求以獨立的虛擬執行緒送出。同時進行中的請求超過 maxInflight 時不送出並記為 dropped，
+ * 表示伺服器已無法跟上設定的速率。
+ */
+final class OpenLoopDriver {
+
+    private static final BigDecimal NEW_ACCOUNT_BALANCE = new BigDecimal("1000.00");
+
+    private final LoadTestConfig config;
+
+    private final BankingClient client;
+
+    private final List<AccountRef> accounts;
+
+    private final ZipfSampler sampler;
+
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    OpenLoopDriver(LoadTestConfig config, BankingClient client, List<AccountRef> accounts) {
+        this.config = config;
+        this.client = client;
+        this.accounts = accounts;
+        this.sampler = new ZipfSampler(accounts.size(), config.zipfExponent());
+    }
+
+    /**
+     * 執行暖機與量測，回傳量測期間的結果。
+     */
+    LatencyRecorder run() {
+        long intervalNanos = Math.max(1, (long) (1_000_000_000L / config.rate()));
+        long start = System.nanoTime();
+        long measureStart = start + config.warmup().toNanos();
+        long end = measureStart + config.duration().toNanos();
+        Semaphore inflight = new Semaphore(config.maxInflight());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long intended = start + i * intervalNanos;
+                if (intended >= end) {
+                    break;
+                }
+                parkUntil(intended);
+
+                boolean measured = intended >= measureStart;
+                Operation operation = config.mix().pick(ThreadLocalRandom.current().nextDouble());
+                if (!inflight.tryAcquire()) {
+                    if (measured) {
+                        recorder.recordDropped(operation);
+                    }
+                    continue;
+                }
+                HttpRequest request = buildRequest(operation, ThreadLocalRandom.current());
+                executor.execute(() -> {
+                    try {
+                        send(operation, request, intended, measured);
+                    } finally {
+                        inflight.release();
+                    }
+                });
+            }
+        }
+        return recorder;
+    }
+
+    private void send(Operation operation, HttpRequest request, long intended, boolean measured) {
+        long sent = System.nanoTime();
+        String outcome;
+        try {
+            outcome = Integer.toString(client.execute(request));
+        } catch (HttpTimeoutException e) {
+            outcome = LatencyRecorder.TIMEOUT;
+        } catch (IOException e) {
+            outcome = e.getClass().getSimpleName();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long done = System.nanoTime();
+        if (measured) {
+            recorder.record(operation, outcome, done - intended, done - sent);
+        }
+    }
+
+    private HttpRequest buildRequest(Operation operation, ThreadLocalRandom random) {
+        int index = sampler.sample(random.nextDouble());
+        AccountRef account = accounts.get(index);
+        String token = account.owner().token();
+        return switch (operation) {
+            case CREATE -> client.createAccountRequest(token, NEW_ACCOUNT_BALANCE);
+            case DEPOSIT -> client.depositRequest(token, account.id(), amount(random));
+            case WITHDRAW -> client.withdrawRequest(token, account.id(), amount(random));
+            case TRANSFER -> {
+                // 轉入帳戶同樣依熱門程度選擇，可能屬於其他使用者
+                int toIndex = sampler.sample(random.nextDouble());
+                if (toIndex == index) {
+                    toIndex = (index + 1) % accounts.size();
+                }
+                yield client.transferRequest(token, account.id(), accounts.get(toIndex).id(), amount(random));
+            }
+            case HISTORY -> client.historyRequest(token, account.id());
+        };
+    }
+
+    // 1.00 ~ 100.00 的整數金額，存款與取款的期望值相同，帳戶餘額不會持續下降
+    private static BigDecimal amount(ThreadLocalRandom random) {
+        return BigDecimal.valueOf(random.nextInt(1, 101)).setScale(2);
+    }
+
+    private static void parkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
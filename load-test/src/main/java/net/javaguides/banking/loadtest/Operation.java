@@ -0,0 +1,12 @@
+package net.javaguides.banking.loadtest;
+
+/**
+ * 壓力測試送出的請求種類，名稱 (小寫) 即 --mix 參數中使用的名稱。
+ */
+public enum Operation {
+    CREATE,
+    DEPOSIT,
+    WITHDRAW,
+    TRANSFER,
+    HISTORY
+}
@@ -0,0 +1,70 @@
+package net.javaguides.banking.loadtest;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * 依權重隨機選擇請求種類，例如 "deposit=30,withdraw=20,transfer=18,history=30,create=2"。
+ */
+public final class OperationMix {
+
+    private final Operation[] operations;
+
+    private final double[] cumulative;
+
+    private final Map<Operation, Integer> weights;
+
+    private OperationMix(Map<Operation, Integer> weights) {
+        this.weights = weights;
+        this.operations = weights.keySet().toArray(Operation[]::new);
+        this.cumulative = new double[operations.length];
+        double total = weights.values().stream().mapToInt(Integer::intValue).sum();
+        double sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += weights.get(operations[i]);
+            cumulative[i] = sum / total;
+        }
+    }
+
+    public static OperationMix parse(String spec) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry '" + part + "', expected name=weight");
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Mix weight must not be negative: " + part);
+            }
+            if (weight > 0) {
+                weights.put(Operation.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Mix must contain at least one positive weight");
+        }
+        return new OperationMix(weights);
+    }
+
+    /**
+     * @param uniform [0, 1) 的亂數。
+     */
+    public Operation pick(double uniform) {
+        for (int i = 0; i < cumulative.length - 1; i++) {
+            if (uniform < cumulative[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(",");
+        weights.forEach((operation, weight) -> joiner.add(operation.name().toLowerCase(Locale.ROOT) + "=" + weight));
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,40 @@
+package net.javaguides.banking.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * 依 Zipf 分布選擇 0 ~ n-1 的排名：排名 k 被選中的機率與 1 / (k+1)^exponent 成正比。
+ * exponent 為 0 時為均勻分布；1 左右時少數帳戶承擔大部分流量，接近實際的熱門帳戶情形。
+ */
+public final class ZipfSampler {
+
+    private final double[] cumulative;
+
+    public ZipfSampler(int n, double exponent) {
+        if (n < 1) {
+            throw new IllegalArgumentException("n must be positive");
+        }
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= sum;
+        }
+    }
+
+    /**
+     * @param uniform [0, 1) 的亂數。
+     */
+    public int sample(double uniform) {
+        int index = Arrays.binarySearch(cumulative, uniform);
+        int rank = index >= 0 ? index + 1 : -index - 1;
+        return Math.min(rank, cumulative.length - 1);
+    }
+
+    public int size() {
+        return cumulative.length;
+    }
+}
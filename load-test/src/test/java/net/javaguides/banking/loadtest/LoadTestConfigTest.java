@@ -0,0 +1,48 @@
+package net.javaguides.banking.loadtest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadTestConfigTest {
+
+    @Test
+    @DisplayName("測試-解析參數-未指定的使用預設值-authUrl預設同baseUrl")
+    void testParse_AppliesDefaults() {
+        //Act
+        LoadTestConfig config = LoadTestConfig.parse("--baseUrl=http://localhost:8081/", "--rate=500", "--mix=deposit=1");
+
+        //Assert
+        assertEquals(URI.create("http://localhost:8081"), config.baseUrl());
+        assertEquals(config.baseUrl(), config.authUrl());
+        assertEquals(500, config.rate());
+        assertEquals(Duration.ofSeconds(60), config.duration());
+        assertEquals(Operation.DEPOSIT, config.mix().pick(0.99));
+    }
+
+    @Test
+    @DisplayName("測試-未知參數或格式錯誤-拋出IllegalArgumentException")
+    void testParse_RejectsInvalidArguments() {
+        //Act //Assert
+        assertThrows(IllegalArgumentException.class, () -> LoadTestConfig.parse("--rps=100"));
+        assertThrows(IllegalArgumentException.class, () -> LoadTestConfig.parse("rate=100"));
+        assertThrows(IllegalArgumentException.class, () -> LoadTestConfig.parse("--mix=deposit=0"));
+        assertThrows(IllegalArgumentException.class, () -> LoadTestConfig.parse("--users=1", "--accountsPerUser=1"));
+    }
+
+    @Test
+    @DisplayName("測試-請求比例-依權重選擇")
+    void testOperationMix_PicksByWeight() {
+        //Arrange
+        OperationMix mix = OperationMix.parse("deposit=1,transfer=3");
+
+        //Act //Assert
+        assertEquals(Operation.DEPOSIT, mix.pick(0.2));
+        assertEquals(Operation.TRANSFER, mix.pick(0.3));
+        assertEquals(Operation.TRANSFER, mix.pick(0.99));
+    }
+}
@@ -0,0 +1,44 @@
+package net.javaguides.banking.loadtest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZipfSamplerTest {
+
+    @Test
+    @DisplayName("測試-Zipf分布-排名越前被選中次數越多")
+    void testSample_SkewsTowardTopRanks() {
+        //Arrange
+        ZipfSampler sampler = new ZipfSampler(100, 1.1);
+        Random random = new Random(1);
+        int[] counts = new int[100];
+
+        //Act
+        for (int i = 0; i < 100_000; i++) {
+            counts[sampler.sample(random.nextDouble())]++;
+        }
+
+        //Assert
+        assertTrue(counts[0] > counts[1]);
+        assertTrue(counts[1] > counts[10]);
+        assertTrue(counts[0] > 100_000 / 10, "第一名應承擔一成以上的流量");
+    }
+
+    @Test
+    @DisplayName("測試-指數為0-均勻分布且不超出範圍")
+    void testSample_ZeroExponent_IsUniform() {
+        //Arrange
+        ZipfSampler sampler = new ZipfSampler(4, 0);
+
+        //Act //Assert
+        assertEquals(0, sampler.sample(0.0));
+        assertEquals(0, sampler.sample(0.24));
+        assertEquals(1, sampler.sample(0.25));
+        assertEquals(3, sampler.sample(0.99));
+        assertEquals(3, sampler.sample(Math.nextDown(1.0)));
+    }
+}
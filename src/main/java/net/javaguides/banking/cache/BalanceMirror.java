@@ -0,0 +1,416 @@
+package net.javaguides.banking.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import net.javaguides.banking.entity.Account;
+import net.javaguides.banking.money.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 帳戶餘額的堆外鏡像 (off-heap mirror)，存放在記憶體映射檔中。
+ *
+ * 檔案由 64 bytes 的檔頭與固定寬度 32 bytes 的槽位組成，槽位直接以帳戶 ID 為索引：
+ * <pre>
+ *   +0  seq      序號鎖 (seqlock)，奇數代表寫入中
+ *   +8  version  與 Account.version 相同
+ *   +16 balance  以分為單位的餘額 (scale = 2)；{@link #UNAVAILABLE} 代表此版本無法以 scale 2 精確表示
+ *   +24 owner    擁有者 user_id；0 = 空槽，-1 = 已刪除
+ * </pre>
+ *
+ * 寫入只發生在交易提交之後 (write-through)，且只接受版本號更大的值，
+ * 因此提交順序與 afterCommit 回呼順序不一致時也不會被舊值覆蓋。
+ * 讀取不配置物件、不取得資料庫連線；讀到寫入中的槽位時重試，重試過多則視為未命中。
+ *
+ * 檔案在重啟後沿用 (warm restart)。檔頭記錄資料來源的指紋，換了資料庫就會清空重建；
+ * 若資料庫由備份還原，必須刪除鏡像檔案 (帳戶版本號可能倒退)。
+ * 多節點部署時，停機期間其他節點的變更由失效匯流排重播補上；停機 (或異常結束) 超過
+ * spring.app.balanceMirrorMaxStaleMinutes 時匯流排已無法補齊，直接清空重建。
+ * 帳戶 ID 由資料庫自動遞增、不會重複使用，已刪除的槽位不會再被寫入。
+ */
+@Component
+public class BalanceMirror {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceMirror.class);
+
+    public static final int SCALE = Money.SCALE;
+
+    public static final long UNAVAILABLE = Long.MIN_VALUE;
+
+    /** {@link #readVersion} 未命中時的回傳值；帳戶版本號從 0 開始，不會與此值相衝。 */
+    public static final long MISS = -1L;
+
+    private static final long MAGIC = 0x42414C4D49525231L; // "BALMIRR1"
+    private static final int LAYOUT_VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int CLOSED_AT = 32;
+    private static final int SLOT_SIZE = 32;
+
+    private static final int SEQ = 0;
+    private static final int VERSION = 8;
+    private static final int BALANCE = 16;
+    private static final int OWNER = 24;
+
+    private static final long EMPTY = 0L;
+    private static final long DELETED = -1L;
+
+    // 讀者遇到寫入中的槽位時最多自旋的次數，超過就回到資料庫
+    private static final int MAX_READ_SPINS = 64;
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    @Value("${spring.app.balanceMirrorEnabled:false}")
+    private boolean enabled;
+
+    @Value("${spring.app.balanceMirrorPath:./data/balance-mirror.dat}")
+    private String path;
+
+    @Value("${spring.app.balanceMirrorSlots:1048576}")
+    private int slots;
+
+    // 0 = 不限制 (單節點部署時資料只會由本節點修改)
+    @Value("${spring.app.balanceMirrorMaxStaleMinutes:0}")
+    private long maxStaleMinutes;
+
+    @Value("${spring.datasource.url:}")
+    private String datasourceUrl;
+
+    private FileChannel channel;
+
+    private FileLock fileLock;
+
+    private MappedByteBuffer buffer;
+
+    /**
+     * 讀取結果。由呼叫端建立並可重複使用，鏡像本身不配置任何物件。
+     */
+    public static final class Entry {
+        public long version;
+        public long unscaledBalance;
+        public long ownerId;
+
+        public Money balance() {
+            return Money.ofMinor(unscaledBalance);
+        }
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        long maxSlots = (Integer.MAX_VALUE - HEADER_SIZE) / SLOT_SIZE;
+        if (slots <= 0 || slots > maxSlots) {
+            throw new IllegalStateException("spring.app.balanceMirrorSlots must be between 1 and " + maxSlots);
+        }
+
+        Path file = Path.of(path).toAbsolutePath();
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        fileLock = channel.tryLock();
+        if (fileLock == null) {
+            // 同一台機器上另一個程序正在使用同一個檔案
+            logger.warn("餘額鏡像檔 {} 已被其他程序使用，停用鏡像", file);
+            channel.close();
+            channel = null;
+            return;
+        }
+
+        long size = HEADER_SIZE + (long) slots * SLOT_SIZE;
+        long fingerprint = fingerprint(datasourceUrl);
+        long existingSize = channel.size();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+        if (existingSize == size && headerMatches(fingerprint) && !tooStale()) {
+            int repaired = repairTornSlots();
+            logger.info("沿用餘額鏡像檔 {} ({} 個槽位，修復 {} 個未完成寫入)", file, slots, repaired);
+        } else {
+            if (existingSize != 0) {
+                logger.warn("餘額鏡像檔 {} 格式、資料來源不符或停用過久，清空重建", file);
+                clear();
+            }
+            writeHeader(fingerprint);
+        }
+        // 使用中標記為 0，正常關閉時才寫入關閉時間；異常結束會被視為無法得知停機多久
+        LONG.setRelease(buffer, CLOSED_AT, 0L);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (buffer != null) {
+            LONG.setRelease(buffer, CLOSED_AT, System.currentTimeMillis());
+            buffer.force();
+            buffer = null;
+        }
+        if (fileLock != null) {
+            fileLock.release();
+            fileLock = null;
+        }
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return buffer != null;
+    }
+
+    /**
+     * 讀取帳戶餘額。未命中 (未啟用、超出範圍、空槽、已刪除、無法精確表示或持續寫入中) 時回傳 false。
+     */
+    public boolean read(long accountId, Entry target) {
+        MappedByteBuffer buf = buffer;
+        if (buf == null || !inRange(accountId)) {
+            return false;
+        }
+        int base = offset(accountId);
+        for (int spin = 0; spin < MAX_READ_SPINS; spin++) {
+            long before = (long) LONG.getAcquire(buf, base + SEQ);
+            if ((before & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long version = (long) LONG.get(buf, base + VERSION);
+            long balance = (long) LONG.get(buf, base + BALANCE);
+            long owner = (long) LONG.get(buf, base + OWNER);
+            VarHandle.loadLoadFence();
+            if ((long) LONG.getVolatile(buf, base + SEQ) != before) {
+                continue;
+            }
+            if (owner == EMPTY || owner == DELETED || balance == UNAVAILABLE) {
+                return false;
+            }
+            target.version = version;
+            target.unscaledBalance = balance;
+            target.ownerId = owner;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 只讀取版本號，供 ETag 使用，不需要 {@link Entry}。未命中的條件與 {@link #read} 相同，未命中時回傳 {@link #MISS}。
+     */
+    public long readVersion(long accountId) {
+        MappedByteBuffer buf = buffer;
+        if (buf == null || !inRange(accountId)) {
+            return MISS;
+        }
+        int base = offset(accountId);
+        for (int spin = 0; spin < MAX_READ_SPINS; spin++) {
+            long before = (long) LONG.getAcquire(buf, base + SEQ);
+            if ((before & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long version = (long) LONG.get(buf, base + VERSION);
+            long balance = (long) LONG.get(buf, base + BALANCE);
+            long owner = (long) LONG.get(buf, base + OWNER);
+            VarHandle.loadLoadFence();
+            if ((long) LONG.getVolatile(buf, base + SEQ) != before) {
+                continue;
+            }
+            return owner == EMPTY || owner == DELETED || balance == UNAVAILABLE ? MISS : version;
+        }
+        return MISS;
+    }
+
+    /**
+     * 回傳帳戶擁有者的 user_id；不知道時回傳 0。擁有者不會變更，因此不受餘額版本影響。
+     */
+    public long ownerOf(long accountId) {
+        MappedByteBuffer buf = buffer;
+        if (buf == null || !inRange(accountId)) {
+            return EMPTY;
+        }
+        int base = offset(accountId);
+        long owner = (long) LONG.getVolatile(buf, base + OWNER);
+        return owner == DELETED ? EMPTY : owner;
+    }
+
+    /**
+     * 以已提交的帳戶狀態更新槽位；只有版本號大於現值時才會寫入。
+     */
+    public void put(Account account) {
+        if (buffer == null || account == null || account.getId() == null || account.getVersion() == null
+                || account.getUser() == null || account.getUser().getUserId() == null) {
+            return;
+        }
+        write(account.getId(), account.getVersion(), toUnscaled(account.getBalance()), account.getUser().getUserId());
+    }
+
+    /**
+     * 在目前交易提交後才更新；沒有進行中的交易時立即更新。
+     * 提交後才讀取版本號與餘額，此時 Hibernate 已完成 flush，版本號與資料庫一致。
+     */
+    public void putAfterCommit(Account account) {
+        if (buffer == null) {
+            return;
+        }
+        afterCommit(() -> put(account));
+    }
+
+    /**
+     * 帳戶刪除後將槽位標記為已刪除，之後不再接受寫入。
+     */
+    public void evictAfterCommit(Long accountId) {
+        if (buffer == null || accountId == null) {
+            return;
+        }
+        afterCommit(() -> evict(accountId));
+    }
+
+    /**
+     * 將槽位標記為已刪除。
+     */
+    public void evict(long accountId) {
+        write(accountId, Long.MAX_VALUE, UNAVAILABLE, DELETED);
+    }
+
+    /**
+     * 其他節點已提交了新版本：記下版本號但不提供餘額，之後的讀取回到資料庫並回填。
+     * 記下版本號可以擋住本節點稍晚才完成、但讀到舊資料的回填。
+     */
+    public void invalidate(long accountId, long version, long ownerId) {
+        if (ownerId <= 0) {
+            return;
+        }
+        write(accountId, version, UNAVAILABLE, ownerId);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void write(long accountId, long version, long unscaledBalance, long owner) {
+        MappedByteBuffer buf = buffer;
+        if (buf == null || !inRange(accountId)) {
+            return;
+        }
+        int base = offset(accountId);
+        long seq;
+        // 以 CAS 將序號改為奇數取得槽位的寫入權
+        do {
+            seq = (long) LONG.getVolatile(buf, base + SEQ);
+            if ((seq & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (LONG.compareAndSet(buf, base + SEQ, seq, seq + 1)) {
+                break;
+            }
+        } while (true);
+
+        try {
+            long currentOwner = (long) LONG.get(buf, base + OWNER);
+            long currentVersion = (long) LONG.get(buf, base + VERSION);
+            if (currentOwner == DELETED || (currentOwner != EMPTY && currentVersion >= version)) {
+                return;
+            }
+            LONG.set(buf, base + VERSION, version);
+            LONG.set(buf, base + BALANCE, unscaledBalance);
+            LONG.set(buf, base + OWNER, owner);
+        } finally {
+            LONG.setRelease(buf, base + SEQ, seq + 2);
+        }
+    }
+
+    private static long toUnscaled(Money balance) {
+        // Money 已固定為 2 位小數，只剩 Long.MIN_VALUE 與 UNAVAILABLE 相衝
+        return balance == null ? UNAVAILABLE : balance.minorUnits();
+    }
+
+    private boolean inRange(long accountId) {
+        return accountId > 0 && accountId < slots;
+    }
+
+    private static int offset(long accountId) {
+        return HEADER_SIZE + (int) accountId * SLOT_SIZE;
+    }
+
+    private boolean headerMatches(long fingerprint) {
+        return (long) LONG.get(buffer, 0) == MAGIC
+                && (long) LONG.get(buffer, 8) == LAYOUT_VERSION
+                && (long) LONG.get(buffer, 16) == slots
+                && (long) LONG.get(buffer, 24) == fingerprint;
+    }
+
+    private boolean tooStale() {
+        if (maxStaleMinutes <= 0) {
+            return false;
+        }
+        long closedAt = (long) LONG.get(buffer, CLOSED_AT);
+        return closedAt == 0L || System.currentTimeMillis() - closedAt > maxStaleMinutes * 60_000L;
+    }
+
+    private void writeHeader(long fingerprint) {
+        LONG.set(buffer, 8, (long) LAYOUT_VERSION);
+        LONG.set(buffer, 16, (long) slots);
+        LONG.set(buffer, 24, fingerprint);
+        // 最後才寫入 magic，檔頭寫到一半時中斷下次會整個重建
+        LONG.setRelease(buffer, 0, MAGIC);
+        buffer.force();
+    }
+
+    private void clear() {
+        for (int i = 0; i < buffer.capacity(); i += 8) {
+            LONG.set(buffer, i, 0L);
+        }
+    }
+
+    /**
+     * 程序在寫入途中結束時序號會停在奇數，這些槽位的內容不可信，直接清空。
+     */
+    private int repairTornSlots() {
+        int repaired = 0;
+        for (long id = 1; id < slots; id++) {
+            int base = offset(id);
+            long seq = (long) LONG.get(buffer, base + SEQ);
+            if ((seq & 1) != 0) {
+                LONG.set(buffer, base + VERSION, 0L);
+                LONG.set(buffer, base + BALANCE, 0L);
+                LONG.set(buffer, base + OWNER, EMPTY);
+                LONG.set(buffer, base + SEQ, seq + 1);
+                repaired++;
+            }
+        }
+        return repaired;
+    }
+
+    private static long fingerprint(String source) {
+        // FNV-1a 64-bit
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < source.length(); i++) {
+            hash ^= source.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,43 @@
+package net.javaguides.banking.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * 快取失效匯流排。
+ *
+ * 資料變更的交易提交後發布事件，其他節點收到後清除自己的近端快取
+ * (餘額鏡像、Hibernate 二級快取、Token 撤銷紀元)。
+ * 發布端節點自己的快取已在本地更新，不會再收到自己的事件。
+ *
+ * 實作：
+ * - {@link InMemoryCacheInvalidationBus}：單一 JVM (預設、測試用)
+ * - {@link DatabaseCacheInvalidationBus}：以資料表傳遞，多節點部署不需要額外的訊息中介
+ */
+public interface CacheInvalidationBus {
+
+    /**
+     * 立即發布事件。
+     */
+    void publish(InvalidationEvent event);
+
+    /**
+     * 讓其他節點在目前交易提交後才收到事件；沒有進行中的交易時立即發布。
+     * 預設在提交後建立並發布，事件內容 (例如 Account.version) 與資料庫一致；
+     * 需要寫入資料庫的實作應在提交前以同一個交易寫入 (見 {@link DatabaseCacheInvalidationBus})。
+     */
+    default void publishAfterCommit(Supplier<InvalidationEvent> event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(event.get());
+                }
+            });
+        } else {
+            publish(event.get());
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package net.javaguides.banking.cache;
+
+/**
+ * 接收其他節點送來的失效事件，清除本節點的快取。實作必須可重複執行 (冪等)。
+ */
+public interface CacheInvalidationListener {
+
+    void onInvalidation(InvalidationEvent event);
+}
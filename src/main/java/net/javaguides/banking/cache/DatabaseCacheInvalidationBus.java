@@ -0,0 +1,166 @@
+package net.javaguides.banking.cache;
+
+import jakarta.annotation.PostConstruct;
+import net.javaguides.banking.entity.CacheInvalidation;
+import net.javaguides.banking.repository.CacheInvalidationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * 以資料表 cache_invalidations 傳遞失效事件，多節點部署時不需要額外的訊息中介。
+ *
+ * 發布：在資料變更的交易提交前 (beforeCommit) 以同一個交易寫入一筆紀錄，與資料變更一起提交或回滾，
+ * 其他節點在提交後才看得到；不另外占用連線 (afterCommit 時原交易的連線尚未歸還，再開交易需要第二條連線，
+ * 連線許可用完時會互相等待並丟棄事件)。沒有進行中的交易時以獨立交易寫入。
+ * 接收：每個節點定期輪詢比上次看到的 ID 更大的紀錄，略過自己發布的事件。
+ *
+ * 自動遞增 ID 的提交順序不一定等於 ID 順序 (較小的 ID 可能較晚提交)，
+ * 因此每次輪詢都往回多看 {@link #LOOKBACK} 筆，並記住已處理過的 ID 避免重複清除快取。
+ * 啟動時會重播資料表中保留的所有事件，讓沿用的餘額鏡像追上停機期間其他節點的變更。
+ */
+@Component
+@ConditionalOnProperty(name = "spring.app.cacheInvalidationBus", havingValue = "database")
+public class DatabaseCacheInvalidationBus implements CacheInvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseCacheInvalidationBus.class);
+
+    static final int LOOKBACK = 256;
+
+    private static final int BATCH_SIZE = 1000;
+
+    // 每輪詢這麼多次清除一次過期紀錄
+    private static final int CLEANUP_EVERY_POLLS = 600;
+
+    @Autowired
+    private CacheInvalidationRepository cacheInvalidationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectProvider<CacheInvalidationListener> listeners;
+
+    @Value("${spring.app.nodeId:}")
+    private String nodeId;
+
+    @Value("${spring.app.cacheInvalidationRetentionMinutes:60}")
+    private long retentionMinutes;
+
+    private TransactionTemplate requiresNew;
+
+    private long lastSeenId;
+
+    private final NavigableSet<Long> processed = new TreeSet<>();
+
+    private int polls;
+
+    @PostConstruct
+    public void init() {
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = UUID.randomUUID().toString();
+        }
+        requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        logger.info("快取失效匯流排 (資料表) 已啟用，節點 ID: {}", nodeId);
+    }
+
+    @Override
+    public void publish(InvalidationEvent event) {
+        try {
+            // 呼叫端可能仍綁定已提交的交易資源 (例如 afterCommit)，必須開新交易才會真正寫入
+            requiresNew.executeWithoutResult(status ->
+                    cacheInvalidationRepository.save(CacheInvalidation.from(event.withOrigin(nodeId))));
+        } catch (RuntimeException e) {
+            // 資料已提交，不能因為通知失敗而讓請求失敗；其他節點的快取會在 TTL 到期後更新
+            logger.warn("發布快取失效事件 {} 失敗", event, e);
+        }
+    }
+
+    /**
+     * 在目前交易提交前寫入事件，寫入失敗時整個交易回滾 (資料與通知一致)。
+     * 先 flush，讓事件讀到提交時的內容 (例如 Account.version 在 flush 時才遞增)。
+     */
+    @Override
+    public void publishAfterCommit(Supplier<InvalidationEvent> event) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            CacheInvalidationBus.super.publishAfterCommit(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                cacheInvalidationRepository.flush();
+                cacheInvalidationRepository.save(CacheInvalidation.from(event.get().withOrigin(nodeId)));
+            }
+        });
+    }
+
+    // fixedDelay：上一次輪詢結束後才排下一次，不會有兩個執行緒同時輪詢
+    @Scheduled(fixedDelayString = "${spring.app.cacheInvalidationPollMs:1000}")
+    public void poll() {
+        try {
+            long floor = Math.max(0L, lastSeenId - LOOKBACK);
+            List<CacheInvalidation> rows;
+            do {
+                rows = cacheInvalidationRepository.findByIdGreaterThanOrderByIdAsc(floor, PageRequest.of(0, BATCH_SIZE));
+                for (CacheInvalidation row : rows) {
+                    floor = row.getId();
+                    if (!processed.add(row.getId())) {
+                        continue;
+                    }
+                    lastSeenId = Math.max(lastSeenId, row.getId());
+                    if (!nodeId.equals(row.getOriginNode())) {
+                        deliver(row.toEvent());
+                    }
+                }
+            } while (rows.size() == BATCH_SIZE);
+
+            processed.headSet(Math.max(0L, lastSeenId - LOOKBACK), true).clear();
+
+            if (++polls % CLEANUP_EVERY_POLLS == 0) {
+                cleanup();
+            }
+        } catch (RuntimeException e) {
+            logger.warn("輪詢快取失效事件失敗", e);
+        }
+    }
+
+    String getNodeId() {
+        return nodeId;
+    }
+
+    private void deliver(InvalidationEvent event) {
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onInvalidation(event);
+            } catch (RuntimeException e) {
+                logger.warn("處理快取失效事件 {} 失敗", event, e);
+            }
+        });
+    }
+
+    private void cleanup() {
+        LocalDateTime before = LocalDateTime.now().minusMinutes(retentionMinutes);
+        Integer deleted = requiresNew.execute(status -> cacheInvalidationRepository.deleteCreatedBefore(before));
+        logger.debug("清除 {} 筆過期的快取失效事件", deleted);
+    }
+}
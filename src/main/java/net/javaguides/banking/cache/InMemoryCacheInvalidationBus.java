@@ -0,0 +1,80 @@
+package net.javaguides.banking.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 單一 JVM 內的失效匯流排。
+ *
+ * 同一個 {@link Hub} 內的匯流排代表不同節點，事件會同步送到其他節點的監聽器。
+ * 作為 Spring Bean 時只有自己一個節點，因此發布不會產生任何動作 (單機部署不需要失效通知)；
+ * 測試可以建立共用同一個 Hub 的多個實例來模擬叢集。
+ */
+@Component
+@ConditionalOnProperty(name = "spring.app.cacheInvalidationBus", havingValue = "memory", matchIfMissing = true)
+public class InMemoryCacheInvalidationBus implements CacheInvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryCacheInvalidationBus.class);
+
+    /**
+     * 模擬的叢集，持有所有節點的匯流排。
+     */
+    public static final class Hub {
+        private final List<InMemoryCacheInvalidationBus> nodes = new CopyOnWriteArrayList<>();
+    }
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Hub hub;
+
+    private final ObjectProvider<CacheInvalidationListener> listeners;
+
+    private final List<CacheInvalidationListener> extraListeners = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    public InMemoryCacheInvalidationBus(ObjectProvider<CacheInvalidationListener> listeners) {
+        this(new Hub(), listeners);
+    }
+
+    public InMemoryCacheInvalidationBus(Hub hub, ObjectProvider<CacheInvalidationListener> listeners) {
+        this.hub = hub;
+        this.listeners = listeners;
+        hub.nodes.add(this);
+    }
+
+    /**
+     * 加入不是 Spring Bean 的監聽器 (測試用)。
+     */
+    public void addListener(CacheInvalidationListener listener) {
+        extraListeners.add(listener);
+    }
+
+    @Override
+    public void publish(InvalidationEvent event) {
+        InvalidationEvent stamped = event.withOrigin(nodeId);
+        for (InMemoryCacheInvalidationBus node : hub.nodes) {
+            if (node != this) {
+                node.deliver(stamped);
+            }
+        }
+    }
+
+    private void deliver(InvalidationEvent event) {
+        try {
+            if (listeners != null) {
+                listeners.orderedStream().forEach(listener -> listener.onInvalidation(event));
+            }
+            extraListeners.forEach(listener -> listener.onInvalidation(event));
+        } catch (RuntimeException e) {
+            logger.warn("處理快取失效事件 {} 失敗", event, e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package net.javaguides.banking.cache;
+
+import net.javaguides.banking.entity.Account;
+
+/**
+ * 叢集間傳遞的快取失效事件。
+ *
+ * version 的意義依類型而定：ACCOUNT_UPDATED 為提交後的 Account.version，
+ * USER_REVOKED 為使用者新的 Token 紀元；ACCOUNT_DELETED 不使用。
+ * 所有事件都可以重複處理，接收端以版本號 / 紀元取最大值，順序顛倒也不會回到舊狀態。
+ */
+public record InvalidationEvent(Type type,
+                                long entityId,
+                                long version,
+                                long ownerId,
+                                String origin) {
+
+    public enum Type {
+        ACCOUNT_UPDATED,
+        ACCOUNT_DELETED,
+        USER_REVOKED
+    }
+
+    public static InvalidationEvent accountUpdated(Account account) {
+        long ownerId = account.getUser() != null && account.getUser().getUserId() != null ? account.getUser().getUserId() : 0L;
+        return new InvalidationEvent(Type.ACCOUNT_UPDATED, account.getId(), account.getVersion(), ownerId, null);
+    }
+
+    public static InvalidationEvent accountDeleted(Long accountId) {
+        return new InvalidationEvent(Type.ACCOUNT_DELETED, accountId, 0L, 0L, null);
+    }
+
+    public static InvalidationEvent userRevoked(Long userId, long epoch) {
+        return new InvalidationEvent(Type.USER_REVOKED, userId, epoch, userId, null);
+    }
+
+    public InvalidationEvent withOrigin(String origin) {
+        return new InvalidationEvent(type, entityId, version, ownerId, origin);
+    }
+}
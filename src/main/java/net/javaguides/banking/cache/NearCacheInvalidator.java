@@ -0,0 +1,44 @@
+package net.javaguides.banking.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import net.javaguides.banking.entity.Account;
+import net.javaguides.banking.security.jwt.TokenRevocationRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 收到其他節點的失效事件時，清除本節點的近端快取：
+ * 餘額鏡像、Hibernate 二級快取中的 Account，以及使用者的 Token 紀元。
+ */
+@Component
+public class NearCacheInvalidator implements CacheInvalidationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(NearCacheInvalidator.class);
+
+    @Autowired
+    private BalanceMirror balanceMirror;
+
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void onInvalidation(InvalidationEvent event) {
+        logger.debug("收到節點 {} 的快取失效事件 {} id={}", event.origin(), event.type(), event.entityId());
+        switch (event.type()) {
+            case ACCOUNT_UPDATED -> {
+                balanceMirror.invalidate(event.entityId(), event.version(), event.ownerId());
+                entityManagerFactory.getCache().evict(Account.class, event.entityId());
+            }
+            case ACCOUNT_DELETED -> {
+                balanceMirror.evict(event.entityId());
+                entityManagerFactory.getCache().evict(Account.class, event.entityId());
+            }
+            case USER_REVOKED -> tokenRevocationRegistry.applyEpoch(event.entityId(), event.version());
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package net.javaguides.banking.cache;
+
+import net.javaguides.banking.dto.UserIdentityDTO;
+import net.javaguides.banking.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 已註冊使用者名稱與 Email 的 Bloom filter，讓註冊流程跳過大部分的存在性查詢。
+ *
+ * 回傳 false 代表「一定不存在」，可以直接 INSERT；回傳 true 只代表「可能存在」，
+ * 需要再查詢資料庫確認。真正的唯一性仍由資料表的唯一限制保證，
+ * 因此其他節點註冊、重建期間的新增等尚未放入本節點的值，只會讓 INSERT 觸發限制而被轉換成相同的錯誤。
+ *
+ * 啟動完成時由資料庫分頁重建；位元陣列以 CAS 設定，不需要鎖。
+ */
+@Component
+public class UserIdentityBloomFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserIdentityBloomFilter.class);
+
+    private static final int REBUILD_PAGE_SIZE = 5000;
+
+    private final int bits;
+
+    private final int hashFunctions;
+
+    private volatile AtomicLongArray words;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    public UserIdentityBloomFilter(@Value("${spring.app.signupBloomExpectedUsers:1000000}") long expectedUsers,
+                                   @Value("${spring.app.signupBloomFalsePositiveRate:0.01}") double falsePositiveRate) {
+        // 每位使用者放入使用者名稱與 Email 兩個鍵
+        long expectedKeys = Math.max(1L, expectedUsers * 2);
+        long optimalBits = (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = (int) Math.min(Integer.MAX_VALUE - 63L, Math.max(64L, optimalBits));
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bits / expectedKeys * Math.log(2)));
+        this.words = new AtomicLongArray((bits + 63) / 64);
+    }
+
+    public boolean mightContainUsername(String username) {
+        return mightContain(words, usernameKey(username));
+    }
+
+    public boolean mightContainEmail(String email) {
+        return mightContain(words, emailKey(email));
+    }
+
+    public void add(String username, String email) {
+        AtomicLongArray current = words;
+        put(current, usernameKey(username));
+        put(current, emailKey(email));
+    }
+
+    /**
+     * 由資料庫重新載入所有使用者名稱與 Email，完成後一次替換。
+     * 重建期間新增到舊陣列的值可能遺失，只會多一次 INSERT 觸發唯一限制，不影響正確性。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        AtomicLongArray rebuilt = new AtomicLongArray(words.length());
+        long lastId = 0L;
+        long count = 0L;
+        List<UserIdentityDTO> page;
+        do {
+            page = userRepository.findIdentitiesAfter(lastId, PageRequest.ofSize(REBUILD_PAGE_SIZE));
+            for (UserIdentityDTO identity : page) {
+                put(rebuilt, usernameKey(identity.username()));
+                put(rebuilt, emailKey(identity.email()));
+                lastId = identity.userId();
+            }
+            count += page.size();
+        } while (page.size() == REBUILD_PAGE_SIZE);
+        words = rebuilt;
+        logger.info("註冊 Bloom filter 重建完成：{} 位使用者，{} bits，耗時 {} ms",
+                count, bits, System.currentTimeMillis() - started);
+    }
+
+    private boolean mightContain(AtomicLongArray array, String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashFunctions; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bits);
+            if ((array.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void put(AtomicLongArray array, String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashFunctions; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bits);
+            long mask = 1L << bit;
+            array.getAndAccumulate(bit >>> 6, mask, (word, m) -> word | m);
+        }
+    }
+
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    // MySQL 預設的定序不分大小寫，這裡一律轉小寫；多出的「可能存在」只會多一次查詢
+    private static String usernameKey(String username) {
+        return "u:" + (username == null ? "" : username.toLowerCase(Locale.ROOT));
+    }
+
+    private static String emailKey(String email) {
+        return "e:" + (email == null ? "" : email.toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,183 @@
+package net.javaguides.banking.concurrency;
+
+import net.javaguides.banking.dto.ConcurrencyLimitStatsDTO;
+import net.javaguides.banking.dto.PriorityStatsDTO;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 依延遲自動調整的併發上限 (AIMD)。
+ *
+ * 以固定長度的觀察窗口統計請求延遲：窗口平均延遲明顯高於無負載延遲，或下游回應 503 (資料庫忙碌) 時，
+ * 上限乘以 backoffRatio (乘法遞減)；否則在請求確實用到上限一半以上時加 1 (加法遞增)。
+ * 無負載延遲取觀察到的最小窗口平均，並緩慢向上追蹤，資料庫長期變慢時不會一直降載。
+ *
+ * 各優先等級只能使用上限的一部分 (CRITICAL 全部、NORMAL 與 LOW 依設定比例)，
+ * 上限下降時管理員列表最先被拒絕，其次是一般查詢，資金異動最後。
+ * 超過上限的請求立即拒絕，不在這裡排隊；排隊只發生在資料庫連線的准入控制。
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final RequestPriority[] PRIORITIES = RequestPriority.values();
+
+    private final ConcurrencyLimitProperties properties;
+
+    private final long windowNanos;
+
+    private final long latencyThresholdNanos;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private volatile double limit;
+
+    private volatile long baselineRttNanos;
+
+    private volatile long lastRttNanos;
+
+    private final AtomicLong windowStart;
+
+    private final LongAdder windowRttSum = new LongAdder();
+
+    private final LongAdder windowSamples = new LongAdder();
+
+    private final LongAdder windowDrops = new LongAdder();
+
+    private final AtomicInteger windowMaxInflight = new AtomicInteger();
+
+    private final LongAdder[] accepted = newCounters();
+
+    private final LongAdder[] rejected = newCounters();
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties, long nowNanos) {
+        this.properties = properties;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(properties.getWindowMs());
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(properties.getLatencyThresholdMs());
+        this.limit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), properties.getInitialLimit()));
+        this.windowStart = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * 嘗試取得一個執行名額。成功時呼叫端必須在請求結束後呼叫 {@link #release}。
+     */
+    public boolean tryAcquire(RequestPriority priority) {
+        int allowed = allowed(priority);
+        while (true) {
+            int current = inflight.get();
+            if (current >= allowed) {
+                rejected[priority.ordinal()].increment();
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                accepted[priority.ordinal()].increment();
+                windowMaxInflight.accumulateAndGet(current + 1, Math::max);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 歸還名額並記錄延遲。
+     *
+     * @param rttNanos   請求處理時間。
+     * @param overloaded 下游已過載 (例如資料庫忙碌回應 503)，視同壅塞。
+     * @param nowNanos   目前時間 (System.nanoTime)。
+     */
+    public void release(long rttNanos, boolean overloaded, long nowNanos) {
+        inflight.decrementAndGet();
+        windowRttSum.add(rttNanos);
+        windowSamples.increment();
+        if (overloaded) {
+            windowDrops.increment();
+        }
+        maybeAdjust(nowNanos);
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inflight() {
+        return inflight.get();
+    }
+
+    public int allowed(RequestPriority priority) {
+        double share = switch (priority) {
+            case CRITICAL -> 1.0;
+            case NORMAL -> properties.getNormalShare();
+            case LOW -> properties.getLowShare();
+        };
+        return Math.max(1, (int) (limit * share));
+    }
+
+    public ConcurrencyLimitStatsDTO stats() {
+        return new ConcurrencyLimitStatsDTO(
+                limit(),
+                inflight(),
+                TimeUnit.NANOSECONDS.toMillis(baselineRttNanos),
+                TimeUnit.NANOSECONDS.toMillis(lastRttNanos),
+                Arrays.stream(PRIORITIES)
+                        .map(priority -> new PriorityStatsDTO(priority.name(), allowed(priority),
+                                accepted[priority.ordinal()].sum(), rejected[priority.ordinal()].sum()))
+                        .toList());
+    }
+
+    public long accepted(RequestPriority priority) {
+        return accepted[priority.ordinal()].sum();
+    }
+
+    public long rejected(RequestPriority priority) {
+        return rejected[priority.ordinal()].sum();
+    }
+
+    /**
+     * 窗口結束時由其中一個請求執行緒 (CAS 成功者) 調整上限，不需要背景執行緒。
+     * 各計數器的讀取與歸零不是原子操作，邊界上的少數樣本可能算進下一個窗口，對平均值的影響可忽略。
+     */
+    private void maybeAdjust(long nowNanos) {
+        long start = windowStart.get();
+        if (nowNanos - start < windowNanos || windowSamples.sum() < properties.getMinWindowSamples()) {
+            return;
+        }
+        if (!windowStart.compareAndSet(start, nowNanos)) {
+            return;
+        }
+        long samples = windowSamples.sumThenReset();
+        long rttSum = windowRttSum.sumThenReset();
+        long drops = windowDrops.sumThenReset();
+        int maxInflight = windowMaxInflight.getAndSet(inflight.get());
+        if (samples == 0) {
+            return;
+        }
+
+        long averageRtt = rttSum / samples;
+        lastRttNanos = averageRtt;
+        long baseline = baselineRttNanos;
+        if (baseline == 0) {
+            baseline = averageRtt;
+        }
+
+        double current = limit;
+        boolean congested = drops > 0
+                || (averageRtt > baseline * properties.getLatencyTolerance() && averageRtt > latencyThresholdNanos);
+        if (congested) {
+            limit = Math.max(properties.getMinLimit(), current * properties.getBackoffRatio());
+        } else if (maxInflight * 2 >= current) {
+            limit = Math.min(properties.getMaxLimit(), current + 1);
+        }
+
+        // 無負載延遲：取較小值，否則以 1/64 的速度向上追蹤
+        baselineRttNanos = averageRtt < baseline ? averageRtt : baseline + (averageRtt - baseline) / 64;
+    }
+
+    private static LongAdder[] newCounters() {
+        LongAdder[] counters = new LongAdder[PRIORITIES.length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+}
@@ -0,0 +1,96 @@
+package net.javaguides.banking.concurrency;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.javaguides.banking.web.JsonRejection;
+import net.javaguides.banking.web.RequestRouteMatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * 在 Spring Security 之前套用自適應併發上限：JWT 驗證也可能查詢資料庫，過載時應在那之前就拒絕。
+ *
+ * 只限制 /api/ 底下的請求。依路由規則決定優先等級，超過該等級可用的併發數時直接回應 503 與 Retry-After，
+ * 其餘請求結束後回報處理時間。只有標記為 {@link #DOWNSTREAM_OVERLOADED} 的請求 (資料庫准入逾時、信箱排隊已滿)
+ * 視為下游過載；其他原因的 503 (例如登入時密碼雜湊佇列已滿) 與資料庫無關，不應讓 API 整體降載。
+ * 標記為 exempt 的路由 (登入、註冊) 直接放行且不回報處理時間：BCrypt 本身就需要上百毫秒，
+ * 登入尖峰若計入延遲，會讓上限下降而拒絕帳戶 API。
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    /**
+     * 請求屬性：下游 (資料庫、帳戶信箱) 過載而拒絕了這個請求，由 GlobalExceptionHandler 設定。
+     */
+    public static final String DOWNSTREAM_OVERLOADED = ConcurrencyLimitFilter.class.getName() + ".DOWNSTREAM_OVERLOADED";
+
+    private static final JsonRejection REJECTED =
+            new JsonRejection(HttpStatus.SERVICE_UNAVAILABLE, "Server is busy, please retry later");
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    private final RequestRouteMatcher<ConcurrencyLimitProperties.Route> routes;
+
+    private final String retryAfterSeconds;
+
+    private final LongSupplier clock;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter, ConcurrencyLimitProperties properties) {
+        this(limiter, properties, System::nanoTime);
+    }
+
+    ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter, ConcurrencyLimitProperties properties, LongSupplier clock) {
+        this.limiter = limiter;
+        this.clock = clock;
+        this.retryAfterSeconds = Long.toString(properties.getRetryAfterSeconds());
+        this.routes = new RequestRouteMatcher<>(properties.getRoutes(), Function.identity());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ConcurrencyLimitProperties.Route route = routes.match(request);
+        if (route != null && route.isExempt()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        RequestPriority priority = priorityOf(route);
+        if (!limiter.tryAcquire(priority)) {
+            logger.debug("併發上限 {} 拒絕 {} 請求 {}", limiter.limit(), priority, request.getRequestURI());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            REJECTED.writeTo(response);
+            return;
+        }
+
+        long start = clock.getAsLong();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long now = clock.getAsLong();
+            limiter.release(now - start, request.getAttribute(DOWNSTREAM_OVERLOADED) != null, now);
+        }
+    }
+
+    RequestPriority classify(HttpServletRequest request) {
+        return priorityOf(routes.match(request));
+    }
+
+    private static RequestPriority priorityOf(ConcurrencyLimitProperties.Route route) {
+        return route == null || route.getPriority() == null ? RequestPriority.NORMAL : route.getPriority();
+    }
+}
@@ -0,0 +1,62 @@
+package net.javaguides.banking.concurrency;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import net.javaguides.banking.web.RouteProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 自適應併發上限設定 (spring.app.concurrencyLimit.*)。
+ *
+ * 每條規則依序比對，第一條符合路徑 (與 HTTP 方法) 的規則決定請求的優先等級或是否豁免；都不符合時為 NORMAL。
+ */
+@Data
+@ConfigurationProperties(prefix = "spring.app.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    // 啟動時的併發上限，之後依延遲自動調整，介於 minLimit 與 maxLimit 之間
+    private int initialLimit = 40;
+
+    private int minLimit = 4;
+
+    private int maxLimit = 400;
+
+    // 每個觀察窗口結束時調整一次上限
+    private long windowMs = 100;
+
+    // 窗口內樣本數不足時延長窗口，避免少數請求的延遲造成誤判
+    private int minWindowSamples = 10;
+
+    // 判定壅塞時上限乘上的比例
+    private double backoffRatio = 0.9;
+
+    // 窗口平均延遲超過無負載延遲的倍數時視為壅塞
+    private double latencyTolerance = 2.0;
+
+    // 平均延遲低於此值時不視為壅塞，避免極短延遲的正常波動觸發降載
+    private long latencyThresholdMs = 50;
+
+    // NORMAL 與 LOW 可使用的上限比例；CRITICAL 可使用全部
+    private double normalShare = 0.9;
+
+    private double lowShare = 0.5;
+
+    private long retryAfterSeconds = 1;
+
+    private List<Route> routes = new ArrayList<>();
+
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class Route extends RouteProperties {
+
+        private RequestPriority priority;
+
+        // 不受併發上限管制，延遲也不列入上限調整 (例如登入：已由密碼雜湊的 bulkhead 限制，BCrypt 的延遲不代表下游壅塞)
+        private boolean exempt;
+    }
+}
@@ -0,0 +1,13 @@
+package net.javaguides.banking.concurrency;
+
+/**
+ * 請求的優先等級。併發上限下降時，低優先的請求最先被拒絕。
+ */
+public enum RequestPriority {
+    // 資金異動：存款、取款、轉帳
+    CRITICAL,
+    // 一般查詢：帳戶、餘額、交易紀錄、登入
+    NORMAL,
+    // 管理員列表與匯出
+    LOW
+}
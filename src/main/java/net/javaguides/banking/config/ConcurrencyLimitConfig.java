@@ -0,0 +1,36 @@
+package net.javaguides.banking.config;
+
+import net.javaguides.banking.concurrency.AdaptiveConcurrencyLimiter;
+import net.javaguides.banking.concurrency.ConcurrencyLimitFilter;
+import net.javaguides.banking.concurrency.ConcurrencyLimitProperties;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitConfig {
+
+    /**
+     * 停用時仍建立，管理端點與監控指標可照常讀取 (不會有請求經過)。
+     */
+    @Bean
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties) {
+        return new AdaptiveConcurrencyLimiter(properties, System.nanoTime());
+    }
+
+    /**
+     * 註冊在 Spring Security 篩選器鏈之前，過載時不做 JWT 驗證與使用者查詢就拒絕。
+     */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilterRegistration(AdaptiveConcurrencyLimiter limiter,
+                                                                                            ConcurrencyLimitProperties properties) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(limiter, properties));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 10);
+        registration.setEnabled(properties.isEnabled());
+        return registration;
+    }
+}
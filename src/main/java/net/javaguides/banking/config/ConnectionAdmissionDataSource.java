@@ -0,0 +1,156 @@
+package net.javaguides.banking.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 連線池前的准入控制：以公平號誌限制同時持有連線的數量 (等於連線池大小)，等待者依先來後到取得連線。
+ * 虛擬執行緒模式下請求數不再受 Tomcat 執行緒池限制，數千個執行緒同時向 Hikari 要連線時，
+ * 在這裡排隊 (號誌等待會卸載虛擬執行緒) 並限制等待人數，超過上限或等待逾時立即失敗，回應 503。
+ * 連線關閉 (歸還連線池) 時釋放許可。
+ */
+public class ConnectionAdmissionDataSource extends DelegatingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionAdmissionDataSource.class);
+
+    private final Semaphore permits;
+
+    private final int maxWaiters;
+
+    private final long timeoutNanos;
+
+    private final LongAdder rejected = new LongAdder();
+
+    public ConnectionAdmissionDataSource(DataSource targetDataSource, int maxConnections, int maxWaiters, long timeoutMs) {
+        super(targetDataSource);
+        if (maxConnections <= 0 || maxWaiters < 0 || timeoutMs <= 0) {
+            throw new IllegalArgumentException("maxConnections and timeoutMs must be positive, maxWaiters must not be negative");
+        }
+        this.permits = new Semaphore(maxConnections, true);
+        this.maxWaiters = maxWaiters;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        return admitted(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        return admitted(() -> super.getConnection(username, password));
+    }
+
+    /** 目前在號誌上等待的執行緒數 (估計值) */
+    public int waiting() {
+        return permits.getQueueLength();
+    }
+
+    public int available() {
+        return permits.availablePermits();
+    }
+
+    /** 因等待人數已滿或逾時而拒絕的累計次數 */
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    private void acquire() throws SQLException {
+        // 許可用完且排隊人數已達上限：不再排隊，直接失敗
+        if (permits.availablePermits() == 0 && permits.getQueueLength() >= maxWaiters) {
+            logger.warn("資料庫連線等待人數已達上限:{}", maxWaiters);
+            rejected.increment();
+            throw new SQLTransientConnectionException("Too many requests waiting for a database connection");
+        }
+        try {
+            if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                logger.warn("等待資料庫連線逾時");
+                rejected.increment();
+                throw new SQLTransientConnectionException("Timed out waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        }
+    }
+
+    private Connection admitted(ConnectionSupplier supplier) throws SQLException {
+        Connection connection;
+        try {
+            connection = supplier.get();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionAdmissionDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ReleasingHandler(connection));
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+
+    /**
+     * 轉送所有呼叫到實際連線；第一次 close() 時釋放許可，重複關閉不會多釋放。
+     */
+    private final class ReleasingHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ReleasingHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            } finally {
+                if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                    permits.release();
+                }
+            }
+        }
+    }
+}
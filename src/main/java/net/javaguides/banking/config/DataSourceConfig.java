@@ -0,0 +1,61 @@
+package net.javaguides.banking.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class DataSourceConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceConfig.class);
+
+    /**
+     * 在 Spring Boot 建立的 Hikari 連線池前加上准入控制，許可數與連線池大小相同。
+     * 以 BeanPostProcessor 包裝，DataSource 相關的自動設定 (健康檢查、連線池監控) 仍可解開取得 Hikari。
+     */
+    @Bean
+    static ConnectionAdmissionPostProcessor connectionAdmissionPostProcessor(
+            @Value("${spring.app.dbAdmissionEnabled:true}") boolean enabled,
+            @Value("${spring.app.dbAdmissionMaxWaiters:500}") int maxWaiters,
+            @Value("${spring.app.dbAdmissionTimeoutMs:2000}") long timeoutMs) {
+        return new ConnectionAdmissionPostProcessor(enabled, maxWaiters, timeoutMs);
+    }
+
+    /**
+     * 優先於其他 DataSource 包裝執行，准入控制直接包在 Hikari 外層。
+     * (@Bean 方法須宣告為此型別，Spring 才能在建立前依型別判斷出 Ordered 並排序)
+     */
+    static class ConnectionAdmissionPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final boolean enabled;
+
+        private final int maxWaiters;
+
+        private final long timeoutMs;
+
+        ConnectionAdmissionPostProcessor(boolean enabled, int maxWaiters, long timeoutMs) {
+            this.enabled = enabled;
+            this.maxWaiters = maxWaiters;
+            this.timeoutMs = timeoutMs;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!enabled || !(bean instanceof HikariDataSource hikari)) {
+                return bean;
+            }
+            logger.info("資料庫連線准入控制:連線數{},等待上限{},逾時{}ms", hikari.getMaximumPoolSize(), maxWaiters, timeoutMs);
+            return new ConnectionAdmissionDataSource(hikari, hikari.getMaximumPoolSize(), maxWaiters, timeoutMs);
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
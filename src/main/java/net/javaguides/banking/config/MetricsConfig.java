@@ -0,0 +1,105 @@
+package net.javaguides.banking.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.aop.ObservedAspect;
+import net.javaguides.banking.concurrency.AdaptiveConcurrencyLimiter;
+import net.javaguides.banking.concurrency.RequestPriority;
+import net.javaguides.banking.service.impl.MailboxAccountService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * 指標設定。Hikari 連線池 (hikaricp.*)、HTTP 請求 (http.server.requests) 與 JVM 指標由 Spring Boot 自動提供；
+ * 這裡補上 @Observed 的支援，以及准入控制、自適應併發上限與帳戶信箱的狀態。
+ */
+@Configuration
+public class MetricsConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricsConfig.class);
+
+    /**
+     * 讓類別或方法上的 @Observed 生效 (AccountServiceImpl、MailboxAccountService)：同時產生計時器與追蹤 span。
+     */
+    @Bean
+    public ObservedAspect observedAspect(ObservationRegistry registry) {
+        return new ObservedAspect(registry);
+    }
+
+    /**
+     * 連線池前的准入控制：等待中的請求數、剩餘許可與拒絕次數。等待數持續大於 0 代表連線池已飽和。
+     */
+    @Bean
+    public MeterBinder connectionAdmissionMetrics(DataSource dataSource) {
+        return registry -> {
+            ConnectionAdmissionDataSource admission = unwrapAdmission(dataSource);
+            if (admission == null) {
+                return;
+            }
+            Gauge.builder("banking.db.admission.waiting", admission, ConnectionAdmissionDataSource::waiting)
+                    .description("等待資料庫連線的請求數")
+                    .register(registry);
+            Gauge.builder("banking.db.admission.available", admission, ConnectionAdmissionDataSource::available)
+                    .description("尚可取得的資料庫連線數")
+                    .register(registry);
+            FunctionCounter.builder("banking.db.admission.rejected", admission, ConnectionAdmissionDataSource::rejected)
+                    .description("等待人數已滿或逾時而拒絕的次數")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * 自適應併發上限：目前上限、執行中請求數與各優先等級的接受 / 拒絕次數。
+     */
+    @Bean
+    public MeterBinder concurrencyLimitMetrics(AdaptiveConcurrencyLimiter limiter) {
+        return registry -> {
+            Gauge.builder("banking.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::limit)
+                    .description("目前的併發上限")
+                    .register(registry);
+            Gauge.builder("banking.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::inflight)
+                    .description("執行中的 API 請求數")
+                    .register(registry);
+            for (RequestPriority priority : RequestPriority.values()) {
+                FunctionCounter.builder("banking.concurrency.requests", limiter, l -> l.accepted(priority))
+                        .tag("priority", priority.name())
+                        .tag("outcome", "accepted")
+                        .register(registry);
+                FunctionCounter.builder("banking.concurrency.requests", limiter, l -> l.rejected(priority))
+                        .tag("priority", priority.name())
+                        .tag("outcome", "rejected")
+                        .register(registry);
+            }
+        };
+    }
+
+    /**
+     * 帳戶信箱模式 (spring.app.accountExecution=mailbox) 下，有排隊或執行中操作的帳戶數。
+     */
+    @Bean
+    public MeterBinder accountMailboxMetrics(ObjectProvider<MailboxAccountService> mailboxAccountService) {
+        return registry -> mailboxAccountService.ifAvailable(service ->
+                Gauge.builder("banking.account.mailboxes.active", service, MailboxAccountService::activeMailboxes)
+                        .description("有排隊或執行中操作的帳戶信箱數")
+                        .register(registry));
+    }
+
+    private static ConnectionAdmissionDataSource unwrapAdmission(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(ConnectionAdmissionDataSource.class)
+                    ? dataSource.unwrap(ConnectionAdmissionDataSource.class)
+                    : null;
+        } catch (SQLException e) {
+            logger.warn("無法取得資料庫准入控制以註冊指標", e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package net.javaguides.banking.config;
+
+import io.micrometer.observation.ObservationRegistry;
+import net.javaguides.banking.metrics.BankingMetrics;
+import net.javaguides.banking.metrics.SqlExecutionListener;
+import net.javaguides.banking.metrics.SqlStatementFilter;
+import net.javaguides.banking.metrics.SqlStatementInspector;
+import net.javaguides.banking.metrics.SqlStatementTracker;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每個請求的 SQL 計數與慢查詢記錄，取代逐條輸出 SQL 的 spring.jpa.show-sql。
+ *
+ * Hibernate 準備 SQL 時由 StatementInspector 計數，執行前後由 SessionEventListener 計時並產生 JDBC span，
+ * 請求範圍由 SqlStatementFilter 決定。回應標頭 (X-SQL-Count) 由 spring.app.sqlStatementHeader 控制，正式環境關閉。
+ */
+@Configuration
+public class SqlStatementConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementHibernateCustomizer(BankingMetrics metrics,
+            ObservationRegistry observationRegistry,
+            @Value("${spring.app.slowSqlThresholdMs:200}") long slowThresholdMs,
+            @Value("${spring.app.sqlLogSampleRate:0}") double sqlLogSampleRate) {
+        SqlStatementTracker.configure(TimeUnit.MILLISECONDS.toNanos(slowThresholdMs), metrics::slowStatement);
+        SqlStatementTracker.sampleStatements(sqlLogSampleRate);
+        SqlStatementTracker.observeExecutions(observationRegistry);
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementInspector());
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, SqlExecutionListener.class.getName());
+        };
+    }
+
+    /**
+     * 排在併發上限與 Spring Security 之前，JWT 驗證時的查詢也算進請求。
+     */
+    @Bean
+    public FilterRegistrationBean<SqlStatementFilter> sqlStatementFilterRegistration(BankingMetrics metrics) {
+        FilterRegistrationBean<SqlStatementFilter> registration = new FilterRegistrationBean<>(new SqlStatementFilter(metrics));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 20);
+        return registration;
+    }
+}
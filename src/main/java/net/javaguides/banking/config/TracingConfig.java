@@ -0,0 +1,56 @@
+package net.javaguides.banking.config;
+
+import io.micrometer.observation.ObservationRegistry;
+import net.javaguides.banking.tracing.RepositoryObservationInterceptor;
+import net.javaguides.banking.tracing.RollingFileSpanExporter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.nio.file.Path;
+
+/**
+ * 追蹤設定。HTTP 請求與 Spring Security 的 span 由 Spring Boot 自動產生，Service 的 span 來自 @Observed，
+ * JDBC 的 span 見 SqlStatementConfig；這裡補上 Repository 的 span 與本機檔案匯出。
+ *
+ * 匯出器由 Spring Boot 以 BatchSpanProcessor 包裝，在背景執行緒批次寫檔。
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "spring.app.tracing.file.enabled", havingValue = "true", matchIfMissing = true)
+    public RollingFileSpanExporter rollingFileSpanExporter(
+            @Value("${spring.app.tracing.file.directory:./data/traces}") String directory,
+            @Value("${spring.app.tracing.file.maxFileSizeMb:50}") long maxFileSizeMb,
+            @Value("${spring.app.tracing.file.maxFiles:10}") int maxFiles) {
+        return new RollingFileSpanExporter(Path.of(directory), maxFileSizeMb * 1024 * 1024, maxFiles);
+    }
+
+    /**
+     * 在每個 Spring Data Repository 的代理上加入 {@link RepositoryObservationInterceptor}。
+     * 宣告為 static 並以 ObjectProvider 延遲取得 ObservationRegistry，避免過早初始化其他 Bean。
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static BeanPostProcessor repositoryObservationPostProcessor(ObjectProvider<ObservationRegistry> observationRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, metadata) -> proxyFactory.addAdvice(new RepositoryObservationInterceptor(
+                                    observationRegistry.getIfUnique(() -> ObservationRegistry.NOOP),
+                                    metadata.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+}
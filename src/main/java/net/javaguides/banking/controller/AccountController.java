@@ -9,6 +9,8 @@ import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 
 import net.javaguides.banking.dto.*;
+import net.javaguides.banking.money.Money;
+import net.javaguides.banking.security.AccountOwnership;
 import net.javaguides.banking.service.AccountService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -19,8 +21,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.math.BigDecimal;
 
 @Validated
 @RestController
@@ -50,20 +52,39 @@ public class AccountController {
     }
 
     @GetMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or @accountSecurityService.isOwner(authentication,#id)")
+    @AccountOwnership(adminAllowed = true)
     @Operation(summary = "查詢單一帳戶", description = "根據 ID 查詢帳戶詳情 (僅限 ADMIN 或帳戶本人)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "成功取得帳戶資訊"),
+            @ApiResponse(responseCode = "304", description = "帳戶未變更 (If-None-Match 與目前版本相同)"),
             @ApiResponse(responseCode = "403", description = "無權限存取此帳戶"),
             @ApiResponse(responseCode = "404", description = "帳戶不存在")
     })
-    public ResponseEntity<AccountDto> getAccountById(@PathVariable Long id) {
+    public ResponseEntity<AccountDto> getAccountById(@PathVariable Long id, WebRequest webRequest) {
+        // 先取得版本號再載入帳戶：兩者之間若有更新，ETag 只會比內容舊，下次輪詢會拿到完整回應，不會誤回 304
+        String eTag = accountETag(accountService.getAccountVersion(id));
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
         AccountDto accountById = accountService.getAccountById(id);
-        return ResponseEntity.status(HttpStatus.OK).body(accountById);
+        return ResponseEntity.status(HttpStatus.OK).eTag(eTag).body(accountById);
+    }
+
+    @GetMapping("/{id}/balance")
+    @AccountOwnership(adminAllowed = true)
+    @Operation(summary = "查詢帳戶餘額", description = "只回傳餘額與版本號，優先由餘額鏡像提供 (僅限 ADMIN 或帳戶本人)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "成功取得餘額"),
+            @ApiResponse(responseCode = "403", description = "無權限存取此帳戶"),
+            @ApiResponse(responseCode = "404", description = "帳戶不存在")
+    })
+    public ResponseEntity<BalanceDto> getAccountBalance(@PathVariable Long id) {
+        BalanceDto balance = accountService.getAccountBalance(id);
+        return ResponseEntity.status(HttpStatus.OK).body(balance);
     }
 
     @PutMapping("/{id}/deposit")
-    @PreAuthorize("@accountSecurityService.isOwner(authentication,#id)")
+    @AccountOwnership
     @Operation(summary = "帳戶存款", description = "存入資金到指定帳戶 (僅限帳戶本人)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "存款成功"),
@@ -71,7 +92,7 @@ public class AccountController {
     })
     public ResponseEntity<AccountDto> deposit(@PathVariable Long id, @Valid @RequestBody AmountRequestDto amountRequestDto) {
 
-        BigDecimal amount = amountRequestDto.amount();
+        Money amount = amountRequestDto.amount();
 
         AccountDto deposit = accountService.deposit(id, amount);
 
@@ -79,14 +100,14 @@ public class AccountController {
     }
 
     @PutMapping("/{id}/withdraw")
-    @PreAuthorize("@accountSecurityService.isOwner(authentication,#id)")
+    @AccountOwnership
     @Operation(summary = "帳戶提款", description = "從指定帳戶提取資金 (僅限帳戶本人)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "提款成功"),
             @ApiResponse(responseCode = "400", description = "餘額不足或金額錯誤")
     })
     public ResponseEntity<AccountDto> withdraw(@PathVariable Long id, @Valid @RequestBody AmountRequestDto amountRequestDto) {
-        BigDecimal amount = amountRequestDto.amount();
+        Money amount = amountRequestDto.amount();
         AccountDto accountDto = accountService.withdraw(id, amount);
         return ResponseEntity.status(HttpStatus.OK).body(accountDto);
     }
@@ -126,7 +147,7 @@ public class AccountController {
     }
 
     @PostMapping("/transfer")
-    @PreAuthorize("@accountSecurityService.isOwner(authentication,#transferFundDTO.fromAccountId())")
+    @AccountOwnership(parameter = "transferFundDTO", component = "fromAccountId")
     @Operation(summary = "資金轉帳", description = "將資金從一個帳戶轉移到另一個帳戶 (需驗證轉出帳戶擁有權)")
     public ResponseEntity<String> transferFund(@Valid @RequestBody TransferFundDTO transferFundDTO) {
         accountService.transferFunds(transferFundDTO);
@@ -134,9 +155,15 @@ public class AccountController {
     }
 
     @GetMapping("/{id}/transactions")
-    @PreAuthorize("hasRole('ADMIN') or @accountSecurityService.isOwner(authentication,#id)")
+    @AccountOwnership(adminAllowed = true)
     @Operation(summary = "查詢交易紀錄", description = "分頁查詢指定帳戶的交易明細 (僅限 ADMIN 或帳戶本人)")
-    public ResponseEntity<PageResponseDTO<TransactionDTO>> fetchAccountTransactions(@PathVariable Long id, @RequestParam(defaultValue = "0") @Min(0) int pageNo, @RequestParam(defaultValue = "3") @Min(1) @Max(100) int pageSize) {
+    public ResponseEntity<PageResponseDTO<TransactionDTO>> fetchAccountTransactions(@PathVariable Long id, @RequestParam(defaultValue = "0") @Min(0) int pageNo, @RequestParam(defaultValue = "3") @Min(1) @Max(100) int pageSize, WebRequest webRequest) {
+
+        // 只有第一頁會因新交易而變動，以最新交易 ID 與頁面大小作為 ETag
+        String eTag = pageNo == 0 ? transactionsETag(accountService.getLatestTransactionId(id), pageSize) : null;
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
 
         Pageable pageable = PageRequest.of(pageNo, pageSize);
 
@@ -151,6 +178,14 @@ public class AccountController {
                         page.getTotalPages(),
                         page.isLast());
 
-        return ResponseEntity.ok(transactionDTOPageResponseDTO);
+        return ResponseEntity.ok().eTag(eTag).body(transactionDTOPageResponseDTO);
+    }
+
+    private static String accountETag(Long version) {
+        return version == null ? null : "W/\"" + version + "\"";
+    }
+
+    private static String transactionsETag(Long latestTransactionId, int pageSize) {
+        return latestTransactionId == null ? null : "W/\"tx-" + latestTransactionId + "-" + pageSize + "\"";
     }
 }
@@ -0,0 +1,106 @@
+package net.javaguides.banking.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import net.javaguides.banking.concurrency.AdaptiveConcurrencyLimiter;
+import net.javaguides.banking.dto.CacheStatisticsDTO;
+import net.javaguides.banking.dto.ConcurrencyLimitStatsDTO;
+import net.javaguides.banking.dto.ContentionReportDTO;
+import net.javaguides.banking.dto.JfrDumpDTO;
+import net.javaguides.banking.jfr.ContinuousRecording;
+import net.javaguides.banking.metrics.ContentionProfiler;
+import net.javaguides.banking.service.CacheStatisticsService;
+import net.javaguides.banking.service.UserService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+/**
+ * 維運用的管理端點，僅限 ADMIN 使用。
+ */
+@RestController
+@RequestMapping("/api/admin")
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "Admin", description = "系統管理與監控 API (僅限 ADMIN)")
+public class AdminController {
+
+    private CacheStatisticsService cacheStatisticsService;
+
+    private UserService userService;
+
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    private ContentionProfiler contentionProfiler;
+
+    private ContinuousRecording continuousRecording;
+
+    public AdminController(CacheStatisticsService cacheStatisticsService, UserService userService, AdaptiveConcurrencyLimiter concurrencyLimiter,
+                           ContentionProfiler contentionProfiler, ContinuousRecording continuousRecording) {
+        this.cacheStatisticsService = cacheStatisticsService;
+        this.userService = userService;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.contentionProfiler = contentionProfiler;
+        this.continuousRecording = continuousRecording;
+    }
+
+    @GetMapping("/cache/stats")
+    @Operation(summary = "查詢二級快取統計", description = "列出各快取區域的命中、未命中與寫入次數")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "成功取得統計資料"),
+            @ApiResponse(responseCode = "403", description = "需要 ADMIN 權限")
+    })
+    public ResponseEntity<CacheStatisticsDTO> getCacheStatistics() {
+        return ResponseEntity.status(HttpStatus.OK).body(cacheStatisticsService.getStatistics());
+    }
+
+    @DeleteMapping("/cache/stats")
+    @Operation(summary = "重設二級快取統計", description = "將統計計數歸零，方便觀察調整後的命中率")
+    public ResponseEntity<String> clearCacheStatistics() {
+        cacheStatisticsService.clearStatistics();
+        return ResponseEntity.status(HttpStatus.OK).body("Cache statistics cleared");
+    }
+
+    @GetMapping("/concurrency-limit")
+    @Operation(summary = "查詢自適應併發上限", description = "目前的併發上限、執行中請求數、延遲估計，以及各優先等級接受與拒絕的請求數")
+    public ResponseEntity<ConcurrencyLimitStatsDTO> getConcurrencyLimitStatistics() {
+        return ResponseEntity.status(HttpStatus.OK).body(concurrencyLimiter.stats());
+    }
+
+    @GetMapping("/contention")
+    @Operation(summary = "查詢熱門帳戶", description = "樂觀鎖衝突與轉帳鎖等待最多的帳戶，以及各帳戶鎖等待時間的百分位數")
+    public ResponseEntity<ContentionReportDTO> getContention(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.status(HttpStatus.OK).body(contentionProfiler.report(limit));
+    }
+
+    @DeleteMapping("/contention")
+    @Operation(summary = "重設熱門帳戶統計", description = "清空目前追蹤的帳戶，重新開始統計")
+    public ResponseEntity<String> clearContention() {
+        contentionProfiler.reset();
+        return ResponseEntity.status(HttpStatus.OK).body("Contention statistics cleared");
+    }
+
+    @PostMapping("/jfr/dump")
+    @Operation(summary = "傾印 JFR 持續錄製", description = "把最近保留的 JFR 錄製 (含存款、取款、轉帳、JWT 驗證事件) 寫入伺服器本機檔案，錄製不中斷")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "成功傾印，回傳檔案位置與大小"),
+            @ApiResponse(responseCode = "409", description = "持續錄製未啟用 (spring.app.jfr.enabled=false 或 JVM 不支援)")
+    })
+    public ResponseEntity<JfrDumpDTO> dumpFlightRecording() throws IOException {
+        if (!continuousRecording.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.status(HttpStatus.OK).body(continuousRecording.dump());
+    }
+
+    @PutMapping("/users/{userId}/unlock")
+    @Operation(summary = "解除帳戶鎖定", description = "解除因登入失敗次數過多而鎖定的帳戶，並清除失敗計數")
+    public ResponseEntity<String> unlockUser(@PathVariable Long userId) {
+        userService.unlockUser(userId);
+        return ResponseEntity.status(HttpStatus.OK).body("User unlocked");
+    }
+}
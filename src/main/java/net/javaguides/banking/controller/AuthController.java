@@ -10,13 +10,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
-import net.javaguides.banking.entity.AppRole;
-import net.javaguides.banking.entity.Role;
 import net.javaguides.banking.entity.User;
-import net.javaguides.banking.repository.RoleRepository;
-import net.javaguides.banking.repository.UserRepository;
+import net.javaguides.banking.exception.DuplicateUserException;
+import net.javaguides.banking.security.LoginAttemptGuard;
 import net.javaguides.banking.security.jwt.JwtUtils;
 import net.javaguides.banking.security.request.LoginRequest;
 import net.javaguides.banking.security.request.SignupRequest;
@@ -27,17 +26,15 @@ import net.javaguides.banking.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDate;
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -62,16 +59,10 @@ public class AuthController {
     JwtUtils jwtUtils;
 
     @Autowired
-    UserRepository userRepository;
-
-    @Autowired
-    RoleRepository roleRepository;
-
-    @Autowired
-    PasswordEncoder encoder;
+    UserService userService;
 
     @Autowired
-    UserService userService;
+    LoginAttemptGuard loginAttemptGuard;
 
     /**
      * Spring Security 認證管理器依賴注入
@@ -98,10 +89,11 @@ public class AuthController {
             description = "驗證使用者帳密並回傳 JWT Token",
             responses = {
                     @ApiResponse(responseCode = "200", description = "登入成功"),
-                    @ApiResponse(responseCode = "401", description = "帳號或密碼錯誤")
+                    @ApiResponse(responseCode = "401", description = "帳號或密碼錯誤"),
+                    @ApiResponse(responseCode = "429", description = "登入失敗次數過多，稍後再試")
             }
     )
-    public ResponseEntity<?> authenticateUser(@RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<?> authenticateUser(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
 
         // 宣告認證結果變數，稍後存儲認證成功的 Authentication 物件
         Authentication authentication;
@@ -130,11 +122,23 @@ public class AuthController {
          *    - authorities: 用戶的權限列表
          *    - isAuthenticated(): true
          */
-        authentication = authenticationManager
-                .authenticate(new UsernamePasswordAuthenticationToken(
-                        loginRequest.getUsername(),  // 用戶輸入的用戶名
-                        loginRequest.getPassword()   // 用戶輸入的明文密碼
-                ));
+        // 失敗次數超過門檻時直接拒絕，不進入 BCrypt 比對
+        // 來源 IP 使用 getRemoteAddr()：Tomcat 只在連線來自 server.tomcat.remoteip.internal-proxies 時採用 X-Forwarded-For，
+        // 直接連入的用戶端無法以偽造的標頭更換 IP
+        loginAttemptGuard.checkAllowed(loginRequest.getUsername(), request.getRemoteAddr());
+
+        try {
+            authentication = authenticationManager
+                    .authenticate(new UsernamePasswordAuthenticationToken(
+                            loginRequest.getUsername(),  // 用戶輸入的用戶名
+                            loginRequest.getPassword()   // 用戶輸入的明文密碼
+                    ));
+        } catch (BadCredentialsException e) {
+            // 查無使用者同樣會被轉成 BadCredentialsException，一併計入
+            loginAttemptGuard.recordFailure(loginRequest.getUsername(), request.getRemoteAddr());
+            throw e;
+        }
+        loginAttemptGuard.recordSuccess(loginRequest.getUsername());
 
 
 
@@ -223,58 +227,14 @@ public class AuthController {
     @PostMapping("/public/signup")
     @Operation(summary = "註冊新使用者")
     public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
-        // 檢查1：使用者名稱是否已存在
-        if (userRepository.existsByUsername(signUpRequest.getUsername())) {
-            return ResponseEntity.badRequest().body(new MessageResponse("Error: Username is already taken!"));
+        // 建立使用者 (含角色指派與預設屬性)；重複的使用者名稱或 Email 由唯一限制判斷
+        try {
+            userService.registerUser(signUpRequest);
+        } catch (DuplicateUserException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
         }
 
-        // 檢查2：Email 是否已存在
-        if (userRepository.existsByEmail(signUpRequest.getEmail())) {
-            return ResponseEntity.badRequest().body(new MessageResponse("Error: Email is already in use!"));
-        }
-
-        // 步驟1：建立新使用者帳號，並加密密碼
-        User user = new User(signUpRequest.getUsername(),
-                signUpRequest.getEmail(),
-                encoder.encode(signUpRequest.getPassword()),
-                signUpRequest.getRealName()
-        );
-
-        // 步驟2：處理與指派角色
-        Set<String> strRoles = signUpRequest.getRole();
-        Role role;
-
-        if (strRoles == null || strRoles.isEmpty()) {
-            // 如果請求中未指定角色，給予預設的 USER 角色
-            role = roleRepository.findByRoleName(AppRole.ROLE_USER)
-                    .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
-        } else {
-            // 根據請求中的角色字串，指派對應的角色
-            String roleStr = strRoles.iterator().next();
-            if (roleStr.equals("admin")) {
-                role = roleRepository.findByRoleName(AppRole.ROLE_ADMIN)
-                        .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
-            } else {
-                role = roleRepository.findByRoleName(AppRole.ROLE_USER)
-                        .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
-            }
-        }
-        user.setRole(role);
-
-        // 步驟3：設定使用者帳號的預設屬性
-        user.setAccountNonLocked(true);
-        user.setAccountNonExpired(true);
-        user.setCredentialsNonExpired(true);
-        user.setEnabled(true);
-        user.setCredentialsExpiryDate(LocalDate.now().plusYears(1));
-        user.setAccountExpiryDate(LocalDate.now().plusYears(1));
-        user.setTwoFactorEnabled(false);
-        user.setSignUpMethod("email"); // 記錄註冊方式
-
-        // 步驟4：儲存使用者到資料庫
-        userRepository.save(user);
-
-        // 步驟5：回傳成功訊息
+        // 回傳成功訊息
         return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
     }
 
@@ -1,11 +1,10 @@
 package net.javaguides.banking.dto;
 
-import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
-
-import java.math.BigDecimal;
+import net.javaguides.banking.money.Money;
 
 //@Data
 //@AllArgsConstructor
@@ -19,8 +18,8 @@ public record AccountDto(Long id,
 
                          String accountHolderName,
                          @NotNull(message = "Balance cannot be null")
-                         @DecimalMin(value = "0.0",message = "Initial balance cannot be negative")
-                         BigDecimal balance){
+                         @PositiveOrZero(message = "Initial balance cannot be negative")
+                         Money balance){
 
 }
 
@@ -2,10 +2,9 @@ package net.javaguides.banking.dto;
 
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
-
-import java.math.BigDecimal;
+import net.javaguides.banking.money.Money;
 
 public record AmountRequestDto(@NotNull(message = "Amount cannot be nul")
                                @Positive(message = "Amount must be a positive value")
-                               BigDecimal amount) {
+                               Money amount) {
 }
@@ -0,0 +1,11 @@
+package net.javaguides.banking.dto;
+
+import net.javaguides.banking.money.Money;
+
+/**
+ * 帳戶餘額。version 與 Account.version 相同，可用來判斷餘額是否已更新。
+ */
+public record BalanceDto(Long id,
+                         Money balance,
+                         Long version) {
+}
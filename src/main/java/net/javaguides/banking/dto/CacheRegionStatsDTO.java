@@ -0,0 +1,13 @@
+package net.javaguides.banking.dto;
+
+/**
+ * 單一二級快取區域的統計資料。
+ * elementCountInMemory 為 -1 代表快取提供者不支援此數值。
+ */
+public record CacheRegionStatsDTO(String region,
+                                  long hitCount,
+                                  long missCount,
+                                  long putCount,
+                                  long elementCountInMemory,
+                                  double hitRatio) {
+}
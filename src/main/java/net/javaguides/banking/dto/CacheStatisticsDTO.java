@@ -0,0 +1,17 @@
+package net.javaguides.banking.dto;
+
+import java.util.List;
+
+/**
+ * Hibernate 二級快取與查詢快取的整體統計。
+ * statisticsEnabled 為 false 時各項數值皆為 0 (預設關閉，需以環境變數 HIBERNATE_STATISTICS=true 啟用 hibernate.generate_statistics)。
+ */
+public record CacheStatisticsDTO(boolean statisticsEnabled,
+                                 long secondLevelCacheHitCount,
+                                 long secondLevelCacheMissCount,
+                                 long secondLevelCachePutCount,
+                                 long queryCacheHitCount,
+                                 long queryCacheMissCount,
+                                 long queryCachePutCount,
+                                 List<CacheRegionStatsDTO> regions) {
+}
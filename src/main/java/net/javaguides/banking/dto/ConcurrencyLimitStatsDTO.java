@@ -0,0 +1,13 @@
+package net.javaguides.banking.dto;
+
+import java.util.List;
+
+/**
+ * 自適應併發上限的目前狀態。延遲為最近一個觀察窗口的平均值與估計的無負載延遲 (毫秒)。
+ */
+public record ConcurrencyLimitStatsDTO(int limit,
+                                       int inflight,
+                                       long baselineLatencyMs,
+                                       long recentLatencyMs,
+                                       List<PriorityStatsDTO> priorities) {
+}
@@ -0,0 +1,14 @@
+package net.javaguides.banking.dto;
+
+/**
+ * 單一熱門帳戶的競爭統計。events 可能高估，最多高估 error 次；鎖等待時間單位為毫秒。
+ */
+public record ContendedAccountDTO(Long accountId,
+                                  long events,
+                                  long error,
+                                  long optimisticConflicts,
+                                  long lockWaits,
+                                  double lockWaitP50Ms,
+                                  double lockWaitP99Ms,
+                                  double lockWaitMaxMs) {
+}
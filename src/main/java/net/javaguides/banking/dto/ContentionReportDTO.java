@@ -0,0 +1,12 @@
+package net.javaguides.banking.dto;
+
+import java.util.List;
+
+/**
+ * 競爭最激烈的帳戶列表，依競爭事件次數由多到少排序。
+ */
+public record ContentionReportDTO(int capacity,
+                                  long lockWaitThresholdMs,
+                                  long totalEvents,
+                                  List<ContendedAccountDTO> accounts) {
+}
@@ -0,0 +1,12 @@
+package net.javaguides.banking.dto;
+
+import java.time.Instant;
+
+/**
+ * 持續錄製的 JFR 傾印結果：檔案位置、大小與可涵蓋的時間範圍。
+ */
+public record JfrDumpDTO(String file,
+                         long sizeBytes,
+                         Instant recordingStartedAt,
+                         long maxAgeMinutes) {
+}
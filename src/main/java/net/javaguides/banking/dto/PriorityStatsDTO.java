@@ -0,0 +1,10 @@
+package net.javaguides.banking.dto;
+
+/**
+ * 單一優先等級目前可使用的併發數，與啟動以來接受、拒絕的請求數。
+ */
+public record PriorityStatsDTO(String priority,
+                               int allowedConcurrency,
+                               long acceptedCount,
+                               long rejectedCount) {
+}
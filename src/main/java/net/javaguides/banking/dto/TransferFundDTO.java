@@ -2,10 +2,9 @@ package net.javaguides.banking.dto;
 
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
-
-import java.math.BigDecimal;
+import net.javaguides.banking.money.Money;
 
 public record TransferFundDTO(@NotNull(message = "fromAccountId can not be null") Long fromAccountId,
                               @NotNull(message = "toAccount id can not be null") Long toAccountId,
-                              @Positive(message = "Transfer amount must be positive") BigDecimal amount) {
+                              @Positive(message = "Transfer amount must be positive") Money amount) {
 }
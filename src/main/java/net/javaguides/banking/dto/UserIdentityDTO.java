@@ -0,0 +1,9 @@
+package net.javaguides.banking.dto;
+
+/**
+ * 重建註冊用 Bloom filter 時只讀取的使用者欄位。
+ */
+public record UserIdentityDTO(Long userId,
+                              String username,
+                              String email) {
+}
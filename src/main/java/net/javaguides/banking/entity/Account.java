@@ -6,11 +6,16 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-
-import java.math.BigDecimal;
+import net.javaguides.banking.money.Money;
+import net.javaguides.banking.money.MoneyConverter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "accounts")
+@Cacheable
+// 讀寫快取：更新時以軟鎖確保其他交易不會讀到舊值，快取項目同時帶有 @Version
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -24,8 +29,10 @@ public class Account {
     @Column(name = "account_holder_name")
     private String accountHolderName;
 
-    @Column(nullable = false)
-    private BigDecimal balance;
+    // 以分為單位存成 BIGINT (balance_minor)
+    @Column(name = "balance_minor", nullable = false)
+    @Convert(converter = MoneyConverter.class)
+    private Money balance;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id",nullable = false)
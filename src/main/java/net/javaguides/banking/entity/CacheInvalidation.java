@@ -0,0 +1,58 @@
+package net.javaguides.banking.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import net.javaguides.banking.cache.InvalidationEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * 快取失效事件的資料表紀錄，由 DatabaseCacheInvalidationBus 寫入並輪詢。
+ */
+@Entity
+@Table(name = "cache_invalidations", indexes = @Index(name = "idx_cache_invalidations_created_at", columnList = "created_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class CacheInvalidation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", length = 20, nullable = false)
+    private InvalidationEvent.Type eventType;
+
+    @Column(name = "entity_id", nullable = false)
+    private long entityId;
+
+    @Column(nullable = false)
+    private long version;
+
+    @Column(name = "owner_id", nullable = false)
+    private long ownerId;
+
+    @Column(name = "origin_node", length = 36, nullable = false)
+    private String originNode;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public static CacheInvalidation from(InvalidationEvent event) {
+        CacheInvalidation row = new CacheInvalidation();
+        row.setEventType(event.type());
+        row.setEntityId(event.entityId());
+        row.setVersion(event.version());
+        row.setOwnerId(event.ownerId());
+        row.setOriginNode(event.origin());
+        row.setCreatedAt(LocalDateTime.now());
+        return row;
+    }
+
+    public InvalidationEvent toEvent() {
+        return new InvalidationEvent(eventType, entityId, version, ownerId, originNode);
+    }
+}
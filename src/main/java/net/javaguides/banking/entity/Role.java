@@ -6,6 +6,9 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -15,6 +18,10 @@ import java.util.Set;
 @AllArgsConstructor
 @Data
 @Table(name = "roles")
+@Cacheable
+// 角色建立後不會變更，以唯讀策略快取；User.role 為 EAGER，每次載入使用者都會命中
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
+@Immutable
 public class Role{
 
     @Id
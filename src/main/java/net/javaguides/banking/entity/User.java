@@ -26,8 +26,9 @@ import java.util.Set;
 @NoArgsConstructor
 @Table(name = "users",
         uniqueConstraints = {
-                @UniqueConstraint(columnNames = "username"),
-                @UniqueConstraint(columnNames = "email")
+                // 註冊流程依賴這兩個限制判斷重複，名稱需與 UserServiceImpl 一致
+                @UniqueConstraint(name = "uk_users_username", columnNames = "username"),
+                @UniqueConstraint(name = "uk_users_email", columnNames = "email")
         })
 public class User{
     @Id
@@ -62,6 +63,8 @@ public class User{
 
 
     private boolean accountNonLocked = true;
+    // 登入失敗過多時的暫時鎖定，到期自動解除 (accountNonLocked 為管理員的手動鎖定)
+    private LocalDateTime lockedUntil;
     private boolean accountNonExpired = true;
     private boolean credentialsNonExpired = true;
     private boolean enabled = true;
@@ -0,0 +1,10 @@
+package net.javaguides.banking.exception;
+
+/**
+ * 帳戶信箱內排隊的操作已達上限，請求被快速拒絕 (503)。
+ */
+public class AccountBusyException extends RuntimeException {
+    public AccountBusyException(String message) {
+        super(message);
+    }
+}
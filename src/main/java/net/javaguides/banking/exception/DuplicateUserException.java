@@ -0,0 +1,10 @@
+package net.javaguides.banking.exception;
+
+/**
+ * 註冊時使用者名稱或 Email 已被使用。
+ */
+public class DuplicateUserException extends RuntimeException {
+    public DuplicateUserException(String message) {
+        super(message);
+    }
+}
@@ -1,16 +1,24 @@
 package net.javaguides.banking.exception;
 
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import net.javaguides.banking.concurrency.ConcurrencyLimitFilter;
+import net.javaguides.banking.money.Money;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
@@ -42,14 +50,79 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
 
+    // 金額小數超過 2 位或超出範圍：由 MoneyJsonDeserializer 拒絕，回應 INVALID_AMOUNT 而非一般的解析錯誤
+    @Override
+    protected ResponseEntity<Object> handleHttpMessageNotReadable(HttpMessageNotReadableException ex,
+                                                                  HttpHeaders headers,
+                                                                  HttpStatusCode status,
+                                                                  WebRequest request) {
+        if (ex.getCause() instanceof InvalidFormatException formatException && formatException.getTargetType() == Money.class) {
+            ErrorDetails errorDetails = new ErrorDetails(LocalDateTime.now(), formatException.getOriginalMessage(), request.getDescription(false), "INVALID_AMOUNT");
+            logger.warn("Invalid amount: {}", formatException.getValue());
+            return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+        }
+        return super.handleHttpMessageNotReadable(ex, headers, status, request);
+    }
+
     @ExceptionHandler(AuthenticationException.class)
     public ResponseEntity<ErrorDetails> handleAuthenticationException(AuthenticationException authenticationException,WebRequest webRequest){
+        // 查無使用者時的防時序攻擊比對也會經過雜湊執行緒池，被拒絕時包在 InternalAuthenticationServiceException 內
+        if (authenticationException.getCause() instanceof PasswordHashingUnavailableException unavailableException) {
+            return handlePasswordHashingUnavailableException(unavailableException, webRequest);
+        }
         ErrorDetails errorDetails = new ErrorDetails(LocalDateTime.now(), authenticationException.getMessage(), webRequest.getDescription(false), "AUTHENTICATION_FAILED");
         logger.warn("Handling AuthenticationException : {}",authenticationException.getMessage(),authenticationException);
         return new ResponseEntity<>(errorDetails,HttpStatus.UNAUTHORIZED);
     }
 
 
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public ResponseEntity<ErrorDetails> handlePasswordHashingUnavailableException(PasswordHashingUnavailableException exception, WebRequest webRequest) {
+        ErrorDetails errorDetails = new ErrorDetails(LocalDateTime.now(), exception.getMessage(), webRequest.getDescription(false), "SERVICE_BUSY");
+        logger.warn("Handling PasswordHashingUnavailableException: {}", exception.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorDetails);
+    }
+
+    // 帳戶信箱排隊已滿：同一帳戶短時間內請求過多
+    @ExceptionHandler(AccountBusyException.class)
+    public ResponseEntity<ErrorDetails> handleAccountBusyException(AccountBusyException exception, WebRequest webRequest) {
+        ErrorDetails errorDetails = new ErrorDetails(LocalDateTime.now(), exception.getMessage(), webRequest.getDescription(false), "SERVICE_BUSY");
+        logger.warn("Handling AccountBusyException: {}", exception.getMessage());
+        markDownstreamOverloaded(webRequest);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorDetails);
+    }
+
+    // 取得資料庫連線失敗 (准入控制等待逾時、等待人數已滿或連線池逾時)：屬暫時性過載，請客戶端稍後重試
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<ErrorDetails> handleDatabaseUnavailableException(RuntimeException exception, WebRequest webRequest) {
+        ErrorDetails errorDetails = new ErrorDetails(LocalDateTime.now(), "Database is busy, please retry later", webRequest.getDescription(false), "SERVICE_BUSY");
+        logger.warn("Handling database unavailable: {}", exception.getMessage());
+        markDownstreamOverloaded(webRequest);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorDetails);
+    }
+
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<ErrorDetails> handleLoginThrottledException(LoginThrottledException exception, WebRequest webRequest) {
+        ErrorDetails errorDetails = new ErrorDetails(LocalDateTime.now(), exception.getMessage(), webRequest.getDescription(false), "TOO_MANY_LOGIN_ATTEMPTS");
+        logger.warn("Handling LoginThrottledException: {}", webRequest.getDescription(false));
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+                .body(errorDetails);
+    }
+
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<ErrorDetails> handleAccessDeniedException(AccessDeniedException accessDeniedException, WebRequest webRequest) {
+        ErrorDetails errorDetails = new ErrorDetails(LocalDateTime.now(), accessDeniedException.getMessage(), webRequest.getDescription(false), "ACCESS_DENIED");
+        logger.warn("Handling AccessDeniedException: {}", accessDeniedException.getMessage());
+        return new ResponseEntity<>(errorDetails, HttpStatus.FORBIDDEN);
+    }
+
     @ExceptionHandler(AccountNotFoundException.class)
     public ResponseEntity<ErrorDetails> handleAccountNotFoundException(AccountNotFoundException accountNotFoundException, WebRequest webRequest) {
         ErrorDetails errorDetails = new ErrorDetails(LocalDateTime.now(), accountNotFoundException.getMessage(), webRequest.getDescription(false), "ACCOUNT_NOT_FOUND");
@@ -78,6 +151,14 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
     }
 
+    // 餘額加減溢位 (Money 使用 Math.addExact / subtractExact)
+    @ExceptionHandler(ArithmeticException.class)
+    public ResponseEntity<ErrorDetails> handleArithmeticException(ArithmeticException exception, WebRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(LocalDateTime.now(), "Amount exceeds the supported range", request.getDescription(false), "INVALID_AMOUNT");
+        logger.warn("Handling ArithmeticException: {}", exception.getMessage());
+        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorDetails> handleGenericException(Exception exception, WebRequest request) {
         ErrorDetails errorDetails = new ErrorDetails(
@@ -89,4 +170,8 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    // 讓併發上限把這次 503 視為下游過載 (其他原因的 503 不算)
+    private static void markDownstreamOverloaded(WebRequest webRequest) {
+        webRequest.setAttribute(ConcurrencyLimitFilter.DOWNSTREAM_OVERLOADED, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+    }
 }
@@ -0,0 +1,18 @@
+package net.javaguides.banking.exception;
+
+/**
+ * 登入失敗次數超過門檻，在驗證密碼之前直接拒絕 (429)。
+ */
+public class LoginThrottledException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public LoginThrottledException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,10 @@
+package net.javaguides.banking.exception;
+
+/**
+ * 密碼雜湊執行緒池已滿或等待逾時，請求被快速拒絕 (503)。
+ */
+public class PasswordHashingUnavailableException extends RuntimeException {
+    public PasswordHashingUnavailableException(String message) {
+        super(message);
+    }
+}
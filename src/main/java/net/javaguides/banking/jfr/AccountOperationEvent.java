@@ -0,0 +1,81 @@
+package net.javaguides.banking.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import net.javaguides.banking.money.Money;
+
+/**
+ * 一次存款、取款或轉帳 (不含交易提交)。
+ *
+ * 與 JFR 的 GC、配置與鎖事件在同一條時間軸上，可看出某次慢操作當時 JVM 在做什麼。
+ * 未錄製時 shouldCommit() 為 false，不轉換金額也不寫入，物件通常被逃逸分析消除。
+ */
+@Name("net.javaguides.banking.AccountOperation")
+@Label("Account Operation")
+@Category({"Banking", "Account"})
+@Description("存款、取款或轉帳，含重試次數與轉帳的列鎖等待時間")
+@StackTrace(false)
+public class AccountOperationEvent extends Event {
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Account Id")
+    private long accountId;
+
+    @Label("Target Account Id")
+    @Description("轉帳的轉入帳戶，其他操作為 0")
+    private long targetAccountId;
+
+    @Label("Amount")
+    private String amount;
+
+    @Label("Attempts")
+    @Description("樂觀鎖衝突時的嘗試次數 (含第一次)")
+    private int attempts;
+
+    @Label("Lock Wait")
+    @Description("轉帳鎖定兩個帳戶列 (SELECT ... FOR UPDATE) 的等待時間合計")
+    @Timespan(Timespan.NANOSECONDS)
+    private long lockWait;
+
+    @Label("Outcome")
+    @Description("success，或失敗時的例外類別名稱")
+    private String outcome;
+
+    public static AccountOperationEvent begin(String operation, long accountId, long targetAccountId) {
+        AccountOperationEvent event = new AccountOperationEvent();
+        event.operation = operation;
+        event.accountId = accountId;
+        event.targetAccountId = targetAccountId;
+        event.attempts = 1;
+        event.begin();
+        return event;
+    }
+
+    public void attempt(int attempt) {
+        attempts = attempt;
+    }
+
+    public void lockWaited(long nanos) {
+        lockWait += nanos;
+    }
+
+    /**
+     * 結束並寫入事件，failure 為 null 代表成功。
+     */
+    public void finish(Money amount, Throwable failure) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        this.amount = amount == null ? null : amount.toString();
+        this.outcome = failure == null ? "success" : failure.getClass().getSimpleName();
+        commit();
+    }
+}
@@ -0,0 +1,132 @@
+package net.javaguides.banking.jfr;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import net.javaguides.banking.dto.JfrDumpDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * 應用程式內建的 JFR 持續錄製：啟動時以 JDK 的 default 設定 (額外負擔約 1%) 開始錄製，
+ * 只在磁碟上保留最近 maxAge / maxSize 的資料，需要時由管理端點傾印到本機檔案，以 JDK Mission Control 開啟。
+ *
+ * 傾印檔同時含有 GC、配置、鎖與執行緒事件，以及本應用的存款 / 取款 / 轉帳、JWT 驗證與使用者載入事件
+ * (Banking 分類)，可在同一條時間軸上對照。已用 -XX:StartFlightRecording 啟動的錄製不受影響。
+ */
+@Component
+public class ContinuousRecording {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContinuousRecording.class);
+
+    private static final DateTimeFormatter DUMP_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    @Value("${spring.app.jfr.enabled:true}")
+    private boolean enabled;
+
+    // JDK 內建的設定檔：default (持續錄製) 或 profile (較詳細，額外負擔約 2%)
+    @Value("${spring.app.jfr.settings:default}")
+    private String settings;
+
+    @Value("${spring.app.jfr.maxAgeMinutes:30}")
+    private long maxAgeMinutes;
+
+    @Value("${spring.app.jfr.maxSizeMb:250}")
+    private long maxSizeMb;
+
+    @Value("${spring.app.jfr.dumpDirectory:./data/jfr}")
+    private String dumpDirectory;
+
+    @Value("${spring.app.jfr.maxDumps:10}")
+    private int maxDumps;
+
+    private final ReentrantLock dumpLock = new ReentrantLock();
+
+    private Recording recording;
+
+    @PostConstruct
+    public void start() throws IOException, ParseException {
+        if (!enabled) {
+            return;
+        }
+        if (!FlightRecorder.isAvailable()) {
+            logger.warn("此 JVM 不支援 JFR，停用持續錄製");
+            return;
+        }
+        Recording continuous = new Recording(Configuration.getConfiguration(settings));
+        continuous.setName("banking-continuous");
+        continuous.setToDisk(true);
+        continuous.setMaxAge(Duration.ofMinutes(maxAgeMinutes));
+        continuous.setMaxSize(maxSizeMb * 1024 * 1024);
+        continuous.enable(AccountOperationEvent.class);
+        continuous.enable(JwtVerificationEvent.class);
+        continuous.enable(UserDetailsLoadEvent.class);
+        continuous.start();
+        recording = continuous;
+        logger.info("JFR 持續錄製已啟動 (設定 {}，保留 {} 分鐘 / {} MB)", settings, maxAgeMinutes, maxSizeMb);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return recording != null;
+    }
+
+    /**
+     * 把目前保留的錄製資料寫入 dumpDirectory 下的新檔案，只保留最近 maxDumps 個傾印檔。錄製不中斷。
+     */
+    public JfrDumpDTO dump() throws IOException {
+        Recording current = recording;
+        if (current == null) {
+            throw new IllegalStateException("Continuous recording is not running");
+        }
+        dumpLock.lock();
+        try {
+            Path directory = Path.of(dumpDirectory).toAbsolutePath();
+            Files.createDirectories(directory);
+            Path file = directory.resolve("banking-" + LocalDateTime.now().format(DUMP_SUFFIX) + ".jfr");
+            current.dump(file);
+            deleteOldDumps(directory);
+            logger.info("JFR 錄製已傾印至 {}", file);
+            return new JfrDumpDTO(file.toString(), Files.size(file), current.getStartTime(), maxAgeMinutes);
+        } finally {
+            dumpLock.unlock();
+        }
+    }
+
+    private void deleteOldDumps(Path directory) throws IOException {
+        List<Path> dumps;
+        try (Stream<Path> files = Files.list(directory)) {
+            dumps = files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith("banking-") && name.endsWith(".jfr");
+                    })
+                    .sorted()
+                    .toList();
+        }
+        for (int i = 0; i < dumps.size() - maxDumps; i++) {
+            Files.deleteIfExists(dumps.get(i));
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package net.javaguides.banking.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 一次 JWT 簽名驗證與解析。
+ */
+@Name("net.javaguides.banking.JwtVerification")
+@Label("JWT Verification")
+@Category({"Banking", "Security"})
+@Description("JWT 簽名驗證與 claims 解析")
+@StackTrace(false)
+public class JwtVerificationEvent extends Event {
+
+    @Label("Outcome")
+    @Description("valid、expired、malformed、unsupported、invalid_signature 或 empty，與 banking.jwt.validation 指標相同")
+    private String outcome;
+
+    public void finish(String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
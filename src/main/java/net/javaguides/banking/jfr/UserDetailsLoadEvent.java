@@ -0,0 +1,36 @@
+package net.javaguides.banking.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 由資料庫 (經二級快取) 載入使用者與角色，登入與不含授權 claims 的 Token 驗證時發生。
+ */
+@Name("net.javaguides.banking.UserDetailsLoad")
+@Label("User Details Load")
+@Category({"Banking", "Security"})
+@Description("以使用者名稱載入使用者與角色")
+@StackTrace(false)
+public class UserDetailsLoadEvent extends Event {
+
+    @Label("User Id")
+    @Description("找不到使用者時為 0")
+    private long userId;
+
+    @Label("Outcome")
+    @Description("found 或 not_found")
+    private String outcome;
+
+    public void finish(Long userId) {
+        end();
+        if (shouldCommit()) {
+            this.userId = userId == null ? 0 : userId;
+            this.outcome = userId == null ? "not_found" : "found";
+            commit();
+        }
+    }
+}
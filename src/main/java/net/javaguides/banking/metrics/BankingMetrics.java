@@ -0,0 +1,130 @@
+package net.javaguides.banking.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 業務層的指標：樂觀鎖重試、餘額不足、轉帳列鎖等待、JWT 驗證結果與每個請求的 SQL 數量。
+ *
+ * 計量器依標籤值快取，熱路徑上只做一次 Map 查詢。
+ * Service 各方法的執行時間由 {@code @Observed} 記錄 (banking.account.service，同時產生追蹤 span)，不在這裡。
+ */
+@Component
+public class BankingMetrics {
+
+    public static final String ACCOUNT_SERVICE = "banking.account.service";
+
+    public static final String OPTIMISTIC_LOCK_RETRIES = "banking.account.optimistic.lock.retries";
+
+    public static final String OPTIMISTIC_LOCK_EXHAUSTED = "banking.account.optimistic.lock.exhausted";
+
+    public static final String INSUFFICIENT_FUNDS = "banking.account.insufficient.funds";
+
+    public static final String LOCK_WAIT = "banking.account.lock.wait";
+
+    public static final String JWT_VALIDATION = "banking.jwt.validation";
+
+    public static final String SQL_STATEMENTS = "banking.sql.statements";
+
+    public static final String SQL_TIME = "banking.sql.time";
+
+    public static final String SQL_SLOW = "banking.sql.slow";
+
+    private final MeterRegistry registry;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private final Map<String, Timer> lockWaits = new ConcurrentHashMap<>();
+
+    private final Map<String, SqlMeters> sqlMeters = new ConcurrentHashMap<>();
+
+    private final Counter slowStatements;
+
+    public BankingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.slowStatements = Counter.builder(SQL_SLOW)
+                .description("執行時間超過門檻的 SQL 數量")
+                .register(registry);
+    }
+
+    /**
+     * 樂觀鎖衝突後準備重試。operation 為 deposit / withdraw。
+     */
+    public void optimisticLockRetry(String operation) {
+        counter(OPTIMISTIC_LOCK_RETRIES, "operation", operation, "樂觀鎖衝突後的重試次數").increment();
+    }
+
+    /**
+     * 重試次數用盡，請求以 AccountException 失敗。
+     */
+    public void optimisticLockExhausted(String operation) {
+        counter(OPTIMISTIC_LOCK_EXHAUSTED, "operation", operation, "樂觀鎖重試用盡而失敗的次數").increment();
+    }
+
+    /**
+     * 餘額檢查失敗。operation 為 withdraw / transfer。
+     */
+    public void insufficientFunds(String operation) {
+        counter(INSUFFICIENT_FUNDS, "operation", operation, "餘額不足而拒絕的次數").increment();
+    }
+
+    /**
+     * 轉帳時 SELECT ... FOR UPDATE 的等待時間 (含查詢本身)。lock 為 source (轉出) / target (轉入)。
+     */
+    public void lockWait(String lock, long nanos) {
+        lockWaits.computeIfAbsent(lock, key -> Timer.builder(LOCK_WAIT)
+                        .description("轉帳鎖定帳戶列的等待時間")
+                        .tag("lock", key)
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * JWT 驗證結果：valid、expired、malformed、unsupported、invalid_signature、empty。
+     */
+    public void jwtValidation(String outcome) {
+        counter(JWT_VALIDATION, "outcome", outcome, "JWT 驗證結果").increment();
+    }
+
+    /**
+     * 一個 HTTP 請求發出的 SQL 數量與資料庫執行時間，依方法與路由樣式 (例如 /api/accounts/{id}) 分開統計。
+     */
+    public void sqlStatements(String method, String uri, long statements, long executionNanos) {
+        SqlMeters meters = sqlMeters.computeIfAbsent(method + ' ' + uri, key -> new SqlMeters(
+                DistributionSummary.builder(SQL_STATEMENTS)
+                        .description("每個請求發出的 SQL 數量")
+                        .tags("method", method, "uri", uri)
+                        .register(registry),
+                Timer.builder(SQL_TIME)
+                        .description("每個請求在資料庫執行 SQL 的時間")
+                        .tags("method", method, "uri", uri)
+                        .register(registry)));
+        meters.statements().record(statements);
+        meters.time().record(executionNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 執行時間超過門檻的 SQL。
+     */
+    public void slowStatement() {
+        slowStatements.increment();
+    }
+
+    private Counter counter(String name, String tag, String value, String description) {
+        return counters.computeIfAbsent(name + '|' + value, key -> Counter.builder(name)
+                .description(description)
+                .tag(tag, value)
+                .register(registry));
+    }
+
+    private record SqlMeters(DistributionSummary statements, Timer time) {
+    }
+}
@@ -0,0 +1,209 @@
+package net.javaguides.banking.metrics;
+
+import net.javaguides.banking.dto.ContendedAccountDTO;
+import net.javaguides.banking.dto.ContentionReportDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 找出競爭最激烈的帳戶：以 Space-Saving 演算法在固定 K 個欄位內追蹤「競爭事件」最多的帳戶 ID。
+ *
+ * 競爭事件為存款 / 取款的樂觀鎖衝突，以及轉帳 SELECT ... FOR UPDATE 等待超過門檻。
+ * 已追蹤的帳戶另外記錄每次鎖定的等待時間分布 (對數分桶，誤差約 19%)，供查詢百分位數。
+ *
+ * Space-Saving：帳戶已在表中則計數加 1；表未滿則加入；表已滿時取代計數最小的帳戶，
+ * 新帳戶繼承其計數並記為誤差 (error)。事件次數 ≥ 總事件數 / K 的帳戶保證在表中，
+ * 回報的次數最多高估 error。記憶體固定為 K 個欄位，與帳戶總數無關。
+ *
+ * 每筆轉帳都會呼叫 {@link #recordLockWait}，因此常見路徑不取得鎖：已追蹤的帳戶直接以原子計數更新，
+ * 未達門檻且未追蹤的樣本直接略過。只有加入新帳戶與取代 (掃描 K 個欄位找最小值) 時才取得 ReentrantLock
+ * (不使用 synchronized，虛擬執行緒不會被釘住)。帳戶在更新途中被取代時，該次更新會落在已移除的欄位上而遺失，
+ * 對近似的排名沒有影響。
+ */
+@Component
+public class ContentionProfiler {
+
+    // 每個 2 的次方再細分 4 格，從 1 微秒到約 1 分鐘
+    private static final int SUB_BUCKETS = 4;
+
+    private static final int OCTAVES = 26;
+
+    private static final long MIN_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+
+    private final int capacity;
+
+    private final long lockWaitThresholdNanos;
+
+    private final Map<Long, Slot> slots;
+
+    // 只保護加入與取代，讀取與更新已追蹤的帳戶不需要
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LongAdder totalEvents = new LongAdder();
+
+    public ContentionProfiler(@Value("${spring.app.contention.topK:100}") int capacity,
+                              @Value("${spring.app.contention.lockWaitThresholdMs:2}") long lockWaitThresholdMs) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.lockWaitThresholdNanos = TimeUnit.MILLISECONDS.toNanos(lockWaitThresholdMs);
+        this.slots = new ConcurrentHashMap<>(capacity * 2);
+    }
+
+    /**
+     * 存款或取款發生樂觀鎖衝突。
+     */
+    public void recordOptimisticConflict(Long accountId) {
+        offer(accountId).optimisticConflicts.increment();
+    }
+
+    /**
+     * 轉帳鎖定帳戶列的等待時間 (含查詢本身)。超過門檻才算競爭事件；
+     * 未達門檻的樣本只在帳戶已被追蹤時計入等待時間分布。
+     */
+    public void recordLockWait(Long accountId, long waitNanos) {
+        Slot slot = waitNanos >= lockWaitThresholdNanos ? offer(accountId) : slots.get(accountId);
+        if (slot != null) {
+            slot.recordWait(waitNanos);
+        }
+    }
+
+    /**
+     * 依競爭事件次數排序的前 limit 個帳戶。
+     */
+    public ContentionReportDTO report(int limit) {
+        List<ContendedAccountDTO> accounts = new ArrayList<>();
+        long events = totalEvents.sum();
+        slots.values().stream()
+                .sorted(Comparator.comparingLong((Slot slot) -> slot.count.get()).reversed())
+                .limit(Math.max(0, limit))
+                .forEach(slot -> accounts.add(slot.toDto()));
+        return new ContentionReportDTO(capacity, TimeUnit.NANOSECONDS.toMillis(lockWaitThresholdNanos), events, accounts);
+    }
+
+    public void reset() {
+        lock.lock();
+        try {
+            slots.clear();
+            totalEvents.reset();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Slot offer(Long accountId) {
+        totalEvents.increment();
+        Slot slot = slots.get(accountId);
+        if (slot == null) {
+            slot = insert(accountId);
+        }
+        slot.count.incrementAndGet();
+        return slot;
+    }
+
+    private Slot insert(Long accountId) {
+        lock.lock();
+        try {
+            // 等待鎖的期間可能已由其他執行緒加入
+            Slot slot = slots.get(accountId);
+            if (slot != null) {
+                return slot;
+            }
+            if (slots.size() < capacity) {
+                slot = new Slot(accountId, 0);
+            } else {
+                Slot evicted = slots.values().stream().min(Comparator.comparingLong(s -> s.count.get())).orElseThrow();
+                slots.remove(evicted.accountId);
+                slot = new Slot(accountId, evicted.count.get());
+            }
+            slots.put(accountId, slot);
+            return slot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    static int bucketOf(long nanos) {
+        long micros = Math.max(1, nanos / MIN_NANOS);
+        int octave = 63 - Long.numberOfLeadingZeros(micros);
+        if (octave >= OCTAVES) {
+            return OCTAVES * SUB_BUCKETS - 1;
+        }
+        // octave 內的位置：取最高位之後的兩個位元
+        int sub = octave >= 2 ? (int) ((micros >> (octave - 2)) & (SUB_BUCKETS - 1)) : (int) ((micros << (2 - octave)) & (SUB_BUCKETS - 1));
+        return octave * SUB_BUCKETS + sub;
+    }
+
+    /** 分桶的上界 (奈秒)，作為百分位數的估計值 */
+    static long upperBoundOf(int bucket) {
+        int octave = bucket / SUB_BUCKETS;
+        int sub = bucket % SUB_BUCKETS;
+        long micros = (1L << octave) + (((sub + 1L) << octave) / SUB_BUCKETS);
+        return micros * MIN_NANOS;
+    }
+
+    private static final class Slot {
+
+        final long accountId;
+
+        // 事件次數 (含繼承自被取代帳戶的 error)
+        final AtomicLong count;
+
+        final long error;
+
+        final LongAdder optimisticConflicts = new LongAdder();
+
+        final LongAdder lockWaits = new LongAdder();
+
+        final AtomicLong maxWaitNanos = new AtomicLong();
+
+        final AtomicLongArray waitBuckets = new AtomicLongArray(OCTAVES * SUB_BUCKETS);
+
+        Slot(long accountId, long inheritedCount) {
+            this.accountId = accountId;
+            this.count = new AtomicLong(inheritedCount);
+            this.error = inheritedCount;
+        }
+
+        void recordWait(long nanos) {
+            lockWaits.increment();
+            maxWaitNanos.accumulateAndGet(nanos, Math::max);
+            waitBuckets.incrementAndGet(bucketOf(nanos));
+        }
+
+        double percentileMs(long waits, long maxWait, double percentile) {
+            if (waits == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(waits * percentile / 100.0);
+            long seen = 0;
+            for (int bucket = 0; bucket < waitBuckets.length(); bucket++) {
+                seen += waitBuckets.get(bucket);
+                if (seen >= rank) {
+                    return Math.min(upperBoundOf(bucket), maxWait) / 1_000_000.0;
+                }
+            }
+            return maxWait / 1_000_000.0;
+        }
+
+        ContendedAccountDTO toDto() {
+            // 各欄位分別讀取，與同時進行的更新之間可能相差幾筆
+            long waits = lockWaits.sum();
+            long maxWait = maxWaitNanos.get();
+            return new ContendedAccountDTO(accountId, count.get(), error, optimisticConflicts.sum(), waits,
+                    percentileMs(waits, maxWait, 50), percentileMs(waits, maxWait, 99), maxWait / 1_000_000.0);
+        }
+    }
+}
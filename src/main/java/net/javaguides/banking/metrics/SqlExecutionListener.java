@@ -0,0 +1,46 @@
+package net.javaguides.banking.metrics;
+
+import io.micrometer.observation.Observation;
+import org.hibernate.SessionEventListener;
+
+/**
+ * 量測每條 SQL (含批次) 在 JDBC 上的執行時間，並記錄為 JDBC span。
+ *
+ * 由 Hibernate 為每個 Session 建立一個實例 (hibernate.session.events.auto)，Session 只在單一執行緒上使用，
+ * 開始時間與進行中的 observation 存在欄位即可。
+ */
+public class SqlExecutionListener implements SessionEventListener {
+
+    private long executionStart;
+
+    private Observation execution = Observation.NOOP;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        execution = SqlStatementTracker.executionStarted("jdbc execute");
+        executionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        SqlStatementTracker.statementExecuted(System.nanoTime() - executionStart);
+        stopExecution();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        execution = SqlStatementTracker.executionStarted("jdbc execute batch");
+        executionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        SqlStatementTracker.statementExecuted(System.nanoTime() - executionStart);
+        stopExecution();
+    }
+
+    private void stopExecution() {
+        execution.stop();
+        execution = Observation.NOOP;
+    }
+}
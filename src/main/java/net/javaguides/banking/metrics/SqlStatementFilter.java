@@ -0,0 +1,42 @@
+package net.javaguides.banking.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * 統計每個 /api/ 請求發出的 SQL 數量與資料庫時間，請求結束時依端點 (路由樣式) 記錄為指標。
+ * 註冊在 Spring Security 之前，JWT 驗證時的使用者查詢也計入。
+ */
+public class SqlStatementFilter extends OncePerRequestFilter {
+
+    private final BankingMetrics metrics;
+
+    public SqlStatementFilter(BankingMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementStats stats = SqlStatementTracker.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatementTracker.end();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            metrics.sqlStatements(request.getMethod(), pattern == null ? "UNKNOWN" : pattern.toString(),
+                    stats.statements(), stats.executionNanos());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package net.javaguides.banking.metrics;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 開發與測試環境在回應加上 X-SQL-Count 與 X-SQL-Time-Ms，方便直接看出端點發出幾條 SQL。
+ *
+ * 標頭必須在寫出回應內容前設定，因此在這裡 (寫出前) 讀取目前的統計；
+ * 交易已在 Service 層提交 (open-in-view 已關閉)，此時的數量即為整個請求的數量。沒有回應內容的回應不加標頭。
+ */
+@RestControllerAdvice
+@ConditionalOnProperty(name = "spring.app.sqlStatementHeader", havingValue = "true")
+public class SqlStatementHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String COUNT_HEADER = "X-SQL-Count";
+
+    public static final String TIME_HEADER = "X-SQL-Time-Ms";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlStatementStats stats = SqlStatementTracker.current();
+        if (stats != null) {
+            response.getHeaders().set(COUNT_HEADER, Long.toString(stats.statements()));
+            response.getHeaders().set(TIME_HEADER, Long.toString(TimeUnit.NANOSECONDS.toMillis(stats.executionNanos())));
+        }
+        return body;
+    }
+}
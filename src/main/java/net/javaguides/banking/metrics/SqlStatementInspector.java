@@ -0,0 +1,15 @@
+package net.javaguides.banking.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate 準備每一條 SQL 時呼叫，計入目前請求的 SQL 數量。SQL 原樣傳回，不做修改。
+ */
+public class SqlStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        SqlStatementTracker.statementPrepared(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,31 @@
+package net.javaguides.banking.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 單一 HTTP 請求發出的 SQL 數量與資料庫執行時間。
+ *
+ * 信箱模式下操作在另一條執行緒上執行，兩邊會寫入同一個物件，因此以 LongAdder 計數。
+ */
+public final class SqlStatementStats {
+
+    private final LongAdder statements = new LongAdder();
+
+    private final LongAdder executionNanos = new LongAdder();
+
+    void statementPrepared() {
+        statements.increment();
+    }
+
+    void statementExecuted(long nanos) {
+        executionNanos.add(nanos);
+    }
+
+    public long statements() {
+        return statements.sum();
+    }
+
+    public long executionNanos() {
+        return executionNanos.sum();
+    }
+}
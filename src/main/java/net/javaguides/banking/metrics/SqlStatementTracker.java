@@ -0,0 +1,184 @@
+package net.javaguides.banking.metrics;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * 連接 Hibernate 與 HTTP 請求的 SQL 計數。
+ *
+ * {@link SqlStatementInspector} 與 {@link SqlExecutionListener} 由 Hibernate 自行建立，無法注入 Spring bean，
+ * 因此以執行緒區域變數傳遞目前請求的 {@link SqlStatementStats}；不在請求內 (排程、啟動) 的 SQL 只做慢查詢檢查。
+ * 慢查詢與抽樣記錄的 SQL 只有形狀 (參數個數、IN 清單長度)，不記錄參數值。
+ * 每次執行另記錄為 observation，在追蹤中成為目前 Repository span 底下的 JDBC span。
+ */
+public final class SqlStatementTracker {
+
+    public static final String JDBC_OBSERVATION = "banking.jdbc";
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatementTracker.class);
+
+    // 抽樣記錄的 SQL，取代逐條同步輸出的 spring.jpa.show-sql
+    private static final Logger sqlLogger = LoggerFactory.getLogger("net.javaguides.banking.sql");
+
+    private static final int MAX_LOGGED_LENGTH = 1000;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // IN (?,?,?) 之類連續的參數
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+
+    private static final ThreadLocal<SqlStatementStats> CURRENT = new ThreadLocal<>();
+
+    // 最近一次準備的 SQL，執行結束時判斷是否為慢查詢
+    private static final ThreadLocal<String> LAST_STATEMENT = new ThreadLocal<>();
+
+    private static volatile long slowThresholdNanos = Long.MAX_VALUE;
+
+    private static volatile Runnable slowStatementCallback = () -> {
+    };
+
+    private static volatile ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
+
+    private static volatile double sqlLogSampleRate;
+
+    private SqlStatementTracker() {
+    }
+
+    /**
+     * 由 Spring 設定啟動時呼叫：執行時間超過 thresholdNanos 的 SQL 記錄警告並呼叫 onSlowStatement。
+     */
+    public static void configure(long thresholdNanos, Runnable onSlowStatement) {
+        slowThresholdNanos = thresholdNanos;
+        slowStatementCallback = onSlowStatement;
+    }
+
+    /**
+     * 由 Spring 設定啟動時呼叫：以 rate (0 ~ 1) 的機率記錄執行的 SQL 形狀與時間，0 為關閉。
+     */
+    public static void sampleStatements(double rate) {
+        sqlLogSampleRate = rate;
+    }
+
+    /**
+     * 由 Spring 設定啟動時呼叫：之後每次 SQL 執行都記錄為 observation。
+     */
+    public static void observeExecutions(ObservationRegistry registry) {
+        observationRegistry = registry;
+    }
+
+    /**
+     * 開始統計目前執行緒上的 SQL，請求結束時必須呼叫 {@link #end()}。
+     */
+    public static SqlStatementStats begin() {
+        SqlStatementStats stats = new SqlStatementStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+        LAST_STATEMENT.remove();
+    }
+
+    /**
+     * 目前請求的統計，不在請求內時為 null。
+     */
+    public static SqlStatementStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 讓操作在其他執行緒上執行時，SQL 仍計入呼叫端的請求 (帳戶信箱)。
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> operation) {
+        SqlStatementStats stats = CURRENT.get();
+        if (stats == null) {
+            return operation;
+        }
+        return () -> {
+            SqlStatementStats previous = CURRENT.get();
+            CURRENT.set(stats);
+            try {
+                return operation.get();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    static void statementPrepared(String sql) {
+        LAST_STATEMENT.set(sql);
+        SqlStatementStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statementPrepared();
+        }
+    }
+
+    /**
+     * 開始一次 SQL 執行的 observation，SQL 文字 (含 ? 佔位符，不含參數值) 記在 db.statement。
+     */
+    static Observation executionStarted(String contextualName) {
+        ObservationRegistry registry = observationRegistry;
+        if (registry.isNoop()) {
+            return Observation.NOOP;
+        }
+        String sql = LAST_STATEMENT.get();
+        return Observation.createNotStarted(JDBC_OBSERVATION, registry)
+                .contextualName(contextualName)
+                .highCardinalityKeyValue("db.statement", sql == null ? "(unknown)" : shape(sql))
+                .start();
+    }
+
+    static void statementExecuted(long nanos) {
+        SqlStatementStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statementExecuted(nanos);
+        }
+        if (nanos >= slowThresholdNanos) {
+            String sql = LAST_STATEMENT.get();
+            logger.atWarn().setMessage("sql.slow")
+                    .addKeyValue("durationMs", TimeUnit.NANOSECONDS.toMillis(nanos))
+                    .addKeyValue("parameters", sql == null ? 0 : parameterCount(sql))
+                    .addKeyValue("statement", sql == null ? "(unknown)" : shape(sql))
+                    .log();
+            slowStatementCallback.run();
+        } else if (sqlLogSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sqlLogSampleRate) {
+            String sql = LAST_STATEMENT.get();
+            sqlLogger.atInfo().setMessage("sql.sampled")
+                    .addKeyValue("durationMicros", TimeUnit.NANOSECONDS.toMicros(nanos))
+                    .addKeyValue("statement", () -> sql == null ? "(unknown)" : shape(sql))
+                    .log();
+        }
+    }
+
+    /**
+     * 壓縮空白並把連續的參數清單縮寫為 ?*n，相同查詢不同 IN 清單長度的形狀仍可一眼比較。
+     */
+    static String shape(String sql) {
+        String compact = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        String shaped = PARAMETER_LIST.matcher(compact)
+                .replaceAll(match -> "?*" + (parameterCount(match.group())));
+        return shaped.length() > MAX_LOGGED_LENGTH ? shaped.substring(0, MAX_LOGGED_LENGTH) + "..." : shaped;
+    }
+
+    static int parameterCount(String sql) {
+        int count = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            if (sql.charAt(i) == '?') {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,116 @@
+package net.javaguides.banking.money;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 金額：以 long 儲存最小單位 (分，固定 2 位小數)，取代餘額運算中的 BigDecimal。
+ *
+ * 加減與比較都是 long 運算，不再為每次運算配置 BigDecimal / BigInteger；溢位時拋出 ArithmeticException，不會默默繞回。
+ * JSON 維持一般數字 (例如 10.00)，輸入超過 2 位小數時拒絕，不四捨五入；資料庫欄位為 BIGINT (見 MoneyConverter)。
+ */
+@JsonSerialize(using = MoneyJsonSerializer.class)
+@JsonDeserialize(using = MoneyJsonDeserializer.class)
+public final class Money implements Comparable<Money>, Serializable {
+
+    public static final int SCALE = 2;
+
+    public static final Money ZERO = new Money(0);
+
+    private static final long MINOR_PER_MAJOR = 100;
+
+    private static final long serialVersionUID = 1L;
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * 由 BigDecimal 轉換。小數超過 2 位 (去除尾端的 0 後) 或超出 long 範圍時拋出 ArithmeticException。
+     */
+    public static Money of(BigDecimal amount) {
+        if (amount.signum() == 0) {
+            return ZERO;
+        }
+        // 先以位數排除超出範圍的值：setScale 會計算 10 的 (指數差) 次方，1e20000000 這類輸入要耗用數秒 CPU
+        int integerDigits = amount.precision() - amount.scale();
+        if (amount.scale() < -18 || integerDigits > 19 || integerDigits < 1 - SCALE) {
+            throw new ArithmeticException("Amount out of range: " + amount);
+        }
+        return ofMinor(amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+    }
+
+    /**
+     * 解析十進位字串，例如 "10.50"；規則同 {@link #of(BigDecimal)}。
+     */
+    public static Money parse(String amount) {
+        return of(new BigDecimal(amount));
+    }
+
+    public long minorUnits() {
+        return minorUnits;
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public boolean isLessThan(Money other) {
+        return minorUnits < other.minorUnits;
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Money other && minorUnits == other.minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    /**
+     * 固定 2 位小數的十進位字串，例如 "-0.05"、"1000.00"。
+     */
+    @Override
+    public String toString() {
+        long major = minorUnits / MINOR_PER_MAJOR;
+        long minor = Math.abs(minorUnits % MINOR_PER_MAJOR);
+        StringBuilder text = new StringBuilder(24);
+        if (minorUnits < 0 && major == 0) {
+            text.append('-');
+        }
+        text.append(major).append('.');
+        if (minor < 10) {
+            text.append('0');
+        }
+        return text.append(minor).toString();
+    }
+}
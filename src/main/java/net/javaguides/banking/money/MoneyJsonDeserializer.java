@@ -0,0 +1,62 @@
+package net.javaguides.banking.money;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * 接受 JSON 數字與數字字串 (與原本的 BigDecimal 欄位相同)。
+ * 小數超過 2 位或超出範圍時拋出 InvalidFormatException，回應 400，不會被四捨五入後入帳。
+ */
+public class MoneyJsonDeserializer extends StdScalarDeserializer<Money> {
+
+    public MoneyJsonDeserializer() {
+        super(Money.class);
+    }
+
+    @Override
+    public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        JsonToken token = parser.currentToken();
+        BigDecimal amount;
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            // 整數不需要經過 BigDecimal
+            if (parser.getNumberType() == JsonParser.NumberType.INT || parser.getNumberType() == JsonParser.NumberType.LONG) {
+                long major = parser.getLongValue();
+                try {
+                    return Money.ofMinor(Math.multiplyExact(major, 100L));
+                } catch (ArithmeticException e) {
+                    throw outOfRange(parser, String.valueOf(major));
+                }
+            }
+            amount = parser.getDecimalValue();
+        } else if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+            amount = parser.getDecimalValue();
+        } else if (token == JsonToken.VALUE_STRING) {
+            String text = parser.getText().trim();
+            try {
+                amount = new BigDecimal(text);
+            } catch (NumberFormatException e) {
+                throw InvalidFormatException.from(parser, "Amount is not a number", text, Money.class);
+            }
+        } else {
+            return (Money) context.handleUnexpectedToken(Money.class, parser);
+        }
+
+        try {
+            return Money.of(amount);
+        } catch (ArithmeticException e) {
+            // toString 維持科學記號，toPlainString 會把 1e20000000 展開成兩千萬個字元
+            throw outOfRange(parser, amount.toString());
+        }
+    }
+
+    private static InvalidFormatException outOfRange(JsonParser parser, String value) {
+        return InvalidFormatException.from(parser,
+                "Amount must have at most " + Money.SCALE + " decimal places and fit the supported range", value, Money.class);
+    }
+}
@@ -0,0 +1,16 @@
+package net.javaguides.banking.money;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * 讓 {@link Positive} 可用於 Money 欄位 (經 META-INF/services/jakarta.validation.ConstraintValidator 註冊)。
+ */
+public class PositiveMoneyValidator implements ConstraintValidator<Positive, Money> {
+
+    @Override
+    public boolean isValid(Money value, ConstraintValidatorContext context) {
+        return value == null || value.signum() > 0;
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface AccountRepository extends JpaRepository<Account, Long> {
@@ -17,4 +18,23 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     @Query("SELECT a FROM Account a WHERE a.id = :id")
     Optional<Account> findByIdForUpdate(@Param("id") Long id);
 
+    @Query("SELECT a FROM Account a WHERE a.id = :id AND a.user.userId = :userId")
+    Optional<Account> findByIdAndOwner(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.id = :id AND a.user.userId = :userId")
+    Optional<Account> findByIdAndOwnerForUpdate(@Param("id") Long id, @Param("userId") Long userId);
+
+    // 只讀取版本號，供條件式 GET (ETag) 判斷，不載入整個實體
+    @Query("SELECT a.version FROM Account a WHERE a.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT a.version FROM Account a WHERE a.id = :id AND a.user.userId = :userId")
+    Optional<Long> findVersionByIdAndOwner(@Param("id") Long id, @Param("userId") Long userId);
+
+    boolean existsByIdAndUserUserId(Long id, Long userId);
+
+    @Query("SELECT a.id FROM Account a WHERE a.user.userId = :userId ORDER BY a.id")
+    List<Long> findIdsByUserId(@Param("userId") Long userId);
+
 }
@@ -1,12 +1,18 @@
 package net.javaguides.banking.repository;
 
+import jakarta.persistence.QueryHint;
 import net.javaguides.banking.entity.AppRole;
 import net.javaguides.banking.entity.Role;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.Optional;
 
 public interface RoleRepository extends JpaRepository<Role, Long> {
+
+    // 註冊與變更角色時都會查詢，結果放入查詢快取 (roles 表有寫入時自動失效)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Role> findByRoleName(AppRole appRole);
 
-}
\ No newline at end of file
+}
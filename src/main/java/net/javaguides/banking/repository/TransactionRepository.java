@@ -6,8 +6,25 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 
 public interface TransactionRepository extends JpaRepository<Transaction,Long> {
     public Page<Transaction> findByAccountIdOrderByTimestampDesc(Long accountId, Pageable pageable);
+
+    // 交易紀錄只會新增，最新一筆的 ID 即可代表交易列表第一頁是否變動
+    @Query("SELECT MAX(t.id) FROM Transaction t WHERE t.accountId = :accountId")
+    Long findLatestIdByAccountId(@Param("accountId") Long accountId);
+
+    @Query("SELECT MAX(t.id) FROM Transaction t WHERE t.accountId = :accountId " +
+            "AND EXISTS (SELECT a.id FROM Account a WHERE a.id = t.accountId AND a.user.userId = :userId)")
+    Long findLatestIdByAccountIdAndOwner(@Param("accountId") Long accountId, @Param("userId") Long userId);
+
+    @Query(value = "SELECT t FROM Transaction t WHERE t.accountId = :accountId " +
+            "AND EXISTS (SELECT a.id FROM Account a WHERE a.id = t.accountId AND a.user.userId = :userId) " +
+            "ORDER BY t.timestamp DESC",
+            countQuery = "SELECT COUNT(t) FROM Transaction t WHERE t.accountId = :accountId " +
+                    "AND EXISTS (SELECT a.id FROM Account a WHERE a.id = t.accountId AND a.user.userId = :userId)")
+    Page<Transaction> findByAccountIdAndOwner(@Param("accountId") Long accountId, @Param("userId") Long userId, Pageable pageable);
 }
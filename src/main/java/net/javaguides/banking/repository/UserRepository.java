@@ -1,9 +1,17 @@
 package net.javaguides.banking.repository;
 
+import net.javaguides.banking.dto.UserIdentityDTO;
+import net.javaguides.banking.entity.AppRole;
 import net.javaguides.banking.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,5 +19,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     boolean existsByUsername(String username);
     Boolean existsByEmail(String email);
+
+    @Query("SELECT r.roleName FROM User u JOIN u.role r WHERE u.userId = :userId")
+    Optional<AppRole> findRoleNameByUserId(@Param("userId") Long userId);
+
+    // 只在延長鎖定時間時更新，回傳受影響筆數 (0 代表使用者不存在或已鎖定到更晚的時間)
+    @Modifying
+    @Query("UPDATE User u SET u.lockedUntil = :lockedUntil WHERE u.username = :username AND (u.lockedUntil IS NULL OR u.lockedUntil < :lockedUntil)")
+    int lockByUsername(@Param("username") String username, @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    // 依主鍵分頁 (keyset) 讀取，重建 Bloom filter 時不必載入整個實體
+    @Query("SELECT new net.javaguides.banking.dto.UserIdentityDTO(u.userId, u.username, u.email) FROM User u WHERE u.userId > :afterId ORDER BY u.userId")
+    List<UserIdentityDTO> findIdentitiesAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
 
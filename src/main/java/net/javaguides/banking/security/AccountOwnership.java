@@ -0,0 +1,36 @@
+package net.javaguides.banking.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 標示此方法只允許帳戶擁有者 (或依設定允許 ADMIN) 呼叫。
+ *
+ * 取代 {@code @PreAuthorize("@accountSecurityService.isOwner(authentication,#id)")} 這類 SpEL 運算式：
+ * 帳戶 ID 的取得方式在第一次呼叫時解析並快取，之後每次請求不需再解析或評估運算式。
+ * 詳見 {@link AccountOwnershipAuthorizationManager}。
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface AccountOwnership {
+
+    /**
+     * 帶有帳戶 ID 的參數名稱。
+     */
+    String parameter() default "id";
+
+    /**
+     * 參數為 record 時，帳戶 ID 所在的元件名稱 (例如 TransferFundDTO 的 fromAccountId)；
+     * 空字串代表參數本身就是帳戶 ID。
+     */
+    String component() default "";
+
+    /**
+     * ADMIN 是否可以存取任何帳戶。
+     */
+    boolean adminAllowed() default false;
+}
@@ -0,0 +1,123 @@
+package net.javaguides.banking.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * {@link AccountOwnership} 的授權管理器。
+ *
+ * 每個方法的規則 (是否允許 ADMIN、帳戶 ID 在第幾個參數、record 元件的存取方法)
+ * 只在第一次呼叫時解析並快取，之後的檢查不經過 SpEL。
+ *
+ * 未啟用合併模式時，以 {@link AccountSecurityService#isOwner} 判斷擁有權 (與原本的 SpEL 相同)；
+ * 啟用合併模式時只確認已登入，擁有權交由 Service 層在同一個查詢中以 {@link OwnershipScope} 限定。
+ */
+public class AccountOwnershipAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final ObjectProvider<AccountSecurityService> accountSecurityService;
+
+    private final ObjectProvider<OwnershipScope> ownershipScope;
+
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+
+    private final Map<Method, OwnershipRule> rules = new ConcurrentHashMap<>();
+
+    public AccountOwnershipAuthorizationManager(ObjectProvider<AccountSecurityService> accountSecurityService,
+                                                ObjectProvider<OwnershipScope> ownershipScope) {
+        this.accountSecurityService = accountSecurityService;
+        this.ownershipScope = ownershipScope;
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        Authentication auth = authentication.get();
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) {
+            return DENIED;
+        }
+
+        OwnershipRule rule = rules.computeIfAbsent(invocation.getMethod(), method -> compile(method, invocation.getThis()));
+
+        if (rule.adminAllowed() && OwnershipScope.isAdmin(auth)) {
+            return GRANTED;
+        }
+
+        if (ownershipScope.getObject().isFused()) {
+            return GRANTED;
+        }
+
+        Long accountId = rule.accountId(invocation.getArguments());
+        return accountSecurityService.getObject().isOwner(auth, accountId) ? GRANTED : DENIED;
+    }
+
+    private OwnershipRule compile(Method method, Object target) {
+        Method specificMethod = target != null ? AopUtils.getMostSpecificMethod(method, target.getClass()) : method;
+        AccountOwnership annotation = AnnotatedElementUtils.findMergedAnnotation(specificMethod, AccountOwnership.class);
+        if (annotation == null) {
+            throw new IllegalStateException("Missing @AccountOwnership on " + method);
+        }
+
+        String[] parameterNames = parameterNameDiscoverer.getParameterNames(specificMethod);
+        int index = -1;
+        if (parameterNames != null) {
+            for (int i = 0; i < parameterNames.length; i++) {
+                if (parameterNames[i].equals(annotation.parameter())) {
+                    index = i;
+                    break;
+                }
+            }
+        }
+        if (index < 0) {
+            throw new IllegalStateException("Parameter '" + annotation.parameter() + "' not found on " + method);
+        }
+
+        Method accessor = null;
+        if (!annotation.component().isEmpty()) {
+            Class<?> parameterType = specificMethod.getParameterTypes()[index];
+            if (!parameterType.isRecord()) {
+                throw new IllegalStateException("Parameter '" + annotation.parameter() + "' of " + method + " is not a record");
+            }
+            for (RecordComponent component : parameterType.getRecordComponents()) {
+                if (component.getName().equals(annotation.component())) {
+                    accessor = component.getAccessor();
+                }
+            }
+            if (accessor == null) {
+                throw new IllegalStateException("Component '" + annotation.component() + "' not found on " + parameterType);
+            }
+        }
+
+        return new OwnershipRule(annotation.adminAllowed(), index, accessor);
+    }
+
+    private record OwnershipRule(boolean adminAllowed, int parameterIndex, Method componentAccessor) {
+
+        Long accountId(Object[] arguments) {
+            Object argument = arguments[parameterIndex];
+            if (componentAccessor == null || argument == null) {
+                return (Long) argument;
+            }
+            try {
+                return (Long) componentAccessor.invoke(argument);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Unable to read account id from " + argument, e);
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package net.javaguides.banking.security;
 
 
+import net.javaguides.banking.cache.BalanceMirror;
 import net.javaguides.banking.entity.Account;
 import net.javaguides.banking.entity.User;
 import net.javaguides.banking.repository.AccountRepository;
@@ -20,9 +21,25 @@ public class AccountSecurityService {
     @Autowired
     private AccountRepository accountRepository;
 
+    @Autowired
+    private BalanceMirror balanceMirror;
+
 
     public boolean isOwner(Authentication authentication, Long accountId) {
 
+        // Token 內帶有擁有帳戶清單時直接判斷；清單中沒有的帳戶 (例如登入後才建立的) 仍回到資料庫確認。
+        if (authentication.getPrincipal() instanceof UserDetailsImpl principal
+                && principal.getOwnedAccountIds() != null
+                && principal.getOwnedAccountIds().contains(accountId)) {
+            return true;
+        }
+
+        // 帳戶擁有者不會變更，鏡像中有此帳戶時不必查詢資料庫
+        long mirroredOwner = balanceMirror.ownerOf(accountId);
+        if (mirroredOwner != 0 && authentication.getPrincipal() instanceof UserDetailsImpl principal) {
+            return principal.getId() == mirroredOwner;
+        }
+
         Account account = accountRepository.findById(accountId).orElseThrow(() -> new RuntimeException("accountId nit found"));
 
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
@@ -0,0 +1,122 @@
+package net.javaguides.banking.security;
+
+import net.javaguides.banking.exception.PasswordHashingUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 將密碼雜湊 (BCrypt) 隔離在專用且有上限的執行緒池中 (bulkhead)。
+ *
+ * 登入與註冊的 BCrypt 運算是刻意設計成很耗 CPU 的；若直接在 Tomcat 請求執行緒上執行，
+ * 登入尖峰時所有核心都被佔滿，查詢餘額等一般 API 也會跟著變慢。
+ * 這裡最多只用 threads 個核心做雜湊，等待佇列滿了或等候逾時就直接拒絕 (503)，
+ * 其餘的 CPU 保留給帳戶 API。
+ *
+ * 排隊中的工作開始前會檢查呼叫端的等候期限，呼叫端已逾時放棄的工作不會再執行雜湊；
+ * 已開始的雜湊無法被中斷 (BCrypt 不檢查中斷旗標)，逾時後仍會執行完畢，只是結果被丟棄。
+ *
+ * {@link #upgradeEncoding} 在雜湊成本與設定值不同時回傳 true，
+ * 由 DaoAuthenticationProvider 在登入成功後透過 UserDetailsPasswordService 以新的成本重新雜湊。
+ */
+public class BulkheadPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkheadPasswordEncoder.class);
+
+    private final PasswordEncoder delegate;
+
+    private final int strength;
+
+    private final long timeoutMs;
+
+    private final ThreadPoolExecutor executor;
+
+    public BulkheadPasswordEncoder(PasswordEncoder delegate, int strength, int threads, int queueCapacity, long timeoutMs) {
+        this.delegate = delegate;
+        this.strength = strength;
+        this.timeoutMs = timeoutMs;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // BCrypt 格式：$2a$10$...，第 4~5 個字元為成本
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$'
+                || encodedPassword.charAt(6) != '$') {
+            return false;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6)) != strength;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Bean 關閉時由 Spring 自動呼叫。
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    int queueSize() {
+        return executor.getQueue().size();
+    }
+
+    private <T> T execute(Supplier<T> task) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                // 取消排隊中的 Future 與工作開始之間有競爭，這裡再確認一次呼叫端是否還在等
+                if (System.nanoTime() - deadline >= 0) {
+                    throw new PasswordHashingUnavailableException("Password hashing request expired in queue");
+                }
+                return task.get();
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("密碼雜湊佇列已滿，拒絕請求 (執行中 {}，排隊 {})", executor.getActiveCount(), executor.getQueue().size());
+            throw new PasswordHashingUnavailableException("Authentication service is busy, please retry later");
+        }
+
+        try {
+            // 只等剩下的時間，排入佇列前後花掉的時間不會讓呼叫端多等一輪 timeoutMs
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            logger.warn("密碼雜湊等待超過 {} ms，拒絕請求", timeoutMs);
+            throw new PasswordHashingUnavailableException("Authentication service is busy, please retry later");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException("Password hashing was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package net.javaguides.banking.security;
+
+import net.javaguides.banking.exception.LoginThrottledException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import net.javaguides.banking.service.UserService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * 以使用者名稱與來源 IP 計算登入失敗次數，在執行 BCrypt 之前擋下撞庫 (credential stuffing) 流量。
+ *
+ * 計數採用滑動視窗的 Count-Min Sketch：視窗切成 {@value #BUCKETS} 個時間桶，
+ * 每個桶是固定大小的 {@code depth x width} 計數陣列，以 CAS 遞增，不需要鎖。
+ * 不論出現多少個不同的使用者名稱或 IP，記憶體用量都固定不變；
+ * 代價是雜湊碰撞時計數只會高估、不會低估，寬度夠大時誤判機率極低。
+ *
+ * 只計入實際比對過密碼的失敗，被節流擋下的嘗試不計入；否則不知道密碼的人只要持續送出請求，
+ * 就能讓計數一直停在門檻之上。
+ * 同一使用者名稱達到門檻時，另外將資料庫中的 {@code User.lockedUntil} 設為 {@code loginLockMinutes} 分鐘後，
+ * 讓其他節點與重啟後同樣拒絕登入；鎖定到期自動解除，不會因攻擊而永久無法登入 (管理員也可提前解鎖)。
+ * 已鎖定的帳戶在 DaoAuthenticationProvider 比對密碼之前就會被拒絕，同樣不消耗 BCrypt。
+ */
+@Component
+public class LoginAttemptGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginAttemptGuard.class);
+
+    static final int BUCKETS = 6;
+
+    private static final int DEPTH = 4;
+
+    private final int width;
+
+    private final int mask;
+
+    private final long bucketMillis;
+
+    private final int maxFailuresPerUsername;
+
+    private final int maxFailuresPerIp;
+
+    private final long lockMillis;
+
+    // 每個時間桶 DEPTH * width 個計數器，依桶序排列
+    private final AtomicIntegerArray counters;
+
+    // 每個時間桶目前對應的時間序號，過期的桶在下一次寫入時清空重用
+    private final AtomicLongArray bucketEpochs = new AtomicLongArray(BUCKETS);
+
+    // 種子每次啟動隨機產生，避免外部刻意製造雜湊碰撞
+    private final SeededKeyHash keyHash = new SeededKeyHash();
+
+    private final LongSupplier clock;
+
+    // 以 ObjectProvider 延遲取得，UserService 解鎖時不需要反向依賴本類別
+    @Autowired
+    private ObjectProvider<UserService> userService;
+
+    @Autowired
+    public LoginAttemptGuard(@Value("${spring.app.loginFailureWindowSeconds:900}") long windowSeconds,
+                             @Value("${spring.app.loginMaxFailuresPerUsername:5}") int maxFailuresPerUsername,
+                             @Value("${spring.app.loginMaxFailuresPerIp:100}") int maxFailuresPerIp,
+                             @Value("${spring.app.loginLockMinutes:15}") long lockMinutes,
+                             @Value("${spring.app.loginCounterWidth:16384}") int width) {
+        this(windowSeconds, maxFailuresPerUsername, maxFailuresPerIp, lockMinutes, width, System::currentTimeMillis);
+    }
+
+    LoginAttemptGuard(long windowSeconds, int maxFailuresPerUsername, int maxFailuresPerIp, long lockMinutes,
+                      int width, LongSupplier clock) {
+        if (Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("loginCounterWidth must be a power of two: " + width);
+        }
+        this.width = width;
+        this.mask = width - 1;
+        this.bucketMillis = Math.max(1L, windowSeconds * 1000L / BUCKETS);
+        this.maxFailuresPerUsername = maxFailuresPerUsername;
+        this.maxFailuresPerIp = maxFailuresPerIp;
+        this.lockMillis = TimeUnit.MINUTES.toMillis(lockMinutes);
+        this.counters = new AtomicIntegerArray(BUCKETS * DEPTH * width);
+        this.clock = clock;
+        for (int i = 0; i < BUCKETS; i++) {
+            bucketEpochs.set(i, Long.MIN_VALUE);
+        }
+    }
+
+    /**
+     * 驗證密碼之前呼叫，超過門檻時拋出 {@link LoginThrottledException}；被拒絕的嘗試不計入失敗次數。
+     */
+    public void checkAllowed(String username, String clientIp) {
+        long epoch = clock.getAsLong() / bucketMillis;
+        if (estimate(hash(usernameKey(username)), epoch) >= maxFailuresPerUsername
+                || estimate(hash(ipKey(clientIp)), epoch) >= maxFailuresPerIp) {
+            throw new LoginThrottledException("Too many failed login attempts, please retry later",
+                    retryAfterSeconds(epoch));
+        }
+    }
+
+    /**
+     * 記錄一次密碼錯誤。
+     */
+    public void recordFailure(String username, String clientIp) {
+        record(username, hash(usernameKey(username)), hash(ipKey(clientIp)), clock.getAsLong() / bucketMillis);
+    }
+
+    /**
+     * 登入成功時清除該使用者名稱的計數。
+     */
+    public void recordSuccess(String username) {
+        reset(username);
+    }
+
+    /**
+     * 登入成功或管理員解鎖時清除該使用者名稱的計數。
+     * 與其他鍵碰撞的計數器也會一併歸零，只會讓其他鍵的估計值偏低，可以接受。
+     */
+    public void reset(String username) {
+        long usernameHash = hash(usernameKey(username));
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            for (int row = 0; row < DEPTH; row++) {
+                counters.set(index(bucket, row, usernameHash), 0);
+            }
+        }
+    }
+
+    int estimate(String username) {
+        return estimate(hash(usernameKey(username)), clock.getAsLong() / bucketMillis);
+    }
+
+    private void record(String username, long usernameHash, long ipHash, long epoch) {
+        increment(ipHash, epoch);
+        int before = estimate(usernameHash, epoch);
+        increment(usernameHash, epoch);
+        int after = estimate(usernameHash, epoch);
+        // 只在跨過門檻的那一次鎖定，避免持續攻擊時每次都寫入資料庫
+        if (before >= maxFailuresPerUsername || after < maxFailuresPerUsername) {
+            return;
+        }
+        logger.warn("使用者 {} 登入失敗已達 {} 次，暫停登入", username, after);
+        UserService service = userService.getIfAvailable();
+        if (lockMillis > 0 && service != null) {
+            LocalDateTime lockedUntil = LocalDateTime.ofInstant(Instant.ofEpochMilli(clock.getAsLong() + lockMillis),
+                    ZoneId.systemDefault());
+            if (service.lockUser(username, lockedUntil)) {
+                logger.warn("使用者 {} 已鎖定至 {}", username, lockedUntil);
+            }
+        }
+    }
+
+    private void increment(long hash, long epoch) {
+        int bucket = currentBucket(epoch);
+        for (int row = 0; row < DEPTH; row++) {
+            counters.incrementAndGet(index(bucket, row, hash));
+        }
+    }
+
+    private int estimate(long hash, long epoch) {
+        int total = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            long bucketEpoch = bucketEpochs.get(bucket);
+            if (bucketEpoch <= epoch - BUCKETS || bucketEpoch > epoch) {
+                continue;
+            }
+            int min = Integer.MAX_VALUE;
+            for (int row = 0; row < DEPTH; row++) {
+                min = Math.min(min, counters.get(index(bucket, row, hash)));
+            }
+            total += min;
+        }
+        return total;
+    }
+
+    /**
+     * 取得目前時間桶，桶已過期時由搶到 CAS 的執行緒清空。
+     * 清空期間其他執行緒的遞增可能遺失，對節流判斷只是少算幾次，不影響正確性。
+     */
+    private int currentBucket(long epoch) {
+        int bucket = (int) Math.floorMod(epoch, (long) BUCKETS);
+        long bucketEpoch = bucketEpochs.get(bucket);
+        if (bucketEpoch < epoch && bucketEpochs.compareAndSet(bucket, bucketEpoch, epoch)) {
+            int from = bucket * DEPTH * width;
+            for (int i = from; i < from + DEPTH * width; i++) {
+                counters.set(i, 0);
+            }
+        }
+        return bucket;
+    }
+
+    private int index(int bucket, int row, long hash) {
+        // 雙重雜湊：h1 + row * h2 產生 DEPTH 組獨立的欄位
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return (bucket * DEPTH + row) * width + ((h1 + row * h2) & mask);
+    }
+
+    private long retryAfterSeconds(long epoch) {
+        long nextBucketMillis = (epoch + 1) * bucketMillis - clock.getAsLong();
+        return Math.max(1L, (nextBucketMillis + 999) / 1000);
+    }
+
+    private long hash(String key) {
+        return keyHash.hash(key);
+    }
+
+    private static String usernameKey(String username) {
+        return "u:" + (username == null ? "" : username.trim().toLowerCase(Locale.ROOT));
+    }
+
+    private static String ipKey(String clientIp) {
+        return "ip:" + (clientIp == null ? "" : clientIp);
+    }
+}
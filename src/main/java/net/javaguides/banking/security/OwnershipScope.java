@@ -0,0 +1,64 @@
+package net.javaguides.banking.security;
+
+import net.javaguides.banking.entity.AppRole;
+import net.javaguides.banking.security.services.UserDetailsImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * 決定 Service 層查詢帳戶時是否要帶上擁有者條件。
+ *
+ * 啟用 spring.app.fusedOwnershipCheck 後，授權階段不再另外查詢帳戶，
+ * 而是由 Service 直接以 "id = ? AND user_id = ?" 查詢 (或鎖定) 帳戶，
+ * 擁有權檢查與資料讀取合併成一次資料庫存取。
+ * 此時授權階段只確認已登入，這裡是唯一的擁有權檢查，因此無法判斷呼叫者時一律拒絕，不會放寬為不限擁有者。
+ */
+@Component
+public class OwnershipScope {
+
+    @Value("${spring.app.fusedOwnershipCheck:false}")
+    private boolean fused;
+
+    public boolean isFused() {
+        return fused;
+    }
+
+    /**
+     * 取得查詢時應限定的擁有者 ID。
+     *
+     * @param adminAllowed 此操作是否允許 ADMIN 存取任何帳戶。
+     * @return 需要限定時回傳目前使用者 ID；未啟用合併模式或為 ADMIN 時回傳 null。
+     * @throws AuthenticationCredentialsNotFoundException 合併模式下沒有登入資訊。
+     * @throws AccessDeniedException 合併模式下無法取得呼叫者的使用者 ID。
+     */
+    public Long currentOwnerId(boolean adminAllowed) {
+        if (!fused) {
+            return null;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new AuthenticationCredentialsNotFoundException("No authenticated caller for an owner-scoped account query");
+        }
+        if (adminAllowed && isAdmin(authentication)) {
+            return null;
+        }
+        if (!(authentication.getPrincipal() instanceof UserDetailsImpl userDetails) || userDetails.getId() == null) {
+            throw new AccessDeniedException("Cannot determine the owner for an account query");
+        }
+        return userDetails.getId();
+    }
+
+    static boolean isAdmin(Authentication authentication) {
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if (AppRole.ROLE_ADMIN.name().equals(authority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
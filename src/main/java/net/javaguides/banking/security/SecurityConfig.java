@@ -1,17 +1,32 @@
 package net.javaguides.banking.security;
 
 
+import io.micrometer.observation.ObservationRegistry;
 import net.javaguides.banking.entity.AppRole;
 import net.javaguides.banking.entity.Role;
 import net.javaguides.banking.entity.User;
 import net.javaguides.banking.repository.RoleRepository;
 import net.javaguides.banking.repository.UserRepository;
 import net.javaguides.banking.security.jwt.AuthTokenFilter;
+import net.javaguides.banking.security.ratelimit.RateLimitFilter;
+import net.javaguides.banking.security.ratelimit.RateLimitProperties;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.ObservationAuthorizationManager;
+import org.springframework.security.authorization.method.AuthorizationInterceptorsOrder;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -22,6 +37,7 @@ import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
+import org.springframework.util.function.SingletonSupplier;
 
 import java.time.LocalDate;
 
@@ -44,6 +60,7 @@ import static org.springframework.security.config.Customizer.withDefaults;
         prePostEnabled = true,
         securedEnabled = true,
         jsr250Enabled = true)
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class SecurityConfig {
 
 
@@ -58,16 +75,44 @@ public class SecurityConfig {
     public AuthTokenFilter authenticationJwtTokenFilter() {
         return new AuthTokenFilter();
     }
+
+    // 只在 Security 篩選器鏈中執行，不另外註冊為 Servlet 篩選器
+    @Bean
+    public FilterRegistrationBean<AuthTokenFilter> authenticationJwtTokenFilterRegistration(AuthTokenFilter authenticationJwtTokenFilter) {
+        FilterRegistrationBean<AuthTokenFilter> registration = new FilterRegistrationBean<>(authenticationJwtTokenFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    /**
+     * 依路由規則限制請求速率 (spring.app.rateLimit.*)。
+     */
+    @Bean
+    public RateLimitFilter rateLimitFilter(RateLimitProperties rateLimitProperties) {
+        return new RateLimitFilter(rateLimitProperties);
+    }
+
+    // 只在 Security 篩選器鏈中執行 (需要已驗證的使用者)，不另外註冊為 Servlet 篩選器
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
     /**
      * 定義一個 SecurityFilterChain Bean，這是 Spring Security 6.x 之後的核心設定方式。
      * 它定義了 HTTP 請求的安全處理規則鏈。
      *
      * @param http HttpSecurity 物件，用來建構安全規則。
+     * @param rateLimitFilter 速率限制篩選器。
+     * @param rateLimitProperties 速率限制設定，停用時不加入篩選器鏈。
      * @return 一個建構好的 SecurityFilterChain 實例。
      * @throws Exception 可能拋出的例外。
      */
     @Bean
-    SecurityFilterChain defaultSecurityFilterChain(HttpSecurity http) throws Exception {
+    SecurityFilterChain defaultSecurityFilterChain(HttpSecurity http,
+                                                  RateLimitFilter rateLimitFilter,
+                                                  RateLimitProperties rateLimitProperties) throws Exception {
         // --- 1. 設定 CSRF (跨站請求偽造) 保護 ---
        http.csrf(httpSecurityCsrfConfigurer -> httpSecurityCsrfConfigurer.disable());
 
@@ -84,6 +129,9 @@ public class SecurityConfig {
                 .requestMatchers("/v3/api-docs/**").permitAll()
                 .requestMatchers("/swagger-ui/**").permitAll()
                 .requestMatchers("/swagger-ui.html").permitAll()
+                // 健康檢查不帶 JWT；其他 actuator 端點 (含 prometheus，指標內有路徑、流量與資料庫狀態) 限管理員
+                .requestMatchers("/actuator/health/**").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 // 規則 2.2 (兜底規則): 除了上述規則之外的任何其他請求 (anyRequest)，都必須經過身份驗證 (authenticated)。
                 .anyRequest().authenticated()
         );
@@ -112,11 +160,38 @@ public class SecurityConfig {
 
 // 2. 在指定的過濾器之前，加入我們的自定義過濾器
         http.addFilterBefore(authenticationJwtTokenFilter(), UsernamePasswordAuthenticationFilter.class);
+// 3. 在 JWT 驗證之後限制速率，已登入的請求才能以使用者 ID 計算
+        if (rateLimitProperties.isEnabled()) {
+            http.addFilterAfter(rateLimitFilter, AuthTokenFilter.class);
+        }
         // --- 4. 建構並返回 SecurityFilterChain 物件 ---
         return http.build();
     }
 
 
+    /**
+     * 註冊 {@link AccountOwnership} 的方法攔截器，與 @PreAuthorize 在同一階段執行。
+     * 宣告為 static 並以 ObjectProvider 延遲取得依賴，避免 AOP 基礎設施過早初始化其他 Bean。
+     * 與 @PreAuthorize 相同，檢查過程記錄為 observation (追蹤中的 authorization span)。
+     */
+    @Bean
+    @org.springframework.context.annotation.Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor accountOwnershipAuthorization(ObjectProvider<AccountSecurityService> accountSecurityService,
+                                                 ObjectProvider<OwnershipScope> ownershipScope,
+                                                 ObjectProvider<ObservationRegistry> observationRegistry) {
+        AuthorizationManager<MethodInvocation> ownership =
+                new AccountOwnershipAuthorizationManager(accountSecurityService, ownershipScope);
+        SingletonSupplier<AuthorizationManager<MethodInvocation>> observed = SingletonSupplier.of(() -> {
+            ObservationRegistry registry = observationRegistry.getIfUnique(() -> ObservationRegistry.NOOP);
+            return registry.isNoop() ? ownership : new ObservationAuthorizationManager<>(registry, ownership);
+        });
+        AuthorizationManagerBeforeMethodInterceptor interceptor = new AuthorizationManagerBeforeMethodInterceptor(
+                AnnotationMatchingPointcut.forMethodAnnotation(AccountOwnership.class),
+                (authentication, invocation) -> observed.obtain().check(authentication, invocation));
+        interceptor.setOrder(AuthorizationInterceptorsOrder.PRE_AUTHORIZE.getOrder());
+        return interceptor;
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration authenticationConfiguration) throws Exception {
         return authenticationConfiguration.getAuthenticationManager();
@@ -125,13 +200,19 @@ public class SecurityConfig {
 
     /**
      * 定義一個密碼編碼器 Bean。
-     * 使用 BCrypt 演算法來安全地雜湊和驗證密碼。
+     * 使用 BCrypt 演算法來安全地雜湊和驗證密碼，並在專用的執行緒池中執行 (見 {@link BulkheadPasswordEncoder})。
      *
-     * @return 一個 BCryptPasswordEncoder 實例。
+     * @param strength BCrypt 成本；變更後既有密碼會在下次登入時重新雜湊。
+     * @param threads 雜湊執行緒數，0 代表使用一半的 CPU 核心。
+     * @return 一個 BulkheadPasswordEncoder 實例。
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${spring.app.bcryptStrength:10}") int strength,
+                                           @Value("${spring.app.passwordHashingThreads:0}") int threads,
+                                           @Value("${spring.app.passwordHashingQueueCapacity:64}") int queueCapacity,
+                                           @Value("${spring.app.passwordHashingTimeoutMs:3000}") long timeoutMs) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BulkheadPasswordEncoder(new BCryptPasswordEncoder(strength), strength, poolSize, queueCapacity, timeoutMs);
     }
 
     /**
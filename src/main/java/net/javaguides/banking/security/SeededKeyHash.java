@@ -0,0 +1,29 @@
+package net.javaguides.banking.security;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 計數器與限流器以字串鍵 (使用者名稱、來源 IP) 定址時使用的 64 位元雜湊。
+ *
+ * 種子在每個實例建立時隨機產生，外部無法預先算出會互相碰撞的使用者名稱或 IP，
+ * 也就無法刻意讓別人的計數被灌高。以 FNV-1a 逐字元累加後再以 fmix64 混合，不配置物件。
+ */
+public final class SeededKeyHash {
+
+    private final long seed = ThreadLocalRandom.current().nextLong();
+
+    public long hash(CharSequence key) {
+        long h = seed ^ 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        // fmix64，讓高低位元都充分混合
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
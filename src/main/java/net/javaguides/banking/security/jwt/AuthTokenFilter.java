@@ -1,5 +1,6 @@
 package net.javaguides.banking.security.jwt;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,11 +9,12 @@ import net.javaguides.banking.security.services.UserDetailsServiceImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AccountStatusException;
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
-import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
@@ -21,8 +23,8 @@ import java.io.IOException;
  * 自訂的 JWT 身份驗證篩選器。
  * 這個篩選器會在每個請求進來時執行一次，負責攔截請求、驗證 JWT，
  * 並在驗證成功後設定 Spring Security 的安全上下文。
+ * 由 SecurityConfig 宣告為 Bean 並加入 Security 篩選器鏈，不另外掃描為元件。
  */
-@Component
 public class AuthTokenFilter extends OncePerRequestFilter {
 
     // 自動注入 JWT 工具類，用於解析和驗證 Token。
@@ -33,6 +35,8 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    private final AccountStatusUserDetailsChecker accountStatusChecker = new AccountStatusUserDetailsChecker();
+
     // 用於記錄日誌的 Logger 實例。
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
@@ -45,18 +49,24 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        logger.debug("AuthTokenFilter called for URI: {}", request.getRequestURI());
         try {
             // 1. 從請求中解析出 JWT。
             String jwt = parseJwt(request);
 
-            // 2. 檢查 JWT 是否存在且有效。
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                // 3. 如果 Token 有效，就從中解析出使用者名稱。
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
+            // 2. 檢查 JWT 是否存在且有效（只驗證一次簽名）。
+            Claims claims = jwt != null ? jwtUtils.parseValidClaims(jwt) : null;
+            if (claims != null) {
+                // 3. 若 Token 帶有仍然有效的授權 claims，直接由 Token 還原使用者，不查詢資料庫。
+                UserDetails userDetails = jwtUtils.getUserDetailsFromClaims(claims);
+
+                // 4. 否則根據使用者名稱，從資料庫載入使用者詳細資訊（包括權限）。
+                if (userDetails == null) {
+                    userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+                }
 
-                // 4. 根據使用者名稱，從資料庫載入使用者詳細資訊（包括權限）。
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                // 已鎖定 (登入失敗過多) 或停用的使用者，既有的 Token 也不再有效。
+                // 鎖定時會撤銷授權 claims，因此這類使用者一定經過上面的資料庫載入。
+                accountStatusChecker.check(userDetails);
 
                 // 5. 建立一個代表「已驗證成功」的 Authentication 物件。
                 //    這個物件包含了使用者主體、憑證（此處為 null）和權限。
@@ -64,7 +74,12 @@ public class AuthTokenFilter extends OncePerRequestFilter {
                         new UsernamePasswordAuthenticationToken(userDetails,
                                 null, // 因為是 Token 驗證，所以不需要密碼（憑證）。
                                 userDetails.getAuthorities()); // 設定使用者的權限（角色）。
-                logger.debug("Roles from JWT: {}", userDetails.getAuthorities());
+                // 每個請求都會經過，除錯日誌以 Supplier 延遲取值，未開啟 DEBUG 時不產生任何字串
+                UserDetails authenticated = userDetails;
+                logger.atDebug().setMessage("jwt.authenticated")
+                        .addKeyValue("uri", request::getRequestURI)
+                        .addKeyValue("roles", authenticated::getAuthorities)
+                        .log();
 
                 // 6. 將當前的請求詳細資訊（如 IP 位址）設定到 Authentication 物件中。
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -73,6 +88,8 @@ public class AuthTokenFilter extends OncePerRequestFilter {
                 //    這個動作等同於告知 Spring Security：「這位使用者已經通過驗證了」。
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
+        } catch (AccountStatusException e) {
+            logger.warn("使用者已鎖定或停用，忽略其 Token: {}", e.getMessage());
         } catch (Exception e) {
             // 如果在過程中發生任何錯誤，記錄日誌。
             logger.error("無法設定使用者身份驗證: {}", e);
@@ -90,8 +107,7 @@ public class AuthTokenFilter extends OncePerRequestFilter {
      */
     private String parseJwt(HttpServletRequest request) {
         // 呼叫 JwtUtils 中的方法來完成實際的提取邏輯。
-        String jwt = jwtUtils.getJwtFromHeader(request);
-        logger.debug("AuthTokenFilter.java: 提取到的 JWT: {}", jwt);
-        return jwt;
+        // 不記錄 Token 內容，日誌不應含有可重放的憑證
+        return jwtUtils.getJwtFromHeader(request);
     }
 }
\ No newline at end of file
@@ -1,21 +1,36 @@
 package net.javaguides.banking.security.jwt;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
 import jakarta.servlet.http.HttpServletRequest;
+import net.javaguides.banking.entity.AppRole;
+import net.javaguides.banking.jfr.JwtVerificationEvent;
+import net.javaguides.banking.metrics.BankingMetrics;
+import net.javaguides.banking.repository.AccountRepository;
+import net.javaguides.banking.repository.UserRepository;
+import net.javaguides.banking.security.services.UserDetailsImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.security.Key;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * 用於處理 JSON Web Token (JWT) 的工具類。
@@ -36,6 +51,32 @@ public class JwtUtils {
     @Value("${spring.app.jwtExpirationMs}")
     private int jwtExpirationMs;
 
+    // 是否在 Token 內放入使用者 ID、角色與擁有帳戶等授權 claims，讓後續請求不必查詢資料庫。
+    @Value("${spring.app.jwtStatelessClaims:false}")
+    private boolean statelessClaims;
+
+    // 擁有帳戶超過此數量時不放入 Token，擁有權檢查改回查詢資料庫，避免 Token 過大。
+    @Value("${spring.app.jwtMaxAccountClaims:64}")
+    private int maxAccountClaims;
+
+    // 自訂 claim 名稱，保持簡短以縮小 Token。
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ROLE = "role";
+    static final String CLAIM_ACCOUNTS = "acc";
+    static final String CLAIM_EPOCH = "ep";
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TokenRevocationRegistry revocationRegistry;
+
+    @Autowired
+    private BankingMetrics metrics;
+
     /**
      * 從 HTTP 請求的 "Authorization" 標頭中提取 JWT。
      * 預期的格式是 "Bearer <token>"。
@@ -46,7 +87,6 @@ public class JwtUtils {
     public String getJwtFromHeader(HttpServletRequest request) {
         // 獲取 "Authorization" 標頭的值。
         String bearerToken = request.getHeader("Authorization");
-        logger.debug("Authorization Header: {}", bearerToken);
 
         // 檢查標頭是否不為 null 且以 "Bearer " 開頭。
         if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
@@ -67,17 +107,43 @@ public class JwtUtils {
         String username = userDetails.getUsername();
 
         // 使用 Jwts builder 來建構 Token。
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 // 設定 Token 的 'subject'（主題），通常是使用者名稱。
                 .subject(username)
                 // 設定 'issued at'（簽發時間）為當前時間。
                 .issuedAt(new Date())
                 // 設定 'expiration'（過期時間）。
-                .expiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                // 使用指定的演算法和密鑰對 Token 進行簽名。
-                .signWith(key())
-                // 建構 Token 並將其序列化為一個緊湊、URL 安全的字串。
-                .compact();
+                .expiration(new Date((new Date()).getTime() + jwtExpirationMs));
+
+        if (statelessClaims && userDetails instanceof UserDetailsImpl user) {
+            addAuthorizationClaims(builder, user.getId());
+        }
+
+        // 使用指定的演算法和密鑰對 Token 進行簽名，
+        // 建構 Token 並將其序列化為一個緊湊、URL 安全的字串。
+        return builder.signWith(key()).compact();
+    }
+
+    /**
+     * 放入授權 claims。
+     * 必須先讀取撤銷紀元，再讀取角色與帳戶：若兩者之間剛好發生撤銷，
+     * Token 會帶著舊紀元而失效，而不會帶著舊資料卻被視為有效。
+     */
+    private void addAuthorizationClaims(JwtBuilder builder, Long userId) {
+        long epoch = revocationRegistry.currentEpoch(userId);
+
+        Optional<AppRole> role = userRepository.findRoleNameByUserId(userId);
+        if (role.isEmpty()) {
+            return;
+        }
+        builder.claim(CLAIM_USER_ID, userId)
+                .claim(CLAIM_ROLE, role.get().name())
+                .claim(CLAIM_EPOCH, epoch);
+
+        List<Long> accountIds = accountRepository.findIdsByUserId(userId);
+        if (accountIds.size() <= maxAccountClaims) {
+            builder.claim(CLAIM_ACCOUNTS, accountIds);
+        }
     }
 
     /**
@@ -120,25 +186,80 @@ public class JwtUtils {
      * @return 如果 Token 有效則返回 true，否則返回 false。
      */
     public boolean validateJwtToken(String authToken) {
+        return parseValidClaims(authToken) != null;
+    }
+
+    /**
+     * 驗證並解析 JWT，只做一次簽名驗證。
+     *
+     * @param authToken 要驗證的 JWT 字串。
+     * @return Token 有效時回傳其 claims，否則返回 null。
+     */
+    public Claims parseValidClaims(String authToken) {
+        JwtVerificationEvent event = new JwtVerificationEvent();
+        event.begin();
+        Claims claims = null;
+        String outcome;
         try {
             // 嘗試解析 Token。如果此操作成功且未拋出異常，
             // 表示 Token 的簽名有效且尚未過期。
-            Jwts.parser()
+            claims = Jwts.parser()
                     .verifyWith((SecretKey) key())
                     .build()
-                    .parseSignedClaims(authToken);
-            return true;
+                    .parseSignedClaims(authToken)
+                    .getPayload();
+            outcome = "valid";
         } catch (MalformedJwtException e) {
             logger.error("無效的 JWT token: {}", e.getMessage());
+            outcome = "malformed";
         } catch (ExpiredJwtException e) {
             logger.error("JWT token 已過期: {}", e.getMessage());
+            outcome = "expired";
         } catch (UnsupportedJwtException e) {
             logger.error("不支援的 JWT token: {}", e.getMessage());
+            outcome = "unsupported";
+        } catch (SecurityException e) {
+            logger.error("JWT 簽名無效: {}", e.getMessage());
+            outcome = "invalid_signature";
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims 字串為空: {}", e.getMessage());
+            outcome = "empty";
+        }
+        metrics.jwtValidation(outcome);
+        event.finish(outcome);
+
+        // 如果捕獲到任何異常，表示 Token 無效，claims 為 null。
+        return claims;
+    }
+
+    /**
+     * 由 Token 內的授權 claims 還原使用者資訊。
+     *
+     * @param claims 已驗證的 claims。
+     * @return Token 不含授權 claims 或其紀元已被撤銷時返回 null，呼叫端應改為查詢資料庫。
+     */
+    public UserDetailsImpl getUserDetailsFromClaims(Claims claims) {
+        Object userIdClaim = claims.get(CLAIM_USER_ID);
+        Object roleClaim = claims.get(CLAIM_ROLE);
+        Object epochClaim = claims.get(CLAIM_EPOCH);
+        if (!(userIdClaim instanceof Number) || !(roleClaim instanceof String) || !(epochClaim instanceof Number)) {
+            return null;
+        }
+
+        Long userId = ((Number) userIdClaim).longValue();
+        if (!revocationRegistry.isCurrent(userId, ((Number) epochClaim).longValue(), claims.getIssuedAt())) {
+            logger.debug("使用者 {} 的 Token 授權 claims 已被撤銷", userId);
+            return null;
+        }
+
+        Set<Long> ownedAccountIds = null;
+        if (claims.get(CLAIM_ACCOUNTS) instanceof Collection<?> accounts) {
+            ownedAccountIds = new HashSet<>(accounts.size() * 2);
+            for (Object accountId : accounts) {
+                ownedAccountIds.add(((Number) accountId).longValue());
+            }
         }
 
-        // 如果捕獲到任何異常，表示 Token 無效。
-        return false;
+        return UserDetailsImpl.fromClaims(userId, claims.getSubject(), (String) roleClaim, ownedAccountIds);
     }
 }
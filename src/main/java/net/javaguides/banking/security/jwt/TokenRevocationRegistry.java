@@ -0,0 +1,146 @@
+package net.javaguides.banking.security.jwt;
+
+import net.javaguides.banking.cache.CacheInvalidationBus;
+import net.javaguides.banking.cache.InvalidationEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 每位使用者的 Token 撤銷紀元 (revocation epoch) 表。
+ *
+ * 自帶授權資訊的 JWT 會在簽發時記錄當下的紀元 (claim "ep")，
+ * 驗證時只要 Token 的紀元小於目前紀元，就代表角色或帳戶擁有權已經變更，
+ * 該 Token 內的授權 claims 不可再被信任。
+ *
+ * 只有發生過撤銷的使用者才會出現在表中，且超過 JWT 有效期限的紀錄會被清除
+ * (在那之前簽發的 Token 早已過期)，因此表的大小維持在很小的範圍。
+ * 此表只存在於記憶體中，重啟後會清空；因此本節點啟動前簽發的 Token 一律不信任其授權 claims
+ * (改由資料庫載入)，重啟前的撤銷不會因為紀錄遺失而失效。
+ * 多節點部署時，提交後的撤銷會經由 {@link CacheInvalidationBus} 通知其他節點套用相同的紀元。
+ */
+@Component
+public class TokenRevocationRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationRegistry.class);
+
+    private final Map<Long, Long> epochs = new ConcurrentHashMap<>();
+
+    // 確保紀元單調遞增，避免同一毫秒內的兩次撤銷得到相同的值
+    private final AtomicLong lastEpoch = new AtomicLong();
+
+    // 本節點開始記錄撤銷的時間，進位到秒 (與 JWT 的 iat 精度相同)
+    private long trustedSince = (System.currentTimeMillis() / 1000 + 1) * 1000;
+
+    @Value("${spring.app.jwtExpirationMs}")
+    private long jwtExpirationMs;
+
+    // 以 ObjectProvider 延遲取得，避免與匯流排的監聽器互相依賴
+    @Autowired
+    private ObjectProvider<CacheInvalidationBus> invalidationBus;
+
+    /**
+     * 取得使用者目前的紀元，沒有撤銷紀錄時為 0。
+     */
+    public long currentEpoch(Long userId) {
+        if (userId == null) {
+            return 0L;
+        }
+        return epochs.getOrDefault(userId, 0L);
+    }
+
+    /**
+     * 判斷 Token 內記錄的紀元是否仍然有效。Token 在本節點啟動前簽發時無法判斷 (撤銷紀錄已遺失)，視為無效。
+     */
+    public boolean isCurrent(Long userId, long tokenEpoch, Date issuedAt) {
+        if (issuedAt == null || issuedAt.getTime() < trustedSince) {
+            return false;
+        }
+        return tokenEpoch >= currentEpoch(userId);
+    }
+
+    /**
+     * 立即撤銷該使用者目前所有 Token 的授權 claims，回傳新的紀元。
+     */
+    public long revoke(Long userId) {
+        if (userId == null) {
+            return 0L;
+        }
+        long now = System.currentTimeMillis();
+        long epoch = nextEpoch(now);
+        epochs.merge(userId, epoch, Math::max);
+        logger.debug("使用者 {} 的 Token 紀元更新為 {}", userId, epoch);
+        prune(now);
+        return epoch;
+    }
+
+    /**
+     * 套用其他節點發布的紀元。只會往前推進，重複或晚到的事件不影響結果。
+     */
+    public void applyEpoch(Long userId, long epoch) {
+        if (userId == null) {
+            return;
+        }
+        epochs.merge(userId, epoch, Math::max);
+        // 之後本節點簽發的紀元不可小於其他節點的紀元
+        lastEpoch.accumulateAndGet(epoch, Math::max);
+        prune(System.currentTimeMillis());
+    }
+
+    /**
+     * 在目前交易提交後才撤銷；沒有進行中的交易時立即撤銷。
+     * 若在提交前撤銷，提交前剛好簽發的新 Token 仍會帶著舊的角色或帳戶清單。
+     */
+    public void revokeAfterCommit(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        CacheInvalidationBus bus = invalidationBus != null ? invalidationBus.getIfAvailable() : null;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            long epoch = revoke(userId);
+            if (bus != null) {
+                bus.publish(InvalidationEvent.userRevoked(userId, epoch));
+            }
+            return;
+        }
+        // 紀元在第一次需要時決定 (資料表匯流排在提交前寫入事件)，本節點提交後套用同一個值，各節點一致；
+        // 提交前簽發的 Token 帶的是更早的紀元，在所有節點都會失效
+        AtomicLong epoch = new AtomicLong();
+        Supplier<Long> epochOnce = () -> epoch.updateAndGet(value -> value != 0 ? value : nextEpoch(System.currentTimeMillis()));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                long applied = epochOnce.get();
+                applyEpoch(userId, applied);
+                logger.debug("使用者 {} 的 Token 紀元更新為 {}", userId, applied);
+            }
+        });
+        if (bus != null) {
+            bus.publishAfterCommit(() -> InvalidationEvent.userRevoked(userId, epochOnce.get()));
+        }
+    }
+
+    private long nextEpoch(long now) {
+        return lastEpoch.updateAndGet(previous -> Math.max(previous + 1, now));
+    }
+
+    int size() {
+        return epochs.size();
+    }
+
+    private void prune(long now) {
+        long expiredBefore = now - jwtExpirationMs;
+        epochs.values().removeIf(epoch -> epoch < expiredBefore);
+    }
+}
@@ -0,0 +1,73 @@
+package net.javaguides.banking.security.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 以 GCRA (Generic Cell Rate Algorithm) 實作的 token bucket，效果等同容量 capacity、
+ * 每秒補充 refillPerSecond 的令牌桶，但每個鍵只需要一個 long：理論到達時間 (TAT)。
+ *
+ * 狀態存放在固定大小的 {@link AtomicLongArray}，以 CAS 更新、不需要鎖；
+ * 鍵以雜湊對應到槽位，記憶體用量與鍵的數量無關。
+ * 拒絕時只讀取一次槽位、不寫入，成本幾乎為零。
+ */
+public class GcraRateLimiter {
+
+    private final AtomicLongArray theoreticalArrival;
+
+    private final int mask;
+
+    private final int capacity;
+
+    // 補充一個令牌所需的時間 (奈秒)
+    private final long emissionIntervalNanos;
+
+    // 桶滿時 TAT 最多可領先現在的時間
+    private final long burstNanos;
+
+    public GcraRateLimiter(int capacity, double refillPerSecond, int slots) {
+        if (Integer.bitCount(slots) != 1) {
+            throw new IllegalArgumentException("slots must be a power of two: " + slots);
+        }
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("capacity and refillPerSecond must be positive");
+        }
+        this.theoreticalArrival = new AtomicLongArray(slots);
+        this.mask = slots - 1;
+        this.capacity = capacity;
+        this.emissionIntervalNanos = Math.max(1L, (long) (1_000_000_000L / refillPerSecond));
+        this.burstNanos = emissionIntervalNanos * capacity;
+    }
+
+    /**
+     * 嘗試取得一個令牌。
+     *
+     * @param keyHash 鍵的雜湊值。
+     * @param nowNanos 單調遞增的目前時間 (奈秒)，必須大於 0。
+     * @return 通過時回傳正數：距離桶補滿的奈秒數；被拒絕時回傳負數：需要等待的奈秒數 (取絕對值)。
+     */
+    public long tryAcquire(long keyHash, long nowNanos) {
+        int slot = (int) keyHash & mask;
+        while (true) {
+            long tat = theoreticalArrival.get(slot);
+            long newTat = Math.max(tat, nowNanos) + emissionIntervalNanos;
+            long ahead = newTat - nowNanos;
+            if (ahead > burstNanos) {
+                return -(ahead - burstNanos);
+            }
+            if (theoreticalArrival.compareAndSet(slot, tat, newTat)) {
+                return ahead;
+            }
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * 由 {@link #tryAcquire} 通過時的回傳值換算剩餘的令牌數。
+     */
+    public int remaining(long aheadNanos) {
+        return (int) ((burstNanos - aheadNanos) / emissionIntervalNanos);
+    }
+}
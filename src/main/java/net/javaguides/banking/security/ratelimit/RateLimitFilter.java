@@ -0,0 +1,109 @@
+package net.javaguides.banking.security.ratelimit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.javaguides.banking.security.SeededKeyHash;
+import net.javaguides.banking.security.services.UserDetailsImpl;
+import net.javaguides.banking.web.JsonRejection;
+import net.javaguides.banking.web.RequestRouteMatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.function.LongSupplier;
+
+/**
+ * 依路由規則限制請求速率的篩選器，放在 {@code AuthTokenFilter} 之後。
+ *
+ * 已登入的請求以使用者 ID 為鍵，未登入 (公開端點) 則以來源 IP 為鍵，
+ * 避免單一用戶端大量呼叫交易查詢或轉帳而佔滿資料庫連線。
+ * 回應帶有 RateLimit-Limit / RateLimit-Remaining / RateLimit-Reset 標頭，
+ * 超過限制時直接回應 429 與 Retry-After，不進入後續的篩選器與 Controller。
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private static final JsonRejection REJECTED = new JsonRejection(HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded");
+
+    private final RequestRouteMatcher<Route> routes;
+
+    private final LongSupplier clock;
+
+    // 與 LoginAttemptGuard 相同的帶種子雜湊，IP 的雜湊值無法從外部預測
+    private final SeededKeyHash keyHash = new SeededKeyHash();
+
+    // nanoTime 可能為負數，以啟動時間為基準換算成正數
+    private final long origin;
+
+    public RateLimitFilter(RateLimitProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    RateLimitFilter(RateLimitProperties properties, LongSupplier clock) {
+        this.clock = clock;
+        this.origin = clock.getAsLong() - 1;
+        this.routes = new RequestRouteMatcher<>(properties.getPolicies(), policy -> new Route(policy.getName(),
+                new GcraRateLimiter(policy.getCapacity(), policy.getRefillPerSecond(), properties.getSlots())));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Route route = routes.match(request);
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long result = route.limiter().tryAcquire(key(request), clock.getAsLong() - origin);
+        response.setHeader("RateLimit-Limit", Integer.toString(route.limiter().capacity()));
+
+        if (result < 0) {
+            long retryAfterSeconds = toSeconds(-result);
+            logger.debug("速率限制 {} 拒絕請求 {}", route.name(), request.getRequestURI());
+            response.setHeader("RateLimit-Remaining", "0");
+            response.setHeader("RateLimit-Reset", Long.toString(retryAfterSeconds));
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            REJECTED.writeTo(response);
+            return;
+        }
+
+        response.setHeader("RateLimit-Remaining", Integer.toString(route.limiter().remaining(result)));
+        response.setHeader("RateLimit-Reset", Long.toString(toSeconds(result)));
+        filterChain.doFilter(request, response);
+    }
+
+    private long key(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl userDetails
+                && userDetails.getId() != null) {
+            return mix(userDetails.getId());
+        }
+        // getRemoteAddr() 只在連線來自信任的代理時才採用 X-Forwarded-For (server.tomcat.remoteip.internal-proxies)；
+        // String.hashCode 只有 32 位元且可預測，容易刻意製造與他人相同的鍵
+        return keyHash.hash(request.getRemoteAddr());
+    }
+
+    private static long mix(long value) {
+        long h = value * 0x9e3779b97f4a7c15L;
+        h ^= h >>> 32;
+        h *= 0xd6e8feb86659fd93L;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    private static long toSeconds(long nanos) {
+        return Math.max(1L, (nanos + 999_999_999L) / 1_000_000_000L);
+    }
+
+    private record Route(String name, GcraRateLimiter limiter) {
+    }
+}
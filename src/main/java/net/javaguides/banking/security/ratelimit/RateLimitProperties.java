@@ -0,0 +1,39 @@
+package net.javaguides.banking.security.ratelimit;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import net.javaguides.banking.web.RouteProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * API 速率限制設定 (spring.app.rateLimit.*)。
+ *
+ * 每條規則依序比對，第一條符合路徑 (與 HTTP 方法) 的規則生效；都不符合時不限制。
+ */
+@Data
+@ConfigurationProperties(prefix = "spring.app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // 每條規則的槽位數 (2 的次方)，每個槽位 8 bytes；不同使用者雜湊到同一槽位時共用額度
+    private int slots = 65536;
+
+    private List<Policy> policies = new ArrayList<>();
+
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class Policy extends RouteProperties {
+
+        private String name;
+
+        // 可連續通過的請求數 (burst)
+        private int capacity;
+
+        // 每秒補充的請求數
+        private double refillPerSecond;
+    }
+}
@@ -8,9 +8,11 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 @NoArgsConstructor
 @Data
@@ -28,8 +30,16 @@ public class UserDetailsImpl implements UserDetails {
 
     private boolean is2faEnabled;
 
+    private boolean accountNonLocked = true;
+
+    private boolean enabled = true;
+
     private Collection<? extends GrantedAuthority> authorities;
 
+    // 由 JWT claims 還原時帶入的擁有帳戶 ID；null 代表未知，需要查詢資料庫
+    @JsonIgnore
+    private Set<Long> ownedAccountIds;
+
     public UserDetailsImpl(Long id, String username, String email, String password, String realName, boolean is2faEnabled, Collection<? extends GrantedAuthority> authorities) {
         this.id = id;
         this.username = username;
@@ -40,10 +50,28 @@ public class UserDetailsImpl implements UserDetails {
         this.authorities = authorities;
     }
 
+    /**
+     * 由 JWT 內的授權 claims 建立使用者資訊，完全不需要查詢資料庫。
+     * 密碼、Email 等欄位不在 Token 內，因此為 null。
+     */
+    public static UserDetailsImpl fromClaims(Long id, String username, String roleName, Set<Long> ownedAccountIds) {
+        UserDetailsImpl userDetails = new UserDetailsImpl(
+                id,
+                username,
+                null,
+                null,
+                null,
+                false,
+                List.of(new SimpleGrantedAuthority(roleName))
+        );
+        userDetails.setOwnedAccountIds(ownedAccountIds);
+        return userDetails;
+    }
+
     public static UserDetailsImpl build(User user) {
         GrantedAuthority authority = new SimpleGrantedAuthority(user.getRole().getRoleName().name());
 
-        return new UserDetailsImpl(
+        UserDetailsImpl userDetails = new UserDetailsImpl(
                 user.getUserId(),
                 user.getUsername(),
                 user.getEmail(),
@@ -52,6 +80,11 @@ public class UserDetailsImpl implements UserDetails {
                 user.isTwoFactorEnabled(),
                 List.of(authority) // Wrapping the single authority in a list
         );
+        // 已鎖定的帳戶會在 DaoAuthenticationProvider 比對密碼之前被拒絕
+        userDetails.setAccountNonLocked(user.isAccountNonLocked()
+                && (user.getLockedUntil() == null || !user.getLockedUntil().isAfter(LocalDateTime.now())));
+        userDetails.setEnabled(user.isEnabled());
+        return userDetails;
     }
 
 
@@ -85,7 +118,7 @@ public class UserDetailsImpl implements UserDetails {
 
     @Override
     public boolean isAccountNonLocked() {
-        return true;
+        return accountNonLocked;
     }
 
     @Override
@@ -95,7 +128,7 @@ public class UserDetailsImpl implements UserDetails {
 
     @Override
     public boolean isEnabled() {
-        return true;
+        return enabled;
     }
 
     public boolean is2faEnabled() {
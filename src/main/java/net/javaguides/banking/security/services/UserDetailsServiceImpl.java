@@ -2,9 +2,11 @@ package net.javaguides.banking.security.services;
 
 
 import net.javaguides.banking.entity.User;
+import net.javaguides.banking.jfr.UserDetailsLoadEvent;
 import net.javaguides.banking.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -12,19 +14,37 @@ import org.springframework.transaction.annotation.Transactional;
 
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
     @Autowired
     UserRepository userRepository;
 
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
+        UserDetailsLoadEvent event = new UserDetailsLoadEvent();
+        event.begin();
+        User user = userRepository.findByUsername(username).orElse(null);
+        event.finish(user == null ? null : user.getUserId());
+        if (user == null) {
+            throw new UsernameNotFoundException("User Not Found with username: " + username);
+        }
 
         return UserDetailsImpl.build(user);
     }
 
+    /**
+     * 登入成功且密碼雜湊成本與設定不同時，由 DaoAuthenticationProvider 呼叫，以新的雜湊取代舊的。
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        return UserDetailsImpl.build(user);
+    }
+
 
 
 
@@ -1,12 +1,13 @@
 package net.javaguides.banking.service;
 
 import net.javaguides.banking.dto.AccountDto;
+import net.javaguides.banking.dto.BalanceDto;
 import net.javaguides.banking.dto.TransactionDTO;
 import net.javaguides.banking.dto.TransferFundDTO;
+import net.javaguides.banking.money.Money;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 public interface AccountService {
@@ -15,9 +16,15 @@ public interface AccountService {
 
     AccountDto getAccountById(Long id);
 
-    AccountDto deposit(Long id, BigDecimal amount);
+    BalanceDto getAccountBalance(Long id);
 
-    AccountDto withdraw(Long id, BigDecimal amount);
+    Long getAccountVersion(Long id);
+
+    Long getLatestTransactionId(Long accountId);
+
+    AccountDto deposit(Long id, Money amount);
+
+    AccountDto withdraw(Long id, Money amount);
 
     Page<AccountDto> getAllAccounts(Pageable pageable);
 
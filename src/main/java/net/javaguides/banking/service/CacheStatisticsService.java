@@ -0,0 +1,10 @@
+package net.javaguides.banking.service;
+
+import net.javaguides.banking.dto.CacheStatisticsDTO;
+
+public interface CacheStatisticsService {
+
+    CacheStatisticsDTO getStatistics();
+
+    void clearStatistics();
+}
@@ -4,7 +4,9 @@ package net.javaguides.banking.service;
 
 import net.javaguides.banking.dto.UserDTO;
 import net.javaguides.banking.entity.User;
+import net.javaguides.banking.security.request.SignupRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface UserService {
@@ -16,4 +18,16 @@ public interface UserService {
     UserDTO getUserById(Long id);
 
     User findByUsername(String username);
+
+    /**
+     * 註冊新使用者。使用者名稱或 Email 已被使用時拋出 DuplicateUserException。
+     */
+    User registerUser(SignupRequest signupRequest);
+
+    /**
+     * 暫時鎖定帳戶至 lockedUntil (到期自動解除)，回傳是否實際變更。
+     */
+    boolean lockUser(String username, LocalDateTime lockedUntil);
+
+    void unlockUser(Long userId);
 }
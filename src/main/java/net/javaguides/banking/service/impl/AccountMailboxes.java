@@ -0,0 +1,165 @@
+package net.javaguides.banking.service.impl;
+
+import io.micrometer.context.ContextSnapshotFactory;
+import net.javaguides.banking.exception.AccountBusyException;
+import net.javaguides.banking.metrics.SqlStatementTracker;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
+
+/**
+ * 每個帳戶一個信箱 (mailbox)：同一帳戶的操作依送出順序逐一執行，不同帳戶的操作平行執行。
+ *
+ * 信箱只是一個佇列加上「是否正在執行」的旗標，有操作時才以一條虛擬執行緒依序取出執行，
+ * 佇列清空後立即從表中移除，閒置帳戶不佔用任何記憶體。熱門帳戶的請求在這裡排隊，
+ * 而不是各自持有一條資料庫連線在 MySQL 的列鎖上等待；佇列超過上限時直接拒絕 (503)。
+ *
+ * 轉帳需要同時佔用兩個信箱：一律先進入 ID 較小的信箱，在其中再把操作送進 ID 較大的信箱並等待完成。
+ * 等待關係只會由小 ID 指向大 ID，不會形成循環，因此不會死鎖。
+ * 操作在信箱的執行緒上執行，呼叫端的 SecurityContext、請求的 SQL 計數與目前的追蹤 span 會一併帶過去。
+ */
+public class AccountMailboxes {
+
+    private static final int REJECTED = 0;
+    private static final int QUEUED = 1;
+    private static final int STARTED = 2;
+
+    // 以 context-propagation 擷取呼叫端的執行緒區域狀態 (目前的 observation / span)
+    private static final ContextSnapshotFactory CONTEXT_SNAPSHOTS = ContextSnapshotFactory.builder().build();
+
+    private final ConcurrentHashMap<Long, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    private final ExecutorService executor;
+
+    private final int maxQueueDepth;
+
+    public AccountMailboxes(int maxQueueDepth) {
+        this.maxQueueDepth = maxQueueDepth;
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("account-mailbox-", 0).factory());
+    }
+
+    /**
+     * 在帳戶的信箱內執行操作並等待結果。操作拋出的 RuntimeException 原樣拋回呼叫端。
+     */
+    public <T> T call(long accountId, Supplier<T> operation) {
+        Supplier<T> tracked = SqlStatementTracker.propagate(operation);
+        FutureTask<T> task = new FutureTask<>(DelegatingSecurityContextCallable.create(
+                CONTEXT_SNAPSHOTS.captureAll().wrap(tracked::get), SecurityContextHolder.getContext()));
+        enqueue(accountId, task);
+        return await(task);
+    }
+
+    /**
+     * 同時佔用兩個帳戶的信箱執行操作 (轉帳)。兩個 ID 相同時只佔用一個。
+     */
+    public <T> T call(long firstAccountId, long secondAccountId, Supplier<T> operation) {
+        if (firstAccountId == secondAccountId) {
+            return call(firstAccountId, operation);
+        }
+        long lower = Math.min(firstAccountId, secondAccountId);
+        long higher = Math.max(firstAccountId, secondAccountId);
+        return call(lower, () -> call(higher, operation));
+    }
+
+    /**
+     * 目前有操作在排隊或執行中的帳戶數。
+     */
+    public int activeMailboxes() {
+        return mailboxes.size();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void enqueue(long accountId, FutureTask<?> task) {
+        int[] outcome = new int[1];
+        // compute 在同一個 key 上互斥，佇列與 running 旗標只在其中讀寫，不需要額外的鎖
+        Mailbox mailbox = mailboxes.compute(accountId, (id, existing) -> {
+            Mailbox target = existing != null ? existing : new Mailbox(id);
+            if (target.queue.size() >= maxQueueDepth) {
+                outcome[0] = REJECTED;
+                return existing;
+            }
+            target.queue.add(task);
+            outcome[0] = target.running ? QUEUED : STARTED;
+            target.running = true;
+            return target;
+        });
+        if (outcome[0] == REJECTED) {
+            throw new AccountBusyException("Too many pending operations on account " + accountId + ", please retry later");
+        }
+        if (outcome[0] == STARTED) {
+            executor.execute(() -> drain(mailbox));
+        }
+    }
+
+    /**
+     * 依序執行信箱內的操作；佇列清空時在同一個 compute 內把信箱移出表，之後的操作會建立新的信箱。
+     */
+    private void drain(Mailbox mailbox) {
+        Runnable[] next = new Runnable[1];
+        while (true) {
+            mailboxes.compute(mailbox.accountId, (id, current) -> {
+                next[0] = current.queue.poll();
+                if (next[0] == null) {
+                    current.running = false;
+                    return null;
+                }
+                return current;
+            });
+            if (next[0] == null) {
+                return;
+            }
+            // FutureTask 會攔下操作拋出的例外，交給等待中的呼叫端
+            next[0].run();
+        }
+    }
+
+    private static <T> T await(FutureTask<T> task) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return task.get();
+                } catch (InterruptedException e) {
+                    // 操作已在信箱中，可能已經開始執行，必須等它完成才能回報結果
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException runtimeException) {
+                        throw runtimeException;
+                    }
+                    if (e.getCause() instanceof Error error) {
+                        throw error;
+                    }
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class Mailbox {
+
+        private final long accountId;
+
+        private final Queue<Runnable> queue = new ArrayDeque<>();
+
+        private boolean running;
+
+        private Mailbox(long accountId) {
+            this.accountId = accountId;
+        }
+    }
+}
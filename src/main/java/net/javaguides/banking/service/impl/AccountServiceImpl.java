@@ -1,6 +1,11 @@
 package net.javaguides.banking.service.impl;
 
+import io.micrometer.observation.annotation.Observed;
+import net.javaguides.banking.cache.BalanceMirror;
+import net.javaguides.banking.cache.CacheInvalidationBus;
+import net.javaguides.banking.cache.InvalidationEvent;
 import net.javaguides.banking.dto.AccountDto;
+import net.javaguides.banking.dto.BalanceDto;
 import net.javaguides.banking.dto.TransactionDTO;
 import net.javaguides.banking.dto.TransferFundDTO;
 import net.javaguides.banking.entity.Account;
@@ -10,10 +15,16 @@ import net.javaguides.banking.enums.TransactionType;
 import net.javaguides.banking.exception.AccountException;
 import net.javaguides.banking.exception.AccountNotFoundException;
 import net.javaguides.banking.exception.InsufficientAmountException;
+import net.javaguides.banking.jfr.AccountOperationEvent;
 import net.javaguides.banking.mapper.AccountMapper;
+import net.javaguides.banking.metrics.BankingMetrics;
+import net.javaguides.banking.metrics.ContentionProfiler;
+import net.javaguides.banking.money.Money;
 import net.javaguides.banking.repository.AccountRepository;
 import net.javaguides.banking.repository.TransactionRepository;
 import net.javaguides.banking.repository.UserRepository;
+import net.javaguides.banking.security.OwnershipScope;
+import net.javaguides.banking.security.jwt.TokenRevocationRegistry;
 import net.javaguides.banking.security.services.UserDetailsImpl;
 import net.javaguides.banking.service.AccountService;
 import org.slf4j.Logger;
@@ -21,15 +32,25 @@ import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
 
 
+// 各方法的執行時間記錄為 banking.account.service (標籤 class、method、error)，並在追蹤中成為一個 span
+@Observed(name = BankingMetrics.ACCOUNT_SERVICE)
 @Transactional
 @Service
 public class AccountServiceImpl implements AccountService {
@@ -42,18 +63,47 @@ public class AccountServiceImpl implements AccountService {
 
     private AccountMapper accountMapper;
 
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    private OwnershipScope ownershipScope;
+
+    private BalanceMirror balanceMirror;
+
+    private CacheInvalidationBus invalidationBus;
+
+    private TransactionTemplate transactionTemplate;
+
+    private BankingMetrics metrics;
+
+    private ContentionProfiler contentionProfiler;
+
+    // 日誌為結構化事件：訊息是固定的事件名稱，變動的值以 key-value 附加 (正式環境輸出為 logfmt)；
+    // 未開啟該等級時 atInfo() 等直接回傳空實作，不格式化字串也不配置參數陣列
     private static final Logger logger = LoggerFactory.getLogger(AccountServiceImpl.class);
 
+    // 第一次重試前的最長退避時間，之後每次加倍
+    private static final long RETRY_BACKOFF_BASE_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    // 鏡像讀取結果，每個執行緒重複使用；讀取後立即轉成回應，不會跨呼叫保留
+    private static final ThreadLocal<BalanceMirror.Entry> MIRROR_ENTRY = ThreadLocal.withInitial(BalanceMirror.Entry::new);
+
 //    private static final String TRANSACTION_TYPE_DEPOSIT = "deposit";
 //    private static final String TRANSACTION_TYPE_WITHDRAW = "withdraw";
 //    private static final String TRANSACTION_TYPE_TRANSACTION = "transaction";
 
 
-    public AccountServiceImpl(AccountRepository accountRepository, TransactionRepository transactionRepository, UserRepository userRepository, AccountMapper accountMapper) {
+    public AccountServiceImpl(AccountRepository accountRepository, TransactionRepository transactionRepository, UserRepository userRepository, AccountMapper accountMapper, TokenRevocationRegistry tokenRevocationRegistry, OwnershipScope ownershipScope, BalanceMirror balanceMirror, CacheInvalidationBus invalidationBus, PlatformTransactionManager transactionManager, BankingMetrics metrics, ContentionProfiler contentionProfiler) {
         this.accountRepository = accountRepository;
         this.transactionRepository = transactionRepository;
         this.userRepository = userRepository;
         this.accountMapper = accountMapper;
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
+        this.ownershipScope = ownershipScope;
+        this.balanceMirror = balanceMirror;
+        this.invalidationBus = invalidationBus;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.metrics = metrics;
+        this.contentionProfiler = contentionProfiler;
     }
 
     @Override
@@ -66,7 +116,6 @@ public class AccountServiceImpl implements AccountService {
 
         Long currentUserId = userDetails.getId();
 
-        logger.info("已登入使用者ID:{} 嘗試創進新帳戶", currentUserId);
 
 
         User user = userRepository.findById(currentUserId).orElseThrow(() -> new RuntimeException("Logged-in user not found in database with id: " + currentUserId));
@@ -79,8 +128,12 @@ public class AccountServiceImpl implements AccountService {
         account.setUser(user);
 
         Account saveAccount = accountRepository.save(account);
+        balanceMirror.putAfterCommit(saveAccount);
 
-        logger.info("成功啟用新帳戶,id為{}", saveAccount.getId());
+        logger.atInfo().setMessage("account.created")
+                .addKeyValue("accountId", saveAccount.getId())
+                .addKeyValue("userId", currentUserId)
+                .log();
         AccountDto accountDto1 = accountMapper.mapTOAccountDto(saveAccount);
         return accountDto1;
     }
@@ -88,102 +141,211 @@ public class AccountServiceImpl implements AccountService {
     @Transactional(readOnly = true)
     @Override
     public AccountDto getAccountById(Long id) {
-        logger.info("使用ID：{}查詢帳戶", id);
-        Account account = accountRepository.findById(id).orElseThrow(() ->
-        {
-            logger.error("查無ID:{}", id);
-            return new AccountNotFoundException("Account does not exist");
-        });
-        logger.info("成功取得帳號:{}", id);
+        Long ownerId = ownershipScope.currentOwnerId(true);
+        Account account = findAccount(id, ownerId).orElseThrow(() -> accountUnavailable(id, ownerId));
         return accountMapper.mapTOAccountDto(account);
     }
 
+    /**
+     * 查詢餘額，優先從堆外鏡像讀取；命中時不開啟交易、不取得資料庫連線。
+     * 未命中時回到資料庫 (走二級快取)，並以查到的已提交狀態回填鏡像。
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    @Override
+    public BalanceDto getAccountBalance(Long id) {
+        Long ownerId = ownershipScope.currentOwnerId(true);
+
+        BalanceMirror.Entry entry = MIRROR_ENTRY.get();
+        if (balanceMirror.read(id, entry)) {
+            if (ownerId != null && ownerId != entry.ownerId) {
+                throw new AccessDeniedException("Access denied to account " + id);
+            }
+            return new BalanceDto(id, entry.balance(), entry.version);
+        }
+
+        logger.atDebug().setMessage("balance.mirror.miss").addKeyValue("accountId", id).log();
+        Account account = findAccount(id, ownerId).orElseThrow(() -> accountUnavailable(id, ownerId));
+        balanceMirror.put(account);
+        return new BalanceDto(account.getId(), account.getBalance(), account.getVersion());
+    }
+
+    /**
+     * 取得帳戶目前的版本號，供 ETag 使用；只查詢版本欄位 (或由餘額鏡像提供)，不載入實體。
+     * 查無帳戶或無權存取時回傳 null，由一般查詢流程回應 404 / 403。
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     @Override
-    public AccountDto deposit(Long id, BigDecimal amount) {
+    public Long getAccountVersion(Long id) {
+        Long ownerId = ownershipScope.currentOwnerId(true);
+
+        long mirrored = balanceMirror.readVersion(id);
+        if (mirrored != BalanceMirror.MISS) {
+            // 擁有者不會變更，與版本號分開讀取也不會不一致
+            return ownerId == null || ownerId == balanceMirror.ownerOf(id) ? mirrored : null;
+        }
+
+        Optional<Long> version = ownerId == null
+                ? accountRepository.findVersionById(id)
+                : accountRepository.findVersionByIdAndOwner(id, ownerId);
+        return version.orElse(null);
+    }
+
+    /**
+     * 取得帳戶最新一筆交易的 ID，供交易列表第一頁的 ETag 使用。沒有交易或無權存取時回傳 null。
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public Long getLatestTransactionId(Long accountId) {
+        Long ownerId = ownershipScope.currentOwnerId(true);
+        return ownerId == null
+                ? transactionRepository.findLatestIdByAccountId(accountId)
+                : transactionRepository.findLatestIdByAccountIdAndOwner(accountId, ownerId);
+    }
+
+    /**
+     * 樂觀鎖衝突在提交時才會拋出，因此每次嘗試各自在一個交易內執行，衝突時於交易外退避後重試；
+     * 退避期間不持有資料庫連線，也不在 synchronized 區塊內 (虛擬執行緒不會釘住載體執行緒)。
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Override
+    public AccountDto deposit(Long id, Money amount) {
+        AccountOperationEvent event = AccountOperationEvent.begin("deposit", id, 0);
+        return recorded(event, amount, () -> depositWithRetry(id, amount, event));
+    }
+
+    private AccountDto depositWithRetry(Long id, Money amount, AccountOperationEvent event) {
 
         final int MAX_ATTEMPS = 3;
+        Long ownerId = ownershipScope.currentOwnerId(false);
 
         for (int attemp = 0; attemp < MAX_ATTEMPS; attemp++) {
+            event.attempt(attemp + 1);
 
+            if (attemp > 0) {
+                backoff(attemp);
+            }
             try {
-                logger.info("嘗試儲蓄{}進入帳號:{}", amount, id);
-                Account account = accountRepository.
-                        findById(id).orElseThrow(() -> {
-                            logger.error("儲蓄失敗,查無ID:{}", id);
-                            return new AccountNotFoundException("Account does not exist");
-                        });
+                return transactionTemplate.execute(status -> {
+                    Account account = findAccount(id, ownerId).orElseThrow(() -> accountUnavailable(id, ownerId));
 
-                account.setBalance(account.getBalance().add(amount));
+                    account.setBalance(account.getBalance().plus(amount));
 
-                Account saveAccount = accountRepository.save(account);
-                logger.info("儲蓄成功,帳號:{},新餘額:{}", id, saveAccount.getBalance());
+                    Account saveAccount = accountRepository.save(account);
+                    accountChangedAfterCommit(saveAccount);
+                    logger.atInfo().setMessage("account.deposited")
+                            .addKeyValue("accountId", id)
+                            .addKeyValue("amount", amount)
+                            .addKeyValue("balance", saveAccount.getBalance())
+                            .log();
 
 
-                // 記錄交易
-                Transaction transaction = new Transaction();
-                transaction.setAccountId(id);
-                transaction.setAmount(amount);
-                transaction.setTimestamp(LocalDateTime.now());
-                transaction.setTransactionType(TransactionType.DEPOSIT);
-                transactionRepository.save(transaction);
+                    // 記錄交易
+                    Transaction transaction = new Transaction();
+                    transaction.setAccountId(id);
+                    transaction.setAmount(amount.toBigDecimal());
+                    transaction.setTimestamp(LocalDateTime.now());
+                    transaction.setTransactionType(TransactionType.DEPOSIT);
+                    transactionRepository.save(transaction);
 
-                AccountDto accountDto = accountMapper.mapTOAccountDto(saveAccount);
+                    AccountDto accountDto = accountMapper.mapTOAccountDto(saveAccount);
 
-                return accountDto;
+                    return accountDto;
+                });
 
             } catch (ObjectOptimisticLockingFailureException e) {
                 // 發生衝突，記錄日誌後，迴圈將自動重試
-                logger.warn("帳戶 {} 存款發生併發衝突，準備重試...", id);
+                logger.atWarn().setMessage("account.conflict")
+                        .addKeyValue("operation", "deposit")
+                        .addKeyValue("accountId", id)
+                        .addKeyValue("attempt", attemp + 1)
+                        .log();
+                contentionProfiler.recordOptimisticConflict(id);
+                if (attemp + 1 < MAX_ATTEMPS) {
+                    metrics.optimisticLockRetry("deposit");
+                }
             }
         }
         // 如果重試全部失敗，則拋出例外
+        metrics.optimisticLockExhausted("deposit");
         throw new AccountException("存款操作因高併發衝突而失敗，請稍後再試。");
     }
 
 
+    /**
+     * 與存款相同，每次嘗試各自一個交易，衝突時於交易外退避後重試。
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     @Override
-    public AccountDto withdraw(Long id, BigDecimal amount) {
+    public AccountDto withdraw(Long id, Money amount) {
+        AccountOperationEvent event = AccountOperationEvent.begin("withdraw", id, 0);
+        return recorded(event, amount, () -> withdrawWithRetry(id, amount, event));
+    }
+
+    private AccountDto withdrawWithRetry(Long id, Money amount, AccountOperationEvent event) {
 
         final int MAX_ATTEMP=3;
+        Long ownerId = ownershipScope.currentOwnerId(false);
 
         for (int attemp = 0; attemp < MAX_ATTEMP; attemp++) {
+            event.attempt(attemp + 1);
 
-
+            if (attemp > 0) {
+                backoff(attemp);
+            }
             try {
-                logger.info("嘗試取款:{},扣款帳號:{}", id, amount);
-                Account account = accountRepository.findById(id).orElseThrow(() -> {
-                    logger.error("取款失敗,查無帳號{}");
-                    return new AccountNotFoundException("Account does not exist");
-                });
+                return transactionTemplate.execute(status -> {
+                    Account account = findAccount(id, ownerId).orElseThrow(() -> accountUnavailable(id, ownerId));
 
-                if (account.getBalance().compareTo(amount) < 0) {
-                    logger.error("帳號{}餘額不足,取款失敗,帳戶餘額:{},取款金額{}", id, account.getBalance(), account);
-                    throw new InsufficientAmountException("Insufficient amount");
-                }
+                    if (account.getBalance().isLessThan(amount)) {
+                        // 餘額不足是一般的業務結果 (另有 banking.account.insufficient.funds 指標)，不以 ERROR 記錄
+                        logger.atInfo().setMessage("account.insufficient.funds")
+                                .addKeyValue("operation", "withdraw")
+                                .addKeyValue("accountId", id)
+                                .addKeyValue("amount", amount)
+                                .addKeyValue("balance", account.getBalance())
+                                .log();
+                        metrics.insufficientFunds("withdraw");
+                        throw new InsufficientAmountException("Insufficient amount");
+                    }
 
 
-                account.setBalance(account.getBalance().subtract(amount));
-                accountRepository.save(account);
-                logger.info("帳號{}取款成功，新餘額｛｝", account.getBalance());
+                    account.setBalance(account.getBalance().minus(amount));
+                    accountRepository.save(account);
+                    accountChangedAfterCommit(account);
+                    logger.atInfo().setMessage("account.withdrawn")
+                            .addKeyValue("accountId", id)
+                            .addKeyValue("amount", amount)
+                            .addKeyValue("balance", account.getBalance())
+                            .log();
 
 
-                // 記錄交易
-                Transaction transaction = new Transaction();
-                transaction.setAccountId(id);
-                transaction.setAmount(amount);
-                transaction.setTimestamp(LocalDateTime.now());
-                transaction.setTransactionType(TransactionType.WITHDRAW);
+                    // 記錄交易
+                    Transaction transaction = new Transaction();
+                    transaction.setAccountId(id);
+                    transaction.setAmount(amount.toBigDecimal());
+                    transaction.setTimestamp(LocalDateTime.now());
+                    transaction.setTransactionType(TransactionType.WITHDRAW);
 
-                transactionRepository.save(transaction);
+                    transactionRepository.save(transaction);
 
 
-                AccountDto accountDto = accountMapper.mapTOAccountDto(account);
+                    AccountDto accountDto = accountMapper.mapTOAccountDto(account);
 
-                return accountDto;
+                    return accountDto;
+                });
             } catch (ObjectOptimisticLockingFailureException e) {
-                logger.warn("帳戶{} 存款發生併發衝突，準備重試...", id);
+                logger.atWarn().setMessage("account.conflict")
+                        .addKeyValue("operation", "withdraw")
+                        .addKeyValue("accountId", id)
+                        .addKeyValue("attempt", attemp + 1)
+                        .log();
+                contentionProfiler.recordOptimisticConflict(id);
+                if (attemp + 1 < MAX_ATTEMP) {
+                    metrics.optimisticLockRetry("withdraw");
+                }
             }
         }
+        metrics.optimisticLockExhausted("withdraw");
         throw new AccountException("存款操作因高併發衝突而失敗，請稍後再試。");
     }
 
@@ -200,35 +362,46 @@ public class AccountServiceImpl implements AccountService {
 
     @Override
     public void deleteAccount(Long id) {
-        logger.info("嘗試刪除帳戶,帳號:{}", id);
-        Account account = accountRepository.findById(id).orElseThrow(() -> {
-            logger.error("刪除失敗,查無帳號:{}", id);
-            return new AccountNotFoundException("Account does not exist");
-        });
+        Account account = accountRepository.findById(id).orElseThrow(() -> new AccountNotFoundException("Account does not exist"));
         accountRepository.deleteById(id);
-        logger.info("刪除成功,帳號{}", id);
+        balanceMirror.evictAfterCommit(id);
+        invalidationBus.publishAfterCommit(() -> InvalidationEvent.accountDeleted(id));
+        // 帳戶已刪除，擁有者 Token 內的帳戶清單立即失效
+        if (account.getUser() != null) {
+            tokenRevocationRegistry.revokeAfterCommit(account.getUser().getUserId());
+        }
+        logger.atInfo().setMessage("account.deleted").addKeyValue("accountId", id).log();
     }
 
     @Override
     public void transferFunds(TransferFundDTO transferFundDTO) {
-        logger.info("從帳號{}向帳號{},發起金額為{}的轉帳", transferFundDTO.fromAccountId(), transferFundDTO.toAccountId(), transferFundDTO.amount());
+        AccountOperationEvent event = AccountOperationEvent.begin("transfer",
+                transferFundDTO.fromAccountId(), transferFundDTO.toAccountId());
+        recorded(event, transferFundDTO.amount(), () -> {
+            transfer(transferFundDTO, event);
+            return null;
+        });
+    }
+
+    private void transfer(TransferFundDTO transferFundDTO, AccountOperationEvent event) {
         Long fromAccountId = transferFundDTO.fromAccountId();
         Long toAccountId = transferFundDTO.toAccountId();
 
 
         if (fromAccountId.equals(toAccountId)) {
-            logger.error("轉帳失敗,不能轉帳給相同的帳號{}", fromAccountId);
             throw new AccountException("不能轉帳到相同帳戶");
         }
 
         Account account1, account2;
+        // 合併模式下，轉出帳戶的擁有權直接在鎖定查詢中確認
+        Long ownerId = ownershipScope.currentOwnerId(false);
 
         if (fromAccountId < toAccountId) {
-            account1 = accountRepository.findByIdForUpdate(fromAccountId).orElseThrow(() -> new AccountNotFoundException("Account does not exist"));
-            account2 = accountRepository.findByIdForUpdate(toAccountId).orElseThrow(() -> new AccountNotFoundException("Account does not exist"));
+            account1 = lockSourceAccount(fromAccountId, ownerId, event).orElseThrow(() -> accountUnavailable(fromAccountId, ownerId));
+            account2 = lockTargetAccount(toAccountId, event).orElseThrow(() -> new AccountNotFoundException("Account does not exist"));
         } else {
-            account2 = accountRepository.findByIdForUpdate(toAccountId).orElseThrow(() -> new AccountNotFoundException("Account does not exist"));
-            account1 = accountRepository.findByIdForUpdate(fromAccountId).orElseThrow(() -> new AccountNotFoundException("Account does not exist"));
+            account2 = lockTargetAccount(toAccountId, event).orElseThrow(() -> new AccountNotFoundException("Account does not exist"));
+            account1 = lockSourceAccount(fromAccountId, ownerId, event).orElseThrow(() -> accountUnavailable(fromAccountId, ownerId));
         }
         // 找出哪個是轉出帳戶，哪個是轉入帳戶
 
@@ -242,24 +415,32 @@ public class AccountServiceImpl implements AccountService {
 //         Account toAccount = accountRepository.findById(transferFundDTO.toAccountId()).orElseThrow(() -> new AccountException("Account does not exist"));
 
 
-        if (fromAccount.getBalance().compareTo(transferFundDTO.amount()) < 0) {
-            logger.error("轉帳失敗,帳戶{}餘額{}小於欲轉金額{}", fromAccountId, fromAccount.getBalance(), transferFundDTO.amount());
+        if (fromAccount.getBalance().isLessThan(transferFundDTO.amount())) {
+            logger.atInfo().setMessage("account.insufficient.funds")
+                    .addKeyValue("operation", "transfer")
+                    .addKeyValue("accountId", fromAccountId)
+                    .addKeyValue("amount", transferFundDTO.amount())
+                    .addKeyValue("balance", fromAccount.getBalance())
+                    .log();
+            metrics.insufficientFunds("transfer");
             throw new InsufficientAmountException("Insufficient amount");
         }
 
         // 3. 從轉出帳戶扣款
-        fromAccount.setBalance(fromAccount.getBalance().subtract(transferFundDTO.amount()));
+        fromAccount.setBalance(fromAccount.getBalance().minus(transferFundDTO.amount()));
         // 4. 轉入帳戶存入金額
-        toAccount.setBalance(toAccount.getBalance().add(transferFundDTO.amount()));
+        toAccount.setBalance(toAccount.getBalance().plus(transferFundDTO.amount()));
         // 5. 儲存更新
         accountRepository.save(fromAccount);
         accountRepository.save(toAccount);
+        accountChangedAfterCommit(fromAccount);
+        accountChangedAfterCommit(toAccount);
 
         // 記錄轉出方交易（TRANSFER_OUT）
         Transaction fromTransaction = new Transaction();
 
         fromTransaction.setAccountId(transferFundDTO.fromAccountId());
-        fromTransaction.setAmount(transferFundDTO.amount());
+        fromTransaction.setAmount(transferFundDTO.amount().toBigDecimal());
         fromTransaction.setTimestamp(LocalDateTime.now());
         fromTransaction.setTransactionType(TransactionType.TRANSFER_OUT);
         transactionRepository.save(fromTransaction);
@@ -268,11 +449,15 @@ public class AccountServiceImpl implements AccountService {
         Transaction toTransaction = new Transaction();
 
         toTransaction.setAccountId(transferFundDTO.toAccountId());
-        toTransaction.setAmount(transferFundDTO.amount());
+        toTransaction.setAmount(transferFundDTO.amount().toBigDecimal());
         toTransaction.setTimestamp(LocalDateTime.now());
         toTransaction.setTransactionType(TransactionType.TRANSFER_IN);
         transactionRepository.save(toTransaction);
-        logger.info("資金從帳戶 {} 轉至帳戶 {} 已成功完成", fromAccountId, toAccountId);
+        logger.atInfo().setMessage("account.transferred")
+                .addKeyValue("fromAccountId", fromAccountId)
+                .addKeyValue("toAccountId", toAccountId)
+                .addKeyValue("amount", transferFundDTO.amount())
+                .log();
 
     }
 
@@ -281,7 +466,17 @@ public class AccountServiceImpl implements AccountService {
     @Override
     public Page<TransactionDTO> getAccountTransactions(Long accountId, Pageable pageable) {
 
-        Page<Transaction> transactions = transactionRepository.findByAccountIdOrderByTimestampDesc(accountId, pageable);
+        Long ownerId = ownershipScope.currentOwnerId(true);
+        Page<Transaction> transactions;
+        if (ownerId == null) {
+            transactions = transactionRepository.findByAccountIdOrderByTimestampDesc(accountId, pageable);
+        } else {
+            // 擁有者條件與交易查詢合併；只有查無資料時才需要分辨是沒有交易還是無權存取
+            transactions = transactionRepository.findByAccountIdAndOwner(accountId, ownerId, pageable);
+            if (transactions.isEmpty() && !accountRepository.existsByIdAndUserUserId(accountId, ownerId)) {
+                throw accountUnavailable(accountId, ownerId);
+            }
+        }
         Page<TransactionDTO> transactionDTOPage = transactions.map(this::convertEntityToDTO);
 //        List<TransactionDTO> transactionDTOList = new ArrayList<>();
 //
@@ -300,6 +495,80 @@ public class AccountServiceImpl implements AccountService {
     }
 
 
+    /**
+     * 帳戶餘額變更：提交後更新本節點的餘額鏡像，並通知其他節點清除快取。
+     */
+    private void accountChangedAfterCommit(Account account) {
+        balanceMirror.putAfterCommit(account);
+        invalidationBus.publishAfterCommit(() -> InvalidationEvent.accountUpdated(account));
+    }
+
+    /**
+     * 依是否需要限定擁有者查詢帳戶。ownerId 為 null 時不加擁有者條件。
+     */
+    private Optional<Account> findAccount(Long id, Long ownerId) {
+        return ownerId == null ? accountRepository.findById(id) : accountRepository.findByIdAndOwner(id, ownerId);
+    }
+
+    /**
+     * 指數退避加上隨機抖動，避免同一帳戶的衝突請求同時重試再次相撞。
+     * LockSupport.parkNanos 在虛擬執行緒上會卸載，不佔用載體執行緒。
+     */
+    private static void backoff(int attempt) {
+        long maxNanos = RETRY_BACKOFF_BASE_NANOS << (attempt - 1);
+        LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(maxNanos / 2, maxNanos + 1));
+    }
+
+    private Optional<Account> lockSourceAccount(Long id, Long ownerId, AccountOperationEvent event) {
+        long start = System.nanoTime();
+        try {
+            return ownerId == null ? accountRepository.findByIdForUpdate(id) : accountRepository.findByIdAndOwnerForUpdate(id, ownerId);
+        } finally {
+            long waitNanos = System.nanoTime() - start;
+            metrics.lockWait("source", waitNanos);
+            contentionProfiler.recordLockWait(id, waitNanos);
+            event.lockWaited(waitNanos);
+        }
+    }
+
+    private Optional<Account> lockTargetAccount(Long id, AccountOperationEvent event) {
+        long start = System.nanoTime();
+        try {
+            return accountRepository.findByIdForUpdate(id);
+        } finally {
+            long waitNanos = System.nanoTime() - start;
+            metrics.lockWait("target", waitNanos);
+            contentionProfiler.recordLockWait(id, waitNanos);
+            event.lockWaited(waitNanos);
+        }
+    }
+
+    /**
+     * 執行操作並寫入 JFR 事件 (未錄製時只剩一次判斷)，失敗時記錄例外類別後原樣拋出。
+     */
+    private static <T> T recorded(AccountOperationEvent event, Money amount, Supplier<T> operation) {
+        RuntimeException failure = null;
+        try {
+            return operation.get();
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            event.finish(amount, failure);
+        }
+    }
+
+    /**
+     * 帶擁有者條件的查詢沒有結果時，區分帳戶不存在 (404) 與無權存取 (403)。
+     * 只在失敗路徑多查詢一次，成功路徑維持單一查詢。
+     */
+    private RuntimeException accountUnavailable(Long id, Long ownerId) {
+        if (ownerId != null && accountRepository.existsById(id)) {
+            return new AccessDeniedException("Access denied to account " + id);
+        }
+        return new AccountNotFoundException("Account does not exist");
+    }
+
     private TransactionDTO convertEntityToDTO(Transaction transaction) {
         return new TransactionDTO(
                 transaction.getId(),
@@ -0,0 +1,74 @@
+package net.javaguides.banking.service.impl;
+
+import jakarta.persistence.EntityManagerFactory;
+import net.javaguides.banking.dto.CacheRegionStatsDTO;
+import net.javaguides.banking.dto.CacheStatisticsDTO;
+import net.javaguides.banking.service.CacheStatisticsService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 讀取 Hibernate Statistics，整理出各快取區域的命中情況，
+ * 用來判斷哪些區域值得保留、哪些區域的容量或過期時間需要調整。
+ */
+@Service
+public class CacheStatisticsServiceImpl implements CacheStatisticsService {
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public CacheStatisticsDTO getStatistics() {
+        Statistics statistics = statistics();
+
+        List<CacheRegionStatsDTO> regions = Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> toRegionStats(region, statistics.getCacheRegionStatistics(region)))
+                .filter(Objects::nonNull)
+                .toList();
+
+        return new CacheStatisticsDTO(
+                statistics.isStatisticsEnabled(),
+                statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(),
+                statistics.getSecondLevelCachePutCount(),
+                statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount(),
+                regions);
+    }
+
+    @Override
+    public void clearStatistics() {
+        statistics().clear();
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private CacheRegionStatsDTO toRegionStats(String region, CacheRegionStatistics regionStatistics) {
+        if (regionStatistics == null) {
+            return null;
+        }
+        long hits = regionStatistics.getHitCount();
+        long misses = regionStatistics.getMissCount();
+        long lookups = hits + misses;
+        // 提供者不支援時 Hibernate 回傳 Long.MIN_VALUE，統一以 -1 表示
+        long elementCount = Math.max(regionStatistics.getElementCountInMemory(), -1L);
+        return new CacheRegionStatsDTO(
+                region,
+                hits,
+                misses,
+                regionStatistics.getPutCount(),
+                elementCount,
+                lookups == 0 ? 0.0 : (double) hits / lookups);
+    }
+}
@@ -0,0 +1,121 @@
+package net.javaguides.banking.service.impl;
+
+import io.micrometer.observation.annotation.Observed;
+import jakarta.annotation.PreDestroy;
+import net.javaguides.banking.dto.AccountDto;
+import net.javaguides.banking.dto.BalanceDto;
+import net.javaguides.banking.dto.TransactionDTO;
+import net.javaguides.banking.dto.TransferFundDTO;
+import net.javaguides.banking.metrics.BankingMetrics;
+import net.javaguides.banking.money.Money;
+import net.javaguides.banking.service.AccountService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+
+/**
+ * spring.app.accountExecution=mailbox 時取代 {@link AccountServiceImpl} 成為注入的 AccountService。
+ *
+ * 會修改帳戶的操作 (存款、取款、轉帳、刪除) 先在帳戶信箱內排隊，輪到時才呼叫 AccountServiceImpl 開啟交易，
+ * 同一帳戶在本節點上不會有兩個交易同時修改，樂觀鎖重試與 FOR UPDATE 的等待只剩跨節點時才會發生。
+ * 唯讀查詢與建立帳戶不經過信箱。
+ * 這裡記錄的執行時間包含在信箱排隊的時間，與 AccountServiceImpl 的差距即為排隊時間。
+ */
+@Observed(name = BankingMetrics.ACCOUNT_SERVICE)
+@Primary
+@Service
+@ConditionalOnProperty(name = "spring.app.accountExecution", havingValue = "mailbox")
+public class MailboxAccountService implements AccountService {
+
+    private final AccountService delegate;
+
+    private final AccountMailboxes mailboxes;
+
+    @Autowired
+    public MailboxAccountService(@Qualifier("accountServiceImpl") AccountService delegate,
+                                 @Value("${spring.app.mailboxMaxQueueDepth:1000}") int maxQueueDepth) {
+        this(delegate, new AccountMailboxes(maxQueueDepth));
+    }
+
+    MailboxAccountService(AccountService delegate, AccountMailboxes mailboxes) {
+        this.delegate = delegate;
+        this.mailboxes = mailboxes;
+    }
+
+    @Override
+    public AccountDto createAccount(AccountDto accountDto) {
+        return delegate.createAccount(accountDto);
+    }
+
+    @Override
+    public AccountDto getAccountById(Long id) {
+        return delegate.getAccountById(id);
+    }
+
+    @Override
+    public BalanceDto getAccountBalance(Long id) {
+        return delegate.getAccountBalance(id);
+    }
+
+    @Override
+    public Long getAccountVersion(Long id) {
+        return delegate.getAccountVersion(id);
+    }
+
+    @Override
+    public Long getLatestTransactionId(Long accountId) {
+        return delegate.getLatestTransactionId(accountId);
+    }
+
+    @Override
+    public AccountDto deposit(Long id, Money amount) {
+        return mailboxes.call(id, () -> delegate.deposit(id, amount));
+    }
+
+    @Override
+    public AccountDto withdraw(Long id, Money amount) {
+        return mailboxes.call(id, () -> delegate.withdraw(id, amount));
+    }
+
+    @Override
+    public Page<AccountDto> getAllAccounts(Pageable pageable) {
+        return delegate.getAllAccounts(pageable);
+    }
+
+    @Override
+    public void deleteAccount(Long id) {
+        mailboxes.call(id, () -> {
+            delegate.deleteAccount(id);
+            return null;
+        });
+    }
+
+    @Override
+    public void transferFunds(TransferFundDTO transferFundDTO) {
+        mailboxes.call(transferFundDTO.fromAccountId(), transferFundDTO.toAccountId(), () -> {
+            delegate.transferFunds(transferFundDTO);
+            return null;
+        });
+    }
+
+    @Override
+    public Page<TransactionDTO> getAccountTransactions(Long accountId, Pageable pageable) {
+        return delegate.getAccountTransactions(accountId, pageable);
+    }
+
+    /** 目前有排隊或執行中操作的帳戶數 */
+    public int activeMailboxes() {
+        return mailboxes.activeMailboxes();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        mailboxes.shutdown();
+    }
+}
@@ -1,20 +1,45 @@
 package net.javaguides.banking.service.impl;
 
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import net.javaguides.banking.cache.UserIdentityBloomFilter;
 import net.javaguides.banking.dto.UserDTO;
 import net.javaguides.banking.entity.AppRole;
 import net.javaguides.banking.entity.Role;
 import net.javaguides.banking.entity.User;
+import net.javaguides.banking.exception.DuplicateUserException;
 import net.javaguides.banking.repository.RoleRepository;
 import net.javaguides.banking.repository.UserRepository;
+import net.javaguides.banking.security.LoginAttemptGuard;
+import net.javaguides.banking.security.jwt.TokenRevocationRegistry;
+import net.javaguides.banking.security.request.SignupRequest;
 import net.javaguides.banking.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class UserServiceImpl implements UserService {
+
+    private static final String USERNAME_TAKEN = "Error: Username is already taken!";
+    private static final String EMAIL_IN_USE = "Error: Email is already in use!";
+
+    // 與 User 實體上的 @UniqueConstraint 名稱相同
+    private static final String UNIQUE_USERNAME = "uk_users_username";
+    private static final String UNIQUE_EMAIL = "uk_users_email";
     
     @Autowired
     UserRepository userRepository;
@@ -22,6 +47,36 @@ public class UserServiceImpl implements UserService {
     @Autowired
     RoleRepository roleRepository;
 
+    @Autowired
+    TokenRevocationRegistry tokenRevocationRegistry;
+
+    @Autowired
+    LoginAttemptGuard loginAttemptGuard;
+
+    @Autowired
+    UserIdentityBloomFilter userIdentityBloomFilter;
+
+    @Autowired
+    PasswordEncoder passwordEncoder;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    // 角色名稱 → role_id，啟動後載入；註冊時以 getReference 指派角色，不必查詢 roles 表
+    private volatile Map<AppRole, Integer> roleIds = Map.of();
+
+    /**
+     * 在預設角色建立 (initData) 之後載入角色對照表。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRoleIds() {
+        Map<AppRole, Integer> loaded = new EnumMap<>(AppRole.class);
+        for (Role role : roleRepository.findAll()) {
+            loaded.put(role.getRoleName(), role.getRoleId());
+        }
+        roleIds = loaded;
+    }
+
     @Override
     public void updateUserRole(Long userId, String roleName) {
         User user = userRepository.findById(userId).orElseThrow(()
@@ -31,6 +86,8 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new RuntimeException("Role not found"));
         user.setRole(role);
         userRepository.save(user);
+        // 角色已變更，舊 Token 內的角色 claim 立即失效
+        tokenRevocationRegistry.revokeAfterCommit(userId);
     }
 
 
@@ -54,7 +111,111 @@ public class UserServiceImpl implements UserService {
         return user;
     }
 
+    /**
+     * 註冊流程只需要一次 INSERT：
+     * Bloom filter 判斷一定不存在時跳過存在性查詢，角色由啟動時載入的對照表取得參考，
+     * 重複的使用者名稱或 Email 由唯一限制擋下，再轉換成與先前相同的錯誤訊息。
+     */
+    @Override
+    public User registerUser(SignupRequest signupRequest) {
+        // Bloom filter 判斷可能存在時才查詢，明顯重複的請求不必進行 BCrypt 與 INSERT
+        if (userIdentityBloomFilter.mightContainUsername(signupRequest.getUsername())
+                && userRepository.existsByUsername(signupRequest.getUsername())) {
+            throw new DuplicateUserException(USERNAME_TAKEN);
+        }
+        if (userIdentityBloomFilter.mightContainEmail(signupRequest.getEmail())
+                && userRepository.existsByEmail(signupRequest.getEmail())) {
+            throw new DuplicateUserException(EMAIL_IN_USE);
+        }
+
+        User user = new User(signupRequest.getUsername(),
+                signupRequest.getEmail(),
+                passwordEncoder.encode(signupRequest.getPassword()),
+                signupRequest.getRealName()
+        );
+
+        // 未指定角色時給予 USER，指定 "admin" 時給予 ADMIN
+        Set<String> strRoles = signupRequest.getRole();
+        boolean admin = strRoles != null && !strRoles.isEmpty() && strRoles.iterator().next().equals("admin");
+        user.setRole(roleReference(admin ? AppRole.ROLE_ADMIN : AppRole.ROLE_USER));
+
+        user.setAccountNonLocked(true);
+        user.setAccountNonExpired(true);
+        user.setCredentialsNonExpired(true);
+        user.setEnabled(true);
+        user.setCredentialsExpiryDate(LocalDate.now().plusYears(1));
+        user.setAccountExpiryDate(LocalDate.now().plusYears(1));
+        user.setTwoFactorEnabled(false);
+        user.setSignUpMethod("email");
+
+        User savedUser;
+        try {
+            savedUser = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            throw translateDuplicate(e, signupRequest);
+        }
+        userIdentityBloomFilter.add(savedUser.getUsername(), savedUser.getEmail());
+        return savedUser;
+    }
 
+    @Override
+    @Transactional
+    public boolean lockUser(String username, LocalDateTime lockedUntil) {
+        if (userRepository.lockByUsername(username, lockedUntil) == 0) {
+            return false;
+        }
+        // Token 內的授權 claims 不含鎖定狀態：撤銷後改由資料庫載入，在 AuthTokenFilter 檢查鎖定
+        userRepository.findByUsername(username)
+                .ifPresent(user -> tokenRevocationRegistry.revokeAfterCommit(user.getUserId()));
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public void unlockUser(Long userId) {
+        User user = userRepository.findById(userId).orElseThrow(()
+                -> new RuntimeException("User not found"));
+        user.setAccountNonLocked(true);
+        user.setLockedUntil(null);
+        userRepository.save(user);
+        // 一併清除登入失敗計數，否則下一次失敗會立刻再次鎖定
+        loginAttemptGuard.reset(user.getUsername());
+    }
+
+
+
+    private Role roleReference(AppRole appRole) {
+        Integer roleId = roleIds.get(appRole);
+        if (roleId == null) {
+            // 尚未載入 (啟動過程中) 或角色是之後才建立的，重新載入一次
+            loadRoleIds();
+            roleId = roleIds.get(appRole);
+        }
+        if (roleId == null) {
+            throw new RuntimeException("Error: Role is not found.");
+        }
+        return entityManager.getReference(Role.class, roleId);
+    }
+
+    /**
+     * 由違反的唯一限制判斷是哪個欄位重複；無法從訊息判斷時 (例如舊資料庫的限制名稱不同) 再查詢一次。
+     */
+    private RuntimeException translateDuplicate(DataIntegrityViolationException e, SignupRequest signupRequest) {
+        String message = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        if (message.contains(UNIQUE_USERNAME)) {
+            return new DuplicateUserException(USERNAME_TAKEN);
+        }
+        if (message.contains(UNIQUE_EMAIL)) {
+            return new DuplicateUserException(EMAIL_IN_USE);
+        }
+        if (userRepository.existsByUsername(signupRequest.getUsername())) {
+            return new DuplicateUserException(USERNAME_TAKEN);
+        }
+        if (userRepository.existsByEmail(signupRequest.getEmail())) {
+            return new DuplicateUserException(EMAIL_IN_USE);
+        }
+        return e;
+    }
 
     private UserDTO convertToDto(User user) {
         return new UserDTO(
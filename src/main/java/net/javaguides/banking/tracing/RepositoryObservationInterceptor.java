@@ -0,0 +1,34 @@
+package net.javaguides.banking.tracing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * 把每次 Spring Data Repository 方法呼叫記錄為一個 observation (span 名稱如 AccountRepository.findByIdForUpdate)，
+ * 其下為該次呼叫發出的 JDBC span。
+ */
+public class RepositoryObservationInterceptor implements MethodInterceptor {
+
+    public static final String OBSERVATION_NAME = "banking.repository";
+
+    private final ObservationRegistry registry;
+
+    private final String repository;
+
+    public RepositoryObservationInterceptor(ObservationRegistry registry, String repository) {
+        this.registry = registry;
+        this.repository = repository;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        String method = invocation.getMethod().getName();
+        return Observation.createNotStarted(OBSERVATION_NAME, registry)
+                .contextualName(repository + "." + method)
+                .lowCardinalityKeyValue("repository", repository)
+                .lowCardinalityKeyValue("method", method)
+                .observeChecked(invocation::proceed);
+    }
+}
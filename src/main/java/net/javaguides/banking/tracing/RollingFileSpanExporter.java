@@ -0,0 +1,241 @@
+package net.javaguides.banking.tracing;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanId;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * 把 span 寫成本機檔案，每行一個 JSON 物件 (JSON Lines)，不需要任何收集服務即可分析追蹤資料。
+ *
+ * 目前寫入 spans.jsonl，超過 maxFileBytes 時改名為 spans-時間-序號.jsonl 並開新檔，只保留最近的 maxFiles 個舊檔。
+ * 由 BatchSpanProcessor 的背景執行緒批次呼叫，不在請求執行緒上做 I/O。
+ * 同一個 traceId 的所有 span 以 parentSpanId 串成樹，可用 jq 等工具依 traceId 篩選。
+ */
+public class RollingFileSpanExporter implements SpanExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RollingFileSpanExporter.class);
+
+    static final String ACTIVE_FILE = "spans.jsonl";
+
+    private static final DateTimeFormatter ROLLED_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final Path directory;
+
+    private final long maxFileBytes;
+
+    private final int maxFiles;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private OutputStream out;
+
+    private long written;
+
+    // 同一毫秒內多次輪替時仍保持檔名唯一且依序排列
+    private int rolls;
+
+    private boolean shutdown;
+
+    public RollingFileSpanExporter(Path directory, long maxFileBytes, int maxFiles) {
+        this.directory = directory;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        lock.lock();
+        try {
+            if (shutdown) {
+                return CompletableResultCode.ofFailure();
+            }
+            if (out == null) {
+                open();
+            }
+            for (SpanData span : spans) {
+                written += write(span);
+                if (written >= maxFileBytes) {
+                    roll();
+                }
+            }
+            out.flush();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            logger.warn("寫入追蹤檔案失敗，捨棄 {} 個 span: {}", spans.size(), e.toString());
+            closeQuietly();
+            return CompletableResultCode.ofFailure();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        lock.lock();
+        try {
+            if (out != null) {
+                out.flush();
+            }
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            return CompletableResultCode.ofFailure();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+            closeQuietly();
+            return CompletableResultCode.ofSuccess();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long write(SpanData span) throws IOException {
+        CountingOutputStream counting = new CountingOutputStream(out);
+        try (JsonGenerator json = jsonFactory.createGenerator(counting, JsonEncoding.UTF8)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartObject();
+            json.writeStringField("traceId", span.getTraceId());
+            json.writeStringField("spanId", span.getSpanId());
+            if (SpanId.isValid(span.getParentSpanId())) {
+                json.writeStringField("parentSpanId", span.getParentSpanId());
+            }
+            json.writeStringField("name", span.getName());
+            json.writeStringField("kind", span.getKind().name());
+            json.writeNumberField("startEpochMicros", TimeUnit.NANOSECONDS.toMicros(span.getStartEpochNanos()));
+            json.writeNumberField("durationMicros", TimeUnit.NANOSECONDS.toMicros(span.getEndEpochNanos() - span.getStartEpochNanos()));
+            json.writeStringField("status", span.getStatus().getStatusCode().name());
+            String service = span.getResource().getAttribute(AttributeKey.stringKey("service.name"));
+            if (service != null) {
+                json.writeStringField("service", service);
+            }
+            json.writeObjectFieldStart("attributes");
+            span.getAttributes().forEach((key, value) -> writeField(json, key.getKey(), value));
+            json.writeEndObject();
+            List<EventData> events = span.getEvents();
+            if (!events.isEmpty()) {
+                json.writeArrayFieldStart("events");
+                for (EventData event : events) {
+                    json.writeStartObject();
+                    json.writeStringField("name", event.getName());
+                    json.writeNumberField("epochMicros", TimeUnit.NANOSECONDS.toMicros(event.getEpochNanos()));
+                    json.writeEndObject();
+                }
+                json.writeEndArray();
+            }
+            json.writeEndObject();
+        }
+        counting.write('\n');
+        return counting.count;
+    }
+
+    private static void writeField(JsonGenerator json, String name, Object value) {
+        try {
+            json.writeStringField(name, String.valueOf(value));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        Path active = directory.resolve(ACTIVE_FILE);
+        out = new BufferedOutputStream(Files.newOutputStream(active, StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+        written = Files.size(active);
+    }
+
+    private void roll() throws IOException {
+        out.close();
+        out = null;
+        String suffix = LocalDateTime.now().format(ROLLED_SUFFIX) + String.format("-%03d", rolls++ % 1000);
+        Path rolled = directory.resolve("spans-" + suffix + ".jsonl");
+        Files.move(directory.resolve(ACTIVE_FILE), rolled);
+        deleteOldFiles();
+        open();
+    }
+
+    private void deleteOldFiles() throws IOException {
+        List<Path> rolled;
+        try (Stream<Path> files = Files.list(directory)) {
+            rolled = files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith("spans-") && name.endsWith(".jsonl");
+                    })
+                    .sorted()
+                    .toList();
+        }
+        for (int i = 0; i < rolled.size() - maxFiles; i++) {
+            Files.deleteIfExists(rolled.get(i));
+        }
+    }
+
+    private void closeQuietly() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            logger.debug("關閉追蹤檔案失敗", e);
+        }
+        out = null;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private final OutputStream delegate;
+
+        private long count;
+
+        CountingOutputStream(OutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+    }
+}
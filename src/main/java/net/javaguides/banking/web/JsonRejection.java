@@ -0,0 +1,36 @@
+package net.javaguides.banking.web;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 篩選器在進入 Controller 之前拒絕請求時的固定 JSON 回應。
+ *
+ * 內容在建立時就編碼完成，拒絕時不需要序列化；訊息為程式內的常數，不做 JSON 跳脫。
+ */
+public final class JsonRejection {
+
+    private final int status;
+
+    private final byte[] body;
+
+    public JsonRejection(HttpStatus status, String message) {
+        this.status = status.value();
+        this.body = ("{\"status\":" + status.value() + ",\"error\":\"" + status.getReasonPhrase()
+                + "\",\"message\":\"" + message + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 寫入狀態碼與內容；其他標頭 (Retry-After 等) 由呼叫端先設定。
+     */
+    public void writeTo(HttpServletResponse response) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
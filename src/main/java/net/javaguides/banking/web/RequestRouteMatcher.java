@@ -0,0 +1,46 @@
+package net.javaguides.banking.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 依序比對路由規則，回傳第一條符合路徑 (與 HTTP 方法) 的規則所對應的值；都不符合時回傳 null。
+ *
+ * 路徑模式在建立時就解析完成，請求路徑只在第一條方法相符的規則需要比對時才解析一次。
+ */
+public final class RequestRouteMatcher<T> {
+
+    private final List<Route<T>> routes;
+
+    public <R extends RouteProperties> RequestRouteMatcher(List<R> routes, Function<? super R, ? extends T> valueOf) {
+        this.routes = routes.stream()
+                .map(route -> new Route<T>(PathPatternParser.defaultInstance.parse(route.getPath()),
+                        route.getMethod() == null || route.getMethod().isBlank() ? null : route.getMethod().trim(),
+                        valueOf.apply(route)))
+                .toList();
+    }
+
+    public T match(HttpServletRequest request) {
+        PathContainer path = null;
+        for (Route<T> route : routes) {
+            if (route.method() != null && !route.method().equalsIgnoreCase(request.getMethod())) {
+                continue;
+            }
+            if (path == null) {
+                path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+            }
+            if (route.pattern().matches(path)) {
+                return route.value();
+            }
+        }
+        return null;
+    }
+
+    private record Route<T>(PathPattern pattern, String method, T value) {
+    }
+}
@@ -0,0 +1,16 @@
+package net.javaguides.banking.web;
+
+import lombok.Data;
+
+/**
+ * 路由規則的比對條件，速率限制與併發上限的設定共用；比對方式見 {@link RequestRouteMatcher}。
+ */
+@Data
+public class RouteProperties {
+
+    // Spring PathPattern，例如 /api/accounts/*/transactions
+    private String path;
+
+    // 空白代表所有方法
+    private String method;
+}
@@ -0,0 +1,55 @@
+-- 與 mysql/V1__baseline_schema.sql 相同的資料表，供測試與基準測試使用的 H2 資料庫。
+-- 欄位型別依 Hibernate 的 H2Dialect (列舉為 varchar 加 check，MySQL 為 enum)；唯一限制沿用 MySQL 的名稱，讓 V5 可依名稱更換。
+
+create table roles (
+    role_id integer generated by default as identity,
+    role_name varchar(20) check (role_name in ('ROLE_USER','ROLE_ADMIN')),
+    primary key (role_id)
+);
+
+create table users (
+    account_expiry_date date,
+    account_non_expired boolean not null,
+    account_non_locked boolean not null,
+    credentials_expiry_date date,
+    credentials_non_expired boolean not null,
+    enabled boolean not null,
+    is_two_factor_enabled boolean not null,
+    role_id integer,
+    created_date timestamp(6),
+    updated_date timestamp(6),
+    user_id bigint generated by default as identity,
+    username varchar(20),
+    email varchar(50),
+    real_name varchar(100) not null,
+    password varchar(120),
+    sign_up_method varchar(255),
+    two_factor_secret varchar(255),
+    primary key (user_id)
+);
+
+create table accounts (
+    balance numeric(38,2) not null,
+    id bigint generated by default as identity,
+    user_id bigint not null,
+    version bigint,
+    account_holder_name varchar(255),
+    primary key (id)
+);
+
+create table transactions (
+    amount numeric(38,2),
+    account_id bigint,
+    id bigint generated by default as identity,
+    timestamp timestamp(6),
+    transaction_type varchar(255) check (transaction_type in ('DEPOSIT','WITHDRAW','TRANSFER_IN','TRANSFER_OUT')),
+    primary key (id)
+);
+
+alter table users add constraint UKr43af9ap4edm43mmtq01oddj6 unique (username);
+
+alter table users add constraint UK6dotkott2kjsp8vw4d0m25fb7 unique (email);
+
+alter table accounts add constraint FKnjuop33mo69pd79ctplkck40n foreign key (user_id) references users (user_id);
+
+alter table users add constraint FKp56c1712k691lhsyewcssf40f foreign key (role_id) references roles (role_id);
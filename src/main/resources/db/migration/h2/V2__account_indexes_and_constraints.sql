@@ -0,0 +1,15 @@
+-- 與 mysql/V2__account_indexes_and_constraints.sql 相同的索引與限制 (說明見該檔)。
+
+create index idx_transactions_account_timestamp on transactions (account_id, timestamp);
+
+create index idx_accounts_user_id on accounts (user_id);
+
+alter table transactions alter column account_id set not null;
+alter table transactions alter column amount set not null;
+alter table transactions alter column transaction_type set not null;
+alter table transactions alter column timestamp set not null;
+
+alter table accounts add constraint chk_accounts_balance_non_negative check (balance >= 0);
+alter table transactions add constraint chk_transactions_amount_positive check (amount > 0);
+
+alter table roles add constraint uk_roles_role_name unique (role_name);
@@ -0,0 +1,9 @@
+-- 與 mysql/V3__account_balance_minor_units.sql 相同的欄位轉換 (說明見該檔)。
+
+alter table accounts add column balance_minor bigint;
+update accounts set balance_minor = balance * 100;
+alter table accounts alter column balance_minor set not null;
+
+alter table accounts drop constraint chk_accounts_balance_non_negative;
+alter table accounts drop column balance;
+alter table accounts add constraint chk_accounts_balance_minor_non_negative check (balance_minor >= 0);
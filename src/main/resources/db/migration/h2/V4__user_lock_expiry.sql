@@ -0,0 +1,3 @@
+-- 與 mysql/V4__user_lock_expiry.sql 相同 (說明見該檔)。
+
+alter table users add column locked_until timestamp(6);
@@ -0,0 +1,20 @@
+-- 與 mysql/V5__cache_invalidations_and_user_constraint_names.sql 相同 (說明見該檔)。
+
+create table cache_invalidations (
+    created_at timestamp(6) not null,
+    entity_id bigint not null,
+    id bigint generated by default as identity,
+    owner_id bigint not null,
+    version bigint not null,
+    event_type varchar(20) not null check (event_type in ('ACCOUNT_UPDATED','ACCOUNT_DELETED','USER_REVOKED')),
+    origin_node varchar(36) not null,
+    primary key (id)
+);
+
+create index idx_cache_invalidations_created_at on cache_invalidations (created_at);
+
+alter table users add constraint uk_users_username unique (username);
+alter table users drop constraint UKr43af9ap4edm43mmtq01oddj6;
+
+alter table users add constraint uk_users_email unique (email);
+alter table users drop constraint UK6dotkott2kjsp8vw4d0m25fb7;
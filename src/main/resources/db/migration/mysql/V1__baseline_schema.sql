@@ -0,0 +1,56 @@
+-- 初始資料表 (MySQL)，與先前 spring.jpa.hibernate.ddl-auto=update 建立的結構相同 (含唯一限制與外鍵名稱)。
+-- 既有資料庫沒有 flyway_schema_history，啟動時以此版本為基準 (spring.flyway.baseline-version=1)，不會重新執行，
+-- 因此這個檔案不可再修改，結構變更一律新增版本 (h2/ 下同版本的腳本也要一併新增)。
+
+create table roles (
+    role_id integer not null auto_increment,
+    role_name enum ('ROLE_USER','ROLE_ADMIN'),
+    primary key (role_id)
+) engine=InnoDB;
+
+create table users (
+    account_expiry_date date,
+    account_non_expired bit not null,
+    account_non_locked bit not null,
+    credentials_expiry_date date,
+    credentials_non_expired bit not null,
+    enabled bit not null,
+    is_two_factor_enabled bit not null,
+    role_id integer,
+    created_date datetime(6),
+    updated_date datetime(6),
+    user_id bigint not null auto_increment,
+    username varchar(20),
+    email varchar(50),
+    real_name varchar(100) not null,
+    password varchar(120),
+    sign_up_method varchar(255),
+    two_factor_secret varchar(255),
+    primary key (user_id)
+) engine=InnoDB;
+
+create table accounts (
+    balance decimal(38,2) not null,
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    version bigint,
+    account_holder_name varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table transactions (
+    amount decimal(38,2),
+    account_id bigint,
+    id bigint not null auto_increment,
+    timestamp datetime(6),
+    transaction_type enum ('DEPOSIT','WITHDRAW','TRANSFER_IN','TRANSFER_OUT'),
+    primary key (id)
+) engine=InnoDB;
+
+alter table users add constraint UKr43af9ap4edm43mmtq01oddj6 unique (username);
+
+alter table users add constraint UK6dotkott2kjsp8vw4d0m25fb7 unique (email);
+
+alter table accounts add constraint FKnjuop33mo69pd79ctplkck40n foreign key (user_id) references users (user_id);
+
+alter table users add constraint FKp56c1712k691lhsyewcssf40f foreign key (role_id) references roles (role_id);
@@ -0,0 +1,20 @@
+-- 交易紀錄查詢：依帳戶分頁並以時間倒序 (findByAccountIdOrderByTimestampDesc、findByAccountIdAndOwner)，
+-- 以及取帳戶最新一筆交易 ID 作為 ETag。原本只能全表掃描 transactions 再排序。
+create index idx_transactions_account_timestamp on transactions (account_id, timestamp);
+
+-- 擁有者查詢 (findIdsByUserId、id = ? AND user_id = ?)。InnoDB 為外鍵自動建立的索引會由這個索引取代。
+create index idx_accounts_user_id on accounts (user_id);
+
+-- 每筆交易都必須屬於某個帳戶、有金額、類型與時間。
+-- transactions.account_id 不加外鍵：刪除帳戶後仍保留其交易紀錄
+alter table transactions modify account_id bigint not null;
+alter table transactions modify amount decimal(38,2) not null;
+alter table transactions modify transaction_type enum ('DEPOSIT','WITHDRAW','TRANSFER_IN','TRANSFER_OUT') not null;
+alter table transactions modify timestamp datetime(6) not null;
+
+-- 餘額不可為負 (取款與轉帳在鎖定後檢查，這裡是最後一道防線)；交易金額為正數
+alter table accounts add constraint chk_accounts_balance_non_negative check (balance >= 0);
+alter table transactions add constraint chk_transactions_amount_positive check (amount > 0);
+
+-- 角色以名稱查詢 (RoleRepository.findByRoleName)，不可重複
+alter table roles add constraint uk_roles_role_name unique (role_name);
@@ -0,0 +1,10 @@
+-- 餘額改以分為單位存成 BIGINT (Account.balance 為 Money，見 MoneyConverter)。
+-- 原本 decimal(38,2) 一律為 2 位小數，乘以 100 為精確轉換；超出 BIGINT 範圍的餘額會讓遷移失敗，而不是被截斷。
+-- transactions.amount 維持 decimal：歷史資料量大，轉換需要重寫整張表，且不在餘額運算路徑上。
+alter table accounts add column balance_minor bigint;
+update accounts set balance_minor = balance * 100;
+alter table accounts modify balance_minor bigint not null;
+
+alter table accounts drop constraint chk_accounts_balance_non_negative;
+alter table accounts drop column balance;
+alter table accounts add constraint chk_accounts_balance_minor_non_negative check (balance_minor >= 0);
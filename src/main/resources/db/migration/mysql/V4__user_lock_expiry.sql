@@ -0,0 +1,3 @@
+-- 登入失敗過多時的暫時鎖定 (User.lockedUntil)，到期自動解除。
+-- 原本由 LoginAttemptGuard 將 account_non_locked 設為 false，需管理員解鎖；既有的自動鎖定無法與手動鎖定區分，維持原狀。
+alter table users add column locked_until datetime(6);
@@ -0,0 +1,21 @@
+-- 多節點快取失效匯流排 (DatabaseCacheInvalidationBus) 使用的事件資料表，依 created_at 輪詢與清除。
+create table cache_invalidations (
+    created_at datetime(6) not null,
+    entity_id bigint not null,
+    id bigint not null auto_increment,
+    owner_id bigint not null,
+    version bigint not null,
+    origin_node varchar(36) not null,
+    event_type enum ('ACCOUNT_UPDATED','ACCOUNT_DELETED','USER_REVOKED') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_cache_invalidations_created_at on cache_invalidations (created_at);
+
+-- 註冊流程依唯一限制名稱判斷重複的欄位 (UserServiceImpl)，Hibernate 產生的名稱改為固定名稱。
+-- 先建立新限制再移除舊的，過程中不會有不受唯一限制保護的時間點。
+alter table users add constraint uk_users_username unique (username);
+alter table users drop constraint UKr43af9ap4edm43mmtq01oddj6;
+
+alter table users add constraint uk_users_email unique (email);
+alter table users drop constraint UK6dotkott2kjsp8vw4d0m25fb7;
@@ -0,0 +1,16 @@
+package net.javaguides.banking.benchmark;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = {
+        "spring.threads.virtual.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:bench-platform;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.app.balanceMirrorPath=${java.io.tmpdir}/bench-platform-mirror.dat"
+})
+class PlatformThreadBenchmarkTest extends ThreadModelBenchmark {
+
+    @Override
+    protected String mode() {
+        return "platform";
+    }
+}
@@ -0,0 +1,144 @@
+package net.javaguides.banking.benchmark;
+
+import jakarta.persistence.EntityManagerFactory;
+import net.javaguides.banking.entity.AppRole;
+import net.javaguides.banking.entity.User;
+import net.javaguides.banking.repository.RoleRepository;
+import net.javaguides.banking.repository.UserRepository;
+import net.javaguides.banking.security.request.SignupRequest;
+import net.javaguides.banking.service.UserService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 註冊吞吐量基準測試：比較原本「兩次存在性查詢 + 角色查詢 + INSERT」與目前只做一次 INSERT 的流程。
+ * 預設不執行，以 mvn test -Pbenchmark 執行。
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("bench")
+class SignupThroughputBenchmarkTest {
+
+    private static final int SIGNUPS = 2000;
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @DisplayName("基準測試-註冊吞吐量與每次註冊的 SQL 數量")
+    void benchmarkSignup() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        // 暖機
+        run("warmup-legacy", 200, i -> legacySignup("wl", i), statistics);
+        run("warmup-current", 200, i -> userService.registerUser(request("wc", i)), statistics);
+
+        Result legacy = run("legacy", SIGNUPS, i -> legacySignup("lg", i), statistics);
+        Result current = run("current", SIGNUPS, i -> userService.registerUser(request("cu", i)), statistics);
+        Result duplicates = run("duplicate", SIGNUPS, i -> {
+            try {
+                userService.registerUser(request("cu", i));
+                fail("duplicate signup accepted");
+            } catch (RuntimeException expected) {
+                // 預期被判定為重複
+            }
+        }, statistics);
+
+        System.out.printf("%-10s %10s %16s%n", "path", "signups/s", "statements/op");
+        for (Result result : List.of(legacy, current, duplicates)) {
+            System.out.printf("%-10s %10.0f %16.2f%n", result.name(), result.throughput(), result.statementsPerOp());
+        }
+
+        assertTrue(current.statementsPerOp() < legacy.statementsPerOp());
+    }
+
+    /**
+     * 改版前 AuthController.registerUser 的流程。
+     */
+    private void legacySignup(String prefix, int i) {
+        SignupRequest request = request(prefix, i);
+        if (userRepository.existsByUsername(request.getUsername()) || userRepository.existsByEmail(request.getEmail())) {
+            throw new IllegalStateException("duplicate");
+        }
+        User user = new User(request.getUsername(), request.getEmail(),
+                passwordEncoder.encode(request.getPassword()), request.getRealName());
+        user.setRole(roleRepository.findByRoleName(AppRole.ROLE_USER).orElseThrow());
+        user.setCredentialsExpiryDate(LocalDate.now().plusYears(1));
+        user.setAccountExpiryDate(LocalDate.now().plusYears(1));
+        user.setSignUpMethod("email");
+        userRepository.save(user);
+    }
+
+    private Result run(String name, int count, IntConsumer signup, Statistics statistics) throws Exception {
+        AtomicInteger next = new AtomicInteger();
+        long statementsBefore = statistics.getPrepareStatementCount();
+        long started = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < count) {
+                        signup.accept(i);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        long statements = statistics.getPrepareStatementCount() - statementsBefore;
+        return new Result(name, count / seconds, (double) statements / count);
+    }
+
+    private static SignupRequest request(String prefix, int i) {
+        SignupRequest request = new SignupRequest();
+        request.setUsername(prefix + "u" + i);
+        request.setEmail(prefix + i + "@example.com");
+        request.setPassword("secret12");
+        request.setRealName("Bench User");
+        request.setRole(Set.of("user"));
+        return request;
+    }
+
+    private record Result(String name, double throughput, double statementsPerOp) {
+    }
+}
@@ -0,0 +1,260 @@
+package net.javaguides.banking.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 平台執行緒與虛擬執行緒模式的高併發比較，由兩個子類別分別以不同設定啟動完整應用程式。
+ * 每個 JDBC 往返 (執行 SQL、提交、回滾) 模擬 2ms 網路延遲，讓請求時間主要花在等待資料庫上，接近正式環境的 MySQL。
+ * 工作負載：70% 查詢交易紀錄 (走資料庫)，30% 查詢餘額 (由堆外鏡像回應，不需資料庫連線)。
+ * 預設不執行，以 mvn test -Pbenchmark 執行。
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.app.rateLimit.enabled=false",
+        "spring.app.concurrencyLimit.enabled=false",
+        "spring.app.jwtStatelessClaims=true",
+        "spring.app.balanceMirrorEnabled=true",
+        "logging.level.net.javaguides=warn"
+})
+@ActiveProfiles("bench")
+@Import(ThreadModelBenchmark.SimulatedDatabaseLatency.class)
+abstract class ThreadModelBenchmark {
+
+    // 同時連線的客戶端數，可用 -Dbench.clients 調整
+    private static final int CLIENTS = Integer.getInteger("bench.clients", 1000);
+
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+
+    private static final Duration MEASURE = Duration.ofSeconds(15);
+
+    private static final long DB_ROUND_TRIP_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @LocalServerPort
+    private int port;
+
+    private HttpClient client;
+
+    protected abstract String mode();
+
+    @Test
+    @DisplayName("基準測試-高併發下的吞吐量與延遲")
+    void benchmarkThreadModel() throws Exception {
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            client = HttpClient.newBuilder().executor(clientThreads).connectTimeout(Duration.ofSeconds(10)).build();
+
+            long accountId = createAccount(signin("user1", "password1"));
+            // 重新登入，讓 Token 內的帳戶清單包含新帳戶
+            String token = signin("user1", "password1");
+            for (int i = 0; i < 20; i++) {
+                send(token, "PUT", "/api/accounts/" + accountId + "/deposit", "{\"amount\":1}");
+            }
+
+            run(clientThreads, token, accountId, WARMUP);
+            Result result = run(clientThreads, token, accountId, MEASURE);
+
+            System.out.printf("%-9s %7s %8s %9s %9s %9s %9s %9s %7s%n",
+                    "mode", "clients", "ok/s", "db p50", "db p99", "mem p50", "mem p99", "max", "errors");
+            System.out.printf("%-9s %7d %8.0f %7.1fms %7.1fms %7.1fms %7.1fms %7.1fms %7d%n",
+                    mode(), CLIENTS, result.throughput(), result.dbP50(), result.dbP99(), result.memoryP50(), result.memoryP99(),
+                    result.max(), result.errors());
+
+            assertTrue(result.throughput() > 0);
+        }
+    }
+
+    private Result run(ExecutorService clientThreads, String token, long accountId, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<Sample>> futures = new ArrayList<>();
+        for (int c = 0; c < CLIENTS; c++) {
+            futures.add(clientThreads.submit(() -> {
+                Sample sample = new Sample();
+                while (System.nanoTime() < deadline) {
+                    boolean database = ThreadLocalRandom.current().nextInt(10) < 7;
+                    String path = database
+                            ? "/api/accounts/" + accountId + "/transactions?page=0&size=10"
+                            : "/api/accounts/" + accountId + "/balance";
+                    long started = System.nanoTime();
+                    int status = send(token, "GET", path, null).statusCode();
+                    sample.record(database, System.nanoTime() - started, status == 200);
+                }
+                return sample;
+            }));
+        }
+        Sample total = new Sample();
+        for (Future<Sample> future : futures) {
+            total.merge(future.get());
+        }
+        return total.result(duration);
+    }
+
+    private String signin(String username, String password) throws Exception {
+        HttpResponse<String> response = send(null, "POST", "/api/auth/public/signin",
+                "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}");
+        return objectMapper.readTree(response.body()).get("jwtToken").asText();
+    }
+
+    private long createAccount(String token) throws Exception {
+        JsonNode account = objectMapper.readTree(send(token, "POST", "/api/accounts", "{\"balance\":1000}").body());
+        return account.get("id").asLong();
+    }
+
+    private HttpResponse<String> send(String token, String method, String path, String body) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * 每個 JDBC 往返前暫停固定時間，模擬應用程式與資料庫之間的網路延遲。
+     */
+    @TestConfiguration(proxyBeanMethods = false)
+    static class SimulatedDatabaseLatency {
+
+        private static final Set<String> ROUND_TRIPS = Set.of(
+                "execute", "executeQuery", "executeUpdate", "executeBatch", "executeLargeUpdate", "commit", "rollback");
+
+        @Bean
+        static BeanPostProcessor simulatedDatabaseLatencyPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource)) {
+                        return bean;
+                    }
+                    return new DelegatingDataSource(dataSource) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            return delayed(Connection.class, super.getConnection());
+                        }
+                    };
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T delayed(Class<T> type, T target) {
+            return (T) Proxy.newProxyInstance(SimulatedDatabaseLatency.class.getClassLoader(), new Class<?>[]{type},
+                    (proxy, method, args) -> {
+                        if (ROUND_TRIPS.contains(method.getName())) {
+                            LockSupport.parkNanos(DB_ROUND_TRIP_NANOS);
+                        }
+                        Object result;
+                        try {
+                            result = method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                        // Statement 的執行也要經過代理
+                        if (result instanceof Statement statement && method.getReturnType().isInterface()) {
+                            return delayed((Class<Statement>) method.getReturnType(), statement);
+                        }
+                        return result;
+                    });
+        }
+    }
+
+    /**
+     * 單一客戶端的延遲樣本，最後合併計算百分位數。
+     */
+    private static final class Sample {
+
+        private long[] database = new long[1024];
+
+        private int databaseCount;
+
+        private long[] memory = new long[1024];
+
+        private int memoryCount;
+
+        private long errors;
+
+        void record(boolean isDatabase, long nanos, boolean ok) {
+            if (!ok) {
+                errors++;
+            }
+            if (isDatabase) {
+                if (databaseCount == database.length) {
+                    database = Arrays.copyOf(database, databaseCount * 2);
+                }
+                database[databaseCount++] = nanos;
+            } else {
+                if (memoryCount == memory.length) {
+                    memory = Arrays.copyOf(memory, memoryCount * 2);
+                }
+                memory[memoryCount++] = nanos;
+            }
+        }
+
+        void merge(Sample other) {
+            database = Arrays.copyOf(database, databaseCount + other.databaseCount);
+            System.arraycopy(other.database, 0, database, databaseCount, other.databaseCount);
+            databaseCount += other.databaseCount;
+            memory = Arrays.copyOf(memory, memoryCount + other.memoryCount);
+            System.arraycopy(other.memory, 0, memory, memoryCount, other.memoryCount);
+            memoryCount += other.memoryCount;
+            errors += other.errors;
+        }
+
+        Result result(Duration duration) {
+            long[] db = Arrays.copyOf(database, databaseCount);
+            long[] mem = Arrays.copyOf(memory, memoryCount);
+            Arrays.sort(db);
+            Arrays.sort(mem);
+            double max = Math.max(db.length == 0 ? 0 : db[db.length - 1], mem.length == 0 ? 0 : mem[mem.length - 1]) / 1e6;
+            // 吞吐量只計算成功的請求 (被拒絕的 503 回應很快，不應計入)
+            return new Result((databaseCount + memoryCount - errors) / (duration.toNanos() / 1e9),
+                    percentile(db, 0.50), percentile(db, 0.99), percentile(mem, 0.50), percentile(mem, 0.99), max, errors);
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1e6;
+        }
+    }
+
+    private record Result(double throughput, double dbP50, double dbP99, double memoryP50, double memoryP99,
+                          double max, long errors) {
+    }
+}
@@ -0,0 +1,16 @@
+package net.javaguides.banking.benchmark;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = {
+        "spring.threads.virtual.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:bench-virtual;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.app.balanceMirrorPath=${java.io.tmpdir}/bench-virtual-mirror.dat"
+})
+class VirtualThreadBenchmarkTest extends ThreadModelBenchmark {
+
+    @Override
+    protected String mode() {
+        return "virtual";
+    }
+}
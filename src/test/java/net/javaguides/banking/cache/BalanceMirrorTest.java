@@ -0,0 +1,139 @@
+package net.javaguides.banking.cache;
+
+import net.javaguides.banking.entity.Account;
+import net.javaguides.banking.entity.User;
+import net.javaguides.banking.money.Money;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalanceMirrorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private BalanceMirror mirror;
+
+    private final BalanceMirror.Entry entry = new BalanceMirror.Entry();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mirror = openMirror("jdbc:mysql://localhost:3306/banking_app");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mirror.close();
+    }
+
+    @Test
+    @DisplayName("測試-寫入後讀取-取得餘額、版本與擁有者")
+    void testPutThenRead_ReturnsBalance() {
+        mirror.put(account(5L, "1234.50", 3L, 7L));
+
+        assertTrue(mirror.read(5L, entry));
+        assertEquals(Money.parse("1234.50"), entry.balance());
+        assertEquals(3L, entry.version);
+        assertEquals(7L, entry.ownerId);
+        assertEquals(7L, mirror.ownerOf(5L));
+        assertEquals(3L, mirror.readVersion(5L));
+    }
+
+    @Test
+    @DisplayName("測試-較舊版本晚到-不覆蓋較新的餘額")
+    void testPut_OlderVersion_IsIgnored() {
+        mirror.put(account(5L, "200.00", 6L, 7L));
+        mirror.put(account(5L, "100.00", 5L, 7L));
+
+        assertTrue(mirror.read(5L, entry));
+        assertEquals(Money.parse("200.00"), entry.balance());
+        assertEquals(6L, entry.version);
+    }
+
+    @Test
+    @DisplayName("測試-餘額與保留值相衝-視為未命中且擋住舊版本")
+    void testPut_UnrepresentableBalance_IsMiss() {
+        Account reserved = account(5L, "0.00", 2L, 7L);
+        reserved.setBalance(Money.ofMinor(BalanceMirror.UNAVAILABLE));
+
+        mirror.put(account(5L, "100.00", 1L, 7L));
+        mirror.put(reserved);
+        mirror.put(account(5L, "100.00", 1L, 7L));
+
+        assertFalse(mirror.read(5L, entry));
+        assertEquals(BalanceMirror.MISS, mirror.readVersion(5L));
+        assertEquals(7L, mirror.ownerOf(5L), "擁有者仍可使用");
+    }
+
+    @Test
+    @DisplayName("測試-刪除後-不再接受寫入")
+    void testEvict_MarksSlotDeleted() {
+        mirror.put(account(5L, "100.00", 1L, 7L));
+
+        mirror.evictAfterCommit(5L);
+        mirror.put(account(5L, "300.00", 9L, 7L));
+
+        assertFalse(mirror.read(5L, entry));
+        assertEquals(0L, mirror.ownerOf(5L));
+    }
+
+    @Test
+    @DisplayName("測試-重啟後-沿用鏡像內容")
+    void testReopen_KeepsEntries() throws IOException {
+        mirror.put(account(5L, "42.00", 2L, 7L));
+        mirror.close();
+
+        mirror = openMirror("jdbc:mysql://localhost:3306/banking_app");
+
+        assertTrue(mirror.read(5L, entry));
+        assertEquals(Money.parse("42.00"), entry.balance());
+    }
+
+    @Test
+    @DisplayName("測試-資料來源不同-重啟時清空鏡像")
+    void testReopen_WithDifferentDatasource_Clears() throws IOException {
+        mirror.put(account(5L, "42.00", 2L, 7L));
+        mirror.close();
+
+        mirror = openMirror("jdbc:mysql://other-host:3306/banking_app");
+
+        assertFalse(mirror.read(5L, entry));
+    }
+
+    @Test
+    @DisplayName("測試-帳戶 ID 超出槽位範圍-未命中")
+    void testRead_OutOfRange_IsMiss() {
+        mirror.put(account(64L, "1.00", 1L, 7L));
+
+        assertFalse(mirror.read(64L, entry));
+    }
+
+    private BalanceMirror openMirror(String datasourceUrl) throws IOException {
+        BalanceMirror balanceMirror = new BalanceMirror();
+        ReflectionTestUtils.setField(balanceMirror, "enabled", true);
+        ReflectionTestUtils.setField(balanceMirror, "path", tempDir.resolve("mirror.dat").toString());
+        ReflectionTestUtils.setField(balanceMirror, "slots", 64);
+        ReflectionTestUtils.setField(balanceMirror, "datasourceUrl", datasourceUrl);
+        balanceMirror.open();
+        return balanceMirror;
+    }
+
+    private static Account account(Long id, String balance, Long version, Long ownerId) {
+        User user = new User();
+        user.setUserId(ownerId);
+        Account account = new Account();
+        account.setId(id);
+        account.setBalance(Money.parse(balance));
+        account.setVersion(version);
+        account.setUser(user);
+        return account;
+    }
+}
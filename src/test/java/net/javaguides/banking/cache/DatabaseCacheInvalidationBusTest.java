@@ -0,0 +1,116 @@
+package net.javaguides.banking.cache;
+
+import net.javaguides.banking.entity.CacheInvalidation;
+import net.javaguides.banking.repository.CacheInvalidationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DatabaseCacheInvalidationBusTest {
+
+    @Mock
+    private CacheInvalidationRepository cacheInvalidationRepository;
+
+    @Mock
+    private ObjectProvider<CacheInvalidationListener> listeners;
+
+    @Mock
+    private CacheInvalidationListener listener;
+
+    @InjectMocks
+    private DatabaseCacheInvalidationBus bus;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bus, "nodeId", "node-a");
+    }
+
+    @Test
+    @DisplayName("測試-輪詢-略過自己發布的事件，只處理其他節點的事件")
+    void testPoll_SkipsOwnEvents() {
+        //Arrange
+        given(listeners.orderedStream()).willAnswer(invocation -> Stream.of(listener));
+        given(cacheInvalidationRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .willReturn(List.of(row(1L, "node-a"), row(2L, "node-b")));
+
+        //Act
+        bus.poll();
+
+        //Assert
+        verify(listener, times(1)).onInvalidation(any(InvalidationEvent.class));
+        verify(listener).onInvalidation(argThat(event -> "node-b".equals(event.origin()) && event.entityId() == 2L));
+    }
+
+    @Test
+    @DisplayName("測試-輪詢-往回查的紀錄不會重複處理，晚提交的較小 ID 仍會處理")
+    void testPoll_LookbackDeduplicatesAndCatchesLateCommits() {
+        //Arrange
+        given(listeners.orderedStream()).willAnswer(invocation -> Stream.of(listener));
+        given(cacheInvalidationRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class)))
+                .willReturn(List.of(row(1L, "node-b"), row(3L, "node-b")))
+                .willReturn(List.of(row(1L, "node-b"), row(2L, "node-b"), row(3L, "node-b")));
+
+        //Act
+        bus.poll();
+        bus.poll();
+
+        //Assert
+        verify(listener, times(3)).onInvalidation(any(InvalidationEvent.class));
+        verify(listener).onInvalidation(argThat(event -> event.entityId() == 2L));
+    }
+
+    @Test
+    @DisplayName("測試-交易中發布-提交前以同一個交易寫入，先 flush 再讀取事件內容")
+    void testPublishAfterCommit_WritesBeforeCommitInSameTransaction() {
+        //Arrange
+        AtomicLong version = new AtomicLong(1L);
+        doAnswer(invocation -> {
+            version.set(2L);
+            return null;
+        }).when(cacheInvalidationRepository).flush();
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            //Act
+            bus.publishAfterCommit(() -> new InvalidationEvent(InvalidationEvent.Type.ACCOUNT_UPDATED, 5L, version.get(), 7L, null));
+            verifyNoInteractions(cacheInvalidationRepository);
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+
+            //Assert
+            InOrder inOrder = inOrder(cacheInvalidationRepository);
+            inOrder.verify(cacheInvalidationRepository).flush();
+            inOrder.verify(cacheInvalidationRepository).save(argThat(row ->
+                    row.getEntityId() == 5L && row.getVersion() == 2L && "node-a".equals(row.getOriginNode())));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+    }
+
+    private static CacheInvalidation row(Long id, String origin) {
+        CacheInvalidation row = CacheInvalidation.from(
+                new InvalidationEvent(InvalidationEvent.Type.ACCOUNT_UPDATED, id, 1L, 7L, origin));
+        row.setId(id);
+        return row;
+    }
+}
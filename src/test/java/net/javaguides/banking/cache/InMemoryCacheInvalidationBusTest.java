@@ -0,0 +1,50 @@
+package net.javaguides.banking.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryCacheInvalidationBusTest {
+
+    @Test
+    @DisplayName("測試-同一個 Hub 的兩個節點-只有其他節點收到事件")
+    void testPublish_DeliversToOtherNodesOnly() {
+        //Arrange
+        InMemoryCacheInvalidationBus.Hub hub = new InMemoryCacheInvalidationBus.Hub();
+        InMemoryCacheInvalidationBus nodeA = new InMemoryCacheInvalidationBus(hub, null);
+        InMemoryCacheInvalidationBus nodeB = new InMemoryCacheInvalidationBus(hub, null);
+        List<InvalidationEvent> receivedByA = new ArrayList<>();
+        List<InvalidationEvent> receivedByB = new ArrayList<>();
+        nodeA.addListener(receivedByA::add);
+        nodeB.addListener(receivedByB::add);
+
+        //Act
+        nodeA.publish(InvalidationEvent.accountDeleted(5L));
+
+        //Assert
+        assertTrue(receivedByA.isEmpty(), "發布端不應收到自己的事件");
+        assertEquals(1, receivedByB.size());
+        assertEquals(InvalidationEvent.Type.ACCOUNT_DELETED, receivedByB.get(0).type());
+        assertEquals(5L, receivedByB.get(0).entityId());
+        assertNotNull(receivedByB.get(0).origin());
+    }
+
+    @Test
+    @DisplayName("測試-單一節點-發布不觸發任何監聽器")
+    void testPublish_SingleNode_IsNoop() {
+        //Arrange
+        InMemoryCacheInvalidationBus bus = new InMemoryCacheInvalidationBus(new InMemoryCacheInvalidationBus.Hub(), null);
+        List<InvalidationEvent> received = new ArrayList<>();
+        bus.addListener(received::add);
+
+        //Act
+        bus.publish(InvalidationEvent.userRevoked(7L, 100L));
+
+        //Assert
+        assertTrue(received.isEmpty());
+    }
+}
@@ -0,0 +1,75 @@
+package net.javaguides.banking.cache;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import net.javaguides.banking.entity.Account;
+import net.javaguides.banking.security.jwt.TokenRevocationRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class NearCacheInvalidatorTest {
+
+    @Mock
+    private BalanceMirror balanceMirror;
+
+    @Mock
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private Cache secondLevelCache;
+
+    @InjectMocks
+    private NearCacheInvalidator invalidator;
+
+    @Test
+    @DisplayName("測試-帳戶更新事件-鏡像記下新版本並清除二級快取")
+    void testOnInvalidation_AccountUpdated() {
+        //Arrange
+        given(entityManagerFactory.getCache()).willReturn(secondLevelCache);
+
+        //Act
+        invalidator.onInvalidation(new InvalidationEvent(InvalidationEvent.Type.ACCOUNT_UPDATED, 5L, 9L, 7L, "node-b"));
+
+        //Assert
+        verify(balanceMirror).invalidate(5L, 9L, 7L);
+        verify(secondLevelCache).evict(Account.class, 5L);
+        verifyNoInteractions(tokenRevocationRegistry);
+    }
+
+    @Test
+    @DisplayName("測試-帳戶刪除事件-鏡像標記刪除並清除二級快取")
+    void testOnInvalidation_AccountDeleted() {
+        //Arrange
+        given(entityManagerFactory.getCache()).willReturn(secondLevelCache);
+
+        //Act
+        invalidator.onInvalidation(new InvalidationEvent(InvalidationEvent.Type.ACCOUNT_DELETED, 5L, 0L, 0L, "node-b"));
+
+        //Assert
+        verify(balanceMirror).evict(5L);
+        verify(secondLevelCache).evict(Account.class, 5L);
+    }
+
+    @Test
+    @DisplayName("測試-使用者撤銷事件-套用其他節點的紀元")
+    void testOnInvalidation_UserRevoked() {
+        //Act
+        invalidator.onInvalidation(new InvalidationEvent(InvalidationEvent.Type.USER_REVOKED, 7L, 12345L, 7L, "node-b"));
+
+        //Assert
+        verify(tokenRevocationRegistry).applyEpoch(7L, 12345L);
+        verifyNoInteractions(balanceMirror, entityManagerFactory);
+    }
+}
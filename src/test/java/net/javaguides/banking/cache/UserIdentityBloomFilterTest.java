@@ -0,0 +1,81 @@
+package net.javaguides.banking.cache;
+
+import net.javaguides.banking.dto.UserIdentityDTO;
+import net.javaguides.banking.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserIdentityBloomFilterTest {
+
+    private UserRepository userRepository;
+
+    private UserIdentityBloomFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        filter = new UserIdentityBloomFilter(10_000, 0.01);
+        ReflectionTestUtils.setField(filter, "userRepository", userRepository);
+    }
+
+    @Test
+    @DisplayName("測試-加入後查詢-不分大小寫皆判斷為可能存在")
+    void testAddThenMightContain() {
+        //Act
+        filter.add("Alice", "Alice@Example.com");
+
+        //Assert
+        assertTrue(filter.mightContainUsername("alice"));
+        assertTrue(filter.mightContainEmail("alice@example.com"));
+        assertFalse(filter.mightContainUsername("alice@example.com"));
+    }
+
+    @Test
+    @DisplayName("測試-未加入的值-誤判率接近設定值")
+    void testFalsePositiveRate() {
+        //Arrange
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user" + i, "user" + i + "@example.com");
+        }
+
+        //Act
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContainUsername("other" + i)) {
+                falsePositives++;
+            }
+        }
+
+        //Assert
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    @Test
+    @DisplayName("測試-由資料庫重建-分頁讀取所有使用者")
+    void testRebuild_LoadsAllPages() {
+        //Arrange
+        filter.add("stale", "stale@example.com");
+        when(userRepository.findIdentitiesAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(new UserIdentityDTO(1L, "user1", "user1@example.com"),
+                        new UserIdentityDTO(2L, "admin", "admin@example.com")));
+
+        //Act
+        filter.rebuild();
+
+        //Assert
+        assertTrue(filter.mightContainUsername("user1"));
+        assertTrue(filter.mightContainEmail("admin@example.com"));
+        assertFalse(filter.mightContainUsername("stale"));
+    }
+}
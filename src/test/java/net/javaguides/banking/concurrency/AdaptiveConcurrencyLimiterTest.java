@@ -0,0 +1,125 @@
+package net.javaguides.banking.concurrency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    private ConcurrencyLimitProperties properties;
+
+    private long now = 1_000 * MILLIS;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(10);
+        properties.setMinLimit(2);
+        properties.setMaxLimit(20);
+        properties.setWindowMs(100);
+        properties.setMinWindowSamples(5);
+        properties.setLatencyThresholdMs(50);
+    }
+
+    @Test
+    @DisplayName("測試-低優先等級最先被拒絕-資金異動可使用全部上限")
+    void testTryAcquire_ShedsLowPriorityFirst() {
+        //Arrange
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, now);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(RequestPriority.LOW));
+        }
+
+        //Act & Assert
+        assertFalse(limiter.tryAcquire(RequestPriority.LOW));
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire(RequestPriority.NORMAL));
+        }
+        assertFalse(limiter.tryAcquire(RequestPriority.NORMAL));
+        assertTrue(limiter.tryAcquire(RequestPriority.CRITICAL));
+        assertFalse(limiter.tryAcquire(RequestPriority.CRITICAL));
+        assertEquals(10, limiter.inflight());
+        assertEquals(1, limiter.rejected(RequestPriority.LOW));
+        assertEquals(1, limiter.rejected(RequestPriority.CRITICAL));
+    }
+
+    @Test
+    @DisplayName("測試-延遲遠高於無負載延遲-上限乘法遞減")
+    void testRelease_WhenLatencyRises_DecreasesLimit() {
+        //Arrange
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, now);
+        runWindow(limiter, 10 * MILLIS, false);
+        int before = limiter.limit();
+
+        //Act
+        runWindow(limiter, 200 * MILLIS, false);
+
+        //Assert
+        assertEquals((int) (before * 0.9), limiter.limit());
+        // 無負載延遲只緩慢向上追蹤
+        assertTrue(limiter.stats().baselineLatencyMs() < 20);
+        assertEquals(200, limiter.stats().recentLatencyMs());
+    }
+
+    @Test
+    @DisplayName("測試-下游回應 503-即使延遲正常也遞減")
+    void testRelease_WhenDownstreamOverloaded_DecreasesLimit() {
+        //Arrange
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, now);
+
+        //Act
+        runWindow(limiter, 5 * MILLIS, true);
+
+        //Assert
+        assertEquals(9, limiter.limit());
+    }
+
+    @Test
+    @DisplayName("測試-延遲穩定且名額用到一半以上-上限加法遞增但不超過上限")
+    void testRelease_WhenHealthyAndBusy_IncreasesLimitUpToMax() {
+        //Arrange
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, now);
+
+        //Act
+        for (int i = 0; i < 30; i++) {
+            runWindow(limiter, 5 * MILLIS, false);
+        }
+
+        //Assert
+        assertEquals(20, limiter.limit());
+    }
+
+    @Test
+    @DisplayName("測試-延遲低於門檻-波動不視為壅塞")
+    void testRelease_BelowThreshold_DoesNotDecrease() {
+        //Arrange
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, now);
+        runWindow(limiter, 1 * MILLIS, false);
+        int before = limiter.limit();
+
+        //Act
+        runWindow(limiter, 20 * MILLIS, false);
+
+        //Assert
+        assertTrue(limiter.limit() >= before);
+    }
+
+    /**
+     * 以目前上限的併發數送出一個窗口的請求，最後一個請求在窗口結束時完成並觸發調整。
+     */
+    private void runWindow(AdaptiveConcurrencyLimiter limiter, long rttNanos, boolean overloaded) {
+        int concurrency = limiter.limit();
+        for (int i = 0; i < concurrency; i++) {
+            assertTrue(limiter.tryAcquire(RequestPriority.CRITICAL));
+        }
+        for (int i = 0; i < concurrency - 1; i++) {
+            limiter.release(rttNanos, overloaded, now);
+        }
+        now += 100 * MILLIS;
+        limiter.release(rttNanos, overloaded, now);
+    }
+}
@@ -0,0 +1,154 @@
+package net.javaguides.banking.concurrency;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTest {
+
+    private final AtomicLong now = new AtomicLong(5_000_000_000L);
+
+    private AdaptiveConcurrencyLimiter limiter;
+
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(4);
+        properties.setMinLimit(1);
+        properties.setRetryAfterSeconds(2);
+        properties.setRoutes(List.of(
+                route("/api/accounts/transfer", "POST", RequestPriority.CRITICAL),
+                route("/api/accounts", "GET", RequestPriority.LOW)));
+        limiter = new AdaptiveConcurrencyLimiter(properties, now.get());
+        filter = new ConcurrencyLimitFilter(limiter, properties, now::get);
+    }
+
+    @Test
+    @DisplayName("測試-依路由規則分類優先等級-未符合時為 NORMAL")
+    void testClassify() {
+        assertEquals(RequestPriority.CRITICAL, filter.classify(new MockHttpServletRequest("POST", "/api/accounts/transfer")));
+        assertEquals(RequestPriority.LOW, filter.classify(new MockHttpServletRequest("GET", "/api/accounts")));
+        assertEquals(RequestPriority.NORMAL, filter.classify(new MockHttpServletRequest("GET", "/api/accounts/1/balance")));
+        assertEquals(RequestPriority.NORMAL, filter.classify(new MockHttpServletRequest("POST", "/api/accounts")));
+    }
+
+    @Test
+    @DisplayName("測試-超過該等級可用的併發數-回應 503 與 Retry-After 且不進入後續篩選器")
+    void testOverLimit_Returns503() throws Exception {
+        //Arrange
+        limiter.tryAcquire(RequestPriority.CRITICAL);
+        limiter.tryAcquire(RequestPriority.CRITICAL);
+
+        //Act
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = perform("GET", "/api/accounts", chain);
+
+        //Assert
+        assertEquals(503, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        assertEquals("application/json", response.getContentType());
+        assertEquals("{\"status\":503,\"error\":\"Service Unavailable\",\"message\":\"Server is busy, please retry later\"}",
+                response.getContentAsString());
+        assertNull(chain.getRequest());
+        assertEquals(200, perform("POST", "/api/accounts/transfer", new MockFilterChain()).getStatus());
+    }
+
+    @Test
+    @DisplayName("測試-請求結束後歸還名額-非 /api 路徑不限制")
+    void testReleasesAfterRequest_AndSkipsNonApiPaths() throws Exception {
+        //Act
+        perform("GET", "/api/accounts/1/balance", new MockFilterChain());
+        MockFilterChain chain = new MockFilterChain();
+        perform("GET", "/swagger-ui/index.html", chain);
+
+        //Assert
+        assertEquals(0, limiter.inflight());
+        assertEquals(1, limiter.accepted(RequestPriority.NORMAL));
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    @DisplayName("測試-只有標記為下游過載的 503 才降低上限-登入雜湊忙碌的 503 不算")
+    void testOnlyDownstreamOverloadReducesLimit() throws Exception {
+        //Arrange
+        FilterChain hashingBusy = (request, response) -> {
+            now.addAndGet(20_000_000L);
+            ((HttpServletResponse) response).setStatus(503);
+        };
+        FilterChain databaseBusy = (request, response) -> {
+            now.addAndGet(20_000_000L);
+            request.setAttribute(ConcurrencyLimitFilter.DOWNSTREAM_OVERLOADED, Boolean.TRUE);
+            ((HttpServletResponse) response).setStatus(503);
+        };
+
+        //Act
+        for (int i = 0; i < 10; i++) {
+            perform("POST", "/api/auth/public/signin", hashingBusy);
+        }
+        int afterHashingBusy = limiter.limit();
+        for (int i = 0; i < 10; i++) {
+            perform("GET", "/api/accounts/1/balance", databaseBusy);
+        }
+
+        //Assert
+        assertEquals(4, afterHashingBusy);
+        assertTrue(limiter.limit() < 4);
+    }
+
+    @Test
+    @DisplayName("測試-豁免路由 (登入) 的慢請求-不佔名額也不降低上限")
+    void testExemptRoute_SlowSigninDoesNotReduceLimit() throws Exception {
+        //Arrange
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(4);
+        properties.setMinLimit(1);
+        ConcurrencyLimitProperties.Route signin = route("/api/auth/public/**", null, null);
+        signin.setExempt(true);
+        properties.setRoutes(List.of(signin));
+        limiter = new AdaptiveConcurrencyLimiter(properties, now.get());
+        filter = new ConcurrencyLimitFilter(limiter, properties, now::get);
+        FilterChain slowHashing = (request, response) -> {
+            now.addAndGet(300_000_000L);
+            assertEquals(0, limiter.inflight());
+        };
+        FilterChain fastQuery = (request, response) -> now.addAndGet(2_000_000L);
+
+        //Act
+        for (int i = 0; i < 50; i++) {
+            perform("POST", "/api/auth/public/signin", slowHashing);
+            perform("GET", "/api/accounts/1/balance", fastQuery);
+        }
+
+        //Assert
+        assertTrue(limiter.limit() >= 4);
+        assertEquals(50, limiter.accepted(RequestPriority.NORMAL));
+        assertEquals(0, limiter.rejected(RequestPriority.NORMAL));
+    }
+
+    private MockHttpServletResponse perform(String method, String uri, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static ConcurrencyLimitProperties.Route route(String path, String method, RequestPriority priority) {
+        ConcurrencyLimitProperties.Route route = new ConcurrencyLimitProperties.Route();
+        route.setPath(path);
+        route.setMethod(method);
+        route.setPriority(priority);
+        return route;
+    }
+}
@@ -0,0 +1,86 @@
+package net.javaguides.banking.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConnectionAdmissionDataSourceTest {
+
+    @Mock
+    private DataSource target;
+
+    @Mock
+    private Connection connection;
+
+    @Test
+    @DisplayName("測試-連線關閉時釋放許可-重複關閉只釋放一次")
+    void testClose_ReleasesPermitOnce() throws Exception {
+        //Arrange
+        when(target.getConnection()).thenReturn(connection);
+        ConnectionAdmissionDataSource dataSource = new ConnectionAdmissionDataSource(target, 2, 10, 100);
+
+        //Act
+        Connection admitted = dataSource.getConnection();
+        int availableWhileOpen = dataSource.available();
+        admitted.close();
+        admitted.close();
+
+        //Assert
+        assertEquals(1, availableWhileOpen);
+        assertEquals(2, dataSource.available());
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    @DisplayName("測試-許可用完-等待逾時拋出暫時性例外")
+    void testGetConnection_WhenExhausted_TimesOut() throws Exception {
+        //Arrange
+        when(target.getConnection()).thenReturn(connection);
+        ConnectionAdmissionDataSource dataSource = new ConnectionAdmissionDataSource(target, 1, 10, 50);
+        Connection held = dataSource.getConnection();
+
+        //Act //Assert
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        held.close();
+        assertNotNull(dataSource.getConnection());
+    }
+
+    @Test
+    @DisplayName("測試-許可用完且不允許排隊-立即拒絕")
+    void testGetConnection_WhenNoWaitersAllowed_RejectsImmediately() throws Exception {
+        //Arrange
+        when(target.getConnection()).thenReturn(connection);
+        ConnectionAdmissionDataSource dataSource = new ConnectionAdmissionDataSource(target, 1, 0, 60_000);
+        dataSource.getConnection();
+
+        //Act
+        long started = System.nanoTime();
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        //Assert
+        assertTrue(System.nanoTime() - started < 1_000_000_000L, "不應等待逾時");
+    }
+
+    @Test
+    @DisplayName("測試-連線池取得連線失敗-歸還許可")
+    void testGetConnection_WhenTargetFails_ReleasesPermit() throws Exception {
+        //Arrange
+        when(target.getConnection()).thenThrow(new SQLException("pool down"));
+        ConnectionAdmissionDataSource dataSource = new ConnectionAdmissionDataSource(target, 1, 10, 100);
+
+        //Act //Assert
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertEquals(1, dataSource.available());
+    }
+}
@@ -22,6 +22,9 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.equalTo;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -30,6 +33,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.fasterxml.jackson.databind.ObjectMapper;
 import net.javaguides.banking.dto.AccountDto;
 import net.javaguides.banking.exception.AccountNotFoundException;
+import net.javaguides.banking.money.Money;
 import net.javaguides.banking.security.AccountSecurityService;
 import net.javaguides.banking.security.jwt.JwtUtils;
 import net.javaguides.banking.security.services.UserDetailsServiceImpl;
@@ -99,7 +103,7 @@ class AccountControllerTest {
     @BeforeEach
     void setUp() {
         // 在每個測試方法執行前，初始化一個通用的 AccountDto 物件
-        accountDto = new AccountDto(1L, "testUser", new BigDecimal("1000.00"));
+        accountDto = new AccountDto(1L, "testUser", Money.parse("1000.00"));
     }
 
 
@@ -128,7 +132,7 @@ class AccountControllerTest {
         // Assert
 
         assertEquals("testUser", createdAcontent.accountHolderName(), "姓名不一致");
-        assertEquals(0, new BigDecimal(1000.00).compareTo(createdAcontent.balance()), "餘額不一致");
+        assertEquals(0, Money.parse("1000.00").compareTo(createdAcontent.balance()), "餘額不一致");
         assertEquals(1L, createdAcontent.id(), "id不得為空");
         assertEquals(HttpStatus.CREATED.value(), mvcResult.getResponse().getStatus());
     }
@@ -138,7 +142,7 @@ class AccountControllerTest {
     void testAddAccount_whenAccountHolderNameIsEmpty_thenReturns400BadRequest() throws Exception {
 
         //Arrange
-        accountDto = new AccountDto(2L, "", new BigDecimal("1000.00"));
+        accountDto = new AccountDto(2L, "", Money.parse("1000.00"));
 
         when(accountService.createAccount(any(AccountDto.class))).thenReturn(accountDto);
 
@@ -190,7 +194,7 @@ class AccountControllerTest {
     void testAddAccount_whenBalanceIsNegative_thenReturns400BadRequest() throws Exception {
         //Arrange
 
-        accountDto = new AccountDto(2L, "tommy", new BigDecimal("-1000000000"));
+        accountDto = new AccountDto(2L, "tommy", Money.parse("-1000000000"));
 
         when(accountService.createAccount(any(AccountDto.class))).thenReturn(accountDto);
 
@@ -251,8 +255,8 @@ class AccountControllerTest {
 
         // Arrange
 
-        AccountDto accountDto1 = new AccountDto(1L, "aaaaaa", new BigDecimal("1000000.00"));
-        AccountDto accountDto2 = new AccountDto(2L, "bbbbbb", new BigDecimal("1000000.00"));
+        AccountDto accountDto1 = new AccountDto(1L, "aaaaaa", Money.parse("1000000.00"));
+        AccountDto accountDto2 = new AccountDto(2L, "bbbbbb", Money.parse("1000000.00"));
 
         List<AccountDto> mockedDtoList = List.of(accountDto1, accountDto2);
 
@@ -347,9 +351,9 @@ class AccountControllerTest {
     void testWithdraw_whenSufficientFunds_thenReturnsUpdatedAccount() throws Exception {
         //Arrange
 
-        when(accountService.withdraw(any(Long.class), any(BigDecimal.class))).thenReturn(accountDto);
+        when(accountService.withdraw(any(Long.class), any(Money.class))).thenReturn(accountDto);
 
-        AmountRequestDto amountRequestDto = new AmountRequestDto(new BigDecimal("1000.00"));
+        AmountRequestDto amountRequestDto = new AmountRequestDto(Money.parse("1000.00"));
 
 
         //Act//Assert
@@ -368,9 +372,9 @@ class AccountControllerTest {
 
         //Arrange
 
-        AmountRequestDto amountRequestDto = new AmountRequestDto(new BigDecimal("10000.00"));
+        AmountRequestDto amountRequestDto = new AmountRequestDto(Money.parse("10000.00"));
 
-        when(accountService.withdraw(any(Long.class), any(BigDecimal.class))).thenThrow(new InsufficientAmountException("Insufficient amount"));
+        when(accountService.withdraw(any(Long.class), any(Money.class))).thenThrow(new InsufficientAmountException("Insufficient amount"));
 
 
         RequestBuilder requestBuilder = put("/api/accounts/{id}/withdraw", 1L)
@@ -383,14 +387,30 @@ class AccountControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @DisplayName("測試-提款金額超過兩位小數-返回400且不呼叫服務")
+    void testWithdraw_whenAmountHasMoreThanTwoDecimals_thenReturns400BadRequest() throws Exception {
+        //Arrange
+        RequestBuilder requestBuilder = put("/api/accounts/{id}/withdraw", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content("{\"amount\": 10.005}");
+
+        //Act //Assert
+        mockMvc.perform(requestBuilder)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode", is("INVALID_AMOUNT")));
+        verify(accountService, never()).withdraw(any(Long.class), any(Money.class));
+    }
+
     @Test
     @DisplayName("測試-提款-AccountId不存在返回404NotFound")
     void testWithdraw_whenAccountIdDoesNotExist_thenReturns404NotFound() throws Exception {
         //Arrange
         AmountRequestDto amountRequestDto =
-                new AmountRequestDto(new BigDecimal("1000.00"));
+                new AmountRequestDto(Money.parse("1000.00"));
 
-        when(accountService.withdraw(any(Long.class),any(BigDecimal.class))).
+        when(accountService.withdraw(any(Long.class),any(Money.class))).
                 thenThrow(new AccountNotFoundException("Account does not exist"));
 
         RequestBuilder requestBuilder = put("/api/accounts/{id}/withdraw", 1L)
@@ -408,5 +428,44 @@ class AccountControllerTest {
 
     }
 
+    @Test
+    @DisplayName("測試-查詢帳戶-If-None-Match 與版本相同返回304")
+    void testGetAccountById_whenETagMatches_thenReturns304NotModified() throws Exception {
+        //Arrange
+        when(accountService.getAccountVersion(1L)).thenReturn(5L);
+
+        //Act //Assert
+        mockMvc.perform(get("/api/accounts/{id}", 1L).header("If-None-Match", "W/\"5\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "W/\"5\""));
+
+        verify(accountService, never()).getAccountById(any(Long.class));
+    }
+
+    @Test
+    @DisplayName("測試-查詢帳戶-版本已變更返回200與新的ETag")
+    void testGetAccountById_whenETagStale_thenReturns200WithETag() throws Exception {
+        //Arrange
+        when(accountService.getAccountVersion(1L)).thenReturn(6L);
+        when(accountService.getAccountById(1L)).thenReturn(accountDto);
 
-}
\ No newline at end of file
+        //Act //Assert
+        mockMvc.perform(get("/api/accounts/{id}", 1L).header("If-None-Match", "W/\"5\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"6\""))
+                .andExpect(jsonPath("$.id", is(1)));
+    }
+
+    @Test
+    @DisplayName("測試-交易紀錄第一頁-最新交易未變返回304")
+    void testFetchTransactions_whenLatestTransactionUnchanged_thenReturns304NotModified() throws Exception {
+        //Arrange
+        when(accountService.getLatestTransactionId(1L)).thenReturn(42L);
+
+        //Act //Assert
+        mockMvc.perform(get("/api/accounts/{id}/transactions", 1L).header("If-None-Match", "W/\"tx-42-3\""))
+                .andExpect(status().isNotModified());
+
+        verify(accountService, never()).getAccountTransactions(any(Long.class), any(Pageable.class));
+    }
+}
@@ -0,0 +1,96 @@
+package net.javaguides.banking.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.banking.metrics.SqlStatementHeaderAdvice;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * 各端點每個請求發出的 SQL 數量上限 (依 X-SQL-Count 標頭)。已登入的請求都包含 JWT 驗證時的一次使用者查詢。
+ * 出現 N+1 查詢或多餘的查詢時數量會超過上限而失敗；確實需要增加時，連同原因一起調整這裡的上限。
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class SqlStatementBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("測試-註冊與登入-SQL 數量不超過上限")
+    void testAuthEndpoints_StayWithinSqlBudget() throws Exception {
+        //Act //Assert
+        perform("signup", 1, 200, post("/api/auth/public/signup").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"budget\",\"email\":\"budget@example.com\",\"password\":\"secret12\",\"realName\":\"Budget\",\"role\":[\"user\"]}"));
+        String token = signin("budget", "secret12");
+        perform("user", 2, 200, get("/api/auth/user").header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+    }
+
+    @Test
+    @DisplayName("測試-帳戶操作-SQL 數量不超過上限且不隨交易筆數增加")
+    void testAccountEndpoints_StayWithinSqlBudget() throws Exception {
+        //Arrange
+        String token = "Bearer " + signin("user1", "password1");
+        long from = createAccount(token, "1000");
+        long to = createAccount(token, "10");
+
+        //Act //Assert
+        perform("get", 3, 200, get("/api/accounts/" + from).header(HttpHeaders.AUTHORIZATION, token));
+        perform("deposit", 3, 200, put("/api/accounts/" + from + "/deposit").header(HttpHeaders.AUTHORIZATION, token)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"amount\":10}"));
+        perform("withdraw", 3, 200, put("/api/accounts/" + from + "/withdraw").header(HttpHeaders.AUTHORIZATION, token)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"amount\":5}"));
+        perform("transfer", 7, 200, post("/api/accounts/transfer").header(HttpHeaders.AUTHORIZATION, token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fromAccountId\":" + from + ",\"toAccountId\":" + to + ",\"amount\":100}"));
+
+        // 交易紀錄以分頁查詢取得，筆數增加時 SQL 數量不變
+        String before = perform("transactions", 4, 200, get("/api/accounts/" + from + "/transactions")
+                .header(HttpHeaders.AUTHORIZATION, token)).getResponse().getHeader(SqlStatementHeaderAdvice.COUNT_HEADER);
+        for (int i = 0; i < 10; i++) {
+            perform("deposit", 3, 200, put("/api/accounts/" + from + "/deposit").header(HttpHeaders.AUTHORIZATION, token)
+                    .contentType(MediaType.APPLICATION_JSON).content("{\"amount\":1}"));
+        }
+        String after = perform("transactions", 4, 200, get("/api/accounts/" + from + "/transactions")
+                .header(HttpHeaders.AUTHORIZATION, token)).getResponse().getHeader(SqlStatementHeaderAdvice.COUNT_HEADER);
+        assertEquals(before, after, "交易紀錄的 SQL 數量隨筆數增加");
+    }
+
+    private String signin(String username, String password) throws Exception {
+        MvcResult result = perform("signin", 1, 200, post("/api/auth/public/signin").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"));
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("jwtToken").asText();
+    }
+
+    private long createAccount(String token, String balance) throws Exception {
+        MvcResult result = perform("create", 3, 201, post("/api/accounts").header(HttpHeaders.AUTHORIZATION, token)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"balance\":" + balance + "}"));
+        JsonNode account = objectMapper.readTree(result.getResponse().getContentAsString());
+        return account.get("id").asLong();
+    }
+
+    private MvcResult perform(String endpoint, int budget, int expectedStatus, MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        assertEquals(expectedStatus, result.getResponse().getStatus(), endpoint + " 回應狀態不符: " + result.getResponse().getContentAsString());
+        String count = result.getResponse().getHeader(SqlStatementHeaderAdvice.COUNT_HEADER);
+        assertNotNull(count, endpoint + " 缺少 " + SqlStatementHeaderAdvice.COUNT_HEADER + " 標頭");
+        assertTrue(Integer.parseInt(count) <= budget, endpoint + " 發出 " + count + " 條 SQL，超過上限 " + budget);
+        return result;
+    }
+}
@@ -0,0 +1,91 @@
+package net.javaguides.banking.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.javaguides.banking.dto.JfrDumpDTO;
+import net.javaguides.banking.exception.InsufficientAmountException;
+import net.javaguides.banking.money.Money;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContinuousRecordingTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ContinuousRecording recording;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        recording = new ContinuousRecording();
+        ReflectionTestUtils.setField(recording, "enabled", true);
+        ReflectionTestUtils.setField(recording, "settings", "default");
+        ReflectionTestUtils.setField(recording, "maxAgeMinutes", 5L);
+        ReflectionTestUtils.setField(recording, "maxSizeMb", 16L);
+        ReflectionTestUtils.setField(recording, "dumpDirectory", tempDir.toString());
+        ReflectionTestUtils.setField(recording, "maxDumps", 2);
+        recording.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        recording.stop();
+    }
+
+    @Test
+    @DisplayName("測試-傾印錄製-包含帳戶操作事件與其欄位")
+    void testDump_ContainsAccountOperationEvents() throws Exception {
+        //Arrange
+        AccountOperationEvent transfer = AccountOperationEvent.begin("transfer", 7L, 9L);
+        transfer.lockWaited(1_500);
+        transfer.lockWaited(500);
+        transfer.finish(Money.parse("12.50"), new InsufficientAmountException("Insufficient amount"));
+
+        //Act
+        JfrDumpDTO dump = recording.dump();
+
+        //Assert
+        List<RecordedEvent> events = RecordingFile.readAllEvents(Path.of(dump.file())).stream()
+                .filter(event -> event.getEventType().getName().equals("net.javaguides.banking.AccountOperation"))
+                .toList();
+        assertEquals(1, events.size());
+        RecordedEvent event = events.get(0);
+        assertEquals("transfer", event.getString("operation"));
+        assertEquals(7L, event.getLong("accountId"));
+        assertEquals(9L, event.getLong("targetAccountId"));
+        assertEquals("12.50", event.getString("amount"));
+        assertEquals(1, event.getInt("attempts"));
+        assertEquals(2_000, event.getDuration("lockWait").toNanos());
+        assertEquals("InsufficientAmountException", event.getString("outcome"));
+        assertEquals(Files.size(Path.of(dump.file())), dump.sizeBytes());
+    }
+
+    @Test
+    @DisplayName("測試-多次傾印-只保留最近 maxDumps 個檔案")
+    void testDump_DeletesOldDumps() throws Exception {
+        //Act
+        JfrDumpDTO first = recording.dump();
+        recording.dump();
+        JfrDumpDTO last = recording.dump();
+
+        //Assert
+        List<Path> dumps;
+        try (Stream<Path> files = Files.list(tempDir)) {
+            dumps = files.toList();
+        }
+        assertEquals(2, dumps.size());
+        assertFalse(Files.exists(Path.of(first.file())));
+        assertTrue(Files.exists(Path.of(last.file())));
+    }
+}
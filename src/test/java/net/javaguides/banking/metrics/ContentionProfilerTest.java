@@ -0,0 +1,145 @@
+package net.javaguides.banking.metrics;
+
+import net.javaguides.banking.dto.ContendedAccountDTO;
+import net.javaguides.banking.dto.ContentionReportDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentionProfilerTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    @DisplayName("測試-帳戶數超過容量-熱門帳戶仍留在前幾名")
+    void testReport_WhenManyAccounts_KeepsHotAccounts() {
+        //Arrange
+        // 帳戶 1、2 的次數超過總事件數 / 容量，保證留在表中；帳戶 3 則不保證
+        ContentionProfiler profiler = new ContentionProfiler(10, 1);
+        for (long id = 100; id < 1_000; id++) {
+            profiler.recordOptimisticConflict(id);
+            if (id % 5 == 0) {
+                profiler.recordOptimisticConflict(1L);
+                profiler.recordOptimisticConflict(2L);
+            }
+            if (id % 20 == 0) {
+                profiler.recordOptimisticConflict(3L);
+            }
+        }
+
+        //Act
+        ContentionReportDTO report = profiler.report(3);
+
+        //Assert
+        List<Long> ids = report.accounts().stream().map(ContendedAccountDTO::accountId).toList();
+        assertEquals(10, report.capacity());
+        assertEquals(900 + 180 + 180 + 45, report.totalEvents());
+        assertEquals(3, ids.size());
+        assertEquals(List.of(1L, 2L), ids.subList(0, 2).stream().sorted().toList(), "最熱門的帳戶應在前兩名: " + ids);
+        ContendedAccountDTO top = report.accounts().get(0);
+        assertTrue(top.events() - top.error() <= 180, "扣除誤差後不應超過實際次數");
+        assertTrue(top.events() >= 180, "回報次數不應低於實際次數");
+    }
+
+    @Test
+    @DisplayName("測試-鎖等待未達門檻-不算競爭事件")
+    void testRecordLockWait_BelowThreshold_NotTracked() {
+        //Arrange
+        ContentionProfiler profiler = new ContentionProfiler(5, 2);
+
+        //Act
+        profiler.recordLockWait(1L, MILLIS);
+
+        //Assert
+        ContentionReportDTO report = profiler.report(10);
+        assertEquals(0, report.totalEvents());
+        assertTrue(report.accounts().isEmpty());
+    }
+
+    @Test
+    @DisplayName("測試-已追蹤帳戶的鎖等待-回報百分位數")
+    void testReport_LockWaitPercentiles() {
+        //Arrange
+        ContentionProfiler profiler = new ContentionProfiler(5, 2);
+        profiler.recordOptimisticConflict(1L);
+        for (int i = 0; i < 98; i++) {
+            profiler.recordLockWait(1L, MILLIS);
+        }
+        profiler.recordLockWait(1L, 50 * MILLIS);
+        profiler.recordLockWait(1L, 400 * MILLIS);
+
+        //Act
+        ContendedAccountDTO account = profiler.report(1).accounts().get(0);
+
+        //Assert
+        assertEquals(1, account.optimisticConflicts());
+        assertEquals(100, account.lockWaits());
+        // 只有超過門檻的兩次等待算競爭事件
+        assertEquals(3, account.events());
+        assertEquals(1.0, account.lockWaitP50Ms(), 0.25);
+        assertEquals(50.0, account.lockWaitP99Ms(), 12.5);
+        assertEquals(400.0, account.lockWaitMaxMs(), 0.001);
+    }
+
+    @Test
+    @DisplayName("測試-多執行緒同時記錄-未發生取代時計數不遺失")
+    void testConcurrentRecords_WithoutEviction_AreExact() throws Exception {
+        //Arrange
+        ContentionProfiler profiler = new ContentionProfiler(10, 1);
+        int threads = 8;
+        int perThread = 5_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        //Act
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        long accountId = i % 4;
+                        profiler.recordLockWait(accountId, 2 * MILLIS);
+                        profiler.recordLockWait(accountId, MILLIS / 2);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        //Assert
+        ContentionReportDTO report = profiler.report(10);
+        assertEquals((long) threads * perThread, report.totalEvents());
+        assertEquals(4, report.accounts().size());
+        for (ContendedAccountDTO account : report.accounts()) {
+            assertEquals(threads * perThread / 4, account.events());
+            assertEquals(0, account.error());
+            // 每次先記錄超過門檻的等待，帳戶已被追蹤，之後未達門檻的樣本也會計入
+            assertEquals(threads * perThread / 2, account.lockWaits());
+        }
+    }
+
+    @Test
+    @DisplayName("測試-重設後-清空追蹤的帳戶")
+    void testReset_ClearsAccounts() {
+        //Arrange
+        ContentionProfiler profiler = new ContentionProfiler(5, 1);
+        profiler.recordOptimisticConflict(1L);
+
+        //Act
+        profiler.reset();
+
+        //Assert
+        assertEquals(0, profiler.report(10).totalEvents());
+        assertTrue(profiler.report(10).accounts().isEmpty());
+    }
+}
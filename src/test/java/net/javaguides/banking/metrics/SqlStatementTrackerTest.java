@@ -0,0 +1,66 @@
+package net.javaguides.banking.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlStatementTrackerTest {
+
+    @AfterEach
+    void tearDown() {
+        SqlStatementTracker.end();
+    }
+
+    @Test
+    @DisplayName("測試-慢查詢形狀-壓縮空白並縮寫參數清單")
+    void testShape_CollapsesWhitespaceAndParameterLists() {
+        //Arrange
+        String sql = "select a1_0.id\n  from accounts a1_0\n where a1_0.id in (?, ?,?) and a1_0.user_id=?";
+
+        //Act
+        String shape = SqlStatementTracker.shape(sql);
+
+        //Assert
+        assertEquals("select a1_0.id from accounts a1_0 where a1_0.id in (?*3) and a1_0.user_id=?", shape);
+        assertEquals(4, SqlStatementTracker.parameterCount(sql));
+    }
+
+    @Test
+    @DisplayName("測試-請求範圍內-計入 SQL 數量與執行時間")
+    void testStatements_WithinRequest_AreCounted() {
+        //Arrange
+        SqlStatementStats stats = SqlStatementTracker.begin();
+
+        //Act
+        new SqlStatementInspector().inspect("select 1");
+        SqlStatementTracker.statementExecuted(1_000);
+        new SqlStatementInspector().inspect("select 2");
+        SqlStatementTracker.statementExecuted(2_000);
+        SqlStatementTracker.end();
+        new SqlStatementInspector().inspect("select 3");
+
+        //Assert
+        assertEquals(2, stats.statements());
+        assertEquals(3_000, stats.executionNanos());
+        assertNull(SqlStatementTracker.current());
+    }
+
+    @Test
+    @DisplayName("測試-在其他執行緒執行-SQL 計入原請求")
+    void testPropagate_CountsStatementsOnOtherThread() throws Exception {
+        //Arrange
+        SqlStatementStats stats = SqlStatementTracker.begin();
+        Supplier<String> operation = SqlStatementTracker.propagate(() -> new SqlStatementInspector().inspect("select 1"));
+
+        //Act
+        CompletableFuture.supplyAsync(operation).get();
+
+        //Assert
+        assertEquals(1, stats.statements());
+    }
+}
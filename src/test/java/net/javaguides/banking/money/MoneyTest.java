@@ -0,0 +1,94 @@
+package net.javaguides.banking.money;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import net.javaguides.banking.dto.AmountRequestDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("測試-加減-以分為單位計算")
+    void testPlusMinus() {
+        Money balance = Money.parse("1000.00");
+
+        assertEquals(Money.ofMinor(100_050), balance.plus(Money.parse("0.50")));
+        assertEquals(Money.parse("-0.05"), Money.ZERO.minus(Money.parse("0.05")));
+        assertTrue(balance.minus(Money.parse("1000.01")).isLessThan(Money.ZERO));
+    }
+
+    @Test
+    @DisplayName("測試-溢位-拋出ArithmeticException而非繞回")
+    void testPlus_Overflow_Throws() {
+        Money max = Money.ofMinor(Long.MAX_VALUE);
+
+        assertThrows(ArithmeticException.class, () -> max.plus(Money.ofMinor(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MIN_VALUE).minus(Money.ofMinor(1)));
+    }
+
+    @Test
+    @DisplayName("測試-轉換-小數超過兩位或超出範圍時拒絕")
+    void testOf_RejectsScaleAndRange() {
+        assertEquals(Money.ofMinor(1050), Money.of(new BigDecimal("10.5")));
+        assertEquals(Money.ofMinor(1050), Money.of(new BigDecimal("10.5000")));
+        assertThrows(ArithmeticException.class, () -> Money.parse("10.005"));
+        assertThrows(ArithmeticException.class, () -> Money.parse("100000000000000000000"));
+        assertThrows(ArithmeticException.class, () -> Money.parse("0.001"));
+        assertEquals(Money.ZERO, Money.parse("0.000"));
+    }
+
+    @Test
+    @DisplayName("測試-轉換-指數極大或極小時不經 setScale 直接拒絕")
+    void testOf_HugeExponent_RejectsQuickly() {
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+            assertThrows(ArithmeticException.class, () -> Money.parse("1e20000000"));
+            assertThrows(ArithmeticException.class, () -> Money.parse("-1e20000000"));
+            assertThrows(ArithmeticException.class, () -> Money.parse("1e-20000000"));
+            assertThrows(InvalidFormatException.class,
+                    () -> objectMapper.readValue("{\"amount\":1e20000000}", AmountRequestDto.class));
+            assertThrows(InvalidFormatException.class,
+                    () -> objectMapper.readValue("{\"amount\":\"1e-20000000\"}", AmountRequestDto.class));
+        });
+        assertEquals(Money.ZERO, Money.parse("0e20000000"));
+    }
+
+    @Test
+    @DisplayName("測試-字串-固定兩位小數")
+    void testToString() {
+        assertEquals("0.00", Money.ZERO.toString());
+        assertEquals("1000.50", Money.parse("1000.5").toString());
+        assertEquals("-0.05", Money.ofMinor(-5).toString());
+        assertEquals("-12.30", Money.ofMinor(-1230).toString());
+        assertEquals(new BigDecimal("-12.30"), Money.ofMinor(-1230).toBigDecimal());
+    }
+
+    @Test
+    @DisplayName("測試-JSON-維持數字格式並可還原")
+    void testJson_RoundTrip() throws Exception {
+        String json = objectMapper.writeValueAsString(new AmountRequestDto(Money.parse("10.50")));
+
+        assertEquals("{\"amount\":10.50}", json);
+        assertEquals(Money.parse("10.50"), objectMapper.readValue(json, AmountRequestDto.class).amount());
+        assertEquals(Money.parse("10.00"), objectMapper.readValue("{\"amount\":10}", AmountRequestDto.class).amount());
+        assertEquals(Money.parse("10.25"), objectMapper.readValue("{\"amount\":\"10.25\"}", AmountRequestDto.class).amount());
+    }
+
+    @Test
+    @DisplayName("測試-JSON-小數超過兩位或超出範圍時拒絕")
+    void testJson_RejectsScaleAndRange() {
+        assertThrows(InvalidFormatException.class,
+                () -> objectMapper.readValue("{\"amount\":10.005}", AmountRequestDto.class));
+        assertThrows(InvalidFormatException.class,
+                () -> objectMapper.readValue("{\"amount\":92233720368547759}", AmountRequestDto.class));
+        assertThrows(InvalidFormatException.class,
+                () -> objectMapper.readValue("{\"amount\":\"abc\"}", AmountRequestDto.class));
+    }
+}
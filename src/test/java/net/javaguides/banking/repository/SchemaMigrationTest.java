@@ -0,0 +1,164 @@
+package net.javaguides.banking.repository;
+
+import net.javaguides.banking.entity.*;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.dialect.MySQLDialect;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 版本化遷移腳本。ddl-auto=validate 的整合測試只涵蓋 h2/ 的腳本，
+ * 這裡另外在 H2 的 MySQL 相容模式套用 mysql/ 的腳本，確認兩組腳本都能執行並建立相同的索引與限制。
+ */
+class SchemaMigrationTest {
+
+    @Test
+    @DisplayName("測試-MySQL 腳本-可依序套用並建立交易與擁有者索引")
+    void testMysqlMigrations_CreateIndexes() {
+        //Arrange
+        JdbcTemplate jdbc = database();
+
+        //Act
+        MigrateResult result = migrate(jdbc, "mysql");
+
+        //Assert
+        assertEquals(5, result.migrationsExecuted);
+        assertIndexes(jdbc);
+    }
+
+    @Test
+    @DisplayName("測試-H2 腳本-可依序套用並建立交易與擁有者索引")
+    void testH2Migrations_CreateIndexes() {
+        //Arrange
+        JdbcTemplate jdbc = database();
+
+        //Act
+        MigrateResult result = migrate(jdbc, "h2");
+
+        //Assert
+        assertEquals(5, result.migrationsExecuted);
+        assertIndexes(jdbc);
+    }
+
+    @Test
+    @DisplayName("測試-限制-拒絕負餘額、非正數金額與缺少帳戶的交易紀錄")
+    void testConstraints_RejectInvalidRows() {
+        for (String vendor : List.of("mysql", "h2")) {
+            //Arrange
+            JdbcTemplate jdbc = database();
+            migrate(jdbc, vendor);
+            jdbc.update("INSERT INTO roles (role_name) VALUES ('ROLE_USER')");
+            jdbc.update("INSERT INTO users (username, email, real_name, account_non_expired, account_non_locked, "
+                    + "credentials_non_expired, enabled, is_two_factor_enabled, role_id) "
+                    + "VALUES ('user1', 'user1@example.com', 'User One', true, true, true, true, false, 1)");
+
+            //Act //Assert
+            assertThrows(DataIntegrityViolationException.class,
+                    () -> jdbc.update("INSERT INTO accounts (balance_minor, user_id, version) VALUES (-1, 1, 0)"), vendor);
+            assertThrows(DataIntegrityViolationException.class,
+                    () -> jdbc.update("INSERT INTO transactions (account_id, amount, transaction_type, timestamp) "
+                            + "VALUES (1, 0, 'DEPOSIT', CURRENT_TIMESTAMP)"), vendor);
+            assertThrows(DataIntegrityViolationException.class,
+                    () -> jdbc.update("INSERT INTO transactions (amount, transaction_type, timestamp) "
+                            + "VALUES (10.00, 'DEPOSIT', CURRENT_TIMESTAMP)"), vendor);
+            assertThrows(DataIntegrityViolationException.class,
+                    () -> jdbc.update("INSERT INTO roles (role_name) VALUES ('ROLE_USER')"), vendor);
+            assertEquals(1, jdbc.update("INSERT INTO accounts (balance_minor, user_id, version) VALUES (0, 1, 0)"), vendor);
+        }
+    }
+
+    @Test
+    @DisplayName("測試-既有資料庫-以 V1 為基準升級後，遷移紀錄與實體對應都通過驗證")
+    void testPreFlywaySchema_BaselineMigrateValidate() {
+        //Arrange
+        JdbcTemplate jdbc = database();
+        new ResourceDatabasePopulator(new ClassPathResource("db/pre-flyway/mysql.sql")).execute(jdbc.getDataSource());
+        jdbc.update("INSERT INTO roles (role_name) VALUES ('ROLE_USER')");
+        jdbc.update("INSERT INTO users (username, email, real_name, account_non_expired, account_non_locked, "
+                + "credentials_non_expired, enabled, is_two_factor_enabled, role_id) "
+                + "VALUES ('user1', 'user1@example.com', 'User One', true, true, true, true, false, 1)");
+        jdbc.update("INSERT INTO accounts (balance, user_id, version) VALUES (12.34, 1, 0)");
+        Flyway flyway = Flyway.configure()
+                .dataSource(jdbc.getDataSource())
+                .locations("classpath:db/migration/mysql")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load();
+
+        //Act
+        MigrateResult result = flyway.migrate();
+
+        //Assert
+        assertEquals(4, result.migrationsExecuted);
+        assertTrue(flyway.validateWithResult().validationSuccessful);
+        assertDoesNotThrow(() -> validateEntities(jdbc));
+        assertEquals(1234L, jdbc.queryForObject("SELECT balance_minor FROM accounts", Long.class));
+        assertEquals(List.of("uk_users_email", "uk_users_username"), jdbc.queryForList(
+                "SELECT constraint_name FROM information_schema.table_constraints "
+                        + "WHERE table_name = 'users' AND constraint_type = 'UNIQUE' ORDER BY constraint_name", String.class));
+    }
+
+    private static JdbcTemplate database() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:migration-" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        return new JdbcTemplate(dataSource);
+    }
+
+    private static MigrateResult migrate(JdbcTemplate jdbc, String vendor) {
+        return Flyway.configure()
+                .dataSource(jdbc.getDataSource())
+                .locations("classpath:db/migration/" + vendor)
+                .load()
+                .migrate();
+    }
+
+    private static void assertIndexes(JdbcTemplate jdbc) {
+        List<String> columns = jdbc.queryForList("SELECT column_name FROM information_schema.index_columns "
+                + "WHERE index_name = 'idx_transactions_account_timestamp' ORDER BY ordinal_position", String.class);
+        assertEquals(List.of("account_id", "timestamp"), columns);
+        assertEquals(List.of("user_id"), jdbc.queryForList("SELECT column_name FROM information_schema.index_columns "
+                + "WHERE index_name = 'idx_accounts_user_id'", String.class));
+    }
+
+    /**
+     * 與應用程式相同的命名策略與 ddl-auto=validate 建立 SessionFactory，結構與實體不一致時拋出例外。
+     */
+    private static void validateEntities(JdbcTemplate jdbc) {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySettings(Map.of(
+                        AvailableSettings.DATASOURCE, jdbc.getDataSource(),
+                        AvailableSettings.DIALECT, MySQLDialect.class.getName(),
+                        AvailableSettings.HBM2DDL_AUTO, "validate",
+                        AvailableSettings.USE_SECOND_LEVEL_CACHE, false,
+                        AvailableSettings.PHYSICAL_NAMING_STRATEGY, CamelCaseToUnderscoresNamingStrategy.class.getName(),
+                        AvailableSettings.IMPLICIT_NAMING_STRATEGY, SpringImplicitNamingStrategy.class.getName()))
+                .build();
+        try {
+            new MetadataSources(registry)
+                    .addAnnotatedClasses(Account.class, CacheInvalidation.class, Role.class, Transaction.class, User.class)
+                    .buildMetadata()
+                    .buildSessionFactory()
+                    .close();
+        } finally {
+            StandardServiceRegistryBuilder.destroy(registry);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package net.javaguides.banking.security;
+
+import net.javaguides.banking.exception.PasswordHashingUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadPasswordEncoderTest {
+
+    private BulkheadPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        encoder.shutdown();
+    }
+
+    @Test
+    @DisplayName("測試-雜湊後比對-正確密碼通過、錯誤密碼失敗")
+    void testEncodeThenMatches() {
+        //Arrange
+        encoder = new BulkheadPasswordEncoder(new BCryptPasswordEncoder(4), 4, 1, 1, 3000);
+
+        //Act
+        String hash = encoder.encode("secret12");
+
+        //Assert
+        assertTrue(encoder.matches("secret12", hash));
+        assertFalse(encoder.matches("wrong", hash));
+    }
+
+    @Test
+    @DisplayName("測試-雜湊成本與設定不同-需要重新雜湊")
+    void testUpgradeEncoding_WhenStrengthChanged() {
+        //Arrange
+        encoder = new BulkheadPasswordEncoder(new BCryptPasswordEncoder(5), 5, 1, 1, 3000);
+        String oldHash = new BCryptPasswordEncoder(4).encode("secret12");
+
+        //Act & Assert
+        assertTrue(encoder.upgradeEncoding(oldHash));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret12")));
+        assertFalse(encoder.upgradeEncoding("not-a-bcrypt-hash"));
+    }
+
+    @Test
+    @DisplayName("測試-執行緒與佇列皆已滿-立即拒絕")
+    void testEncode_WhenSaturated_ThrowsUnavailable() throws Exception {
+        //Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        encoder = new BulkheadPasswordEncoder(blockingEncoder(started, release), 10, 1, 1, 5000);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        while (encoder.queueSize() == 0) {
+            Thread.onSpinWait();
+        }
+
+        //Act & Assert
+        assertThrows(PasswordHashingUnavailableException.class, () -> encoder.encode("c"));
+        release.countDown();
+        assertEquals("hash", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("測試-等待超過逾時-拒絕請求")
+    void testMatches_WhenTimeout_ThrowsUnavailable() {
+        //Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        encoder = new BulkheadPasswordEncoder(blockingEncoder(new CountDownLatch(1), release), 10, 1, 1, 50);
+
+        //Act & Assert
+        assertThrows(PasswordHashingUnavailableException.class, () -> encoder.matches("a", "hash"));
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("測試-排隊中的請求已逾時-不再執行雜湊")
+    void testMatches_ExpiredInQueue_SkipsHashing() throws Exception {
+        //Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger hashes = new AtomicInteger();
+        // 第一個請求的呼叫端逾時後會中斷工作執行緒，這裡忽略中斷，確保佔住唯一的執行緒直到 release
+        encoder = new BulkheadPasswordEncoder(new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                hashes.incrementAndGet();
+                started.countDown();
+                awaitUninterruptibly(release);
+                return true;
+            }
+        }, 10, 1, 1, 100);
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> encoder.matches("a", "hash"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        //Act
+        assertThrows(PasswordHashingUnavailableException.class, () -> encoder.matches("b", "hash"));
+        // 確認第一個呼叫端已逾時後才放行，否則它可能在醒來前看到已完成的結果
+        ExecutionException first = assertThrows(ExecutionException.class, () -> running.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(PasswordHashingUnavailableException.class, first.getCause());
+        release.countDown();
+
+        //Assert
+        while (encoder.queueSize() > 0) {
+            Thread.onSpinWait();
+        }
+        // 單一執行緒依序執行，這個請求完成時逾時的請求一定已經被處理過
+        assertTrue(encoder.matches("c", "hash"));
+        assertEquals(2, hashes.get(), "逾時的排隊請求不應執行雜湊");
+    }
+
+    private static PasswordEncoder blockingEncoder(CountDownLatch started, CountDownLatch release) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                await(release);
+                return "hash";
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                started.countDown();
+                await(release);
+                return true;
+            }
+        };
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
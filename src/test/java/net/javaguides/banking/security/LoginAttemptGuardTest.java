@@ -0,0 +1,139 @@
+package net.javaguides.banking.security;
+
+import net.javaguides.banking.exception.LoginThrottledException;
+import net.javaguides.banking.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class LoginAttemptGuardTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    private UserService userService;
+
+    private LoginAttemptGuard guard;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // 視窗 60 秒：每位使用者 3 次、每個 IP 10 次，達門檻時鎖定 15 分鐘
+        guard = new LoginAttemptGuard(60, 3, 10, 15, 1024, now::get);
+        userService = mock(UserService.class);
+        ObjectProvider<UserService> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(userService);
+        ReflectionTestUtils.setField(guard, "userService", provider);
+    }
+
+    @Test
+    @DisplayName("測試-同一使用者名稱失敗達門檻-驗證前拒絕")
+    void testCheckAllowed_UsernameOverThreshold_Throws() {
+        //Arrange
+        for (int i = 0; i < 3; i++) {
+            guard.checkAllowed("User1", "10.0.0." + i);
+            guard.recordFailure("User1", "10.0.0." + i);
+        }
+
+        //Act & Assert
+        LoginThrottledException exception = assertThrows(LoginThrottledException.class,
+                () -> guard.checkAllowed("user1", "10.0.0.99"));
+        assertTrue(exception.getRetryAfterSeconds() >= 1);
+        assertDoesNotThrow(() -> guard.checkAllowed("user2", "10.0.0.99"));
+    }
+
+    @Test
+    @DisplayName("測試-同一 IP 嘗試多個使用者名稱-達門檻後拒絕")
+    void testCheckAllowed_IpOverThreshold_Throws() {
+        //Arrange
+        for (int i = 0; i < 10; i++) {
+            guard.recordFailure("victim" + i, "192.168.1.1");
+        }
+
+        //Act & Assert
+        assertThrows(LoginThrottledException.class, () -> guard.checkAllowed("someone", "192.168.1.1"));
+        assertDoesNotThrow(() -> guard.checkAllowed("someone", "192.168.1.2"));
+    }
+
+    @Test
+    @DisplayName("測試-超過視窗時間-計數自動過期")
+    void testCheckAllowed_AfterWindow_Allowed() {
+        //Arrange
+        for (int i = 0; i < 3; i++) {
+            guard.recordFailure("user1", "10.0.0.1");
+        }
+        assertThrows(LoginThrottledException.class, () -> guard.checkAllowed("user1", "10.0.0.1"));
+
+        //Act
+        now.addAndGet(61_000L);
+
+        //Assert
+        assertDoesNotThrow(() -> guard.checkAllowed("user1", "10.0.0.1"));
+        assertEquals(0, guard.estimate("user1"));
+    }
+
+    @Test
+    @DisplayName("測試-登入成功-清除使用者名稱計數")
+    void testRecordSuccess_ResetsCounter() {
+        //Arrange
+        guard.recordFailure("user1", "10.0.0.1");
+        guard.recordFailure("user1", "10.0.0.1");
+
+        //Act
+        guard.recordSuccess("user1");
+
+        //Assert
+        assertEquals(0, guard.estimate("user1"));
+    }
+
+    @Test
+    @DisplayName("測試-失敗達門檻-鎖定至固定時間後，且只鎖定一次")
+    void testRepeatedFailures_LocksUserUntilExpiryOnce() {
+        //Arrange
+        LocalDateTime expectedUntil = LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(now.get() + 15 * 60_000L), ZoneId.systemDefault());
+        when(userService.lockUser("user1", expectedUntil)).thenReturn(true);
+
+        //Act
+        for (int i = 0; i < 5; i++) {
+            guard.recordFailure("user1", "10.0.0.1");
+        }
+
+        //Assert
+        verify(userService, times(1)).lockUser(eq("user1"), any(LocalDateTime.class));
+        verify(userService).lockUser("user1", expectedUntil);
+    }
+
+    @Test
+    @DisplayName("測試-被節流擋下的嘗試-不計入失敗次數也不觸發鎖定")
+    void testThrottledAttempts_AreNotCounted() {
+        //Arrange
+        for (int i = 0; i < 2; i++) {
+            guard.recordFailure("user1", "10.0.0.1");
+        }
+        for (int i = 0; i < 8; i++) {
+            guard.recordFailure("other" + i, "10.0.0.1");
+        }
+
+        //Act
+        for (int i = 0; i < 20; i++) {
+            assertThrows(LoginThrottledException.class, () -> guard.checkAllowed("user1", "10.0.0.1"));
+        }
+
+        //Assert
+        assertEquals(2, guard.estimate("user1"));
+        assertDoesNotThrow(() -> guard.checkAllowed("user1", "10.0.0.2"));
+        verify(userService, never()).lockUser(eq("user1"), any(LocalDateTime.class));
+    }
+}
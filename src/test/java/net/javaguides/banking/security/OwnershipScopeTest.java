@@ -0,0 +1,71 @@
+package net.javaguides.banking.security;
+
+import net.javaguides.banking.security.services.UserDetailsImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OwnershipScopeTest {
+
+    private final OwnershipScope ownershipScope = new OwnershipScope();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(ownershipScope, "fused", true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("測試-合併模式-一般使用者限定為自己的帳戶")
+    void testCurrentOwnerId_User_ReturnsUserId() {
+        authenticate(new UserDetailsImpl(7L, "user1", null, null, null, false, List.of()), "ROLE_USER");
+
+        assertEquals(7L, ownershipScope.currentOwnerId(true));
+    }
+
+    @Test
+    @DisplayName("測試-合併模式-ADMIN 不限擁有者 (僅限允許 ADMIN 的操作)")
+    void testCurrentOwnerId_Admin_ReturnsNullOnlyWhenAllowed() {
+        authenticate(new UserDetailsImpl(1L, "admin", null, null, null, false, List.of()), "ROLE_ADMIN");
+
+        assertNull(ownershipScope.currentOwnerId(true));
+        assertEquals(1L, ownershipScope.currentOwnerId(false));
+    }
+
+    @Test
+    @DisplayName("測試-合併模式-沒有登入資訊或無法取得使用者 ID 時拒絕，而非不限擁有者")
+    void testCurrentOwnerId_UnknownCaller_Throws() {
+        assertThrows(AuthenticationCredentialsNotFoundException.class, () -> ownershipScope.currentOwnerId(true));
+
+        authenticate("anonymous", "ROLE_USER");
+        assertThrows(AccessDeniedException.class, () -> ownershipScope.currentOwnerId(true));
+    }
+
+    @Test
+    @DisplayName("測試-未啟用合併模式-不限擁有者 (由授權階段檢查)")
+    void testCurrentOwnerId_NotFused_ReturnsNull() {
+        ReflectionTestUtils.setField(ownershipScope, "fused", false);
+
+        assertNull(ownershipScope.currentOwnerId(false));
+    }
+
+    private static void authenticate(Object principal, String role) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of(new SimpleGrantedAuthority(role))));
+    }
+}
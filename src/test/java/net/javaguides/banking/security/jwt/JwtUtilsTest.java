@@ -0,0 +1,166 @@
+package net.javaguides.banking.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.javaguides.banking.entity.AppRole;
+import net.javaguides.banking.metrics.BankingMetrics;
+import net.javaguides.banking.repository.AccountRepository;
+import net.javaguides.banking.repository.UserRepository;
+import net.javaguides.banking.security.services.UserDetailsImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class JwtUtilsTest {
+
+    private static final String SECRET =
+            "YmVzdC1zcHJpbmctYm9vdC1qd3QtYXBwbGljYXRpb24tZm9yLXlvdXQtdGhpcy1pcy1hLWtleS1mb3ItZGVtby1wdXJwb3Nlcy1vbmx5";
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Spy
+    private TokenRevocationRegistry revocationRegistry = new TokenRevocationRegistry();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private BankingMetrics metrics = new BankingMetrics(meterRegistry);
+
+    @InjectMocks
+    private JwtUtils jwtUtils;
+
+    private UserDetailsImpl user;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60_000);
+        ReflectionTestUtils.setField(jwtUtils, "statelessClaims", true);
+        ReflectionTestUtils.setField(jwtUtils, "maxAccountClaims", 2);
+        ReflectionTestUtils.setField(revocationRegistry, "jwtExpirationMs", 60_000L);
+        // 測試在啟動的同一秒內簽發 Token，不套用啟動時間的限制
+        ReflectionTestUtils.setField(revocationRegistry, "trustedSince", 0L);
+
+        user = new UserDetailsImpl(7L, "user1", "user1@example.com", "secret", "tommy", false,
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    @Test
+    @DisplayName("測試-Token 帶授權 claims-不查詢資料庫即可還原使用者")
+    void testGetUserDetailsFromClaims_WithStatelessClaims_ReturnsPrincipal() {
+        given(userRepository.findRoleNameByUserId(7L)).willReturn(Optional.of(AppRole.ROLE_USER));
+        given(accountRepository.findIdsByUserId(7L)).willReturn(List.of(1L, 3L));
+
+        String token = jwtUtils.generateTokenFromUsername(user);
+        Claims claims = jwtUtils.parseValidClaims(token);
+
+        UserDetailsImpl principal = jwtUtils.getUserDetailsFromClaims(claims);
+
+        assertNotNull(principal);
+        assertEquals(7L, principal.getId());
+        assertEquals("user1", principal.getUsername());
+        assertEquals(Set.of(1L, 3L), principal.getOwnedAccountIds());
+        assertEquals("ROLE_USER", principal.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    @DisplayName("測試-帳戶數超過上限-Token 不帶帳戶清單")
+    void testGenerateToken_WhenTooManyAccounts_OmitsAccountClaim() {
+        given(userRepository.findRoleNameByUserId(7L)).willReturn(Optional.of(AppRole.ROLE_USER));
+        given(accountRepository.findIdsByUserId(7L)).willReturn(List.of(1L, 2L, 3L));
+
+        Claims claims = jwtUtils.parseValidClaims(jwtUtils.generateTokenFromUsername(user));
+
+        UserDetailsImpl principal = jwtUtils.getUserDetailsFromClaims(claims);
+
+        assertNotNull(principal);
+        assertNull(principal.getOwnedAccountIds(), "帳戶清單過大時應改為查詢資料庫");
+    }
+
+    @Test
+    @DisplayName("測試-撤銷後-舊 Token 的授權 claims 失效，新 Token 有效")
+    void testGetUserDetailsFromClaims_AfterRevocation_ReturnsNull() {
+        given(userRepository.findRoleNameByUserId(7L)).willReturn(Optional.of(AppRole.ROLE_USER));
+        given(accountRepository.findIdsByUserId(7L)).willReturn(List.of(1L));
+
+        Claims oldClaims = jwtUtils.parseValidClaims(jwtUtils.generateTokenFromUsername(user));
+
+        revocationRegistry.revoke(7L);
+
+        assertNull(jwtUtils.getUserDetailsFromClaims(oldClaims));
+
+        Claims newClaims = jwtUtils.parseValidClaims(jwtUtils.generateTokenFromUsername(user));
+        assertNotNull(jwtUtils.getUserDetailsFromClaims(newClaims));
+    }
+
+    @Test
+    @DisplayName("測試-重啟前簽發的 Token-授權 claims 不被信任")
+    void testGetUserDetailsFromClaims_IssuedBeforeStartup_ReturnsNull() {
+        given(userRepository.findRoleNameByUserId(7L)).willReturn(Optional.of(AppRole.ROLE_USER));
+        given(accountRepository.findIdsByUserId(7L)).willReturn(List.of(1L));
+        Claims claims = jwtUtils.parseValidClaims(jwtUtils.generateTokenFromUsername(user));
+
+        // 模擬重啟：撤銷紀錄已遺失，紀元為 0
+        ReflectionTestUtils.setField(revocationRegistry, "trustedSince", claims.getIssuedAt().getTime() + 1000);
+
+        assertNull(jwtUtils.getUserDetailsFromClaims(claims));
+    }
+
+    @Test
+    @DisplayName("測試-未啟用授權 claims-回傳 null 交由資料庫載入")
+    void testGetUserDetailsFromClaims_WhenDisabled_ReturnsNull() {
+        ReflectionTestUtils.setField(jwtUtils, "statelessClaims", false);
+
+        Claims claims = jwtUtils.parseValidClaims(jwtUtils.generateTokenFromUsername(user));
+
+        assertEquals("user1", claims.getSubject());
+        assertNull(jwtUtils.getUserDetailsFromClaims(claims));
+    }
+
+    @Test
+    @DisplayName("測試-竄改過的 Token-驗證失敗")
+    void testValidateJwtToken_WhenMalformed_ReturnsFalse() {
+        assertFalse(jwtUtils.validateJwtToken("not-a-jwt"));
+    }
+
+    @Test
+    @DisplayName("測試-其他金鑰簽署的 Token-驗證失敗並記錄 invalid_signature")
+    void testParseValidClaims_WhenSignedWithOtherKey_RecordsInvalidSignature() {
+        //Arrange
+        byte[] otherKey = Decoders.BASE64.decode(SECRET);
+        otherKey[0] ^= 1;
+        String forged = Jwts.builder()
+                .subject("user1")
+                .signWith(Keys.hmacShaKeyFor(otherKey))
+                .compact();
+
+        //Act
+        Claims claims = jwtUtils.parseValidClaims(forged);
+
+        //Assert
+        assertNull(claims);
+        assertEquals(1.0, meterRegistry.get(BankingMetrics.JWT_VALIDATION).tag("outcome", "invalid_signature").counter().count());
+    }
+}
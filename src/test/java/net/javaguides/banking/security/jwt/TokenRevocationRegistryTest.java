@@ -0,0 +1,69 @@
+package net.javaguides.banking.security.jwt;
+
+import net.javaguides.banking.cache.CacheInvalidationBus;
+import net.javaguides.banking.cache.InvalidationEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationRegistryTest {
+
+    @Mock
+    private ObjectProvider<CacheInvalidationBus> invalidationBus;
+
+    @Mock
+    private CacheInvalidationBus bus;
+
+    private final TokenRevocationRegistry registry = new TokenRevocationRegistry();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(registry, "jwtExpirationMs", 60_000L);
+        ReflectionTestUtils.setField(registry, "invalidationBus", invalidationBus);
+        given(invalidationBus.getIfAvailable()).willReturn(bus);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    @DisplayName("測試-交易中撤銷-事件在提交前決定紀元，本節點提交後套用相同的紀元")
+    @SuppressWarnings("unchecked")
+    void testRevokeAfterCommit_PublishedEpochMatchesLocalEpoch() {
+        //Arrange
+        ArgumentCaptor<Supplier<InvalidationEvent>> event = ArgumentCaptor.forClass(Supplier.class);
+
+        //Act
+        registry.revokeAfterCommit(7L);
+        verify(bus).publishAfterCommit(event.capture());
+        // 資料表匯流排在提交前 (beforeCommit) 建立事件
+        InvalidationEvent published = event.getValue().get();
+        long beforeCommit = registry.currentEpoch(7L);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        //Assert
+        assertEquals(0L, beforeCommit);
+        assertEquals(InvalidationEvent.Type.USER_REVOKED, published.type());
+        assertEquals(published.version(), registry.currentEpoch(7L));
+        verify(bus, never()).publish(any());
+    }
+}
@@ -0,0 +1,56 @@
+package net.javaguides.banking.security.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GcraRateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    @DisplayName("測試-連續請求-通過 capacity 次後拒絕")
+    void testBurstThenReject() {
+        //Arrange
+        GcraRateLimiter limiter = new GcraRateLimiter(3, 1, 16);
+        long now = SECOND;
+
+        //Act & Assert
+        long first = limiter.tryAcquire(42L, now);
+        assertTrue(first > 0);
+        assertEquals(2, limiter.remaining(first));
+        assertTrue(limiter.tryAcquire(42L, now) > 0);
+        long third = limiter.tryAcquire(42L, now);
+        assertEquals(0, limiter.remaining(third));
+
+        long rejected = limiter.tryAcquire(42L, now);
+        assertTrue(rejected < 0);
+        assertEquals(SECOND, -rejected);
+    }
+
+    @Test
+    @DisplayName("測試-經過補充時間-再次通過")
+    void testRefill() {
+        //Arrange
+        GcraRateLimiter limiter = new GcraRateLimiter(1, 2, 16);
+        long now = SECOND;
+        assertTrue(limiter.tryAcquire(7L, now) > 0);
+        assertTrue(limiter.tryAcquire(7L, now) < 0);
+
+        //Act & Assert
+        assertTrue(limiter.tryAcquire(7L, now + SECOND / 2) > 0);
+    }
+
+    @Test
+    @DisplayName("測試-不同鍵-各自計算額度")
+    void testKeysAreIndependent() {
+        //Arrange
+        GcraRateLimiter limiter = new GcraRateLimiter(1, 1, 16);
+
+        //Act & Assert
+        assertTrue(limiter.tryAcquire(1L, SECOND) > 0);
+        assertTrue(limiter.tryAcquire(1L, SECOND) < 0);
+        assertTrue(limiter.tryAcquire(2L, SECOND) > 0);
+    }
+}
@@ -0,0 +1,116 @@
+package net.javaguides.banking.security.ratelimit;
+
+import net.javaguides.banking.security.services.UserDetailsImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private final AtomicLong now = new AtomicLong(5_000_000_000L);
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setSlots(1024);
+        properties.setPolicies(List.of(
+                policy("transfer", "/api/accounts/transfer", "POST", 2),
+                policy("public", "/api/auth/public/**", null, 1)));
+        filter = new RateLimitFilter(properties, now::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("測試-已登入使用者超過額度-回應 429 且不進入後續篩選器")
+    void testAuthenticatedUserOverLimit_Returns429() throws Exception {
+        //Arrange
+        authenticate(1L);
+
+        //Act
+        MockHttpServletResponse first = perform("POST", "/api/accounts/transfer", "10.0.0.1");
+        MockHttpServletResponse second = perform("POST", "/api/accounts/transfer", "10.0.0.2");
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse third = perform("POST", "/api/accounts/transfer", "10.0.0.3", chain);
+
+        //Assert
+        assertEquals(200, first.getStatus());
+        assertEquals("2", first.getHeader("RateLimit-Limit"));
+        assertEquals("1", first.getHeader("RateLimit-Remaining"));
+        assertEquals("0", second.getHeader("RateLimit-Remaining"));
+        assertEquals(429, third.getStatus());
+        assertEquals("1", third.getHeader("Retry-After"));
+        assertEquals("{\"status\":429,\"error\":\"Too Many Requests\",\"message\":\"Rate limit exceeded\"}",
+                third.getContentAsString());
+        assertNull(chain.getRequest());
+
+        // 其他使用者不受影響
+        authenticate(2L);
+        assertEquals(200, perform("POST", "/api/accounts/transfer", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    @DisplayName("測試-未登入請求-以來源 IP 計算")
+    void testAnonymousRequest_KeyedByIp() throws Exception {
+        //Act & Assert
+        assertEquals(200, perform("POST", "/api/auth/public/signin", "10.0.0.1").getStatus());
+        assertEquals(429, perform("POST", "/api/auth/public/signin", "10.0.0.1").getStatus());
+        assertEquals(200, perform("POST", "/api/auth/public/signin", "10.0.0.2").getStatus());
+    }
+
+    @Test
+    @DisplayName("測試-沒有符合的規則或方法不同-不限制也不加標頭")
+    void testUnmatchedRoute_PassesThrough() throws Exception {
+        //Act
+        MockHttpServletResponse response = perform("GET", "/api/accounts/transfer", "10.0.0.1");
+
+        //Assert
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader("RateLimit-Limit"));
+    }
+
+    private MockHttpServletResponse perform(String method, String uri, String remoteAddr) throws Exception {
+        return perform(method, uri, remoteAddr, new MockFilterChain());
+    }
+
+    private MockHttpServletResponse perform(String method, String uri, String remoteAddr, MockFilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static void authenticate(Long userId) {
+        UserDetailsImpl principal = UserDetailsImpl.fromClaims(userId, "user" + userId, "ROLE_USER", Set.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private static RateLimitProperties.Policy policy(String name, String path, String method, int capacity) {
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setName(name);
+        policy.setPath(path);
+        policy.setMethod(method);
+        policy.setCapacity(capacity);
+        policy.setRefillPerSecond(1);
+        return policy;
+    }
+}
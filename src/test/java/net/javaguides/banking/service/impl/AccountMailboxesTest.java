@@ -0,0 +1,170 @@
+package net.javaguides.banking.service.impl;
+
+import net.javaguides.banking.exception.AccountBusyException;
+import net.javaguides.banking.exception.InsufficientAmountException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountMailboxesTest {
+
+    private final AccountMailboxes mailboxes = new AccountMailboxes(1000);
+
+    private final ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        mailboxes.shutdown();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("測試-同一帳戶的操作依序執行-不會同時執行")
+    void testCall_SameAccount_RunsOneAtATime() throws Exception {
+        //Arrange
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+
+        //Act
+        for (int i = 0; i < 50; i++) {
+            results.add(CompletableFuture.supplyAsync(() -> mailboxes.call(1L, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.yield();
+                return running.decrementAndGet();
+            }), callers));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        //Assert
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    @DisplayName("測試-不同帳戶的操作平行執行")
+    void testCall_DifferentAccounts_RunInParallel() throws Exception {
+        //Arrange
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        //Act
+        CompletableFuture<Boolean> first = CompletableFuture.supplyAsync(() -> mailboxes.call(1L, () -> awaitBoth(bothStarted)), callers);
+        CompletableFuture<Boolean> second = CompletableFuture.supplyAsync(() -> mailboxes.call(2L, () -> awaitBoth(bothStarted)), callers);
+
+        //Assert
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("測試-操作完成後-閒置信箱被回收")
+    void testCall_WhenIdle_ReclaimsMailbox() throws Exception {
+        //Act
+        for (long accountId = 1; accountId <= 20; accountId++) {
+            mailboxes.call(accountId, () -> null);
+        }
+
+        //Assert
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (mailboxes.activeMailboxes() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(0, mailboxes.activeMailboxes());
+    }
+
+    @Test
+    @DisplayName("測試-雙向同時轉帳-依ID順序佔用信箱不會死鎖")
+    void testCall_OppositeTransfers_DoNotDeadlock() throws Exception {
+        //Arrange
+        AtomicInteger completed = new AtomicInteger();
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+
+        //Act
+        for (int i = 0; i < 200; i++) {
+            long from = i % 2 == 0 ? 1L : 2L;
+            long to = i % 2 == 0 ? 2L : 1L;
+            results.add(CompletableFuture.runAsync(() -> mailboxes.call(from, to, completed::incrementAndGet), callers));
+        }
+
+        //Assert
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        assertEquals(200, completed.get());
+    }
+
+    @Test
+    @DisplayName("測試-信箱排隊已滿-拋出AccountBusyException")
+    void testCall_WhenQueueFull_ThrowsAccountBusyException() throws Exception {
+        //Arrange
+        AccountMailboxes small = new AccountMailboxes(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Object> blocker = CompletableFuture.supplyAsync(() -> small.call(1L, () -> {
+            started.countDown();
+            awaitQuietly(release);
+            return null;
+        }), callers);
+        started.await(5, TimeUnit.SECONDS);
+        CompletableFuture<Object> queued = CompletableFuture.supplyAsync(() -> small.call(1L, () -> null), callers);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        AccountBusyException rejected = null;
+
+        //Act
+        while (rejected == null && System.nanoTime() < deadline) {
+            try {
+                CompletableFuture.supplyAsync(() -> small.call(1L, () -> null), callers).join();
+            } catch (Exception e) {
+                rejected = (AccountBusyException) e.getCause();
+            }
+        }
+        release.countDown();
+
+        //Assert
+        assertNotNull(rejected);
+        blocker.get(5, TimeUnit.SECONDS);
+        queued.get(5, TimeUnit.SECONDS);
+        small.shutdown();
+    }
+
+    @Test
+    @DisplayName("測試-操作拋出例外-原樣拋回呼叫端-並帶入呼叫端的SecurityContext")
+    void testCall_PropagatesExceptionAndSecurityContext() {
+        //Arrange
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("alice", null));
+
+        //Act
+        String name = mailboxes.call(1L, () -> SecurityContextHolder.getContext().getAuthentication().getName());
+
+        //Assert
+        assertEquals("alice", name);
+        assertThrows(InsufficientAmountException.class, () -> mailboxes.call(1L, () -> {
+            throw new InsufficientAmountException("Insufficient amount");
+        }));
+    }
+
+    private static boolean awaitBoth(CountDownLatch latch) {
+        latch.countDown();
+        return awaitQuietly(latch);
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package net.javaguides.banking.service.impl;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.javaguides.banking.cache.BalanceMirror;
+import net.javaguides.banking.cache.CacheInvalidationBus;
 import net.javaguides.banking.dto.AccountDto;
+import net.javaguides.banking.dto.BalanceDto;
 import net.javaguides.banking.dto.TransferFundDTO;
 import net.javaguides.banking.entity.Account;
 import net.javaguides.banking.entity.Transaction;
@@ -9,9 +13,14 @@ import net.javaguides.banking.exception.AccountException;
 import net.javaguides.banking.exception.AccountNotFoundException;
 import net.javaguides.banking.exception.InsufficientAmountException;
 import net.javaguides.banking.mapper.AccountMapper;
+import net.javaguides.banking.metrics.BankingMetrics;
+import net.javaguides.banking.metrics.ContentionProfiler;
+import net.javaguides.banking.money.Money;
 import net.javaguides.banking.repository.AccountRepository;
 import net.javaguides.banking.repository.TransactionRepository;
 import net.javaguides.banking.repository.UserRepository;
+import net.javaguides.banking.security.OwnershipScope;
+import net.javaguides.banking.security.jwt.TokenRevocationRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -19,8 +28,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -28,6 +40,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 
@@ -42,6 +55,22 @@ class AccountServiceImplTest {
     private UserRepository userRepository;
     @Mock
     private AccountMapper accountMapper;
+    @Mock
+    private TokenRevocationRegistry tokenRevocationRegistry;
+    // 使用真實物件：預設未啟用合併模式，不限定擁有者
+    @Spy
+    private OwnershipScope ownershipScope = new OwnershipScope();
+    @Mock
+    private BalanceMirror balanceMirror;
+    @Mock
+    private CacheInvalidationBus invalidationBus;
+    // 未設定行為時 TransactionTemplate 直接執行回呼，提交為空操作
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Spy
+    private BankingMetrics metrics = new BankingMetrics(new SimpleMeterRegistry());
+    @Spy
+    private ContentionProfiler contentionProfiler = new ContentionProfiler(10, 1);
 
     @InjectMocks
     private AccountServiceImpl accountService;
@@ -57,12 +86,12 @@ class AccountServiceImplTest {
         // 準備兩個帳戶用於轉帳測試
         fromAccount = new Account();
         fromAccount.setId(1L);
-        fromAccount.setBalance(new BigDecimal("1000.00"));
+        fromAccount.setBalance(Money.parse("1000.00"));
         fromAccount.setAccountHolderName("Sender");
 
         toAccount = new Account();
         toAccount.setId(2L);
-        toAccount.setBalance(new BigDecimal("500.00"));
+        toAccount.setBalance(Money.parse("500.00"));
         toAccount.setAccountHolderName("Receiver");
     }
 
@@ -74,13 +103,13 @@ class AccountServiceImplTest {
         when(accountRepository.findById(1L)).thenReturn(Optional.of(fromAccount));
 
         //Act //Assert
-        AccountDto accountDto = accountService.withdraw(1L, new BigDecimal("100.00"));
+        AccountDto accountDto = accountService.withdraw(1L, Money.parse("100.00"));
 
         ArgumentCaptor<Account> accountArgumentCaptor = ArgumentCaptor.forClass(Account.class);
 
         verify(accountRepository,times(1)).save(accountArgumentCaptor.capture());
 
-        assertEquals(0,new BigDecimal("900.00").compareTo(accountArgumentCaptor.getValue().getBalance()));
+        assertEquals(0,Money.parse("900.00").compareTo(accountArgumentCaptor.getValue().getBalance()));
 
         ArgumentCaptor<Transaction> transactionArgumentCaptor = ArgumentCaptor.forClass(Transaction.class);
 
@@ -102,7 +131,7 @@ class AccountServiceImplTest {
         when(accountRepository.findById(1L)).thenReturn(Optional.empty());
         //Act //Assert
         AccountNotFoundException accountNotFoundException =
-                assertThrows(AccountNotFoundException.class, () -> accountService.deposit(1L, new BigDecimal("1000.00")));
+                assertThrows(AccountNotFoundException.class, () -> accountService.deposit(1L, Money.parse("1000.00")));
         assertEquals("Account does not exist",accountNotFoundException.getMessage(),"回傳錯誤訊息不一致");
     }
 
@@ -115,7 +144,7 @@ class AccountServiceImplTest {
         Account account1 = new Account();
         account1.setId(1L);
         account1.setAccountHolderName("tom");
-        account1.setBalance(new BigDecimal("1000.00"));
+        account1.setBalance(Money.parse("1000.00"));
 
 
         when(accountRepository.findById(1L))
@@ -126,9 +155,12 @@ class AccountServiceImplTest {
 
         //Act //Assert
 
-        AccountException accountException = assertThrows(AccountException.class, () -> accountService.deposit(1L, new BigDecimal("1000")));
+        AccountException accountException = assertThrows(AccountException.class, () -> accountService.deposit(1L, Money.parse("1000")));
 
         assertEquals("存款操作因高併發衝突而失敗，請稍後再試。", accountException.getMessage(), "例外錯誤訊息不一致");
+        verify(metrics, times(2)).optimisticLockRetry("deposit");
+        verify(metrics).optimisticLockExhausted("deposit");
+        verify(contentionProfiler, times(3)).recordOptimisticConflict(1L);
 
     }
 
@@ -140,13 +172,13 @@ class AccountServiceImplTest {
         Account account1 = new Account();
         account1.setId(1L);
         account1.setAccountHolderName("tom");
-        account1.setBalance(new BigDecimal("1000.00"));
+        account1.setBalance(Money.parse("1000.00"));
 
 
         Account account2 = new Account();
         account2.setId(1L);
         account2.setAccountHolderName("tom");
-        account2.setBalance(new BigDecimal("1000.00"));
+        account2.setBalance(Money.parse("1000.00"));
 
         // 第一次呼叫 save() 時丟出樂觀鎖例外，第二次才成功
 
@@ -159,14 +191,14 @@ class AccountServiceImplTest {
                 .thenAnswer(invocation -> invocation.getArgument(0)); // 第二次成功回傳更新後的帳戶
 
         // Act
-        AccountDto resultDto = accountService.deposit(1L, new BigDecimal("500.00"));
+        AccountDto resultDto = accountService.deposit(1L, Money.parse("500.00"));
 
         // Assert
         ArgumentCaptor<Account> accountCaptor = ArgumentCaptor.forClass(Account.class);
         verify(accountRepository, times(2)).save(accountCaptor.capture()); // 確認有重試兩次
 
         Account lastSavedAccount = accountCaptor.getValue();
-        assertEquals(0, new BigDecimal("1500.00").compareTo(lastSavedAccount.getBalance()), "存款後餘額有誤");
+        assertEquals(0, Money.parse("1500.00").compareTo(lastSavedAccount.getBalance()), "存款後餘額有誤");
 
         // 驗證交易紀錄仍然有被建立一次
         ArgumentCaptor<Transaction> txCaptor = ArgumentCaptor.forClass(Transaction.class);
@@ -179,6 +211,38 @@ class AccountServiceImplTest {
 
     }
 
+    @Test
+    @DisplayName("測試-存款提交時發生樂觀鎖衝突-以新交易重試後成功")
+    void testDeposit_WhenConflictOnCommit_RetriesInNewTransaction() {
+
+        //Arrange
+        Account account1 = new Account();
+        account1.setId(1L);
+        account1.setBalance(Money.parse("1000.00"));
+        Account account2 = new Account();
+        account2.setId(1L);
+        account2.setBalance(Money.parse("1200.00"));
+
+        when(accountRepository.findById(1L))
+                .thenReturn(Optional.of(account1))
+                .thenReturn(Optional.of(account2));
+        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        // 版本衝突在提交 (flush) 時才拋出
+        doThrow(new ObjectOptimisticLockingFailureException(Account.class, 1L))
+                .doNothing()
+                .when(transactionManager).commit(any());
+
+        //Act
+        accountService.deposit(1L, Money.parse("100.00"));
+
+        //Assert
+        verify(transactionManager, times(2)).getTransaction(any());
+        ArgumentCaptor<Account> accountCaptor = ArgumentCaptor.forClass(Account.class);
+        verify(accountRepository, times(2)).save(accountCaptor.capture());
+        // 第二次以重新讀取的最新餘額計算
+        assertEquals(0, Money.parse("1300.00").compareTo(accountCaptor.getValue().getBalance()));
+    }
+
     @Test
     @DisplayName("測試-存款成功")
     void testDeposit_Success() {
@@ -188,13 +252,13 @@ class AccountServiceImplTest {
         Account account = new Account();
         account.setId(1L);
         account.setAccountHolderName("tom");
-        account.setBalance(new BigDecimal("1000.00"));
+        account.setBalance(Money.parse("1000.00"));
 
         when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
 
         //Act
 
-        AccountDto accountDto = accountService.deposit(1L, new BigDecimal("1000.00"));
+        AccountDto accountDto = accountService.deposit(1L, Money.parse("1000.00"));
 
         // Assert
 
@@ -204,7 +268,7 @@ class AccountServiceImplTest {
 
         Account value = accountArgumentCaptor.getValue();
 
-        assertEquals(new BigDecimal("2000.00"), value.getBalance(), "存款結算後金額有誤");
+        assertEquals(Money.parse("2000.00"), value.getBalance(), "存款結算後金額有誤");
 
         ArgumentCaptor<Transaction> transactionArgumentCaptor = ArgumentCaptor.forClass(Transaction.class);
 
@@ -226,7 +290,7 @@ class AccountServiceImplTest {
 
         Long fromAccountId = 1L;
         Long toAccountId = 2L;
-        BigDecimal transferAmount = new BigDecimal("200.00");
+        Money transferAmount = Money.parse("200.00");
 
         // 建立轉帳請求的 DTO
         TransferFundDTO transferFundDTO = new TransferFundDTO(fromAccountId, toAccountId, transferAmount);
@@ -251,7 +315,7 @@ class AccountServiceImplTest {
         //Arrange
         Long fromAccountId = 1L;
         Long toAccountId = 1L;
-        BigDecimal transferAmount = new BigDecimal("200.00");
+        Money transferAmount = Money.parse("200.00");
 
         // 建立轉帳請求的 DTO
         TransferFundDTO transferFundDTO = new TransferFundDTO(fromAccountId, toAccountId, transferAmount);
@@ -276,12 +340,12 @@ class AccountServiceImplTest {
         //Arrange
         Long fromAccountId = 1L;
         Long toAccountId = 2L;
-        BigDecimal transferAmount = new BigDecimal("200.00");
+        Money transferAmount = Money.parse("200.00");
 
         // 建立轉帳請求的 DTO
         TransferFundDTO transferFundDTO = new TransferFundDTO(fromAccountId, toAccountId, transferAmount);
 
-        fromAccount.setBalance(new BigDecimal("100.00"));
+        fromAccount.setBalance(Money.parse("100.00"));
 
         when(accountRepository.findByIdForUpdate(fromAccountId)).thenReturn(Optional.of(fromAccount));
 
@@ -306,7 +370,7 @@ class AccountServiceImplTest {
         //Arrange
         Long fromAccountId = 1L;
         Long toAccountId = 2L;
-        BigDecimal transferAmount = new BigDecimal("200.00");
+        Money transferAmount = Money.parse("200.00");
 
         // 1. 建立轉帳請求的 DTO
         TransferFundDTO transferFundDTO = new TransferFundDTO(fromAccountId, toAccountId, transferAmount);
@@ -340,8 +404,8 @@ class AccountServiceImplTest {
         assertNotNull(savedFromAccount, "沒有捕獲到轉出帳戶");
         assertNotNull(savedToAccount, "沒有捕獲到轉入帳戶");
 
-        assertEquals(0, new BigDecimal("800").compareTo(savedFromAccount.getBalance()));
-        assertEquals(0, new BigDecimal("700").compareTo(savedToAccount.getBalance()));
+        assertEquals(0, Money.parse("800").compareTo(savedFromAccount.getBalance()));
+        assertEquals(0, Money.parse("700").compareTo(savedToAccount.getBalance()));
 
         ArgumentCaptor<Transaction> transactionArgumentCaptor =
                 ArgumentCaptor.forClass(Transaction.class);
@@ -370,4 +434,87 @@ class AccountServiceImplTest {
 
     }
 
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("測試-合併擁有權檢查-查詢帳戶時帶上擁有者條件")
+    void testGetAccountById_WhenOwnershipFused_QueriesWithOwner() {
+        //Arrange
+        doReturn(10L).when(ownershipScope).currentOwnerId(true);
+        when(accountRepository.findByIdAndOwner(1L, 10L)).thenReturn(Optional.of(fromAccount));
+        when(accountMapper.mapTOAccountDto(fromAccount)).thenReturn(new AccountDto(1L, "Sender", fromAccount.getBalance()));
+
+        //Act
+        AccountDto accountDto = accountService.getAccountById(1L);
+
+        //Assert
+        assertEquals(1L, accountDto.id());
+        verify(accountRepository, never()).findById(any(Long.class));
+    }
+
+    @Test
+    @DisplayName("測試-合併擁有權檢查-非本人帳戶拋出 AccessDeniedException")
+    void testGetAccountById_WhenOwnershipFusedAndNotOwner_ThrowsAccessDenied() {
+        //Arrange
+        doReturn(10L).when(ownershipScope).currentOwnerId(true);
+        when(accountRepository.findByIdAndOwner(1L, 10L)).thenReturn(Optional.empty());
+        when(accountRepository.existsById(1L)).thenReturn(true);
+
+        //Act //Assert
+        assertThrows(AccessDeniedException.class, () -> accountService.getAccountById(1L));
+    }
+
+    @Test
+    @DisplayName("測試-合併擁有權檢查-轉出帳戶以擁有者條件鎖定")
+    void testTransferFunds_WhenOwnershipFused_LocksSourceWithOwner() {
+        //Arrange
+        doReturn(10L).when(ownershipScope).currentOwnerId(false);
+        when(accountRepository.findByIdAndOwnerForUpdate(1L, 10L)).thenReturn(Optional.of(fromAccount));
+        when(accountRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(toAccount));
+
+        //Act
+        accountService.transferFunds(new TransferFundDTO(1L, 2L, Money.parse("200.00")));
+
+        //Assert
+        verify(accountRepository, never()).findByIdForUpdate(1L);
+        assertEquals(0, Money.parse("800.00").compareTo(fromAccount.getBalance()));
+        assertEquals(0, Money.parse("700.00").compareTo(toAccount.getBalance()));
+    }
+
+    @Test
+    @DisplayName("測試-查詢餘額-鏡像命中時不查詢資料庫")
+    void testGetAccountBalance_WhenMirrorHit_SkipsRepository() {
+        //Arrange
+        when(balanceMirror.read(eq(1L), any(BalanceMirror.Entry.class))).thenAnswer(invocation -> {
+            BalanceMirror.Entry entry = invocation.getArgument(1);
+            entry.unscaledBalance = 100000L;
+            entry.version = 4L;
+            entry.ownerId = 10L;
+            return true;
+        });
+
+        //Act
+        BalanceDto balance = accountService.getAccountBalance(1L);
+
+        //Assert
+        assertEquals(Money.parse("1000.00"), balance.balance());
+        assertEquals(4L, balance.version());
+        verifyNoInteractions(accountRepository);
+    }
+
+    @Test
+    @DisplayName("測試-查詢餘額-鏡像未命中時查詢資料庫並回填")
+    void testGetAccountBalance_WhenMirrorMiss_LoadsAndBackfills() {
+        //Arrange
+        fromAccount.setVersion(2L);
+        when(balanceMirror.read(eq(1L), any(BalanceMirror.Entry.class))).thenReturn(false);
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(fromAccount));
+
+        //Act
+        BalanceDto balance = accountService.getAccountBalance(1L);
+
+        //Assert
+        assertEquals(0, Money.parse("1000.00").compareTo(balance.balance()));
+        assertEquals(2L, balance.version());
+        verify(balanceMirror).put(fromAccount);
+    }
+}
@@ -0,0 +1,80 @@
+package net.javaguides.banking.service.impl;
+
+import jakarta.persistence.EntityManagerFactory;
+import net.javaguides.banking.dto.CacheRegionStatsDTO;
+import net.javaguides.banking.dto.CacheStatisticsDTO;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CacheStatisticsServiceImpl 單元測試")
+class CacheStatisticsServiceImplTest {
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Statistics statistics;
+
+    @Mock
+    private CacheRegionStatistics accountRegion;
+
+    @InjectMocks
+    private CacheStatisticsServiceImpl cacheStatisticsService;
+
+    @BeforeEach
+    void setUp() {
+        given(entityManagerFactory.unwrap(SessionFactory.class)).willReturn(sessionFactory);
+        given(sessionFactory.getStatistics()).willReturn(statistics);
+    }
+
+    @Test
+    @DisplayName("測試-查詢快取統計-計算各區域命中率")
+    void testGetStatistics_ComputesRegionHitRatio() {
+        //Arrange
+        given(statistics.isStatisticsEnabled()).willReturn(true);
+        given(statistics.getSecondLevelCacheRegionNames()).willReturn(new String[]{"net.javaguides.banking.entity.Account", "missing"});
+        given(statistics.getCacheRegionStatistics("net.javaguides.banking.entity.Account")).willReturn(accountRegion);
+        given(statistics.getCacheRegionStatistics("missing")).willReturn(null);
+        given(accountRegion.getHitCount()).willReturn(3L);
+        given(accountRegion.getMissCount()).willReturn(1L);
+        given(accountRegion.getPutCount()).willReturn(1L);
+        given(accountRegion.getElementCountInMemory()).willReturn(Long.MIN_VALUE);
+
+        //Act
+        CacheStatisticsDTO result = cacheStatisticsService.getStatistics();
+
+        //Assert
+        assertTrue(result.statisticsEnabled());
+        assertEquals(1, result.regions().size(), "找不到統計資料的區域應略過");
+        CacheRegionStatsDTO region = result.regions().get(0);
+        assertEquals("net.javaguides.banking.entity.Account", region.region());
+        assertEquals(0.75, region.hitRatio(), 1e-9);
+        assertEquals(-1L, region.elementCountInMemory(), "不支援的數值以 -1 表示");
+    }
+
+    @Test
+    @DisplayName("測試-重設快取統計-呼叫 Statistics.clear")
+    void testClearStatistics_ClearsHibernateStatistics() {
+        //Act
+        cacheStatisticsService.clearStatistics();
+
+        //Assert
+        verify(statistics).clear();
+    }
+}
@@ -0,0 +1,79 @@
+package net.javaguides.banking.service.impl;
+
+import net.javaguides.banking.dto.AccountDto;
+import net.javaguides.banking.dto.TransferFundDTO;
+import net.javaguides.banking.exception.InsufficientAmountException;
+import net.javaguides.banking.money.Money;
+import net.javaguides.banking.service.AccountService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MailboxAccountServiceTest {
+
+    @Mock
+    private AccountService delegate;
+
+    private AccountMailboxes mailboxes;
+
+    private MailboxAccountService mailboxAccountService;
+
+    @BeforeEach
+    void setUp() {
+        mailboxes = new AccountMailboxes(10);
+        mailboxAccountService = new MailboxAccountService(delegate, mailboxes);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mailboxes.shutdown();
+    }
+
+    @Test
+    @DisplayName("測試-存款經由信箱執行-回傳委派結果")
+    void testDeposit_RunsThroughMailbox() {
+        //Arrange
+        AccountDto expected = new AccountDto(1L, "tommy", Money.parse("110"));
+        when(delegate.deposit(1L, Money.parse("10"))).thenAnswer(invocation -> {
+            assertTrue(Thread.currentThread().getName().startsWith("account-mailbox-"));
+            return expected;
+        });
+
+        //Act
+        AccountDto result = mailboxAccountService.deposit(1L, Money.parse("10"));
+
+        //Assert
+        assertEquals(expected, result);
+    }
+
+    @Test
+    @DisplayName("測試-轉帳失敗-例外原樣拋回")
+    void testTransferFunds_WhenDelegateFails_RethrowsException() {
+        //Arrange
+        TransferFundDTO transfer = new TransferFundDTO(2L, 1L, Money.parse("500"));
+        doThrow(new InsufficientAmountException("Insufficient amount")).when(delegate).transferFunds(transfer);
+
+        //Act //Assert
+        assertThrows(InsufficientAmountException.class, () -> mailboxAccountService.transferFunds(transfer));
+        verify(delegate).transferFunds(transfer);
+    }
+
+    @Test
+    @DisplayName("測試-查詢餘額不經過信箱")
+    void testGetAccountBalance_BypassesMailbox() {
+        //Act
+        mailboxAccountService.getAccountBalance(1L);
+
+        //Assert
+        verify(delegate).getAccountBalance(1L);
+        assertEquals(0, mailboxes.activeMailboxes());
+    }
+}
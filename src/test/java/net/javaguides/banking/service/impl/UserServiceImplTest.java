@@ -1,11 +1,17 @@
 package net.javaguides.banking.service.impl;
 
+import jakarta.persistence.EntityManager;
+import net.javaguides.banking.cache.UserIdentityBloomFilter;
 import net.javaguides.banking.dto.UserDTO;
 import net.javaguides.banking.entity.AppRole;
 import net.javaguides.banking.entity.Role;
 import net.javaguides.banking.entity.User;
+import net.javaguides.banking.exception.DuplicateUserException;
 import net.javaguides.banking.repository.RoleRepository;
 import net.javaguides.banking.repository.UserRepository;
+import net.javaguides.banking.security.LoginAttemptGuard;
+import net.javaguides.banking.security.jwt.TokenRevocationRegistry;
+import net.javaguides.banking.security.request.SignupRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,10 +20,13 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -37,6 +46,24 @@ class UserServiceImplTest {
     @Mock
     private RoleRepository roleRepository;
 
+    // @Mock: 建立 TokenRevocationRegistry 的模擬物件
+    @Mock
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    // @Mock: 建立 LoginAttemptGuard 的模擬物件
+    @Mock
+    private LoginAttemptGuard loginAttemptGuard;
+
+    // @Mock: 建立註冊用 Bloom filter、密碼編碼器與 EntityManager 的模擬物件
+    @Mock
+    private UserIdentityBloomFilter userIdentityBloomFilter;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private EntityManager entityManager;
+
     // @InjectMocks: 建立 UserServiceImpl 的實例，並將上述 @Mock 物件注入其中
     @InjectMocks
     private UserServiceImpl userService;
@@ -90,6 +117,8 @@ class UserServiceImplTest {
 
         // 斷言被儲存的使用者角色已更新為 ADMIN
         assertEquals(AppRole.ROLE_ADMIN, savedUser.getRole().getRoleName());
+        // 驗證舊 Token 的授權 claims 已被撤銷
+        verify(tokenRevocationRegistry, times(1)).revokeAfterCommit(userId);
     }
 
     @Test
@@ -213,4 +242,105 @@ class UserServiceImplTest {
 
         assertEquals("User not found with username: " + username, exception.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("測試 - 鎖定帳戶 (尚未鎖定時回傳 true，並撤銷既有 Token 的授權 claims)")
+    void testLockUser_Success() {
+        // Arrange
+        LocalDateTime lockedUntil = LocalDateTime.now().plusMinutes(15);
+        given(userRepository.lockByUsername("testUser", lockedUntil)).willReturn(1);
+        given(userRepository.findByUsername("testUser")).willReturn(Optional.of(testUser));
+
+        // Act & Assert
+        assertTrue(userService.lockUser("testUser", lockedUntil));
+        verify(tokenRevocationRegistry).revokeAfterCommit(1L);
+    }
+
+    @Test
+    @DisplayName("測試 - 解除鎖定並清除登入失敗計數")
+    void testUnlockUser_Success() {
+        // Arrange
+        testUser.setAccountNonLocked(false);
+        testUser.setLockedUntil(LocalDateTime.now().plusMinutes(15));
+        given(userRepository.findById(1L)).willReturn(Optional.of(testUser));
+
+        // Act
+        userService.unlockUser(1L);
+
+        // Assert
+        assertTrue(testUser.isAccountNonLocked());
+        assertNull(testUser.getLockedUntil());
+        verify(userRepository).save(testUser);
+        verify(loginAttemptGuard).reset("testUser");
+    }
+
+    @Test
+    @DisplayName("測試 - 註冊 (Bloom filter 判斷不存在) 只執行 INSERT")
+    void testRegisterUser_NotInBloomFilter_SavesWithoutLookups() {
+        // Arrange
+        SignupRequest request = signupRequest();
+        given(userIdentityBloomFilter.mightContainUsername("newUser")).willReturn(false);
+        given(userIdentityBloomFilter.mightContainEmail("new@example.com")).willReturn(false);
+        given(passwordEncoder.encode("secret12")).willReturn("hashed");
+        given(roleRepository.findAll()).willReturn(List.of(userRole, adminRole));
+        given(entityManager.getReference(Role.class, 1)).willReturn(userRole);
+        given(userRepository.save(any(User.class))).willAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        User saved = userService.registerUser(request);
+
+        // Assert
+        assertEquals("hashed", saved.getPassword());
+        assertEquals(userRole, saved.getRole());
+        verify(userRepository, never()).existsByUsername(any());
+        verify(userRepository, never()).existsByEmail(any());
+        verify(roleRepository, never()).findByRoleName(any());
+        verify(userIdentityBloomFilter).add("newUser", "new@example.com");
+    }
+
+    @Test
+    @DisplayName("測試 - 註冊失敗 (使用者名稱已存在) 不進行雜湊與 INSERT")
+    void testRegisterUser_UsernameTaken_ThrowsException() {
+        // Arrange
+        SignupRequest request = signupRequest();
+        given(userIdentityBloomFilter.mightContainUsername("newUser")).willReturn(true);
+        given(userRepository.existsByUsername("newUser")).willReturn(true);
+
+        // Act & Assert
+        DuplicateUserException exception = assertThrows(DuplicateUserException.class,
+                () -> userService.registerUser(request));
+        assertEquals("Error: Username is already taken!", exception.getMessage());
+        verify(passwordEncoder, never()).encode(any());
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("測試 - 註冊失敗 (違反 Email 唯一限制) 轉換為相同的錯誤訊息")
+    void testRegisterUser_EmailConstraintViolation_ThrowsException() {
+        // Arrange
+        SignupRequest request = signupRequest();
+        given(userIdentityBloomFilter.mightContainUsername("newUser")).willReturn(false);
+        given(userIdentityBloomFilter.mightContainEmail("new@example.com")).willReturn(false);
+        given(passwordEncoder.encode("secret12")).willReturn("hashed");
+        given(roleRepository.findAll()).willReturn(List.of(userRole, adminRole));
+        given(entityManager.getReference(Role.class, 1)).willReturn(userRole);
+        given(userRepository.save(any(User.class))).willThrow(new DataIntegrityViolationException(
+                "Duplicate entry 'new@example.com' for key 'users.uk_users_email'"));
+
+        // Act & Assert
+        DuplicateUserException exception = assertThrows(DuplicateUserException.class,
+                () -> userService.registerUser(request));
+        assertEquals("Error: Email is already in use!", exception.getMessage());
+        verify(userIdentityBloomFilter, never()).add(any(), any());
+    }
+
+    private SignupRequest signupRequest() {
+        SignupRequest request = new SignupRequest();
+        request.setUsername("newUser");
+        request.setEmail("new@example.com");
+        request.setPassword("secret12");
+        request.setRealName("New User");
+        request.setRole(Set.of("user"));
+        return request;
+    }
+}
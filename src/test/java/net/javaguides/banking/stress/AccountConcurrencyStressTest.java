@@ -0,0 +1,310 @@
+package net.javaguides.banking.stress;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.javaguides.banking.dto.BalanceDto;
+import net.javaguides.banking.dto.TransferFundDTO;
+import net.javaguides.banking.entity.Account;
+import net.javaguides.banking.entity.User;
+import net.javaguides.banking.exception.AccountBusyException;
+import net.javaguides.banking.exception.AccountException;
+import net.javaguides.banking.exception.InsufficientAmountException;
+import net.javaguides.banking.metrics.BankingMetrics;
+import net.javaguides.banking.money.Money;
+import net.javaguides.banking.repository.AccountRepository;
+import net.javaguides.banking.repository.UserRepository;
+import net.javaguides.banking.security.services.UserDetailsImpl;
+import net.javaguides.banking.service.AccountService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DeadlockLoserDataAccessException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 併發壓力測試：多執行緒對少數熱門帳戶隨機轉帳、存款與取款，直接經過真實的 Service、交易與資料庫鎖定
+ * (AccountServiceImplTest 以 mock 取代儲存庫，測不到轉帳的列鎖與存取款的樂觀鎖重試)。
+ *
+ * 結束後以 JDBC 直接讀取資料庫 (不經二級快取) 驗證：
+ * 總金額只隨成功的存款與取款變動、沒有負餘額、每個帳戶的交易紀錄加總等於餘額變動、
+ * 轉出與轉入紀錄成對，並確認餘額查詢 (鏡像 / 快取) 與資料庫一致。
+ *
+ * 預設不執行，以 mvn test -Pstress 執行；-Dstress.threads、-Dstress.operations、-Dstress.accounts 調整規模，
+ * -Dstress.accountExecution=mailbox 改測帳戶信箱模式。
+ */
+@Tag("stress")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stress;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "spring.app.concurrencyLimit.enabled=false",
+        "spring.app.accountExecution=${stress.accountExecution:database}",
+        "logging.level.net.javaguides=error"
+})
+@ActiveProfiles("h2")
+class AccountConcurrencyStressTest {
+
+    private static final int THREADS = Integer.getInteger("stress.threads", 16);
+
+    private static final int OPERATIONS = Integer.getInteger("stress.operations", 4000);
+
+    private static final int ACCOUNTS = Integer.getInteger("stress.accounts", 4);
+
+    private static final Money INITIAL_BALANCE = Money.parse("500.00");
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("壓力測試-熱門帳戶併發轉帳與存取款-總額守恆、無負餘額且交易紀錄與餘額一致")
+    void stressHotAccounts() throws Exception {
+        //Arrange
+        User owner = userRepository.findByUsername("user1").orElseThrow();
+        List<Long> accountIds = createAccounts(owner);
+        // 與真實請求相同以帳戶擁有者登入，查詢合併擁有權檢查時 (spring.app.fusedOwnershipCheck) 才找得到帳戶
+        Authentication authentication = authenticationOf(owner);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        Outcomes outcomes = new Outcomes();
+        double retriesBefore = counterTotal(BankingMetrics.OPTIMISTIC_LOCK_RETRIES);
+        double exhaustedBefore = counterTotal(BankingMetrics.OPTIMISTIC_LOCK_EXHAUSTED);
+
+        //Act
+        AtomicInteger next = new AtomicInteger();
+        long started = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    try {
+                        while (next.getAndIncrement() < OPERATIONS) {
+                            randomOperation(accountIds, outcomes);
+                        }
+                    } finally {
+                        SecurityContextHolder.clearContext();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        long retries = Math.round(counterTotal(BankingMetrics.OPTIMISTIC_LOCK_RETRIES) - retriesBefore);
+        long exhausted = Math.round(counterTotal(BankingMetrics.OPTIMISTIC_LOCK_EXHAUSTED) - exhaustedBefore);
+        report(outcomes, seconds, retries, exhausted);
+
+        //Assert
+        assertTrue(outcomes.unexpected.isEmpty(), "非預期的例外: " + outcomes.unexpected);
+        assertEquals(0, outcomes.count("transfer", DeadlockLoserDataAccessException.class.getSimpleName()),
+                "轉帳依帳戶 ID 順序鎖定，不應發生死結");
+        assertTrue(outcomes.count("transfer", "ok") > 0 && outcomes.count("deposit", "ok") > 0
+                && outcomes.count("withdraw", "ok") > 0, "各種操作都應有成功的次數");
+
+        Map<Long, BigDecimal> balances = balances(accountIds);
+        balances.forEach((id, balance) -> assertTrue(balance.signum() >= 0, "帳戶 " + id + " 餘額為負: " + balance));
+
+        BigDecimal expectedTotal = INITIAL_BALANCE.toBigDecimal().multiply(BigDecimal.valueOf(ACCOUNTS))
+                .add(outcomes.deposited()).subtract(outcomes.withdrawn());
+        BigDecimal total = balances.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(0, expectedTotal.compareTo(total), "總金額不守恆: 預期 " + expectedTotal + "，實際 " + total);
+
+        Map<Long, BigDecimal> ledger = ledgerDeltas(accountIds);
+        for (Long id : accountIds) {
+            BigDecimal expected = INITIAL_BALANCE.toBigDecimal().add(ledger.getOrDefault(id, BigDecimal.ZERO));
+            assertEquals(0, expected.compareTo(balances.get(id)),
+                    "帳戶 " + id + " 的交易紀錄加總 " + expected + " 與餘額 " + balances.get(id) + " 不符");
+        }
+
+        Map<String, Long> rows = transactionCounts(accountIds);
+        assertEquals(outcomes.count("deposit", "ok"), rows.getOrDefault("DEPOSIT", 0L), "存款紀錄筆數");
+        assertEquals(outcomes.count("withdraw", "ok"), rows.getOrDefault("WITHDRAW", 0L), "取款紀錄筆數");
+        assertEquals(outcomes.count("transfer", "ok"), rows.getOrDefault("TRANSFER_OUT", 0L), "轉出紀錄筆數");
+        assertEquals(outcomes.count("transfer", "ok"), rows.getOrDefault("TRANSFER_IN", 0L), "轉入紀錄筆數");
+
+        for (Long id : accountIds) {
+            BalanceDto balance = accountService.getAccountBalance(id);
+            assertEquals(0, balances.get(id).compareTo(balance.balance().toBigDecimal()), "帳戶 " + id + " 的餘額查詢與資料庫不一致");
+        }
+    }
+
+    private void randomOperation(List<Long> accountIds, Outcomes outcomes) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Long id = accountIds.get(random.nextInt(accountIds.size()));
+        // 1.00 ~ 100.00；取款比例高於存款，餘額會逐漸降低，餘額不足的路徑也會被執行
+        Money amount = Money.ofMinor(random.nextLong(100, 10_001));
+        int choice = random.nextInt(10);
+        if (choice < 5) {
+            Long to = accountIds.get(random.nextInt(accountIds.size() - 1));
+            Long target = to.equals(id) ? accountIds.get(accountIds.size() - 1) : to;
+            outcomes.run("transfer", amount, () -> accountService.transferFunds(new TransferFundDTO(id, target, amount)));
+        } else if (choice < 7) {
+            outcomes.run("deposit", amount, () -> accountService.deposit(id, amount));
+        } else {
+            outcomes.run("withdraw", amount, () -> accountService.withdraw(id, amount));
+        }
+    }
+
+    private static Authentication authenticationOf(User user) {
+        UserDetailsImpl userDetails = UserDetailsImpl.build(user);
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
+    private List<Long> createAccounts(User owner) {
+        List<Account> accounts = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add(new Account(null, owner.getRealName(), INITIAL_BALANCE, owner, null));
+        }
+        return accountRepository.saveAll(accounts).stream().map(Account::getId).toList();
+    }
+
+    private Map<Long, BigDecimal> balances(List<Long> accountIds) {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        jdbcTemplate.query("SELECT id, balance_minor FROM accounts WHERE id IN (" + placeholders(accountIds) + ")",
+                rs -> {
+                    balances.put(rs.getLong("id"), BigDecimal.valueOf(rs.getLong("balance_minor"), Money.SCALE));
+                }, accountIds.toArray());
+        return balances;
+    }
+
+    /**
+     * 各帳戶交易紀錄的淨額：存款與轉入為正，取款與轉出為負。
+     */
+    private Map<Long, BigDecimal> ledgerDeltas(List<Long> accountIds) {
+        Map<Long, BigDecimal> deltas = new HashMap<>();
+        jdbcTemplate.query("SELECT account_id, SUM(CASE WHEN transaction_type IN ('DEPOSIT', 'TRANSFER_IN') "
+                        + "THEN amount ELSE -amount END) AS delta FROM transactions "
+                        + "WHERE account_id IN (" + placeholders(accountIds) + ") GROUP BY account_id",
+                rs -> {
+                    deltas.put(rs.getLong("account_id"), rs.getBigDecimal("delta"));
+                }, accountIds.toArray());
+        return deltas;
+    }
+
+    private Map<String, Long> transactionCounts(List<Long> accountIds) {
+        Map<String, Long> counts = new HashMap<>();
+        jdbcTemplate.query("SELECT transaction_type, COUNT(*) AS rows_count FROM transactions "
+                        + "WHERE account_id IN (" + placeholders(accountIds) + ") GROUP BY transaction_type",
+                rs -> {
+                    counts.put(rs.getString("transaction_type"), rs.getLong("rows_count"));
+                }, accountIds.toArray());
+        return counts;
+    }
+
+    private double counterTotal(String name) {
+        return meterRegistry.find(name).counters().stream().mapToDouble(Counter::count).sum();
+    }
+
+    private void report(Outcomes outcomes, double seconds, long retries, long exhausted) {
+        System.out.printf("stress: %d threads, %d operations on %d accounts (%s mode)%n",
+                THREADS, OPERATIONS, ACCOUNTS, System.getProperty("stress.accountExecution", "database"));
+        System.out.printf("%-40s %10s%n", "outcome", "count");
+        new TreeMap<>(outcomes.counts).forEach((outcome, count) -> System.out.printf("%-40s %10d%n", outcome, count.sum()));
+        System.out.printf("throughput %.0f ops/s, optimistic lock retries %d, retries exhausted %d, lock failures %d, deadlocks %d%n",
+                OPERATIONS / seconds, retries, exhausted, outcomes.lockFailures.sum(),
+                outcomes.count("transfer", DeadlockLoserDataAccessException.class.getSimpleName()));
+    }
+
+    private static String placeholders(List<Long> ids) {
+        return ids.stream().map(id -> "?").collect(Collectors.joining(", "));
+    }
+
+    /**
+     * 各操作的結果次數與成功存取款的金額。
+     * 餘額不足、重試用盡、信箱已滿與取得列鎖失敗是高併發下預期的結果，其餘例外視為錯誤。
+     */
+    private static final class Outcomes {
+
+        final Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+
+        final Map<String, String> unexpected = new ConcurrentHashMap<>();
+
+        final LongAdder lockFailures = new LongAdder();
+
+        private final LongAdder depositedCents = new LongAdder();
+
+        private final LongAdder withdrawnCents = new LongAdder();
+
+        void run(String operation, Money amount, Runnable call) {
+            String outcome;
+            try {
+                call.run();
+                outcome = "ok";
+                if ("deposit".equals(operation)) {
+                    depositedCents.add(amount.minorUnits());
+                } else if ("withdraw".equals(operation)) {
+                    withdrawnCents.add(amount.minorUnits());
+                }
+            } catch (InsufficientAmountException | AccountBusyException e) {
+                outcome = e.getClass().getSimpleName();
+            } catch (AccountException e) {
+                // 樂觀鎖重試用盡
+                outcome = "RetriesExhausted";
+            } catch (PessimisticLockingFailureException e) {
+                lockFailures.increment();
+                outcome = e.getClass().getSimpleName();
+            } catch (RuntimeException e) {
+                outcome = e.getClass().getSimpleName();
+                unexpected.putIfAbsent(operation + "." + outcome, String.valueOf(e.getMessage()));
+            }
+            counts.computeIfAbsent(operation + "." + outcome, key -> new LongAdder()).increment();
+        }
+
+        long count(String operation, String outcome) {
+            LongAdder count = counts.get(operation + "." + outcome);
+            return count == null ? 0 : count.sum();
+        }
+
+        BigDecimal deposited() {
+            return BigDecimal.valueOf(depositedCents.sum(), 2);
+        }
+
+        BigDecimal withdrawn() {
+            return BigDecimal.valueOf(withdrawnCents.sum(), 2);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package net.javaguides.banking.tracing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollingFileSpanExporterTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("測試-匯出 span-每行一個 JSON 並保留父子關係與屬性")
+    void testExport_WritesOneJsonLinePerSpan() throws Exception {
+        //Arrange
+        RollingFileSpanExporter exporter = new RollingFileSpanExporter(directory.resolve("traces"), 1024 * 1024, 3);
+        SdkTracerProvider provider = SdkTracerProvider.builder().addSpanProcessor(SimpleSpanProcessor.create(exporter)).build();
+        Tracer tracer = provider.get("test");
+
+        //Act
+        Span parent = tracer.spanBuilder("http post /api/accounts/transfer").startSpan();
+        try (Scope ignored = parent.makeCurrent()) {
+            tracer.spanBuilder("jdbc execute").setAttribute("db.statement", "select * from accounts where id=?").startSpan().end();
+        }
+        parent.end();
+        provider.shutdown();
+
+        //Assert
+        List<String> lines = Files.readAllLines(directory.resolve("traces").resolve(RollingFileSpanExporter.ACTIVE_FILE));
+        assertEquals(2, lines.size());
+        JsonNode child = mapper.readTree(lines.get(0));
+        JsonNode root = mapper.readTree(lines.get(1));
+        assertEquals("jdbc execute", child.get("name").asText());
+        assertEquals("select * from accounts where id=?", child.get("attributes").get("db.statement").asText());
+        assertEquals(root.get("traceId").asText(), child.get("traceId").asText());
+        assertEquals(root.get("spanId").asText(), child.get("parentSpanId").asText());
+        assertFalse(root.has("parentSpanId"));
+    }
+
+    @Test
+    @DisplayName("測試-超過檔案大小-輪替並只保留 maxFiles 個舊檔")
+    void testExport_RollsAndDeletesOldFiles() throws Exception {
+        //Arrange
+        RollingFileSpanExporter exporter = new RollingFileSpanExporter(directory, 1, 2);
+        SdkTracerProvider provider = SdkTracerProvider.builder().addSpanProcessor(SimpleSpanProcessor.create(exporter)).build();
+        Tracer tracer = provider.get("test");
+
+        //Act
+        for (int i = 0; i < 10; i++) {
+            tracer.spanBuilder("span-" + i).startSpan().end();
+        }
+        provider.shutdown();
+
+        //Assert
+        List<String> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+        assertEquals(3, files.size(), files.toString());
+        assertTrue(files.contains(RollingFileSpanExporter.ACTIVE_FILE));
+        String newest = Files.readAllLines(directory.resolve(files.get(1))).get(0);
+        assertEquals("span-9", mapper.readTree(newest).get("name").asText());
+    }
+}
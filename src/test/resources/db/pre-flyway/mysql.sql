@@ -0,0 +1,10 @@
+-- 導入 Flyway 之前，以 spring.jpa.hibernate.ddl-auto=update (MySQLDialect) 建立的結構，供 SchemaMigrationTest 模擬既有資料庫。
+-- 由當時的實體產生，不可隨 V1 修改：兩者不一致時以此為準。
+create table accounts (balance decimal(38,2) not null, id bigint not null auto_increment, user_id bigint not null, version bigint, account_holder_name varchar(255), primary key (id)) engine=InnoDB;
+create table roles (role_id integer not null auto_increment, role_name enum ('ROLE_USER','ROLE_ADMIN'), primary key (role_id)) engine=InnoDB;
+create table transactions (amount decimal(38,2), account_id bigint, id bigint not null auto_increment, timestamp datetime(6), transaction_type enum ('DEPOSIT','WITHDRAW','TRANSFER_IN','TRANSFER_OUT'), primary key (id)) engine=InnoDB;
+create table users (account_expiry_date date, account_non_expired bit not null, account_non_locked bit not null, credentials_expiry_date date, credentials_non_expired bit not null, enabled bit not null, is_two_factor_enabled bit not null, role_id integer, created_date datetime(6), updated_date datetime(6), user_id bigint not null auto_increment, username varchar(20), email varchar(50), real_name varchar(100) not null, password varchar(120), sign_up_method varchar(255), two_factor_secret varchar(255), primary key (user_id)) engine=InnoDB;
+alter table users add constraint UKr43af9ap4edm43mmtq01oddj6 unique (username);
+alter table users add constraint UK6dotkott2kjsp8vw4d0m25fb7 unique (email);
+alter table accounts add constraint FKnjuop33mo69pd79ctplkck40n foreign key (user_id) references users (user_id);
+alter table users add constraint FKp56c1712k691lhsyewcssf40f foreign key (role_id) references roles (role_id);